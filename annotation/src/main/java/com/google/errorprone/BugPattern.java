@@ -179,4 +179,14 @@ public @interface BugPattern {
    * packages, so checks that operate at the package level need special treatment.
    */
   boolean documentSuppression() default true;
+
+  /**
+   * True if the check's findings in a compilation unit depend only on its source and on the
+   * declarations it refers to, so that they can be cached between compilations by {@code
+   * -XepResultCache}.
+   *
+   * <p>Checks that look at other compilation units, at the classpath as a whole, or at anything
+   * else that can change while a file and its dependencies stay the same must not set this.
+   */
+  boolean cacheSafe() default false;
 }
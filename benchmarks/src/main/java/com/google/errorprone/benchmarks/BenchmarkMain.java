@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.BugCheckerInfo;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks. This takes the same arguments as JMH's own launcher, with different
+ * defaults:
+ *
+ * <ul>
+ *   <li>results are written as JSON to {@code benchmarks.json}, unless {@code -rf} or {@code -rff}
+ *       say otherwise
+ *   <li>the GC profiler is enabled unless other profilers are requested with {@code -prof}, so the
+ *       results include the bytes allocated per operation ({@code gc.alloc.rate.norm})
+ *   <li>the forked JVMs can access javac's internals
+ * </ul>
+ *
+ * <p>{@code -p check=*} runs {@link CheckBenchmark} for every check that is enabled by default.
+ */
+public final class BenchmarkMain {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    if (commandLine.shouldHelp()) {
+      commandLine.showHelp();
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+    if (!commandLine.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      options.result("benchmarks.json");
+    }
+    if (commandLine.getProfilers().isEmpty()) {
+      options.addProfiler(GCProfiler.class);
+    }
+    List<String> jvmArgs = new ArrayList<>();
+    if (commandLine.getJvmArgsAppend().hasValue()) {
+      jvmArgs.addAll(commandLine.getJvmArgsAppend().get());
+    }
+    for (String javacPackage : Corpus.JAVAC_PACKAGES) {
+      jvmArgs.add("--add-exports=jdk.compiler/" + javacPackage + "=ALL-UNNAMED");
+    }
+    jvmArgs.add("--add-opens=jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED");
+    jvmArgs.add("--add-opens=jdk.compiler/com.sun.tools.javac.comp=ALL-UNNAMED");
+    options.jvmArgsAppend(jvmArgs.toArray(new String[0]));
+    if (commandLine.getParameter("check").hasValue()) {
+      Collection<String> checks = commandLine.getParameter("check").get();
+      if (checks.size() == 1 && checks.contains("*")) {
+        options.param("check", defaultChecks().toArray(new String[0]));
+      }
+    }
+
+    Runner runner = new Runner(options.build());
+    if (commandLine.shouldList()) {
+      runner.list();
+      return;
+    }
+    runner.run();
+  }
+
+  private static ImmutableList<String> defaultChecks() {
+    return BuiltInCheckerSuppliers.defaultChecks().getEnabledChecks().stream()
+        .map(BugCheckerInfo::canonicalName)
+        .sorted()
+        .collect(toImmutableList());
+  }
+
+  private BenchmarkMain() {}
+}
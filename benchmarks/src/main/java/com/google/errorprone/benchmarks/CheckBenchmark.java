@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.BugCheckerInfo;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.google.errorprone.scanner.ErrorProneScannerTransformer;
+import com.google.errorprone.scanner.ScannerSupplier;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the scanner running a single check.
+ *
+ * <p>By default this runs a handful of checks with different costs; pass {@code -p check=*} to
+ * {@link BenchmarkMain} to run every check that is enabled by default, or {@code -p check=Name}
+ * for specific checks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckBenchmark {
+
+  @Param({
+    "CheckReturnValue",
+    "FormatString",
+    "InconsistentCapitalization",
+    "MissingOverride",
+    "ReferenceEquality",
+    "ReturnValueIgnored",
+    "StringSplitter",
+    "UnnecessaryParentheses",
+    "UnusedVariable"
+  })
+  public String check;
+
+  private Corpus corpus;
+  private ErrorProneScannerTransformer transformer;
+
+  @Setup
+  public void setUp() {
+    corpus = Corpus.compile();
+    BugCheckerInfo info = BuiltInCheckerSuppliers.allChecks().getAllChecks().get(check);
+    checkArgument(info != null, "Unknown check: %s", check);
+    transformer =
+        ErrorProneScannerTransformer.create(
+            ScannerSupplier.fromBugCheckerInfos(ImmutableList.of(info))
+                .applyOverrides(ErrorProneOptions.empty())
+                .get());
+  }
+
+  @Benchmark
+  public int scan(NodeCounter counter) {
+    counter.nodes += corpus.nodes();
+    return corpus.scan(transformer);
+  }
+}
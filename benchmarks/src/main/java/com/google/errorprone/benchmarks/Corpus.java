@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.SubContext;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+/**
+ * A fixed set of compilation units, parsed and attributed once, for the benchmarks to analyze.
+ *
+ * <p>The corpus is made up of {@linkplain SyntheticSources generated sources}, which exercise a
+ * broad range of language features and library APIs, and copies of some of Error Prone's own
+ * sources, which are realistic in size and style.
+ */
+final class Corpus {
+
+  /** The packages of javac that Error Prone, and the real part of the corpus, use. */
+  static final ImmutableList<String> JAVAC_PACKAGES =
+      ImmutableList.of(
+          "com.sun.tools.javac.api",
+          "com.sun.tools.javac.code",
+          "com.sun.tools.javac.comp",
+          "com.sun.tools.javac.file",
+          "com.sun.tools.javac.main",
+          "com.sun.tools.javac.model",
+          "com.sun.tools.javac.parser",
+          "com.sun.tools.javac.processing",
+          "com.sun.tools.javac.tree",
+          "com.sun.tools.javac.util");
+
+  private static final int SYNTHETIC_FILES = 40;
+
+  private static final ImmutableList<String> REAL_SOURCES =
+      ImmutableList.of(
+          "com/google/errorprone/VisitorState.java",
+          "com/google/errorprone/dataflow/DataFlow.java",
+          "com/google/errorprone/fixes/SuggestedFixes.java",
+          "com/google/errorprone/matchers/Matchers.java",
+          "com/google/errorprone/scanner/ErrorProneScanner.java",
+          "com/google/errorprone/util/ASTHelpers.java",
+          "com/google/errorprone/util/Comments.java");
+
+  /**
+   * Parses and attributes the corpus.
+   *
+   * @throws IllegalStateException if it doesn't compile
+   */
+  static Corpus compile() {
+    List<JavaFileObject> sources = new ArrayList<>();
+    SyntheticSources.generate(SYNTHETIC_FILES)
+        .forEach((path, source) -> sources.add(new Source(path, source)));
+    for (String path : REAL_SOURCES) {
+      sources.add(new Source(path, readResource("corpus/" + path)));
+    }
+
+    List<String> options = new ArrayList<>();
+    options.add("-proc:none");
+    options.add("-XDcompilePolicy=simple");
+    options.add("--should-stop=ifError=FLOW");
+    options.add("-XDaddTypeAnnotationsToSymbol=true");
+    options.add("-classpath");
+    options.add(System.getProperty("java.class.path"));
+    for (String javacPackage : JAVAC_PACKAGES) {
+      options.add("--add-exports=jdk.compiler/" + javacPackage + "=ALL-UNNAMED");
+    }
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavacTaskImpl task =
+        (JavacTaskImpl)
+            JavacTool.create()
+                .getTask(
+                    /* out= */ null,
+                    /* fileManager= */ null,
+                    diagnostics,
+                    options,
+                    /* classes= */ null,
+                    sources);
+    ImmutableList<CompilationUnitTree> units;
+    try {
+      units = ImmutableList.copyOf(task.parse());
+      task.analyze();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    ImmutableList<Diagnostic<? extends JavaFileObject>> errors =
+        diagnostics.getDiagnostics().stream()
+            .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+            .collect(toImmutableList());
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException("The benchmark corpus doesn't compile: " + errors);
+    }
+
+    Context context = new SubContext(task.getContext());
+    context.put(ErrorProneOptions.class, ErrorProneOptions.empty());
+    return new Corpus(context, units);
+  }
+
+  private final Context context;
+  private final ImmutableList<CompilationUnitTree> units;
+  private final int nodes;
+
+  private Corpus(Context context, ImmutableList<CompilationUnitTree> units) {
+    this.context = context;
+    this.units = units;
+    this.nodes = paths(tree -> true).size();
+  }
+
+  /** The context of the compilation, set up as it would be for Error Prone. */
+  Context context() {
+    return context;
+  }
+
+  /** The number of trees in the corpus. */
+  int nodes() {
+    return nodes;
+  }
+
+  /** Returns the paths to every tree in the corpus that satisfies {@code predicate}, in order. */
+  ImmutableList<TreePath> paths(Predicate<? super Tree> predicate) {
+    ImmutableList.Builder<TreePath> paths = ImmutableList.builder();
+    for (CompilationUnitTree unit : units) {
+      new TreePathScanner<Void, Void>() {
+        @Override
+        public Void scan(Tree tree, Void unused) {
+          if (tree != null && predicate.test(tree)) {
+            paths.add(new TreePath(getCurrentPath(), tree));
+          }
+          return super.scan(tree, null);
+        }
+      }.scan(unit, null);
+    }
+    return paths.build();
+  }
+
+  /** Applies {@code transformer} to each compilation unit, and returns the number of findings. */
+  int scan(CodeTransformer transformer) {
+    int[] findings = {0};
+    for (CompilationUnitTree unit : units) {
+      transformer.apply(new TreePath(unit), context, description -> findings[0]++);
+    }
+    return findings[0];
+  }
+
+  private static String readResource(String name) {
+    try {
+      return Resources.toString(Resources.getResource(Corpus.class, name), UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static final class Source extends SimpleJavaFileObject {
+    private final String content;
+
+    Source(String path, String content) {
+      super(URI.create("corpus:///" + path), Kind.SOURCE);
+      this.content = content;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return content;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Dispatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Rule;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.google.errorprone.scanner.ErrorProneScanner;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.util.TreePath;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares running every built-in {@link MethodInvocationTreeMatcher} on each method invocation in
+ * the corpus with running only the candidates that a {@link Dispatcher} finds for it, as {@link
+ * ErrorProneScanner} does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+
+  /** Whether to run only the dispatcher's candidates, or every check. */
+  @Param({"dispatch", "all"})
+  public String matchers;
+
+  private VisitorState state;
+  private ImmutableList<TreePath> invocations;
+  private ImmutableList<MethodInvocationTreeMatcher> checks;
+  private Dispatcher<MethodInvocationTreeMatcher> dispatcher;
+
+  @Setup
+  public void setUp() {
+    Corpus corpus = Corpus.compile();
+    state = VisitorState.createForUtilityPurposes(corpus.context());
+    invocations = corpus.paths(tree -> tree instanceof MethodInvocationTree);
+    ErrorProneScanner scanner =
+        (ErrorProneScanner)
+            BuiltInCheckerSuppliers.allChecks().applyOverrides(ErrorProneOptions.empty()).get();
+    checks =
+        scanner.getBugCheckers().stream()
+            .filter(MethodInvocationTreeMatcher.class::isInstance)
+            .map(MethodInvocationTreeMatcher.class::cast)
+            .collect(toImmutableList());
+    // The same rules as ErrorProneScanner compiles.
+    ImmutableListMultimap.Builder<MethodInvocationTreeMatcher, Rule> rules =
+        ImmutableListMultimap.builder();
+    for (MethodInvocationTreeMatcher check : checks) {
+      ImmutableList<Optional<Rule>> declared =
+          check.methodInvocationMatchers().stream()
+              .map(MethodInvocationMatcher::necessaryRule)
+              .collect(toImmutableList());
+      if (!declared.isEmpty() && declared.stream().allMatch(Optional::isPresent)) {
+        declared.forEach(rule -> rules.put(check, rule.get()));
+      } else {
+        rules.put(check, Rule.create(ImmutableMap.of()));
+      }
+    }
+    dispatcher = MethodInvocationMatcher.compileDispatcher(rules.build());
+  }
+
+  @Benchmark
+  public int match(NodeCounter counter) {
+    boolean dispatch = matchers.equals("dispatch");
+    int matches = 0;
+    for (TreePath path : invocations) {
+      MethodInvocationTree tree = (MethodInvocationTree) path.getLeaf();
+      VisitorState stateWithPath = state.withPath(path);
+      List<MethodInvocationTreeMatcher> candidates =
+          dispatch ? dispatcher.candidates(tree, stateWithPath) : checks;
+      for (MethodInvocationTreeMatcher check : candidates) {
+        try {
+          if (check.matchMethodInvocation(tree, stateWithPath) != Description.NO_MATCH) {
+            matches++;
+          }
+        } catch (RuntimeException | AssertionError e) {
+          // Some checks rely on state that only the scanner sets up; the scanner reports these.
+        }
+      }
+    }
+    counter.nodes += invocations.size();
+    return matches;
+  }
+}
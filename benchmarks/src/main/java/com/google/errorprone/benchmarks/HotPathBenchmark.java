@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.errorprone.matchers.Matchers.anyOf;
+import static com.google.errorprone.matchers.Matchers.isSameType;
+import static com.google.errorprone.matchers.Matchers.isSubtypeOf;
+import static com.google.errorprone.matchers.method.MethodMatchers.instanceMethod;
+import static com.google.errorprone.matchers.method.MethodMatchers.staticMethod;
+import static com.google.errorprone.util.ASTHelpers.getType;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnalysis;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.code.Type;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the matching and analysis APIs that checks spend most of their time
+ * in, applied to every applicable tree in the corpus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotPathBenchmark {
+
+  private static final Matcher<ExpressionTree> METHOD_MATCHER =
+      anyOf(
+          instanceMethod().onDescendantOf("java.util.Collection").namedAnyOf("add", "contains"),
+          instanceMethod().onDescendantOf("java.util.Map").named("get"),
+          instanceMethod().onExactClass("java.lang.String").namedAnyOf("trim", "toLowerCase"),
+          staticMethod().onClass("com.google.common.base.Preconditions").named("checkNotNull"),
+          staticMethod().onClass("java.lang.String").named("format"));
+
+  private static final Matcher<ExpressionTree> TYPE_MATCHER =
+      anyOf(
+          isSubtypeOf("java.lang.Iterable"),
+          isSubtypeOf("java.util.Map"),
+          isSameType("java.lang.String"));
+
+  private Corpus corpus;
+  private VisitorState state;
+  private Type iterable;
+  private ImmutableList<TreePath> invocations;
+  private ImmutableList<TreePath> expressions;
+  private ImmutableList<TreePath> dataflowExpressions;
+
+  @Setup
+  public void setUp() {
+    corpus = Corpus.compile();
+    state = VisitorState.createForUtilityPurposes(corpus.context());
+    iterable = state.getTypeFromString("java.lang.Iterable");
+    invocations = corpus.paths(tree -> tree instanceof MethodInvocationTree);
+    expressions = corpus.paths(tree -> tree instanceof ExpressionTree && getType(tree) != null);
+    dataflowExpressions =
+        corpus.paths(tree -> tree instanceof IdentifierTree || tree instanceof MethodInvocationTree)
+            .stream()
+            .filter(HotPathBenchmark::inMethodBody)
+            .collect(toImmutableList());
+  }
+
+  /** {@link com.google.errorprone.matchers.method.MethodMatchers} on every method invocation. */
+  @Benchmark
+  public int methodMatchers(NodeCounter counter) {
+    return countMatches(METHOD_MATCHER, invocations, counter);
+  }
+
+  /** {@link com.google.errorprone.matchers.Matchers} on every typed expression. */
+  @Benchmark
+  public int typeMatchers(NodeCounter counter) {
+    return countMatches(TYPE_MATCHER, expressions, counter);
+  }
+
+  /** {@link ASTHelpers#isSubtype} on the type of every typed expression. */
+  @Benchmark
+  public int isSubtype(NodeCounter counter) {
+    int subtypes = 0;
+    for (TreePath path : expressions) {
+      if (ASTHelpers.isSubtype(getType(path.getLeaf()), iterable, state)) {
+        subtypes++;
+      }
+    }
+    counter.nodes += expressions.size();
+    return subtypes;
+  }
+
+  /**
+   * Nullness dataflow, which uses {@link
+   * com.google.errorprone.dataflow.DataFlow#expressionDataflow}, on every identifier and method
+   * invocation in a method body. Each control flow graph is built once per operation: they're
+   * cached for the compilation unit being analyzed, and the corpus has more than one.
+   */
+  @Benchmark
+  public int expressionDataflow(NodeCounter counter) {
+    NullnessAnalysis analysis = NullnessAnalysis.instance(corpus.context());
+    int hash = 0;
+    for (TreePath path : dataflowExpressions) {
+      hash += analysis.getNullness(path, corpus.context()).ordinal();
+    }
+    counter.nodes += dataflowExpressions.size();
+    return hash;
+  }
+
+  private int countMatches(
+      Matcher<ExpressionTree> matcher, ImmutableList<TreePath> paths, NodeCounter counter) {
+    int matches = 0;
+    for (TreePath path : paths) {
+      if (matcher.matches((ExpressionTree) path.getLeaf(), state.withPath(path))) {
+        matches++;
+      }
+    }
+    counter.nodes += paths.size();
+    return matches;
+  }
+
+  private static boolean inMethodBody(TreePath path) {
+    for (TreePath p = path; p != null; p = p.getParentPath()) {
+      Tree parent = p.getParentPath() == null ? null : p.getParentPath().getLeaf();
+      if (parent instanceof MethodTree method) {
+        return p.getLeaf() == method.getBody();
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.JavacInvocationInstance;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.suppliers.Supplier;
+import com.google.errorprone.suppliers.Suppliers;
+import com.sun.tools.javac.code.Type;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading types through {@link VisitorState#memoize} with the synchronized,
+ * soft-referenced cache that it replaced.
+ *
+ * <p>Each operation reads a few hundred memoized types, as the matchers of a typical set of checks
+ * would when visiting a tree. It runs on several threads, as with {@code -XepParallelism}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MemoizeBenchmark {
+
+  private static final ImmutableList<String> TYPES =
+      ImmutableList.of(
+          "java.lang.Object",
+          "java.lang.String",
+          "java.lang.Integer",
+          "java.lang.Iterable",
+          "java.util.List",
+          "java.util.Map",
+          "java.util.Set",
+          "java.util.Optional",
+          "java.util.function.Function",
+          "java.util.concurrent.Future");
+
+  private static final int SUPPLIERS = 500;
+
+  @Param({"memoize", "legacy"})
+  public String implementation;
+
+  private VisitorState state;
+  private ImmutableList<Supplier<Type>> suppliers;
+
+  @Setup
+  public void setUp() {
+    state = VisitorState.createForUtilityPurposes(Corpus.compile().context());
+    ImmutableList.Builder<Supplier<Type>> builder = ImmutableList.builder();
+    for (int i = 0; i < SUPPLIERS; i++) {
+      String type = TYPES.get(i % TYPES.size());
+      builder.add(
+          switch (implementation) {
+            case "memoize" -> Suppliers.typeFromString(type);
+            case "legacy" -> new LegacyCache<>(s -> s.getTypeFromString(type));
+            default -> throw new IllegalArgumentException(implementation);
+          });
+    }
+    suppliers = builder.build();
+    // Resolve every type up front, on this thread, since javac's symbol table isn't thread-safe.
+    for (Supplier<Type> supplier : suppliers) {
+      var unused = supplier.get(state);
+    }
+  }
+
+  @Benchmark
+  public int get() {
+    int hash = 0;
+    for (Supplier<Type> supplier : suppliers) {
+      hash += System.identityHashCode(supplier.get(state));
+    }
+    return hash;
+  }
+
+  /** The implementation of {@link VisitorState#memoize} before values were held per invocation. */
+  private static final class LegacyCache<T> implements Supplier<T> {
+    private final Supplier<T> impl;
+    private SoftReference<T> cache = new SoftReference<>(null);
+    private JavacInvocationInstance provenance;
+
+    LegacyCache(Supplier<T> impl) {
+      this.impl = impl;
+    }
+
+    @Override
+    public synchronized T get(VisitorState state) {
+      T value = cache.get();
+      JavacInvocationInstance current = JavacInvocationInstance.instance(state.context);
+      if (value == null || provenance != current) {
+        value = impl.get(state);
+        cache = new SoftReference<>(value);
+        provenance = current;
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.google.errorprone.scanner.ErrorProneScannerTransformer;
+import com.google.errorprone.scanner.ScannerSupplier;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the throughput of the whole scanner, running one of the built-in sets of checks. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScannerBenchmark {
+
+  /** The set of checks to run, as in {@link BuiltInCheckerSuppliers}. */
+  @Param({"default", "errors", "warnings", "all"})
+  public String checks;
+
+  private Corpus corpus;
+  private ErrorProneScannerTransformer transformer;
+
+  @Setup
+  public void setUp() {
+    corpus = Corpus.compile();
+    ScannerSupplier scannerSupplier =
+        switch (checks) {
+          case "default" -> BuiltInCheckerSuppliers.defaultChecks();
+          case "errors" -> BuiltInCheckerSuppliers.errorChecks();
+          case "warnings" -> BuiltInCheckerSuppliers.warningChecks();
+          case "all" -> BuiltInCheckerSuppliers.allChecks();
+          default -> throw new IllegalArgumentException("Unknown set of checks: " + checks);
+        };
+    transformer =
+        ErrorProneScannerTransformer.create(
+            scannerSupplier.applyOverrides(ErrorProneOptions.empty()).get());
+  }
+
+  @Benchmark
+  public int scan(NodeCounter counter) {
+    counter.nodes += corpus.nodes();
+    return corpus.scan(transformer);
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Generates the synthetic part of the benchmark corpus.
+ *
+ * <p>Each file is a variation on the same template, which covers the constructs that checks most
+ * often look at: method invocations on common library types, string formatting, boxing, equality,
+ * lambdas and streams, exceptions, switches, nested and local classes, and so on. Each class also
+ * calls into the next, so that attribution crosses files. The output only depends on the number of
+ * files, so results are comparable between runs.
+ */
+final class SyntheticSources {
+
+  private static final String TEMPLATE =
+      """
+      package corpus.synthetic;
+
+      import com.google.common.base.Preconditions;
+      import com.google.common.collect.ImmutableList;
+      import java.io.IOException;
+      import java.io.StringReader;
+      import java.util.ArrayList;
+      import java.util.HashMap;
+      import java.util.List;
+      import java.util.Map;
+      import java.util.Objects;
+      import java.util.Optional;
+      import java.util.function.Function;
+      import java.util.stream.Collectors;
+
+      public class Synthetic%1$d {
+        private static final int LIMIT = %1$d;
+
+        private final Map<String, List<Integer>> values = new HashMap<>();
+        private String name;
+        private Long total = 0L;
+
+        public Synthetic%1$d(String name) {
+          this.name = Preconditions.checkNotNull(name);
+        }
+
+        public enum Mode {
+          FIRST,
+          SECOND,
+          THIRD
+        }
+
+        public record Pair(String key, int value) {}
+
+        public interface Visitor<R> {
+          R visit(Pair pair);
+        }
+
+        public int sum(List<Integer> xs) {
+          int result = 0;
+          for (int i = 0; i < xs.size(); i++) {
+            result += xs.get(i);
+          }
+          for (Integer x : xs) {
+            if (x == null) {
+              continue;
+            }
+            total += x;
+          }
+          return result;
+        }
+
+        public String describe(Mode mode, Object other) {
+          String prefix =
+              switch (mode) {
+                case FIRST -> "first";
+                case SECOND -> "second";
+                case THIRD -> "third";
+              };
+          if (prefix == "first" || other.equals(name)) {
+            return String.format("%%s: %%s (%%d)", prefix, other, LIMIT);
+          }
+          StringBuilder sb = new StringBuilder();
+          sb.append(prefix).append(':').append(other.toString());
+          return sb.toString();
+        }
+
+        public List<String> keys(int minimum) {
+          return values.entrySet().stream()
+              .filter(e -> e.getValue().size() >= minimum)
+              .map(Map.Entry::getKey)
+              .sorted()
+              .collect(Collectors.toList());
+        }
+
+        public Optional<Pair> largest() {
+          Pair best = null;
+          for (Map.Entry<String, List<Integer>> entry : values.entrySet()) {
+            int value = sum(entry.getValue());
+            if (best == null || value > best.value()) {
+              best = new Pair(entry.getKey(), value);
+            }
+          }
+          return Optional.ofNullable(best);
+        }
+
+        public <R> List<R> visitAll(Visitor<R> visitor) {
+          List<R> results = new ArrayList<>();
+          for (String key : keys(0)) {
+            results.add(visitor.visit(new Pair(key, values.get(key).size())));
+          }
+          return results;
+        }
+
+        public void add(String key, int value) {
+          values.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+          name.toLowerCase();
+        }
+
+        public int read(String text) {
+          try (StringReader reader = new StringReader(text)) {
+            int count = 0;
+            while (reader.read() != -1) {
+              count++;
+            }
+            return count;
+          } catch (IOException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+
+        public long parse(String text) {
+          try {
+            return Long.parseLong(text.trim());
+          } catch (NumberFormatException e) {
+            return -1;
+          }
+        }
+
+        public Function<Integer, String> formatter() {
+          int offset = LIMIT;
+          return x -> Integer.toString(x + offset);
+        }
+
+        public ImmutableList<String> names(Synthetic%2$d next) {
+          ImmutableList.Builder<String> builder = ImmutableList.builder();
+          builder.add(name);
+          builder.add(next.describe(Mode.SECOND, this));
+          return builder.build();
+        }
+
+        public Runnable task() {
+          return new Runnable() {
+            @Override
+            public void run() {
+              add(name, LIMIT);
+            }
+          };
+        }
+
+        public int compare(Integer a, Integer b) {
+          if (a == b) {
+            return 0;
+          }
+          return a < b ? -1 : 1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+          if (!(o instanceof Synthetic%1$d that)) {
+            return false;
+          }
+          return Objects.equals(name, that.name) && values.equals(that.values);
+        }
+
+        @Override
+        public int hashCode() {
+          return Objects.hash(name, values);
+        }
+
+        @Override
+        public String toString() {
+          return "Synthetic%1$d{name=" + name + ", total=" + total + "}";
+        }
+      }
+      """;
+
+  /** Returns the sources of {@code count} files, keyed by their path. */
+  static ImmutableMap<String, String> generate(int count) {
+    ImmutableMap.Builder<String, String> sources = ImmutableMap.builder();
+    for (int i = 0; i < count; i++) {
+      sources.put(
+          "corpus/synthetic/Synthetic" + i + ".java", TEMPLATE.formatted(i, (i + 1) % count));
+    }
+    return sources.buildOrThrow();
+  }
+
+  private SyntheticSources() {}
+}
@@ -20,15 +20,18 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.BugPattern.LinkType;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.scanner.BugCheckerRegistry;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -84,7 +87,14 @@ public final class BugCheckerInfo implements Serializable {
   /** True if the check can be disabled using command-line flags. */
   private final boolean disableable;
 
+  /** True if the check's findings may be replayed from {@code -XepResultCache}. */
+  private final boolean cacheSafe;
+
   public static BugCheckerInfo create(Class<? extends BugChecker> checker) {
+    BugCheckerInfo registered = BugCheckerRegistry.info(checker);
+    if (registered != null) {
+      return registered;
+    }
     BugPattern pattern =
         checkNotNull(
             checker.getAnnotation(BugPattern.class),
@@ -99,28 +109,52 @@ public final class BugCheckerInfo implements Serializable {
     } catch (ValidationException e) {
       throw new IllegalStateException(e);
     }
-    return new BugCheckerInfo(checker, pattern);
-  }
-
-  private BugCheckerInfo(Class<? extends BugChecker> checker, BugPattern pattern) {
-    this(canonicalName(checker.getSimpleName(), pattern), checker, pattern);
+    return fromAttributes(
+        checker,
+        pattern.name(),
+        pattern.altNames(),
+        pattern.summary(),
+        pattern.severity(),
+        pattern.linkType(),
+        pattern.link(),
+        Arrays.asList(pattern.suppressionAnnotations()),
+        pattern.tags(),
+        pattern.disableable(),
+        pattern.cacheSafe());
   }
 
-  private BugCheckerInfo(
-      String canonicalName, Class<? extends BugChecker> checker, BugPattern pattern) {
-    this(
+  /**
+   * Returns the info of {@code checker} from the attributes of its {@code @BugPattern}, which have
+   * been read and {@linkplain BugPatternValidator validated} when it was compiled. Called by the
+   * code that the {@code BugCheckerRegistryProcessor} generates.
+   */
+  public static BugCheckerInfo fromAttributes(
+      Class<? extends BugChecker> checker,
+      String name,
+      String[] altNames,
+      String summary,
+      SeverityLevel severity,
+      LinkType linkType,
+      String link,
+      List<Class<? extends Annotation>> suppressionAnnotations,
+      String[] tags,
+      boolean disableable,
+      boolean cacheSafe) {
+    String canonicalName = name.isEmpty() ? checker.getSimpleName() : name;
+    return new BugCheckerInfo(
         checker,
         canonicalName,
-        ImmutableSet.<String>builder().add(canonicalName).add(pattern.altNames()).build(),
-        pattern.summary(),
-        pattern.severity(),
-        createLinkUrl(canonicalName, pattern),
-        Stream.of(pattern.suppressionAnnotations()).anyMatch(a -> isSuppressWarnings(a)),
-        Stream.of(pattern.suppressionAnnotations())
+        ImmutableSet.<String>builder().add(canonicalName).add(altNames).build(),
+        summary,
+        severity,
+        createLinkUrl(canonicalName, linkType, link),
+        suppressionAnnotations.stream().anyMatch(a -> isSuppressWarnings(a)),
+        suppressionAnnotations.stream()
             .filter(a -> !isSuppressWarnings(a))
             .collect(toImmutableSet()),
-        ImmutableSet.copyOf(pattern.tags()),
-        pattern.disableable());
+        ImmutableSet.copyOf(tags),
+        disableable,
+        cacheSafe);
   }
 
   private BugCheckerInfo(
@@ -133,7 +167,8 @@ public final class BugCheckerInfo implements Serializable {
       boolean supportsSuppressWarnings,
       Set<Class<? extends Annotation>> customSuppressionAnnotations,
       ImmutableSet<String> tags,
-      boolean disableable) {
+      boolean disableable,
+      boolean cacheSafe) {
     this.checker = checker;
     this.canonicalName = canonicalName;
     this.allNames = allNames;
@@ -144,6 +179,7 @@ public final class BugCheckerInfo implements Serializable {
     this.customSuppressionAnnotations = customSuppressionAnnotations;
     this.tags = tags;
     this.disableable = disableable;
+    this.cacheSafe = cacheSafe;
   }
 
   private static boolean isSuppressWarnings(Class<? extends Annotation> annotation) {
@@ -169,20 +205,22 @@ public final class BugCheckerInfo implements Serializable {
         supportsSuppressWarnings,
         customSuppressionAnnotations,
         tags,
-        disableable);
+        disableable,
+        cacheSafe);
   }
 
-  private static @Nullable String createLinkUrl(String canonicalName, BugPattern pattern) {
-    return switch (pattern.linkType()) {
+  private static @Nullable String createLinkUrl(
+      String canonicalName, LinkType linkType, String link) {
+    return switch (linkType) {
       case AUTOGENERATED -> String.format("https://errorprone.info/bugpattern/%s", canonicalName);
       case CUSTOM -> {
         // annotation.link() must be provided.
-        if (pattern.link().isEmpty()) {
+        if (link.isEmpty()) {
           throw new IllegalStateException(
               "If linkType element of @BugPattern is CUSTOM, "
                   + "a link element must also be provided.");
         }
-        yield pattern.link();
+        yield link;
       }
       case NONE -> null;
     };
@@ -231,6 +269,10 @@ public final class BugCheckerInfo implements Serializable {
     return disableable;
   }
 
+  public boolean cacheSafe() {
+    return cacheSafe;
+  }
+
   public ImmutableSet<String> getTags() {
     return tags;
   }
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.errorprone.ProfileReport.quote;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.fixes.ErrorProneEndPosTable;
+import com.google.errorprone.fixes.ErrorPronePosition;
+import com.google.errorprone.fixes.Fix;
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.LineMap;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Writes findings to a file as they're reported, for {@code -XepDiagnosticsOutput}, as SARIF 2.1.0
+ * if the file name ends in {@code .sarif} and as JSON Lines otherwise.
+ *
+ * <p>Each line of the JSON Lines output describes a finding:
+ *
+ * <pre>{@code
+ * {"check": "...", "severity": "WARNING", "uri": "file:///...", "line": 1, "column": 2,
+ *  "startOffset": 3, "endOffset": 4, "message": "...", "link": "...",
+ *  "fixes": [{"description": "...",
+ *             "replacements": [{"startOffset": 5, "endOffset": 6, "text": "..."}],
+ *             "importsToAdd": ["import ..."], "importsToRemove": []}]}
+ * }</pre>
+ *
+ * <p>Offsets are in characters from the start of the file. The line and column, counted from 1,
+ * are those of the finding's preferred position, where javac would report it. In SARIF, the
+ * region of a finding is its start and end offsets, given both as lines and columns and as a
+ * character offset and length.
+ *
+ * <p>Errors are also reported through javac, so that they still fail the compilation, but other
+ * findings are only written to the file: their fixes aren't applied to render a suggestion, and
+ * they don't go through javac's diagnostics. When patching, every finding is also passed on to be
+ * patched.
+ */
+final class DiagnosticsOutput {
+
+  /** Returns the output requested by {@code options}, or {@code null} if there isn't one. */
+  static @Nullable DiagnosticsOutput create(ErrorProneOptions options) {
+    Path path = options.diagnosticsOutput();
+    return path == null ? null : new DiagnosticsOutput(path);
+  }
+
+  private final Path path;
+  private final boolean sarif;
+
+  private @Nullable Writer writer;
+  private boolean firstResult = true;
+  private @Nullable IOException failure;
+
+  /** The link of each check that has been reported, for the rules of the SARIF output. */
+  private final Map<String, @Nullable String> rules = new TreeMap<>();
+
+  private DiagnosticsOutput(Path path) {
+    this.path = path;
+    this.sarif = Ascii.toLowerCase(path.toString()).endsWith(".sarif");
+  }
+
+  Path path() {
+    return path;
+  }
+
+  /**
+   * Returns a factory for listeners that write findings to this output, and report errors to the
+   * listeners of {@code errors}.
+   */
+  DescriptionListener.Factory listenerFactory(DescriptionListener.Factory errors) {
+    return listenerFactory(errors, /* forwardAll= */ false);
+  }
+
+  /**
+   * Returns a factory for listeners that write findings to this output, and pass every finding on
+   * to the listeners of {@code next}, such as a {@code RefactoringCollection}.
+   */
+  DescriptionListener.Factory teeTo(DescriptionListener.Factory next) {
+    return listenerFactory(next, /* forwardAll= */ true);
+  }
+
+  private DescriptionListener.Factory listenerFactory(
+      DescriptionListener.Factory next, boolean forwardAll) {
+    return (log, compilation) -> {
+      // The javac listener reads the source file when it's created, so only create it if needed.
+      Supplier<DescriptionListener> nextListener =
+          Suppliers.memoize(() -> next.getDescriptionListener(log, compilation));
+      ErrorProneEndPosTable endPositions = ErrorProneEndPosTable.create(compilation);
+      return description -> {
+        write(description, compilation, endPositions);
+        if (forwardAll || description.severity() == SeverityLevel.ERROR) {
+          nextListener.get().onDescribed(description);
+        }
+      };
+    };
+  }
+
+  private synchronized void write(
+      Description description,
+      JCCompilationUnit compilation,
+      ErrorProneEndPosTable endPositions) {
+    if (failure != null) {
+      return;
+    }
+    String uri = compilation.getSourceFile().toUri().toString();
+    ErrorPronePosition position = description.position;
+    int startOffset = position.getStartPosition();
+    int endOffset = position.getEndPosition(endPositions);
+    LineMap lineMap = compilation.getLineMap();
+    int preferred = position.getPreferredPosition();
+    long line = lineMap.getLineNumber(preferred);
+    long column = lineMap.getColumnNumber(preferred);
+    StringBuilder json = new StringBuilder();
+    if (sarif) {
+      rules.putIfAbsent(description.checkName, description.getLink());
+      json.append(firstResult ? "\n" : ",\n")
+          .append("    {\"ruleId\": ")
+          .append(quote(description.checkName))
+          .append(", \"level\": ")
+          .append(quote(sarifLevel(description.severity())))
+          .append(", \"message\": {\"text\": ")
+          .append(quote(description.getRawMessage()))
+          .append("}, \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": ")
+          .append(quote(uri))
+          .append("}, \"region\": ");
+      appendRegion(json, lineMap, startOffset, endOffset);
+      json.append("}}], \"fixes\": [");
+      boolean firstFix = true;
+      for (Fix fix : description.getFixes()) {
+        json.append(firstFix ? "" : ", ")
+            .append("{\"description\": {\"text\": ")
+            .append(quote(fix.getShortDescription()))
+            .append("}, \"artifactChanges\": [{\"artifactLocation\": {\"uri\": ")
+            .append(quote(uri))
+            .append("}, \"replacements\": [");
+        boolean firstReplacement = true;
+        for (Replacement replacement : fix.getReplacements(endPositions)) {
+          json.append(firstReplacement ? "" : ", ")
+              .append("{\"deletedRegion\": {\"charOffset\": ")
+              .append(replacement.startPosition())
+              .append(", \"charLength\": ")
+              .append(replacement.length())
+              .append("}, \"insertedContent\": {\"text\": ")
+              .append(quote(replacement.replaceWith()))
+              .append("}}");
+          firstReplacement = false;
+        }
+        json.append("]}], \"properties\": {\"importsToAdd\": ");
+        appendStrings(json, fix.getImportsToAdd());
+        json.append(", \"importsToRemove\": ");
+        appendStrings(json, fix.getImportsToRemove());
+        json.append("}}");
+        firstFix = false;
+      }
+      json.append("]}");
+    } else {
+      json.append("{\"check\": ")
+          .append(quote(description.checkName))
+          .append(", \"severity\": ")
+          .append(quote(description.severity().name()))
+          .append(", \"uri\": ")
+          .append(quote(uri))
+          .append(", \"line\": ")
+          .append(line)
+          .append(", \"column\": ")
+          .append(column)
+          .append(", \"startOffset\": ")
+          .append(startOffset)
+          .append(", \"endOffset\": ")
+          .append(endOffset)
+          .append(", \"message\": ")
+          .append(quote(description.getRawMessage()));
+      String link = description.getLink();
+      if (link != null) {
+        json.append(", \"link\": ").append(quote(link));
+      }
+      json.append(", \"fixes\": [");
+      boolean firstFix = true;
+      for (Fix fix : description.getFixes()) {
+        json.append(firstFix ? "" : ", ")
+            .append("{\"description\": ")
+            .append(quote(fix.getShortDescription()))
+            .append(", \"replacements\": [");
+        boolean firstReplacement = true;
+        for (Replacement replacement : fix.getReplacements(endPositions)) {
+          json.append(firstReplacement ? "" : ", ")
+              .append("{\"startOffset\": ")
+              .append(replacement.startPosition())
+              .append(", \"endOffset\": ")
+              .append(replacement.endPosition())
+              .append(", \"text\": ")
+              .append(quote(replacement.replaceWith()))
+              .append('}');
+          firstReplacement = false;
+        }
+        json.append("], \"importsToAdd\": ");
+        appendStrings(json, fix.getImportsToAdd());
+        json.append(", \"importsToRemove\": ");
+        appendStrings(json, fix.getImportsToRemove());
+        json.append('}');
+        firstFix = false;
+      }
+      json.append("]}\n");
+    }
+    try {
+      writer().write(json.toString());
+      firstResult = false;
+    } catch (IOException e) {
+      failure = e;
+    }
+  }
+
+  /**
+   * Appends a SARIF region from {@code startOffset} to {@code endOffset}, or just its start if the
+   * end isn't known. The columns count characters, like the offsets, rather than expanding tabs as
+   * javac's do.
+   */
+  private static void appendRegion(
+      StringBuilder json, LineMap lineMap, int startOffset, int endOffset) {
+    long startLine = lineMap.getLineNumber(startOffset);
+    json.append("{\"startLine\": ")
+        .append(startLine)
+        .append(", \"startColumn\": ")
+        .append(startOffset - lineMap.getStartPosition(startLine) + 1);
+    if (endOffset >= startOffset) {
+      long endLine = lineMap.getLineNumber(endOffset);
+      json.append(", \"endLine\": ")
+          .append(endLine)
+          .append(", \"endColumn\": ")
+          .append(endOffset - lineMap.getStartPosition(endLine) + 1);
+    }
+    json.append(", \"charOffset\": ").append(startOffset);
+    if (endOffset >= startOffset) {
+      json.append(", \"charLength\": ").append(endOffset - startOffset);
+    }
+    json.append('}');
+  }
+
+  private static String sarifLevel(SeverityLevel severity) {
+    return switch (severity) {
+      case ERROR -> "error";
+      case WARNING -> "warning";
+      case SUGGESTION -> "note";
+    };
+  }
+
+  private static void appendStrings(StringBuilder json, Collection<String> strings) {
+    json.append('[');
+    boolean first = true;
+    for (String string : strings) {
+      json.append(first ? "" : ", ").append(quote(string));
+      first = false;
+    }
+    json.append(']');
+  }
+
+  private Writer writer() throws IOException {
+    if (writer == null) {
+      Path parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      writer = Files.newBufferedWriter(path, UTF_8);
+      if (sarif) {
+        writer.write(
+            "{\"version\": \"2.1.0\",\n"
+                + " \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n"
+                + " \"runs\": [{\n"
+                + "  \"results\": [");
+      }
+    }
+    return writer;
+  }
+
+  /**
+   * Finishes the file, which is written even if there were no findings.
+   *
+   * @throws IOException if the file, or any finding, couldn't be written
+   */
+  synchronized void close() throws IOException {
+    try {
+      if (failure != null) {
+        throw failure;
+      }
+      Writer writer = writer();
+      if (sarif) {
+        StringBuilder json = new StringBuilder(firstResult ? "],\n" : "\n  ],\n");
+        json.append("  \"tool\": {\"driver\": {\"name\": \"Error Prone\",")
+            .append(" \"informationUri\": \"https://errorprone.info\", \"rules\": [");
+        boolean first = true;
+        for (Map.Entry<String, @Nullable String> rule : rules.entrySet()) {
+          json.append(first ? "\n" : ",\n").append("    {\"id\": ").append(quote(rule.getKey()));
+          if (rule.getValue() != null) {
+            json.append(", \"helpUri\": ").append(quote(rule.getValue()));
+          }
+          json.append('}');
+          first = false;
+        }
+        json.append(first ? "]}}\n" : "\n  ]}}\n").append("}]}\n");
+        writer.write(json.toString());
+      }
+    } finally {
+      if (writer != null) {
+        writer.close();
+        writer = null;
+      }
+    }
+  }
+}
@@ -26,7 +26,10 @@ import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.ErrorProneOptions.Severity;
 import com.google.errorprone.RefactoringCollection.RefactoringResult;
+import com.google.errorprone.dataflow.DataFlow;
 import com.google.errorprone.scanner.ErrorProneScannerTransformer;
+import com.google.errorprone.scanner.ParallelAnalysis;
+import com.google.errorprone.scanner.ResultCache;
 import com.google.errorprone.scanner.ScannerSupplier;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.CompilationUnitTree;
@@ -44,10 +47,13 @@ import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Log;
 import com.sun.tools.javac.util.Log.WriterKind;
 import com.sun.tools.javac.util.PropagatedException;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.Set;
 import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
 import org.safere.Pattern;
 
 /** A {@link TaskListener} that runs Error Prone over attributed compilation units. */
@@ -61,6 +67,8 @@ public final class ErrorProneAnalyzer implements TaskListener {
   private final ErrorProneOptions errorProneOptions;
   private final Context context;
   private final DescriptionListener.Factory descriptionListenerFactory;
+  private final @Nullable DiagnosticsOutput diagnosticsOutput;
+  private final @Nullable ParallelAnalysis parallelAnalysis;
 
   public static ErrorProneAnalyzer createAnalyzer(
       ScannerSupplier scannerSupplier,
@@ -137,11 +145,18 @@ public final class ErrorProneAnalyzer implements TaskListener {
 
   public static ErrorProneAnalyzer createByScanningForPlugins(
       ScannerSupplier scannerSupplier, ErrorProneOptions errorProneOptions, Context context) {
+    DiagnosticsOutput diagnosticsOutput = DiagnosticsOutput.create(errorProneOptions);
+    DescriptionListener.Factory descriptionListenerFactory =
+        JavacErrorDescriptionListener.provider(context);
+    if (diagnosticsOutput != null) {
+      descriptionListenerFactory = diagnosticsOutput.listenerFactory(descriptionListenerFactory);
+    }
     return new ErrorProneAnalyzer(
         scansPlugins(scannerSupplier, errorProneOptions, context),
         errorProneOptions,
         context,
-        JavacErrorDescriptionListener.provider(context));
+        descriptionListenerFactory,
+        diagnosticsOutput);
   }
 
   private static Supplier<CodeTransformer> scansPlugins(
@@ -152,10 +167,13 @@ public final class ErrorProneAnalyzer implements TaskListener {
           // initialized, so do it lazily
           ErrorProneTimings timings = ErrorProneTimings.instance(context);
           try (AutoCloseable unused = timings.initializationTimeSpan()) {
+            ScannerSupplier withPlugins = ErrorPronePlugins.loadPlugins(scannerSupplier, context);
+            ScannerCache cache = ScannerCache.instance(context);
+            if (cache != null) {
+              return cache.transformer(scannerSupplier, withPlugins, errorProneOptions, context);
+            }
             return ErrorProneScannerTransformer.create(
-                ErrorPronePlugins.loadPlugins(scannerSupplier, context)
-                    .applyOverrides(errorProneOptions)
-                    .get());
+                withPlugins.applyOverrides(errorProneOptions).get());
           } catch (InvalidCommandLineOptionException e) {
             throw new PropagatedException(e);
           } catch (Exception e) {
@@ -170,28 +188,55 @@ public final class ErrorProneAnalyzer implements TaskListener {
       ErrorProneOptions errorProneOptions,
       Context context,
       DescriptionListener.Factory descriptionListenerFactory) {
+    // Every finding still goes to the custom listener, and is also written to the output.
+    DiagnosticsOutput diagnosticsOutput = DiagnosticsOutput.create(errorProneOptions);
+    if (diagnosticsOutput != null) {
+      descriptionListenerFactory = diagnosticsOutput.teeTo(descriptionListenerFactory);
+    }
     return new ErrorProneAnalyzer(
-        codeTransformer, errorProneOptions, context, descriptionListenerFactory);
+        codeTransformer, errorProneOptions, context, descriptionListenerFactory, diagnosticsOutput);
   }
 
   private ErrorProneAnalyzer(
       Supplier<CodeTransformer> transformer,
       ErrorProneOptions errorProneOptions,
       Context context,
-      DescriptionListener.Factory descriptionListenerFactory) {
+      DescriptionListener.Factory descriptionListenerFactory,
+      @Nullable DiagnosticsOutput diagnosticsOutput) {
     this.transformer = checkNotNull(transformer);
     this.errorProneOptions = checkNotNull(errorProneOptions);
     this.descriptionListenerFactory = checkNotNull(descriptionListenerFactory);
+    this.diagnosticsOutput = diagnosticsOutput;
 
+    DataFlow.checkFlags(errorProneOptions.getFlags());
     Context errorProneContext = new SubContext(context);
     errorProneContext.put(ErrorProneOptions.class, errorProneOptions);
+    ResultCache resultCache = ResultCache.create(errorProneOptions);
+    if (resultCache != null) {
+      resultCache.install(errorProneContext);
+    }
+    this.parallelAnalysis = ParallelAnalysis.create(errorProneOptions);
+    if (parallelAnalysis != null) {
+      parallelAnalysis.install(errorProneContext);
+    }
     this.context = errorProneContext;
+    if (errorProneOptions.profileOutput() != null) {
+      ErrorProneTimings.instance(context).enableProfiling();
+    }
   }
 
   private int errorProneErrors = 0;
 
   @Override
   public void finished(TaskEvent taskEvent) {
+    if (taskEvent.getKind() == Kind.COMPILATION) {
+      if (parallelAnalysis != null) {
+        parallelAnalysis.shutdown();
+      }
+      writeProfile();
+      closeDiagnosticsOutput();
+      return;
+    }
     if (taskEvent.getKind() != Kind.ANALYZE) {
       return;
     }
@@ -253,6 +298,36 @@ public final class ErrorProneAnalyzer implements TaskListener {
     }
   }
 
+  /** Writes the cost of each check, if requested by {@code -XepProfile}. */
+  private void writeProfile() {
+    Path profileOutput = errorProneOptions.profileOutput();
+    if (profileOutput == null) {
+      return;
+    }
+    try {
+      ProfileReport.write(profileOutput, ErrorProneTimings.instance(context));
+    } catch (IOException e) {
+      PrintWriter out = Log.instance(context).getWriter(WriterKind.ERROR);
+      out.println("Failed to write the Error Prone profile to " + profileOutput + ": " + e);
+      out.flush();
+    }
+  }
+
+  /** Finishes the file requested by {@code -XepDiagnosticsOutput}, if any. */
+  private void closeDiagnosticsOutput() {
+    if (diagnosticsOutput == null) {
+      return;
+    }
+    try {
+      diagnosticsOutput.close();
+    } catch (IOException e) {
+      PrintWriter out = Log.instance(context).getWriter(WriterKind.ERROR);
+      out.println(
+          "Failed to write the Error Prone diagnostics to " + diagnosticsOutput.path() + ": " + e);
+      out.flush();
+    }
+  }
+
   /** Returns true if the given source file should be excluded from analysis. */
   private boolean shouldExcludeSourceFile(CompilationUnitTree tree) {
     Pattern excludedPattern = errorProneOptions.getExcludedPattern();
@@ -28,10 +28,10 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
 import com.google.errorprone.apply.ImportOrganizer;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -40,6 +40,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
+import org.jspecify.annotations.Nullable;
 import org.safere.Pattern;
 
 /**
@@ -58,6 +59,10 @@ public final class ErrorProneOptions {
   private static final String PATCH_IMPORT_ORDER_PREFIX = "-XepPatchImportOrder:";
   private static final String EXCLUDED_PATHS_PREFIX = "-XepExcludedPaths:";
   private static final String IGNORE_LARGE_CODE_GENERATORS = "-XepIgnoreLargeCodeGenerators:";
+  private static final String PARALLELISM_PREFIX = "-XepParallelism:";
+  private static final String PROFILE_PREFIX = "-XepProfile:";
+  private static final String RESULT_CACHE_PREFIX = "-XepResultCache:";
+  private static final String DIAGNOSTICS_OUTPUT_PREFIX = "-XepDiagnosticsOutput:";
   private static final String ERRORS_AS_WARNINGS_FLAG = "-XepAllErrorsAsWarnings";
   private static final String SUGGESTIONS_AS_WARNINGS_FLAG = "-XepAllSuggestionsAsWarnings";
   private static final String ENABLE_ALL_CHECKS = "-XepAllDisabledChecksAsWarnings";
@@ -79,6 +84,10 @@ public final class ErrorProneOptions {
             || option.startsWith(PATCH_OUTPUT_LOCATION)
             || option.startsWith(PATCH_CHECKS_PREFIX)
             || option.startsWith(EXCLUDED_PATHS_PREFIX)
+            || option.startsWith(PARALLELISM_PREFIX)
+            || option.startsWith(PROFILE_PREFIX)
+            || option.startsWith(RESULT_CACHE_PREFIX)
+            || option.startsWith(DIAGNOSTICS_OUTPUT_PREFIX)
             || option.equals(IGNORE_UNKNOWN_CHECKS_FLAG)
             || option.equals(DISABLE_WARNINGS_IN_GENERATED_CODE_FLAG)
             || option.equals(ERRORS_AS_WARNINGS_FLAG)
@@ -161,6 +170,10 @@ public final class ErrorProneOptions {
   private final Pattern excludedPattern;
   private final boolean ignoreSuppressionAnnotations;
   private final boolean ignoreLargeCodeGenerators;
+  private final int parallelism;
+  private final @Nullable Path profileOutput;
+  private final @Nullable Path resultCache;
+  private final @Nullable Path diagnosticsOutput;
 
   private ErrorProneOptions(
       ImmutableMap<String, Severity> severityMap,
@@ -178,7 +191,11 @@ public final class ErrorProneOptions {
       PatchingOptions patchingOptions,
       Pattern excludedPattern,
       boolean ignoreSuppressionAnnotations,
-      boolean ignoreLargeCodeGenerators) {
+      boolean ignoreLargeCodeGenerators,
+      int parallelism,
+      @Nullable Path profileOutput,
+      @Nullable Path resultCache,
+      @Nullable Path diagnosticsOutput) {
     this.severityMap = severityMap;
     this.remainingArgs = remainingArgs;
     this.ignoreUnknownChecks = ignoreUnknownChecks;
@@ -195,6 +212,10 @@ public final class ErrorProneOptions {
     this.excludedPattern = excludedPattern;
     this.ignoreSuppressionAnnotations = ignoreSuppressionAnnotations;
     this.ignoreLargeCodeGenerators = ignoreLargeCodeGenerators;
+    this.parallelism = parallelism;
+    this.profileOutput = profileOutput;
+    this.resultCache = resultCache;
+    this.diagnosticsOutput = diagnosticsOutput;
   }
 
   public ImmutableList<String> getRemainingArgs() {
@@ -241,6 +262,38 @@ public final class ErrorProneOptions {
     return ignoreLargeCodeGenerators;
   }
 
+  /**
+   * Returns the number of worker threads to split the thread-safe checks of each compilation unit
+   * between, or {@code 1} if all checks run on javac's thread.
+   */
+  public int parallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Returns the file to write the cost of each check to at the end of the compilation, or {@code
+   * null} if checks shouldn't be profiled.
+   */
+  public @Nullable Path profileOutput() {
+    return profileOutput;
+  }
+
+  /**
+   * Returns the directory to keep the findings of cache-safe checks in between compilations, or
+   * {@code null} if they shouldn't be cached.
+   */
+  public @Nullable Path resultCache() {
+    return resultCache;
+  }
+
+  /**
+   * Returns the file to write findings to instead of reporting them through javac, other than
+   * errors, or {@code null} if all findings are reported through javac.
+   */
+  public @Nullable Path diagnosticsOutput() {
+    return diagnosticsOutput;
+  }
+
   public ErrorProneFlags getFlags() {
     return flags;
   }
@@ -265,6 +318,10 @@ public final class ErrorProneOptions {
     private boolean isPubliclyVisibleTarget = false;
     private boolean ignoreSuppressionAnnotations = false;
     private boolean ignoreLargeCodeGenerators = true;
+    private int parallelism = 1;
+    private @Nullable Path profileOutput;
+    private @Nullable Path resultCache;
+    private @Nullable Path diagnosticsOutput;
     private final Map<String, Severity> severityMap = new LinkedHashMap<>();
     private final ErrorProneFlags.Builder flagsBuilder = ErrorProneFlags.builder();
     private final PatchingOptions.Builder patchingOptionsBuilder = PatchingOptions.builder();
@@ -339,6 +396,22 @@ public final class ErrorProneOptions {
       this.ignoreLargeCodeGenerators = ignoreLargeCodeGenerators;
     }
 
+    void setParallelism(int parallelism) {
+      this.parallelism = parallelism;
+    }
+
+    void setProfileOutput(Path profileOutput) {
+      this.profileOutput = profileOutput;
+    }
+
+    void setResultCache(Path resultCache) {
+      this.resultCache = resultCache;
+    }
+
+    void setDiagnosticsOutput(Path diagnosticsOutput) {
+      this.diagnosticsOutput = diagnosticsOutput;
+    }
+
     void setDisableAllChecks(boolean disableAllChecks) {
       // Discard previously set severities so that the DisableAllChecks flag is position sensitive.
       severityMap.clear();
@@ -374,7 +447,11 @@ public final class ErrorProneOptions {
           patchingOptionsBuilder.build(),
           excludedPattern,
           ignoreSuppressionAnnotations,
-          ignoreLargeCodeGenerators);
+          ignoreLargeCodeGenerators,
+          parallelism,
+          profileOutput,
+          resultCache,
+          diagnosticsOutput);
     }
 
     void setExcludedPattern(Pattern excludedPattern) {
@@ -502,16 +579,7 @@ public final class ErrorProneOptions {
               builder
                   .patchingOptionsBuilder()
                   .customRefactorer(
-                      () -> {
-                        String path = remaining.substring("refaster:".length());
-                        try (InputStream in =
-                                Files.newInputStream(FileSystems.getDefault().getPath(path));
-                            ObjectInputStream ois = new ObjectInputStream(in)) {
-                          return (CodeTransformer) ois.readObject();
-                        } catch (IOException | ClassNotFoundException e) {
-                          throw new RuntimeException("Can't load Refaster rule from " + path, e);
-                        }
-                      });
+                      () -> loadRefasterRules(remaining.substring("refaster:".length())));
             } else {
               Iterable<String> checks =
                   Splitter.on(',').trimResults().omitEmptyStrings().split(remaining);
@@ -524,7 +592,32 @@ public final class ErrorProneOptions {
           } else if (arg.startsWith(EXCLUDED_PATHS_PREFIX)) {
             String pathRegex = arg.substring(EXCLUDED_PATHS_PREFIX.length());
             builder.setExcludedPattern(Pattern.compile(pathRegex));
-
+          } else if (arg.startsWith(PARALLELISM_PREFIX)) {
+            String remaining = arg.substring(PARALLELISM_PREFIX.length());
+            Integer parallelism = Ints.tryParse(remaining);
+            if (parallelism == null || parallelism < 1) {
+              throw new InvalidCommandLineOptionException(
+                  "invalid flag: " + arg + " (" + remaining + " was not a positive integer)");
+            }
+            builder.setParallelism(parallelism);
+          } else if (arg.startsWith(PROFILE_PREFIX)) {
+            String remaining = arg.substring(PROFILE_PREFIX.length());
+            if (remaining.isEmpty()) {
+              throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+            }
+            builder.setProfileOutput(Path.of(remaining));
+          } else if (arg.startsWith(RESULT_CACHE_PREFIX)) {
+            String remaining = arg.substring(RESULT_CACHE_PREFIX.length());
+            if (remaining.isEmpty()) {
+              throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+            }
+            builder.setResultCache(Path.of(remaining));
+          } else if (arg.startsWith(DIAGNOSTICS_OUTPUT_PREFIX)) {
+            String remaining = arg.substring(DIAGNOSTICS_OUTPUT_PREFIX.length());
+            if (remaining.isEmpty()) {
+              throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+            }
+            builder.setDiagnosticsOutput(Path.of(remaining));
           } else {
             if (arg.startsWith(PREFIX)) {
               throw new InvalidCommandLineOptionException("invalid flag: " + arg);
@@ -543,6 +636,25 @@ public final class ErrorProneOptions {
     return builder.build(remainingArgs.build());
   }
 
+  /**
+   * Loads the Refaster rules at {@code path} with {@code
+   * com.google.errorprone.refaster.RefasterRuleBundle#loadRules}, which knows their formats. It
+   * lives in error_prone_core alongside the rest of Refaster, so it's looked up reflectively.
+   */
+  private static CodeTransformer loadRefasterRules(String path) {
+    Path file = FileSystems.getDefault().getPath(path);
+    try {
+      return (CodeTransformer)
+          Class.forName("com.google.errorprone.refaster.RefasterRuleBundle")
+              .getMethod("loadRules", Path.class)
+              .invoke(null, file);
+    } catch (InvocationTargetException e) {
+      throw new RuntimeException("Can't load Refaster rule from " + path, e.getCause());
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException("Can't load Refaster rule from " + path, e);
+    }
+  }
+
   /**
    * Given a list of command-line arguments, produce the corresponding {@link ErrorProneOptions}
    * instance.
@@ -19,12 +19,18 @@ package com.google.errorprone;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.matchers.Suppressible;
+import com.sun.management.ThreadMXBean;
 import com.sun.tools.javac.util.Context;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.Nullable;
 
 /** A collection of timing data for the runtime of individual checks. */
 public final class ErrorProneTimings {
@@ -43,15 +49,134 @@ public final class ErrorProneTimings {
     context.put(timingsKey, this);
   }
 
-  private final Map<String, Stopwatch> timers = new HashMap<>();
+  // Statistics per check. Spans may be opened concurrently when compilation units are analyzed in
+  // parallel, so this doesn't use a Stopwatch per check.
+  private final Map<String, CheckStats> checks = new ConcurrentHashMap<>();
+
+  // Set by enableProfiling; read on every span.
+  private volatile @Nullable ThreadMXBean profiler;
 
   private final Stopwatch initializationTime = Stopwatch.createUnstarted();
 
+  private final LongAdder cfgCacheHits = new LongAdder();
+  private final LongAdder cfgCacheMisses = new LongAdder();
+  private final LongAdder cfgRebuilds = new LongAdder();
+
+  /**
+   * Statistics for the cache of control flow graphs used by {@link
+   * com.google.errorprone.dataflow.DataFlow}.
+   *
+   * @param hits the number of requests for a control flow graph that was already cached
+   * @param misses the number of control flow graphs that were built
+   * @param rebuilds the number of misses for a control flow graph that had already been built for
+   *     the same compilation unit, and was evicted from the cache
+   */
+  public record CfgCacheStats(long hits, long misses, long rebuilds) {}
+
+  /**
+   * The number of buckets in the histogram of per-match latencies. The first bucket counts matches
+   * that took less than a microsecond, bucket {@code i} those that took less than {@code 2^i}
+   * microseconds, and the last one all the rest.
+   */
+  public static final int LATENCY_BUCKETS = 20;
+
+  /**
+   * The cost of running a single check, over the whole compilation.
+   *
+   * @param invocations the number of times the check's matchers were called
+   * @param wallTime the total elapsed time spent in the check
+   * @param cpuTime the total CPU time spent in the check, or zero if the JVM can't measure it
+   * @param allocatedBytes the number of bytes allocated by the check, or zero if the JVM can't
+   *     measure it
+   * @param latencyHistogram the number of matches in each bucket of latency, as described by {@link
+   *     #LATENCY_BUCKETS}
+   */
+  public record CheckProfile(
+      long invocations,
+      Duration wallTime,
+      Duration cpuTime,
+      long allocatedBytes,
+      ImmutableList<Long> latencyHistogram) {}
+
+  private static final class CheckStats {
+    final LongAdder wallNanos = new LongAdder();
+    final LongAdder invocations = new LongAdder();
+    final LongAdder cpuNanos = new LongAdder();
+    final LongAdder allocatedBytes = new LongAdder();
+    final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS);
+
+    void recordProfile(long wallNanos, long cpuNanos, long allocatedBytes) {
+      invocations.increment();
+      this.cpuNanos.add(cpuNanos);
+      this.allocatedBytes.add(allocatedBytes);
+      long micros = wallNanos / 1000;
+      int bucket = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+      latencyHistogram.incrementAndGet(Math.min(bucket, LATENCY_BUCKETS - 1));
+    }
+
+    CheckProfile profile() {
+      ImmutableList.Builder<Long> histogram = ImmutableList.builder();
+      for (int i = 0; i < LATENCY_BUCKETS; i++) {
+        histogram.add(latencyHistogram.get(i));
+      }
+      return new CheckProfile(
+          invocations.sum(),
+          Duration.ofNanos(wallNanos.sum()),
+          Duration.ofNanos(cpuNanos.sum()),
+          allocatedBytes.sum(),
+          histogram.build());
+    }
+  }
+
+  /**
+   * Records the CPU time and allocations of each check, and the number and latency of its matches,
+   * in addition to its elapsed time. This makes every span more expensive, so it's only done for
+   * {@code -XepProfile}.
+   */
+  public void enableProfiling() {
+    if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threadMXBean) {
+      if (threadMXBean.isCurrentThreadCpuTimeSupported()) {
+        threadMXBean.setThreadCpuTimeEnabled(true);
+      }
+      if (threadMXBean.isThreadAllocatedMemorySupported()) {
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+      }
+      profiler = threadMXBean;
+    }
+  }
+
+  /** Returns whether {@link #enableProfiling} has been called. */
+  public boolean isProfiling() {
+    return profiler != null;
+  }
+
   /** Creates a timing span for the given {@link Suppressible}. */
   public AutoCloseable span(Suppressible suppressible) {
-    String key = suppressible.canonicalName();
-    Stopwatch sw = timers.computeIfAbsent(key, k -> Stopwatch.createUnstarted()).start();
-    return () -> sw.stop();
+    CheckStats stats = checks.computeIfAbsent(suppressible.canonicalName(), k -> new CheckStats());
+    ThreadMXBean profiler = this.profiler;
+    if (profiler == null) {
+      long start = System.nanoTime();
+      return () -> stats.wallNanos.add(System.nanoTime() - start);
+    }
+    long startCpu = cpuTime(profiler);
+    long startAllocated = allocatedBytes(profiler);
+    long start = System.nanoTime();
+    return () -> {
+      long elapsed = System.nanoTime() - start;
+      stats.wallNanos.add(elapsed);
+      stats.recordProfile(
+          elapsed, cpuTime(profiler) - startCpu, allocatedBytes(profiler) - startAllocated);
+    };
+  }
+
+  private static long cpuTime(ThreadMXBean profiler) {
+    return profiler.isThreadCpuTimeEnabled() ? profiler.getCurrentThreadCpuTime() : 0;
+  }
+
+  private static long allocatedBytes(ThreadMXBean profiler) {
+    return profiler.isThreadAllocatedMemoryEnabled()
+        ? profiler.getCurrentThreadAllocatedBytes()
+        : 0;
   }
 
   /** Creates a timing span for initialization. */
@@ -60,10 +185,41 @@ public final class ErrorProneTimings {
     return () -> initializationTime.stop();
   }
 
+  /** Records that a control flow graph was found in the cache. */
+  public void recordCfgCacheHit() {
+    cfgCacheHits.increment();
+  }
+
+  /**
+   * Records that a control flow graph had to be built, and whether it had already been built for
+   * the same compilation unit before.
+   */
+  public void recordCfgCacheMiss(boolean rebuild) {
+    cfgCacheMisses.increment();
+    if (rebuild) {
+      cfgRebuilds.increment();
+    }
+  }
+
+  /** Returns statistics for the cache of control flow graphs. */
+  public CfgCacheStats cfgCacheStats() {
+    return new CfgCacheStats(cfgCacheHits.sum(), cfgCacheMisses.sum(), cfgRebuilds.sum());
+  }
+
   /** Returns the elapsed durations of each timer. */
   public ImmutableMap<String, Duration> timings() {
-    return timers.entrySet().stream()
-        .collect(toImmutableMap(e -> e.getKey(), e -> e.getValue().elapsed()));
+    return checks.entrySet().stream()
+        .collect(
+            toImmutableMap(e -> e.getKey(), e -> Duration.ofNanos(e.getValue().wallNanos.sum())));
+  }
+
+  /**
+   * Returns the cost of each check that has run. The CPU time, allocations, invocations and
+   * latencies are only recorded once {@link #enableProfiling} has been called.
+   */
+  public ImmutableMap<String, CheckProfile> profiles() {
+    return checks.entrySet().stream()
+        .collect(toImmutableMap(e -> e.getKey(), e -> e.getValue().profile()));
   }
 
   /** Returns the elapsed initialization time. */
@@ -103,12 +103,25 @@ public final class JavacErrorDescriptionListener implements DescriptionListener
 
   @Override
   public void onDescribed(Description description) {
+    JCDiagnostic.DiagnosticType type =
+        switch (description.severity()) {
+          case ERROR ->
+              dontUseErrors
+                  ? JCDiagnostic.DiagnosticType.WARNING
+                  : JCDiagnostic.DiagnosticType.ERROR;
+          case WARNING -> JCDiagnostic.DiagnosticType.WARNING;
+          case SUGGESTION -> JCDiagnostic.DiagnosticType.NOTE;
+        };
+    // Rendering fixes means computing any deferred fixes and applying them to the source, which
+    // isn't worth doing for diagnostics that javac is going to drop (e.g. warnings with -nowarn).
     ImmutableList<AppliedFix> appliedFixes =
-        description.fixes.stream()
-            .filter(f -> !shouldSkipImportTreeFix(description.position, f))
-            .map(f -> fixToAppliedFix.apply(description, f))
-            .filter(Objects::nonNull)
-            .collect(toImmutableList());
+        isDisplayed(type)
+            ? description.getFixes().stream()
+                .filter(f -> !shouldSkipImportTreeFix(description.position, f))
+                .map(f -> fixToAppliedFix.apply(description, f))
+                .filter(Objects::nonNull)
+                .collect(toImmutableList())
+            : ImmutableList.of();
 
     String message = messageForFixes(description, appliedFixes);
     // Swap the log's source and the current file's source; then be sure to swap them back later.
@@ -117,15 +130,6 @@ public final class JavacErrorDescriptionListener implements DescriptionListener
       JCDiagnostic.Factory factory = JCDiagnostic.Factory.instance(context);
       DiagnosticPosition pos =
           new JCDiagnostic.SimpleDiagnosticPosition(description.position.getPreferredPosition());
-      JCDiagnostic.DiagnosticType type =
-          switch (description.severity()) {
-            case ERROR ->
-                dontUseErrors
-                    ? JCDiagnostic.DiagnosticType.WARNING
-                    : JCDiagnostic.DiagnosticType.ERROR;
-            case WARNING -> JCDiagnostic.DiagnosticType.WARNING;
-            case SUGGESTION -> JCDiagnostic.DiagnosticType.NOTE;
-          };
       log.report(
           factory.create(
               type,
@@ -143,6 +147,16 @@ public final class JavacErrorDescriptionListener implements DescriptionListener
     }
   }
 
+  /** Returns true if javac will display a diagnostic of the given type, rather than discard it. */
+  private boolean isDisplayed(JCDiagnostic.DiagnosticType type) {
+    return switch (type) {
+      case ERROR -> true;
+      case WARNING -> log.emitWarnings;
+      case NOTE -> log.emitWarnings && !log.suppressNotes;
+      default -> true;
+    };
+  }
+
   // b/79407644: Because AppliedFix doesn't consider imports, just don't display a
   // suggested fix to an ImportTree when the fix reports imports to remove/add. Imports can still
   // be fixed if they were specified via SuggestedFix.replace, for example.
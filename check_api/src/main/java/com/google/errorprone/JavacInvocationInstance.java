@@ -16,12 +16,23 @@
 package com.google.errorprone;
 
 import com.sun.tools.javac.util.Context;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A token uniquely identifying a single invocation of javac. Any caches which might otherwise
  * persist indefinitely should be reset if they detect that the JavacInvocationInstance inside their
  * {@link Context} has changed. The only meaningful way to compare JavacInvocationInstance objects
  * is by their object identity, as they have no properties.
+ *
+ * <p>It also holds the values memoized by {@link VisitorState#memoize} for this invocation, so that
+ * they're dropped along with the invocation.
  */
 public final class JavacInvocationInstance {
   public static JavacInvocationInstance instance(Context context) {
@@ -33,5 +44,94 @@ public final class JavacInvocationInstance {
     return instance;
   }
 
+  /**
+   * The memoized values, indexed by the slot of their {@code VisitorState.memoize} supplier. Reads
+   * don't lock; writes, and growing the array for slots allocated after it was created, do.
+   */
+  private volatile AtomicReferenceArray<@Nullable Memoized> memoized =
+      new AtomicReferenceArray<>(slotCount());
+
+  /**
+   * A memoized value, along with the supplier that computed it. A slot is only reused once its
+   * previous supplier has been collected, which can't happen while this invocation still refers to
+   * it, but checking the owner keeps a reused slot from ever reading another supplier's value.
+   */
+  private record Memoized(Object owner, Object value) {}
+
   private JavacInvocationInstance() {}
+
+  /** Returns the value memoized by {@code owner} in {@code slot} for this invocation, if any. */
+  @SuppressWarnings("unchecked") // only the owner stores values under its key
+  <T> @Nullable T getMemoized(int slot, Object owner) {
+    AtomicReferenceArray<@Nullable Memoized> values = memoized;
+    if (slot < values.length()) {
+      Memoized value = values.get(slot);
+      if (value != null && value.owner() == owner) {
+        return (T) value.value();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Memoizes {@code value} for {@code owner} in {@code slot} for this invocation, unless another
+   * thread got there first, and returns the memoized value.
+   */
+  @SuppressWarnings("unchecked") // only the owner stores values under its key
+  synchronized <T> T putMemoized(int slot, Object owner, T value) {
+    AtomicReferenceArray<@Nullable Memoized> values = memoized;
+    if (slot >= values.length()) {
+      AtomicReferenceArray<@Nullable Memoized> grown =
+          new AtomicReferenceArray<>(Math.max(slot + 1, slotCount()));
+      for (int i = 0; i < values.length(); i++) {
+        grown.set(i, values.get(i));
+      }
+      memoized = values = grown;
+    }
+    Memoized existing = values.get(slot);
+    if (existing != null && existing.owner() == owner) {
+      return (T) existing.value();
+    }
+    values.set(slot, new Memoized(owner, value));
+    return value;
+  }
+
+  /** The owners of the allocated slots, which are freed once their owner is collected. */
+  private static final List<Slot> slots = new ArrayList<>();
+
+  private static final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+
+  private static final ReferenceQueue<Object> collectedOwners = new ReferenceQueue<>();
+
+  private static final class Slot extends WeakReference<Object> {
+    private final int index;
+
+    Slot(Object owner, int index) {
+      super(owner, collectedOwners);
+      this.index = index;
+    }
+  }
+
+  /**
+   * Allocates the slot that {@code owner}, a {@code VisitorState.memoize} supplier, stores its
+   * values in, reusing the slots of suppliers that have been collected.
+   */
+  static synchronized int allocateSlot(Object owner) {
+    for (Reference<?> collected; (collected = collectedOwners.poll()) != null; ) {
+      freeSlots.add(((Slot) collected).index);
+    }
+    Integer free = freeSlots.poll();
+    int index = free != null ? free : slots.size();
+    Slot slot = new Slot(owner, index);
+    if (index == slots.size()) {
+      slots.add(slot);
+    } else {
+      slots.set(index, slot);
+    }
+    return index;
+  }
+
+  private static synchronized int slotCount() {
+    return slots.size();
+  }
 }
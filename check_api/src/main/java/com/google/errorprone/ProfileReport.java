@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+
+import com.google.common.base.Ascii;
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.ErrorProneTimings.CheckProfile;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the cost of each check in a compilation, for {@code -XepProfile}, as CSV if the file name
+ * ends in {@code .csv} and as JSON otherwise. Checks are listed from most to least expensive.
+ *
+ * <p>The JSON report looks like:
+ *
+ * <pre>{@code
+ * {
+ *   "initializationNanos": 1234,
+ *   "latencyBucketUpperBoundsMicros": [1, 2, 4, ...],
+ *   "checks": [
+ *     {"name": "...", "invocations": 1, "wallNanos": 2, "cpuNanos": 3, "allocatedBytes": 4,
+ *      "latencyHistogram": [5, 6, 7, ...]},
+ *     ...
+ *   ]
+ * }
+ * }</pre>
+ *
+ * <p>The last latency bucket has no upper bound. The CSV report has a row for each check, with the
+ * same columns.
+ */
+final class ProfileReport {
+
+  private static final int BUCKETS = ErrorProneTimings.LATENCY_BUCKETS;
+
+  static void write(Path path, ErrorProneTimings timings) throws IOException {
+    List<Map.Entry<String, CheckProfile>> checks = new ArrayList<>(timings.profiles().entrySet());
+    checks.sort(
+        comparing((Map.Entry<String, CheckProfile> e) -> e.getValue().wallTime())
+            .reversed()
+            .thenComparing(Map.Entry::getKey));
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (Writer writer = Files.newBufferedWriter(path, UTF_8)) {
+      if (Ascii.toLowerCase(path.toString()).endsWith(".csv")) {
+        writeCsv(writer, checks);
+      } else {
+        writeJson(writer, timings, checks);
+      }
+    }
+  }
+
+  private static void writeCsv(Writer writer, List<Map.Entry<String, CheckProfile>> checks)
+      throws IOException {
+    StringBuilder header = new StringBuilder("name,invocations,wallNanos,cpuNanos,allocatedBytes");
+    for (int i = 0; i < BUCKETS - 1; i++) {
+      header.append(",lt").append(upperBoundMicros(i)).append("us");
+    }
+    header.append(",ge").append(upperBoundMicros(BUCKETS - 2)).append("us");
+    writer.write(header.append('\n').toString());
+    for (Map.Entry<String, CheckProfile> check : checks) {
+      CheckProfile profile = check.getValue();
+      StringBuilder row =
+          new StringBuilder(check.getKey())
+              .append(',')
+              .append(profile.invocations())
+              .append(',')
+              .append(profile.wallTime().toNanos())
+              .append(',')
+              .append(profile.cpuTime().toNanos())
+              .append(',')
+              .append(profile.allocatedBytes());
+      for (long count : profile.latencyHistogram()) {
+        row.append(',').append(count);
+      }
+      writer.write(row.append('\n').toString());
+    }
+  }
+
+  private static void writeJson(
+      Writer writer, ErrorProneTimings timings, List<Map.Entry<String, CheckProfile>> checks)
+      throws IOException {
+    StringBuilder json = new StringBuilder("{\n");
+    json.append("  \"initializationNanos\": ")
+        .append(timings.initializationTime().toNanos())
+        .append(",\n");
+    json.append("  \"latencyBucketUpperBoundsMicros\": [");
+    for (int i = 0; i < BUCKETS - 1; i++) {
+      json.append(i == 0 ? "" : ", ").append(upperBoundMicros(i));
+    }
+    json.append("],\n");
+    json.append("  \"checks\": [");
+    for (int i = 0; i < checks.size(); i++) {
+      CheckProfile profile = checks.get(i).getValue();
+      ImmutableMap<String, Long> fields =
+          ImmutableMap.of(
+              "invocations", profile.invocations(),
+              "wallNanos", profile.wallTime().toNanos(),
+              "cpuNanos", profile.cpuTime().toNanos(),
+              "allocatedBytes", profile.allocatedBytes());
+      json.append(i == 0 ? "\n" : ",\n")
+          .append("    {\"name\": ")
+          .append(quote(checks.get(i).getKey()));
+      fields.forEach(
+          (name, value) -> json.append(", \"").append(name).append("\": ").append(value));
+      json.append(", \"latencyHistogram\": [");
+      for (int j = 0; j < profile.latencyHistogram().size(); j++) {
+        json.append(j == 0 ? "" : ", ").append(profile.latencyHistogram().get(j));
+      }
+      json.append("]}");
+    }
+    json.append(checks.isEmpty() ? "]\n" : "\n  ]\n").append("}\n");
+    writer.write(json.toString());
+  }
+
+  /** Returns the exclusive upper bound of the given latency bucket, in microseconds. */
+  private static long upperBoundMicros(int bucket) {
+    return 1L << bucket;
+  }
+
+  /** Returns {@code s} as a JSON string. */
+  static String quote(String s) {
+    StringBuilder quoted = new StringBuilder("\"");
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"', '\\' -> quoted.append('\\').append(c);
+        default -> {
+          if (c < 0x20) {
+            quoted.append(String.format("\\u%04x", (int) c));
+          } else {
+            quoted.append(c);
+          }
+        }
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  private ProfileReport() {}
+}
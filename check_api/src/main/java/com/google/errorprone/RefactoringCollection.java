@@ -16,10 +16,6 @@
 
 package com.google.errorprone;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.nio.file.StandardOpenOption.APPEND;
-import static java.nio.file.StandardOpenOption.CREATE;
-
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
@@ -37,13 +33,10 @@ import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Log;
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.file.FileSystems;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -88,27 +81,15 @@ public final class RefactoringCollection implements DescriptionListener.Factory
       Path baseDir = rootPath.resolve(patchingOptions.baseDirectory());
       Path patchFilePath = baseDir.resolve("error-prone.patch");
 
-      PatchFileDestination patchFileDestination = new PatchFileDestination(baseDir, rootPath);
+      fileDestination = new PatchFileDestination(baseDir, rootPath, patchFilePath);
       postProcess =
-          new Function<URI, RefactoringResult>() {
-            private final AtomicBoolean first = new AtomicBoolean(true);
-
-            @Override
-            public RefactoringResult apply(URI uri) {
-              try {
-                writePatchFile(first, uri, patchFileDestination, patchFilePath);
-                return new RefactoringResult(
-                    "Changes were written to "
-                        + patchFilePath
-                        + ". Please inspect the file and apply with: "
-                        + "patch -p0 -u -i error-prone.patch",
-                    RefactoringResultType.CHANGED);
-              } catch (IOException e) {
-                throw new RuntimeException("Failed to emit patch file!", e);
-              }
-            }
-          };
-      fileDestination = patchFileDestination;
+          uri ->
+              new RefactoringResult(
+                  "Changes were written to "
+                      + patchFilePath
+                      + ". Please inspect the file and apply with: "
+                      + "patch -p0 -u -i error-prone.patch",
+                  RefactoringResultType.CHANGED);
     }
 
     ImportOrganizer importOrganizer = patchingOptions.importOrganizer();
@@ -158,23 +139,6 @@ public final class RefactoringCollection implements DescriptionListener.Factory
     return new RefactoringResult("", RefactoringResultType.NO_CHANGES);
   }
 
-  private static void writePatchFile(
-      AtomicBoolean first, URI uri, PatchFileDestination fileDestination, Path patchFilePatch)
-      throws IOException {
-    String patchFile = fileDestination.patchFile(uri);
-    if (patchFile != null) {
-      if (first.compareAndSet(true, false)) {
-        try {
-          Files.deleteIfExists(patchFilePatch);
-        } catch (IOException e) {
-          throw new UncheckedIOException(e);
-        }
-      }
-      Files.createDirectories(patchFilePatch.getParent());
-      Files.write(patchFilePatch, patchFile.getBytes(UTF_8), APPEND, CREATE);
-    }
-  }
-
   private static boolean doApplyProcess(
       FileDestination fileDestination,
       FileSource fileSource,
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.errorprone.ErrorProneOptions.Severity;
+import com.google.errorprone.scanner.ErrorProneScannerTransformer;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.sun.tools.javac.main.Option;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Options;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The scanners configured for earlier compilations, for a long-lived process that runs many
+ * compilations, such as a build worker, to reuse in later ones.
+ *
+ * <p>Once it's {@linkplain #install installed} in a compilation's {@link Context}, the overrides in
+ * the compilation's {@link ErrorProneOptions} are applied to the checks only if no earlier
+ * compilation used the same options, checks and classpath. The instances of the checks are reused
+ * too, but only by one compilation at a time: a compilation takes a set of checks that no other
+ * compilation is running, or creates a new one, and {@linkplain #release gives it back} once it's
+ * done.
+ *
+ * <p>Checks that are loaded as plugins belong to the class loader of the annotation processor
+ * path. They're only found in the cache if the compilation's file manager returns the same class
+ * loader for the same path.
+ */
+public final class ScannerCache {
+
+  /** The number of configurations to keep. */
+  private static final int MAXIMUM_SIZE = 16;
+
+  public static ScannerCache create() {
+    return new ScannerCache();
+  }
+
+  /** Returns the cache installed in {@code context}, or {@code null}. */
+  static @Nullable ScannerCache instance(Context context) {
+    return context.get(ScannerCache.class);
+  }
+
+  /**
+   * The options that {@link ScannerSupplier#applyOverrides} reads, the checks they're applied to,
+   * and the {@linkplain #fingerprint fingerprint} of the compilation's classpath. Plugins are
+   * identified by their classes, and the other checks by the supplier of the compilation.
+   */
+  private record Key(
+      ScannerSupplier scannerSupplier,
+      ImmutableSet<Class<?>> checks,
+      ImmutableMap<String, Severity> severityMap,
+      ImmutableMap<String, String> flags,
+      boolean enableAllChecksAsWarnings,
+      boolean dropErrorsToWarnings,
+      boolean suggestionsAsWarnings,
+      boolean disableAllWarnings,
+      boolean disableAllChecks,
+      boolean ignoreUnknownChecks,
+      HashCode classpath) {}
+
+  /**
+   * A configured scanner supplier, and the transformers created from it that no compilation is
+   * using.
+   */
+  private record Entry(ScannerSupplier configured, Queue<ErrorProneScannerTransformer> idle) {}
+
+  /** The transformer that a compilation took from an entry, to give back by {@link #release}. */
+  private record Lease(Entry entry, ErrorProneScannerTransformer transformer) {}
+
+  private final Cache<Key, Entry> entries = Caffeine.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+
+  private ScannerCache() {}
+
+  /** Makes the compilation of {@code context} use this cache. */
+  public void install(Context context) {
+    context.put(ScannerCache.class, this);
+  }
+
+  /**
+   * Returns a transformer that runs the checks of {@code withPlugins}, with the overrides in {@code
+   * options} applied, for the compilation of {@code context}. {@code withPlugins} is {@code
+   * scannerSupplier}, plus any checks loaded from plugins.
+   */
+  ErrorProneScannerTransformer transformer(
+      ScannerSupplier scannerSupplier,
+      ScannerSupplier withPlugins,
+      ErrorProneOptions options,
+      Context context) {
+    Key key =
+        new Key(
+            scannerSupplier,
+            withPlugins == scannerSupplier
+                ? ImmutableSet.of()
+                : withPlugins.getAllChecks().values().stream()
+                    .map(BugCheckerInfo::checkerClass)
+                    .collect(toImmutableSet()),
+            options.getSeverityMap(),
+            options.getFlags().getFlagsMap(),
+            options.isEnableAllChecksAsWarnings(),
+            options.isDropErrorsToWarnings(),
+            options.isSuggestionsAsWarnings(),
+            options.isDisableAllWarnings(),
+            options.isDisableAllChecks(),
+            options.ignoreUnknownChecks(),
+            classpathFingerprint(context));
+    Entry entry =
+        entries.get(
+            key,
+            k -> new Entry(withPlugins.applyOverrides(options), new ConcurrentLinkedQueue<>()));
+    ErrorProneScannerTransformer transformer = entry.idle().poll();
+    if (transformer == null) {
+      transformer = ErrorProneScannerTransformer.create(entry.configured().get());
+    }
+    context.put(Lease.class, new Lease(entry, transformer));
+    return transformer;
+  }
+
+  /**
+   * Makes the checks that the compilation of {@code context} used available to later compilations.
+   * Must only be called once the compilation has finished normally; the checks of a compilation
+   * that failed are dropped.
+   */
+  public void release(Context context) {
+    Lease lease = context.get(Lease.class);
+    if (lease != null) {
+      lease.entry().idle().add(lease.transformer());
+    }
+  }
+
+  /** Returns the fingerprint of the classpath of the compilation of {@code context}. */
+  private static HashCode classpathFingerprint(Context context) {
+    Iterable<? extends Path> classpath;
+    if (context.get(JavaFileManager.class) instanceof StandardJavaFileManager fileManager) {
+      classpath = fileManager.getLocationAsPaths(StandardLocation.CLASS_PATH);
+    } else {
+      String option = Options.instance(context).get(Option.CLASS_PATH);
+      classpath =
+          option == null
+              ? ImmutableList.of()
+              : Splitter.on(File.pathSeparatorChar).omitEmptyStrings().splitToStream(option)
+                  .map(Path::of)
+                  .collect(toImmutableList());
+    }
+    try {
+      return fingerprint(classpath == null ? ImmutableList.of() : classpath);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns a fingerprint of {@code paths} that changes whenever any of their files do: it covers
+   * the name, size and modification time of every file, including those inside directories.
+   */
+  public static HashCode fingerprint(Iterable<? extends Path> paths) throws IOException {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (Path path : paths) {
+      Path absolute = path.toAbsolutePath();
+      hasher.putString(absolute.toString(), UTF_8).putByte((byte) 0);
+      if (!Files.exists(absolute)) {
+        hasher.putLong(-1);
+        continue;
+      }
+      try (Stream<Path> files = Files.walk(absolute)) {
+        for (Iterator<Path> it = files.sorted().iterator(); it.hasNext(); ) {
+          Path file = it.next();
+          BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+          hasher
+              .putString(absolute.relativize(file).toString(), UTF_8)
+              .putByte((byte) 0)
+              .putLong(attributes.size())
+              .putLong(attributes.lastModifiedTime().toMillis());
+        }
+      }
+    }
+    return hasher.hash();
+  }
+}
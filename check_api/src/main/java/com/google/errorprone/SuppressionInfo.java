@@ -29,6 +29,7 @@ import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.SimpleTreeVisitor;
 import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.util.Name;
 import com.sun.tools.javac.util.Pair;
@@ -138,16 +139,18 @@ public final class SuppressionInfo {
     boolean anyModification = newInGeneratedCode != inGeneratedCode;
 
     /* Handle custom suppression annotations. */
-    Set<Name> lookingFor = new HashSet<>(customSuppressionAnnosToLookFor);
-    lookingFor.removeAll(customSuppressions);
-    Set<Name> newlyPresent = ASTHelpers.annotationsAmong(sym, lookingFor, state);
-    Set<Name> newCustomSuppressions;
-    if (!newlyPresent.isEmpty()) {
-      anyModification = true;
-      newCustomSuppressions = newlyPresent;
-      newCustomSuppressions.addAll(customSuppressions);
-    } else {
-      newCustomSuppressions = customSuppressions;
+    Set<Name> newCustomSuppressions = customSuppressions;
+    // Only classes can inherit annotations, so other symbols without any can't add suppressions.
+    if (!customSuppressionAnnosToLookFor.isEmpty()
+        && (sym instanceof ClassSymbol || !sym.getAnnotationMirrors().isEmpty())) {
+      Set<Name> lookingFor = new HashSet<>(customSuppressionAnnosToLookFor);
+      lookingFor.removeAll(customSuppressions);
+      Set<Name> newlyPresent = ASTHelpers.annotationsAmong(sym, lookingFor, state);
+      if (!newlyPresent.isEmpty()) {
+        anyModification = true;
+        newCustomSuppressions = newlyPresent;
+        newCustomSuppressions.addAll(customSuppressions);
+      }
     }
 
     /* Handle {@code @SuppressWarnings} and {@code @SuppressLint}. */
@@ -34,8 +34,10 @@ import com.google.errorprone.fixes.ErrorProneEndPosTable;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Suppressible;
 import com.google.errorprone.suppliers.Supplier;
+import com.google.errorprone.util.CompilationUnitTokens;
 import com.google.errorprone.util.ErrorProneToken;
 import com.google.errorprone.util.ErrorProneTokens;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Kinds.Kind;
@@ -59,7 +61,6 @@ import com.sun.tools.javac.util.Names;
 import com.sun.tools.javac.util.Options;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.lang.ref.SoftReference;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -246,6 +247,12 @@ public final class VisitorState {
     // we can add a 'suppressed' field to Description to allow the description listener to bucket
     // them out.
     sharedState.descriptionListener.onDescribed(description);
+    // Deferred fixes that the listener didn't need were never computed.
+    int uncomputedFixes = description.uncomputedFixCount();
+    if (uncomputedFixes > 0) {
+      sharedState.statisticsCollector.incrementCounter(
+          statsKey(description.checkName + "-uncomputed-fixes"), uncomputedFixes);
+    }
   }
 
   private String statsKey(String key) {
@@ -353,12 +360,25 @@ public final class VisitorState {
     if (!modular) {
       return getSymbolFromString(getSymtab().noModule, name);
     }
+    // The symbol table indexes classes by name and then by module, so the classes with this name
+    // in any module are a single lookup away. Only if there are several of them do we need to walk
+    // the modules to pick one the way we always have.
+    ClassSymbol candidate = null;
+    for (ClassSymbol classSymbol : getSymtab().getClassesForName(name)) {
+      if (candidate != null) {
+        return getSymbolFromAnyModule(name);
+      }
+      candidate = classSymbol;
+    }
+    return candidate == null ? null : completeOrNull(candidate);
+  }
+
+  private @Nullable ClassSymbol getSymbolFromAnyModule(Name name) {
     for (ModuleSymbol msym : sharedState.modules.allModules()) {
       ClassSymbol result = getSymbolFromString(msym, name);
       if (result != null) {
-        // TODO(cushon): the path where we iterate over all modules is probably slow.
-        // Try to learn some lessons from JDK-8189747, and consider disallowing this case and
-        // requiring users to call the getSymbolFromString(ModuleSymbol, Name) overload instead.
+        // TODO(cushon): consider disallowing this case and requiring users to call the
+        // getSymbolFromString(ModuleSymbol, Name) overload instead.
         return result;
       }
     }
@@ -367,7 +387,11 @@ public final class VisitorState {
 
   public @Nullable ClassSymbol getSymbolFromString(ModuleSymbol msym, Name name) {
     ClassSymbol result = getSymtab().getClass(msym, name);
-    if (result == null || result.kind == Kind.ERR || !result.exists()) {
+    return result == null ? null : completeOrNull(result);
+  }
+
+  private static @Nullable ClassSymbol completeOrNull(ClassSymbol result) {
+    if (result.kind == Kind.ERR || !result.exists()) {
       return null;
     }
     try {
@@ -528,33 +552,49 @@ public final class VisitorState {
   /**
    * Returns the list of {@link Token}s for the given {@link JCTree}.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>The compilation unit is lexed the first time this is called for one of its trees, so it
+   * should only be used if a fix is already going to be emitted.
    */
   public ImmutableList<ErrorProneToken> getTokensForNode(Tree tree) {
-    return ErrorProneTokens.getTokens(getSourceForNode(tree), context);
+    return getTokensForNode(tree, 0);
   }
 
   /**
    * Returns the list of {@link Token}s for the given {@link JCTree}, offset by the start position
    * of the tree within the overall source.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>The compilation unit is lexed the first time this is called for one of its trees, so it
+   * should only be used if a fix is already going to be emitted.
    */
   public ImmutableList<ErrorProneToken> getOffsetTokensForNode(Tree tree) {
+    return getTokensForNode(tree, getStartPosition(tree));
+  }
+
+  private ImmutableList<ErrorProneToken> getTokensForNode(Tree tree, int offset) {
     int start = getStartPosition(tree);
-    return ErrorProneTokens.getTokens(getSourceForNode(tree), start, context);
+    int end = getEndPosition(tree);
+    if (hasExplicitSource(tree, this)
+        && 0 <= start
+        && start < end
+        && end <= getSourceCode().length()) {
+      return ImmutableList.copyOf(
+          CompilationUnitTokens.instance(this).getTokens(start, end, offset));
+    }
+    return ErrorProneTokens.getTokens(getSourceForNode(tree), offset, context);
   }
 
   /**
    * Returns the list of {@link Token}s for source code between the given positions, offset by the
    * start position.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>The compilation unit is lexed the first time this is called for one of its trees, so it
+   * should only be used if a fix is already going to be emitted.
    */
   public ImmutableList<ErrorProneToken> getOffsetTokens(int start, int end) {
+    if (0 <= start && start <= end && end <= getSourceCode().length()) {
+      return ImmutableList.copyOf(
+          CompilationUnitTokens.instance(this).getTokens(start, end, start));
+    }
     return ErrorProneTokens.getTokens(getSourceCode(start, end).toString(), start, context);
   }
 
@@ -563,6 +603,14 @@ public final class VisitorState {
     return ErrorProneEndPosTable.getEndPosition(node, getPath().getCompilationUnit());
   }
 
+  /**
+   * Returns the declarations and symbol references of the current compilation unit, which are
+   * collected the first time any check asks for them.
+   */
+  public SymbolUsageIndex getSymbolUsageIndex() {
+    return SymbolUsageIndex.instance(this);
+  }
+
   /** Validates a type string, ensuring it is not generic and not an array type. */
   private static void validateTypeStr(String typeStr) {
     if (typeStr.contains("[") || typeStr.contains("]")) {
@@ -608,44 +656,33 @@ public final class VisitorState {
 
   private static final class Cache<T> implements Supplier<T> {
     private final Supplier<T> impl;
-    /* Uses T instead of Optional<T> because we don't want to cache null results
-    (b/138753468). These inline caches persist between compilation units, and a type that fails to
-    resolve in one may become available in the next; we want to keep looking it up
-    (relying on the per-file cache in typeCache) if we don't have a result. If you want to cache a
-    computation which can return null, wrap it in an Optional at the call site.*/
+    /* Null results aren't cached (b/138753468): a type that fails to resolve in one compilation
+    unit may become available in the next, and we want to keep looking it up (relying on the
+    per-file cache in typeCache) if we don't have a result. If you want to cache a computation
+    which can return null, wrap it in an Optional at the call site.
 
-    private SoftReference<T> cache = new SoftReference<>(null);
-    private JavacInvocationInstance provenance;
+    The values themselves are held by the JavacInvocationInstance, in an array slot allocated for
+    this supplier, so they live exactly as long as the compilation and reading them doesn't need a
+    lock. */
+    private final int slot;
 
     private Cache(Supplier<T> impl) {
       this.impl = impl;
-      // provenance intentionally left null-initialized
+      this.slot = JavacInvocationInstance.allocateSlot(this);
     }
 
     @Override
-    public synchronized T get(VisitorState state) {
-      /*
-       * Don't let callers rely on the TreePath: The Cache is shared across the whole compilation,
-       * not just the current VisitorState's TreePath's CompilationUnit.
-       */
-      state = state.withNoPathForMemoization();
-
-      /* javac is single-threaded, so in principle we don't really need to lock.
-      But in practice it's cheap enough to be worth getting peace of mind that this is
-      always correct. */
-      T value = cache.get();
+    public T get(VisitorState state) {
+      JavacInvocationInstance invocation = state.sharedState.javacInvocationInstance;
+      T value = invocation.getMemoized(slot, this);
       if (value == null) {
-        value = impl.get(state);
+        /*
+         * Don't let callers rely on the TreePath: The Cache is shared across the whole compilation,
+         * not just the current VisitorState's TreePath's CompilationUnit.
+         */
+        value = impl.get(state.withNoPathForMemoization());
         if (value != null) {
-          cache = new SoftReference<>(value);
-          provenance = state.sharedState.javacInvocationInstance;
-        }
-      } else {
-        JavacInvocationInstance current = state.sharedState.javacInvocationInstance;
-        if (provenance != current) {
-          value = impl.get(state);
-          cache = new SoftReference<>(value);
-          provenance = current;
+          value = invocation.putMemoized(slot, this, value);
         }
       }
       return value;
@@ -659,6 +696,10 @@ public final class VisitorState {
    * <p><b>Note:</b> Do not use this method for a function that depends on the varying state of a
    * {@link com.google.errorprone.VisitorState} (e.g. {@link #getPath()}—including the compilation
    * unit itself!).
+   *
+   * <p>The result is computed once per compilation, the first time it's non-null, and held until
+   * the compilation ends. Create the supplier once, for example in a static field, rather than each
+   * time it's needed.
    */
   public static <T> Supplier<T> memoize(Supplier<T> f) {
     return new Cache<>(f);
@@ -89,10 +89,8 @@ public final class DescriptionBasedDiff implements DescriptionListener, Diff {
 
   @Override
   public void onDescribed(Description description) {
-    // Use only first (most likely) suggested fix
-    if (description.fixes.size() > 0) {
-      handleFix(description, description.fixes.getFirst());
-    }
+    // Use only first (most likely) suggested fix, without computing any deferred alternatives
+    description.getFirstFix().ifPresent(fix -> handleFix(description, fix));
   }
 
   public void handleFix(Description description, Fix fix) {
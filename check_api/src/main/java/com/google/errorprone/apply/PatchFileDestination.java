@@ -17,23 +17,26 @@
 package com.google.errorprone.apply;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.UnifiedDiffUtils;
 import com.github.difflib.patch.Patch;
-import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import java.io.IOException;
-import java.net.URI;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
- * A {@link FileDestination} that writes a unix-patch file to {@code rootPath} containing the
- * suggested changes.
+ * A {@link FileDestination} that appends the suggested changes to a unix-patch file, {@code
+ * patchFile}, as they're written. Any existing patch file is replaced when the first change is
+ * written.
+ *
+ * <p>The diff of a file is computed from the replacements that were {@linkplain
+ * DescriptionBasedDiff#applyDifferences applied} to it, if it hasn't been changed any other way.
  */
 public final class PatchFileDestination implements FileDestination {
 
@@ -43,33 +46,53 @@ public final class PatchFileDestination implements FileDestination {
 
   private final Path baseDir;
   private final Path rootPath;
-  // Path -> Unified Diff, sorted by path
-  private final Map<URI, String> diffByFile = new TreeMap<>();
+  private final Path patchFile;
+
+  /** Whether nothing has been written to {@link #patchFile} yet. */
+  private boolean first = true;
 
-  public PatchFileDestination(Path baseDir, Path rootPath) {
+  public PatchFileDestination(Path baseDir, Path rootPath, Path patchFile) {
     this.baseDir = baseDir;
     this.rootPath = rootPath;
+    this.patchFile = patchFile;
   }
 
   @Override
-  public void writeFile(SourceFile update) throws IOException {
+  public synchronized void writeFile(SourceFile update) throws IOException {
     Path sourceFilePath = rootPath.resolve(update.getPath());
+    String relativePath = baseDir.relativize(sourceFilePath).toString();
+    UnifiedDiff diff = update.getDiff();
+    if (diff != null) {
+      if (!diff.isEmpty()) {
+        try (Writer writer = openPatchFile()) {
+          diff.writeTo(relativePath, writer);
+        }
+      }
+      return;
+    }
     String oldSource = new String(Files.readAllBytes(sourceFilePath), UTF_8);
     String newSource = update.getSourceText();
     if (!oldSource.equals(newSource)) {
       List<String> originalLines = LINE_SPLITTER.splitToList(oldSource);
-
-      Patch<String> diff = DiffUtils.diff(originalLines, LINE_SPLITTER.splitToList(newSource));
-      String relativePath = baseDir.relativize(sourceFilePath).toString();
-      List<String> unifiedDiff =
-          UnifiedDiffUtils.generateUnifiedDiff(relativePath, relativePath, originalLines, diff, 2);
-      String diffString = Joiner.on("\n").join(unifiedDiff) + "\n";
-      diffByFile.put(sourceFilePath.toUri(), diffString);
+      Patch<String> patch = DiffUtils.diff(originalLines, LINE_SPLITTER.splitToList(newSource));
+      try (Writer writer = openPatchFile()) {
+        for (String line :
+            UnifiedDiffUtils.generateUnifiedDiff(
+                relativePath, relativePath, originalLines, patch, 2)) {
+          writer.write(line);
+          writer.write('\n');
+        }
+      }
     }
   }
 
-  public String patchFile(URI uri) {
-    return diffByFile.remove(uri);
+  private Writer openPatchFile() throws IOException {
+    if (first) {
+      first = false;
+      Files.deleteIfExists(patchFile);
+      Files.createDirectories(patchFile.getParent());
+    }
+    return Files.newBufferedWriter(patchFile, UTF_8, APPEND, CREATE);
   }
 
   @Override
@@ -32,6 +32,7 @@ import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Representation of a mutable Java source file.
@@ -46,6 +47,17 @@ public class SourceFile {
   private final String path;
   private final StringBuilder sourceBuilder;
 
+  /** Whether the source has been changed since this was created. */
+  private boolean changed = false;
+
+  /**
+   * The source as it was created, if the only change made to it since is a single call to {@link
+   * #makeReplacements}, which made {@link #replacements}.
+   */
+  private @Nullable String originalSource;
+
+  private ImmutableSet<Replacement> replacements = ImmutableSet.of();
+
   public static SourceFile create(JavaFileObject fileObject) throws IOException {
     return new SourceFile(fileObject.toUri().getPath(), fileObject.getCharContent(false));
   }
@@ -82,6 +94,7 @@ public class SourceFile {
   public void setSourceText(CharSequence source) {
     sourceBuilder.setLength(0); // clear StringBuilder
     sourceBuilder.append(source);
+    sourceChanged();
   }
 
   /**
@@ -127,6 +140,7 @@ public class SourceFile {
   /** Replace the source code with the new lines of code. */
   public void replaceLines(List<String> lines) {
     sourceBuilder.replace(0, sourceBuilder.length(), Joiner.on("\n").join(lines) + "\n");
+    sourceChanged();
   }
 
   /** Replace the source code between the start and end lines with some new lines of code. */
@@ -156,6 +170,7 @@ public class SourceFile {
   public void replaceChars(int startPosition, int endPosition, String replacement) {
     try {
       sourceBuilder.replace(startPosition, endPosition, replacement);
+      sourceChanged();
     } catch (StringIndexOutOfBoundsException e) {
       throw new IndexOutOfBoundsException(
           String.format(
@@ -165,21 +180,39 @@ public class SourceFile {
     }
   }
 
+  /**
+   * Returns the diff between the source as it was created and as it is now, if the only change
+   * made to it is a single call to {@link #makeReplacements}, or null otherwise.
+   */
+  @Nullable UnifiedDiff getDiff() {
+    return originalSource == null ? null : UnifiedDiff.create(originalSource, replacements);
+  }
+
+  private void sourceChanged() {
+    changed = true;
+    originalSource = null;
+    replacements = ImmutableSet.of();
+  }
+
   void makeReplacements(Replacements changes) {
     ImmutableSet<Replacement> replacements = changes.ascending();
-    switch (replacements.size()) {
-      case 0 -> {
-        return;
-      }
-      case 1 -> {
-        Replacement onlyReplacement = Iterables.getOnlyElement(replacements);
-        replaceChars(
-            onlyReplacement.startPosition(),
-            onlyReplacement.endPosition(),
-            onlyReplacement.replaceWith());
-        return;
-      }
-      default -> {}
+    if (replacements.isEmpty()) {
+      return;
+    }
+    String originalSource = changed ? null : getSourceText();
+    applyReplacements(replacements);
+    this.originalSource = originalSource;
+    this.replacements = replacements;
+  }
+
+  private void applyReplacements(ImmutableSet<Replacement> replacements) {
+    if (replacements.size() == 1) {
+      Replacement onlyReplacement = Iterables.getOnlyElement(replacements);
+      replaceChars(
+          onlyReplacement.startPosition(),
+          onlyReplacement.endPosition(),
+          onlyReplacement.replaceWith());
+      return;
     }
 
     // Since we have many replacements to make all at once, it's better to start off with a clean
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.apply;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.fixes.Replacement;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A unified diff of a source file, computed from the {@link Replacement}s made to it.
+ *
+ * <p>Rather than comparing the old and new text of the whole file, each group of replacements that
+ * touch the same lines becomes a change to just those lines, found through an index of where the
+ * lines of the original source start. Lines that a change leaves as they were are trimmed from its
+ * start and end, so the diff is as tight as one computed by comparing the text.
+ */
+final class UnifiedDiff {
+
+  /** The number of unchanged lines around each change, as in {@code diff -U2}. */
+  private static final int CONTEXT = 2;
+
+  private final String source;
+
+  /**
+   * The start of each line of {@link #source}, followed by the end of the source. The last line is
+   * empty if the source ends with a newline, and isn't counted in {@link #lineCount}.
+   */
+  private final int[] lineStarts;
+
+  private final int lineCount;
+  private final ImmutableList<Change> changes;
+
+  /** A run of the original lines, from {@code start} to {@code end}, replaced by {@code lines}. */
+  private record Change(int start, int end, List<String> lines) {
+    int delta() {
+      return lines.size() - (end - start);
+    }
+  }
+
+  /**
+   * Returns the diff between {@code source} and the result of making the given non-overlapping
+   * {@code replacements}, sorted in ascending order, to it.
+   */
+  static UnifiedDiff create(String source, ImmutableSet<Replacement> replacements) {
+    return new UnifiedDiff(source, replacements.asList());
+  }
+
+  private UnifiedDiff(String source, ImmutableList<Replacement> replacements) {
+    this.source = source;
+    int[] starts = new int[16];
+    int lines = 1;
+    for (int i = source.indexOf('\n'); i != -1; i = source.indexOf('\n', i + 1)) {
+      if (lines == starts.length) {
+        starts = Arrays.copyOf(starts, lines * 2);
+      }
+      starts[lines++] = i + 1;
+    }
+    this.lineStarts = Arrays.copyOf(starts, lines + 1);
+    lineStarts[lines] = source.length();
+    this.lineCount = source.endsWith("\n") || source.isEmpty() ? lines - 1 : lines;
+    this.changes = changes(replacements);
+  }
+
+  /** Whether the replacements leave the source as it was. */
+  boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  /** Writes the diff, with {@code path} as the name of both the old and new file. */
+  void writeTo(String path, Writer writer) throws IOException {
+    writer.write("--- " + path + "\n");
+    writer.write("+++ " + path + "\n");
+    int delta = 0;
+    for (int first = 0; first < changes.size(); ) {
+      int last = first;
+      while (last + 1 < changes.size()
+          && changes.get(last + 1).start() - changes.get(last).end() <= 2 * CONTEXT) {
+        last++;
+      }
+      int start = Math.max(0, changes.get(first).start() - CONTEXT);
+      int end = Math.min(lineCount, changes.get(last).end() + CONTEXT);
+      int hunkDelta = 0;
+      for (int i = first; i <= last; i++) {
+        hunkDelta += changes.get(i).delta();
+      }
+      writer.write(
+          "@@ -"
+              + range(start, end - start)
+              + " +"
+              + range(start + delta, end - start + hunkDelta)
+              + " @@\n");
+      int line = start;
+      for (int i = first; i <= last; i++) {
+        Change change = changes.get(i);
+        for (; line < change.start(); line++) {
+          writeLine(writer, ' ', line(line));
+        }
+        for (; line < change.end(); line++) {
+          writeLine(writer, '-', line(line));
+        }
+        for (String added : change.lines()) {
+          writeLine(writer, '+', added);
+        }
+      }
+      for (; line < end; line++) {
+        writeLine(writer, ' ', line(line));
+      }
+      delta += hunkDelta;
+      first = last + 1;
+    }
+  }
+
+  private ImmutableList<Change> changes(ImmutableList<Replacement> replacements) {
+    ImmutableList.Builder<Change> changes = ImmutableList.builder();
+    for (int i = 0; i < replacements.size(); ) {
+      // Replacements that start on a line that an earlier one touches change the same lines.
+      Replacement replacement = replacements.get(i++);
+      int firstLine = lineOf(replacement.startPosition());
+      int lastLine = lineOf(replacement.endPosition());
+      StringBuilder text =
+          new StringBuilder()
+              .append(source, lineStarts[firstLine], replacement.startPosition())
+              .append(replacement.replaceWith());
+      int position = replacement.endPosition();
+      while (i < replacements.size() && lineOf(replacements.get(i).startPosition()) <= lastLine) {
+        replacement = replacements.get(i++);
+        text.append(source, position, replacement.startPosition())
+            .append(replacement.replaceWith());
+        position = replacement.endPosition();
+        lastLine = Math.max(lastLine, lineOf(position));
+      }
+      text.append(source, position, lineStarts[lastLine + 1]);
+
+      List<String> lines = splitLines(text);
+      int start = firstLine;
+      int end = Math.min(lastLine + 1, lineCount);
+      int from = 0;
+      int to = lines.size();
+      while (start < end && from < to && line(start).equals(lines.get(from))) {
+        start++;
+        from++;
+      }
+      while (start < end && from < to && line(end - 1).equals(lines.get(to - 1))) {
+        end--;
+        to--;
+      }
+      if (start < end || from < to) {
+        changes.add(new Change(start, end, lines.subList(from, to)));
+      }
+    }
+    return changes.build();
+  }
+
+  /** Returns the line that contains {@code position}. */
+  private int lineOf(int position) {
+    int line = Arrays.binarySearch(lineStarts, 0, lineStarts.length - 1, position);
+    // Lines are never empty, except for the last one; and an insertion at the start of a line
+    // belongs to that line.
+    return line >= 0 ? line : -line - 2;
+  }
+
+  /** Returns the text of a line of the source, including its terminating newline if it has one. */
+  private String line(int line) {
+    return source.substring(lineStarts[line], lineStarts[line + 1]);
+  }
+
+  private static List<String> splitLines(CharSequence text) {
+    List<String> lines = new ArrayList<>();
+    int start = 0;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        lines.add(text.subSequence(start, i + 1).toString());
+        start = i + 1;
+      }
+    }
+    if (start < text.length()) {
+      lines.add(text.subSequence(start, text.length()).toString());
+    }
+    return lines;
+  }
+
+  /** Formats the range of a hunk, which names the line before it if it's empty. */
+  private static String range(int start, int count) {
+    return (count == 0 ? start : start + 1) + "," + count;
+  }
+
+  private static void writeLine(Writer writer, char prefix, String line) throws IOException {
+    writer.write(prefix);
+    if (line.endsWith("\n")) {
+      writer.write(line);
+    } else {
+      writer.write(line);
+      writer.write("\n\\ No newline at end of file\n");
+    }
+  }
+}
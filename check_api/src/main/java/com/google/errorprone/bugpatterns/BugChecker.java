@@ -21,6 +21,7 @@ import static com.google.errorprone.util.ASTHelpers.getDeclaredSymbol;
 import static com.google.errorprone.util.ASTHelpers.getModifiers;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
@@ -34,6 +35,7 @@ import com.google.errorprone.annotations.CheckReturnValue;
 import com.google.errorprone.fixes.ErrorPronePosition;
 import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Suppressible;
 import com.google.errorprone.suppliers.Supplier;
 import com.sun.source.tree.AnnotatedTypeTree;
@@ -60,6 +62,7 @@ import com.sun.source.tree.DoWhileLoopTree;
 import com.sun.source.tree.EmptyStatementTree;
 import com.sun.source.tree.EnhancedForLoopTree;
 import com.sun.source.tree.ExportsTree;
+import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.ExpressionStatementTree;
 import com.sun.source.tree.ForLoopTree;
 import com.sun.source.tree.IdentifierTree;
@@ -273,6 +276,10 @@ public abstract class BugChecker implements Suppressible, Serializable {
     return info.disableable();
   }
 
+  public boolean cacheSafe() {
+    return info.cacheSafe();
+  }
+
   @Override
   public Set<Class<? extends Annotation>> customSuppressionAnnotations() {
     return info.customSuppressionAnnotations();
@@ -499,6 +506,20 @@ public abstract class BugChecker implements Suppressible, Serializable {
 
   public interface MethodInvocationTreeMatcher extends Suppressible {
     Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state);
+
+    /**
+     * The matchers that an invocation has to satisfy at least one of for {@link
+     * #matchMethodInvocation} to report anything, or an empty list if there are no such matchers.
+     *
+     * <p>The scanner compiles the declared {@link
+     * com.google.errorprone.matchers.method.MethodMatchers fluent method matchers} of all enabled
+     * checks into one automaton, which finds the checks that an invocation might interest by
+     * looking at its method's kind and name once, instead of once per check. Other kinds of
+     * matchers are allowed, but then the check sees every invocation.
+     */
+    default ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+      return ImmutableList.of();
+    }
   }
 
   public interface ModifiersTreeMatcher extends Suppressible {
@@ -16,10 +16,11 @@
 
 package com.google.errorprone.dataflow;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
-import com.google.auto.value.AutoValue;
 import com.google.common.base.Preconditions;
+import com.google.errorprone.ErrorProneFlags;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.ErrorProneTimings;
+import com.google.errorprone.InvalidCommandLineOptionException;
 import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
@@ -31,6 +32,12 @@ import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.util.Context;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import org.checkerframework.errorprone.dataflow.analysis.AbstractValue;
 import org.checkerframework.errorprone.dataflow.analysis.Analysis;
@@ -58,64 +65,153 @@ public final class DataFlow {
     ControlFlowGraph getControlFlowGraph();
   }
 
+  /** The default maximum number of control flow graphs cached per compilation unit. */
+  private static final int DEFAULT_CFG_CACHE_SIZE = 256;
+
+  /**
+   * Sets the maximum number of control flow graphs, and the analyses run over them, that are cached
+   * for a compilation unit.
+   */
+  public static final String CFG_CACHE_SIZE_FLAG = "DataFlow:CfgCacheSize";
+
   /*
-   * We cache both the control flow graph and the analyses that are run on it.
-   * We tuned performance to the following assumptions (which are currently true for error-prone):
+   * We cache the control flow graph of each method, lambda and initializer, and the analyses that
+   * are run on it, for the compilation unit that is currently being analyzed. Checks can request
+   * dataflow results for different methods in any order, and each control flow graph is built at
+   * most once per compilation unit unless the cache overflows.
    *
-   * <ul>
-   * <li> all dataflow analyses for a method are finished before another method is analyzed
-   * <li> multiple dataflow analyses for the same method are executed in arbitrary order
-   * </ul>
-   *
-   * TODO(b/158869538): Write a test that checks these assumptions
+   * The cache lives in the compilation's context, so it is dropped along with the compilation, and
+   * it is discarded when the compilation moves on to a different compilation unit. Checks only run
+   * on javac's thread, even with -XepParallelism, so the cache is confined to it.
    */
-  private static final LoadingCache<AnalysisParams, Analysis<?, ?, ?>> analysisCache =
-      Caffeine.newBuilder()
-          .build(
-              (AnalysisParams key) -> {
-                ControlFlowGraph cfg = key.cfg();
-                ForwardTransferFunction<?, ?> transfer = key.transferFunction();
+  private static final class CfgCache {
+    private @Nullable UnitCache current;
+
+    static CfgCache instance(Context context) {
+      CfgCache instance = context.get(CfgCache.class);
+      if (instance == null) {
+        instance = new CfgCache();
+        context.put(CfgCache.class, instance);
+      }
+      return instance;
+    }
+  }
+
+  /** The cached control flow graphs for a single compilation unit. */
+  private static final class UnitCache {
+    private final CompilationUnitTree compilationUnit;
+    private final ErrorProneTimings timings;
+    private final Map<Tree, CfgAndAnalyses> cfgs;
+    // The trees that a control flow graph has been built for, to detect rebuilds after eviction.
+    private final Set<Tree> built = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    UnitCache(CompilationUnitTree compilationUnit, ErrorProneTimings timings, int maximumSize) {
+      this.compilationUnit = compilationUnit;
+      this.timings = timings;
+      this.cfgs =
+          new LinkedHashMap<>(16, 0.75f, /* accessOrder= */ true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Tree, CfgAndAnalyses> eldest) {
+              return size() > maximumSize;
+            }
+          };
+    }
+
+    CfgAndAnalyses get(TreePath methodPath, ProcessingEnvironment env) {
+      Tree method = methodPath.getLeaf();
+      CfgAndAnalyses cached = cfgs.get(method);
+      if (cached != null) {
+        timings.recordCfgCacheHit();
+        return cached;
+      }
+      timings.recordCfgCacheMiss(/* rebuild= */ !built.add(method));
+      CfgAndAnalyses result = new CfgAndAnalyses(buildCfg(methodPath, env));
+      cfgs.put(method, result);
+      return result;
+    }
+  }
+
+  /** A control flow graph, and the analyses that have been run over it, by transfer function. */
+  private static final class CfgAndAnalyses {
+    private final ControlFlowGraph cfg;
+    private final Map<ForwardTransferFunction<?, ?>, Analysis<?, ?, ?>> analyses = new HashMap<>();
+
+    CfgAndAnalyses(ControlFlowGraph cfg) {
+      this.cfg = cfg;
+    }
+
+    Analysis<?, ?, ?> analysis(ForwardTransferFunction<?, ?> transfer) {
+      Analysis<?, ?, ?> analysis = analyses.get(transfer);
+      if (analysis == null) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Analysis<?, ?, ?> newAnalysis = new ForwardAnalysisImpl(transfer);
+        newAnalysis.performAnalysis(cfg);
+        analysis = newAnalysis;
+        analyses.put(transfer, analysis);
+      }
+      return analysis;
+    }
+  }
+
+  private static UnitCache unitCache(CompilationUnitTree compilationUnit, Context context) {
+    CfgCache cfgCache = CfgCache.instance(context);
+    UnitCache cache = cfgCache.current;
+    if (cache == null || cache.compilationUnit != compilationUnit) {
+      ErrorProneTimings timings = ErrorProneTimings.instance(context);
+      cache = new UnitCache(compilationUnit, timings, cfgCacheSize(context));
+      cfgCache.current = cache;
+    }
+    return cache;
+  }
+
+  private static int cfgCacheSize(Context context) {
+    ErrorProneOptions options = context.get(ErrorProneOptions.class);
+    return options == null ? DEFAULT_CFG_CACHE_SIZE : cfgCacheSize(options.getFlags());
+  }
 
-                @SuppressWarnings({"unchecked", "rawtypes"})
-                Analysis<?, ?, ?> analysis = new ForwardAnalysisImpl(transfer);
-                analysis.performAnalysis(cfg);
-                return analysis;
-              });
+  private static int cfgCacheSize(ErrorProneFlags flags) {
+    int size = flags.getInteger(CFG_CACHE_SIZE_FLAG).orElse(DEFAULT_CFG_CACHE_SIZE);
+    if (size < 1) {
+      throw new InvalidCommandLineOptionException(
+          String.format("-XepOpt:%s must be at least 1, was: %d", CFG_CACHE_SIZE_FLAG, size));
+    }
+    return size;
+  }
 
-  private static final LoadingCache<CfgParams, ControlFlowGraph> cfgCache =
-      Caffeine.newBuilder()
-          .maximumSize(1)
-          .build(
-              (CfgParams key) -> {
-                TreePath methodPath = key.methodPath();
-                UnderlyingAST ast;
-                ClassTree classTree = null;
-                MethodTree methodTree = null;
-                for (Tree parent : methodPath) {
-                  if (parent instanceof MethodTree m) {
-                    methodTree = m;
-                  }
-                  if (parent instanceof ClassTree c) {
-                    classTree = c;
-                    break;
-                  }
-                }
-                if (methodPath.getLeaf() instanceof LambdaExpressionTree lambdaExpressionTree) {
-                  ast = new UnderlyingAST.CFGLambda(lambdaExpressionTree, classTree, methodTree);
-                } else if (methodPath.getLeaf() instanceof MethodTree mt) {
-                  methodTree = mt;
-                  ast = new UnderlyingAST.CFGMethod(methodTree, classTree);
-                } else {
-                  // must be an initializer per findEnclosingMethodOrLambdaOrInitializer
-                  ast = new UnderlyingAST.CFGStatement(methodPath.getLeaf(), classTree);
-                }
-                ProcessingEnvironment env = key.environment();
+  /**
+   * Throws {@link InvalidCommandLineOptionException} if {@code flags} configure the dataflow cache
+   * with an invalid value.
+   */
+  public static void checkFlags(ErrorProneFlags flags) {
+    var unused = cfgCacheSize(flags);
+  }
 
-                analysisCache.invalidateAll();
-                CompilationUnitTree root = methodPath.getCompilationUnit();
-                // TODO(b/158869538): replace with faster build(bodyPath, env, ast, false, false);
-                return CFGBuilder.build(root, ast, false, false, env);
-              });
+  private static ControlFlowGraph buildCfg(TreePath methodPath, ProcessingEnvironment env) {
+    UnderlyingAST ast;
+    ClassTree classTree = null;
+    MethodTree methodTree = null;
+    for (Tree parent : methodPath) {
+      if (parent instanceof MethodTree m) {
+        methodTree = m;
+      }
+      if (parent instanceof ClassTree c) {
+        classTree = c;
+        break;
+      }
+    }
+    if (methodPath.getLeaf() instanceof LambdaExpressionTree lambdaExpressionTree) {
+      ast = new UnderlyingAST.CFGLambda(lambdaExpressionTree, classTree, methodTree);
+    } else if (methodPath.getLeaf() instanceof MethodTree mt) {
+      methodTree = mt;
+      ast = new UnderlyingAST.CFGMethod(methodTree, classTree);
+    } else {
+      // must be an initializer per findEnclosingMethodOrLambdaOrInitializer
+      ast = new UnderlyingAST.CFGStatement(methodPath.getLeaf(), classTree);
+    }
+    CompilationUnitTree root = methodPath.getCompilationUnit();
+    // TODO(b/158869538): replace with faster build(bodyPath, env, ast, false, false);
+    return CFGBuilder.build(root, ast, false, false, env);
+  }
 
   private static @Nullable TreePath findEnclosingMethodOrLambdaOrInitializer(TreePath path) {
     while (path != null) {
@@ -148,7 +244,7 @@ public final class DataFlow {
    * Run the {@code transfer} dataflow analysis over the method or lambda which is the leaf of the
    * {@code methodPath}.
    *
-   * <p>For caching, we make the following assumptions: - if two paths to methods are {@code equal},
+   * <p>For caching, we make the following assumptions: - if two paths lead to the same method,
    * their control flow graph is the same. - if two transfer functions are {@code equal}, and are
    * run over the same control flow graph, the analysis result is the same. - for all contexts, the
    * analysis result is the same.
@@ -158,10 +254,11 @@ public final class DataFlow {
       Result<A, S, T> methodDataflow(TreePath methodPath, Context context, T transfer) {
     ProcessingEnvironment env = JavacProcessingEnvironment.instance(context);
 
-    ControlFlowGraph cfg = cfgCache.get(CfgParams.create(methodPath, env));
-    AnalysisParams aparams = AnalysisParams.create(transfer, cfg, env);
+    CfgAndAnalyses cached =
+        unitCache(methodPath.getCompilationUnit(), context).get(methodPath, env);
+    ControlFlowGraph cfg = cached.cfg;
     @SuppressWarnings("unchecked")
-    Analysis<A, S, T> analysis = (Analysis<A, S, T>) analysisCache.get(aparams);
+    Analysis<A, S, T> analysis = (Analysis<A, S, T>) cached.analysis(transfer);
 
     return new Result<A, S, T>() {
       @Override
@@ -217,47 +314,5 @@ public final class DataFlow {
     return methodDataflow(enclosingMethodPath, context, transfer).getAnalysis().getValue(expr);
   }
 
-  @AutoValue
-  abstract static class CfgParams {
-    abstract TreePath methodPath();
-
-    // Should not be used for hashCode or equals
-    private ProcessingEnvironment environment;
-
-    private static CfgParams create(TreePath methodPath, ProcessingEnvironment environment) {
-      CfgParams cp = new AutoValue_DataFlow_CfgParams(methodPath);
-      cp.environment = environment;
-      return cp;
-    }
-
-    ProcessingEnvironment environment() {
-      return environment;
-    }
-  }
-
-  @AutoValue
-  abstract static class AnalysisParams {
-
-    abstract ForwardTransferFunction<?, ?> transferFunction();
-
-    abstract ControlFlowGraph cfg();
-
-    // Should not be used for hashCode or equals
-    private ProcessingEnvironment environment;
-
-    private static AnalysisParams create(
-        ForwardTransferFunction<?, ?> transferFunction,
-        ControlFlowGraph cfg,
-        ProcessingEnvironment environment) {
-      AnalysisParams ap = new AutoValue_DataFlow_AnalysisParams(transferFunction, cfg);
-      ap.environment = environment;
-      return ap;
-    }
-
-    ProcessingEnvironment environment() {
-      return environment;
-    }
-  }
-
   private DataFlow() {}
 }
@@ -49,8 +49,11 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
+import com.google.common.collect.TreeRangeSet;
 import com.google.common.io.CharStreams;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.apply.DescriptionBasedDiff;
@@ -67,6 +70,7 @@ import com.sun.source.doctree.ParamTree;
 import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.AssignmentTree;
 import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.CompoundAssignmentTree;
@@ -90,6 +94,7 @@ import com.sun.source.util.JavacTask;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.api.JavacTaskImpl;
 import com.sun.tools.javac.api.JavacTool;
 import com.sun.tools.javac.api.JavacTrees;
 import com.sun.tools.javac.code.BoundKind;
@@ -1345,8 +1350,9 @@ public final class SuggestedFixes {
 
   /**
    * Returns true if the current compilation would succeed with the given fix applied. Note that
-   * calling this method is very expensive as it requires rerunning the entire compile, so it should
-   * be used with restraint.
+   * calling this method is expensive as it requires recompiling, so it should be used with
+   * restraint. If the fix only changes method or initializer bodies, only the compilation unit
+   * being fixed is re-attributed; otherwise the entire compilation is rerun.
    */
   public static boolean compilesWithFix(Fix fix, VisitorState state) {
     return compilesWithFix(fix, state, ImmutableList.of(), false);
@@ -1355,20 +1361,115 @@ public final class SuggestedFixes {
   /**
    * Returns true if the current compilation would succeed with the given fix applied, using the
    * given additional compiler options, optionally limiting the checking of compilation failures to
-   * the compilation unit in which the fix is applied. Note that calling this method is very
-   * expensive as it requires rerunning the entire compile, so it should be used with restraint.
+   * the compilation unit in which the fix is applied. Note that calling this method is expensive
+   * as it requires recompiling, so it should be used with restraint.
    */
   public static boolean compilesWithFix(
       Fix fix,
       VisitorState state,
       ImmutableList<String> extraOptions,
       boolean onlyInSameCompilationUnit) {
+    return compilesWithFixes(
+        ImmutableList.of(fix), state, extraOptions, onlyInSameCompilationUnit);
+  }
+
+  /**
+   * Returns the fixes from {@code fixes} with which the current compilation would succeed, in the
+   * order they were given.
+   *
+   * <p>The fixes are first checked all together, and only split up if that compilation fails, so
+   * if most of the fixes compile this costs a single recompilation rather than one per fix. This
+   * relies on the fixes being independent: applying all of them together must not succeed unless
+   * each of them would succeed on its own. For example, adding {@code final} to several different
+   * fields.
+   */
+  public static <F extends Fix> ImmutableList<F> compilingFixes(
+      List<F> fixes, VisitorState state) {
+    ImmutableList.Builder<F> compiling = ImmutableList.builder();
+    addCompilingFixes(fixes, state, compiling);
+    return compiling.build();
+  }
+
+  private static <F extends Fix> void addCompilingFixes(
+      List<F> fixes, VisitorState state, ImmutableList.Builder<F> compiling) {
+    if (fixes.isEmpty()) {
+      return;
+    }
+    if (compilesWithFixes(fixes, state, ImmutableList.of(), false)) {
+      compiling.addAll(fixes);
+      return;
+    }
+    if (fixes.size() > 1) {
+      int mid = fixes.size() / 2;
+      addCompilingFixes(fixes.subList(0, mid), state, compiling);
+      addCompilingFixes(fixes.subList(mid, fixes.size()), state, compiling);
+    }
+  }
+
+  private static boolean compilesWithFixes(
+      List<? extends Fix> fixes,
+      VisitorState state,
+      ImmutableList<String> extraOptions,
+      boolean onlyInSameCompilationUnit) {
     ImmutableList.Builder<String> extraOptionsBuilder =
         ImmutableList.<String>builder().addAll(extraOptions);
     int maxErrors = findOptionOrAppend(extraOptionsBuilder, extraOptions, "-Xmaxerrs", 100);
     int maxWarnings = findOptionOrAppend(extraOptionsBuilder, extraOptions, "-Xmaxwarns", 100);
-    return compilesWithFix(
-        fix, state, extraOptionsBuilder.build(), onlyInSameCompilationUnit, maxErrors, maxWarnings);
+    // Changes to method bodies can't affect how other compilation units are attributed, so unless
+    // different options might produce new diagnostics in them, there's no need to recompile them.
+    boolean onlyModifiedCompilationUnit =
+        onlyInSameCompilationUnit || (extraOptions.isEmpty() && changesOnlyBodies(fixes, state));
+    return compilesWithFixes(
+        fixes,
+        state,
+        extraOptionsBuilder.build(),
+        onlyInSameCompilationUnit,
+        onlyModifiedCompilationUnit,
+        maxErrors,
+        maxWarnings);
+  }
+
+  /**
+   * Returns true if every replacement made by {@code fixes} is strictly inside the body of a method
+   * or an initializer block, where it can't change anything visible to other compilation units.
+   */
+  private static boolean changesOnlyBodies(List<? extends Fix> fixes, VisitorState state) {
+    JCCompilationUnit compilationUnit = (JCCompilationUnit) state.getPath().getCompilationUnit();
+    RangeSet<Integer> bodies = TreeRangeSet.create();
+    new TreeScanner<Void, Void>() {
+      @Override
+      public Void visitMethod(MethodTree tree, Void unused) {
+        if (tree.getBody() != null) {
+          addBody(tree.getBody());
+        }
+        return null;
+      }
+
+      @Override
+      public Void visitVariable(VariableTree tree, Void unused) {
+        // Field initializers may be constants, which are inlined into other compilation units.
+        return null;
+      }
+
+      @Override
+      public Void visitBlock(BlockTree tree, Void unused) {
+        // Any block not inside a method or variable is an initializer.
+        addBody(tree);
+        return null;
+      }
+
+      private void addBody(BlockTree body) {
+        int start = getStartPosition(body);
+        int end = state.getEndPosition(body);
+        if (start != NOPOS && end != NOPOS) {
+          bodies.add(Range.closedOpen(start + 1, end - 1));
+        }
+      }
+    }.scan(compilationUnit, null);
+    ErrorProneEndPosTable endPositions = ErrorProneEndPosTable.create(compilationUnit);
+    return fixes.stream()
+        .flatMap(fix -> fix.getReplacements(endPositions).stream())
+        .allMatch(replacement -> bodies.encloses(replacement.range()));
   }
 
   private static int findOptionOrAppend(
@@ -1389,25 +1490,35 @@ public final class SuggestedFixes {
     return value;
   }
 
-  private static boolean compilesWithFix(
-      Fix fix,
+  private static boolean compilesWithFixes(
+      List<? extends Fix> fixes,
       VisitorState state,
       ImmutableList<String> extraOptions,
       boolean onlyInSameCompilationUnit,
+      boolean onlyModifiedCompilationUnit,
       int maxErrors,
       int maxWarnings) {
-    if (fix.isEmpty() && extraOptions.isEmpty()) {
+    if (fixes.stream().allMatch(Fix::isEmpty) && extraOptions.isEmpty()) {
       return true;
     }
 
     FixCompiler fixCompiler;
     try {
-      fixCompiler = FixCompiler.create(fix, state);
+      fixCompiler = FixCompiler.create(fixes, state);
     } catch (IOException e) {
       return false;
+    } catch (IllegalArgumentException e) {
+      if (fixes.size() == 1) {
+        throw e;
+      }
+      // The fixes overlap, and can't be applied together.
+      return false;
     }
 
-    Result compilationResult = fixCompiler.compile(extraOptions);
+    Result compilationResult =
+        onlyModifiedCompilationUnit
+            ? fixCompiler.compileModifiedCompilationUnit(extraOptions)
+            : fixCompiler.compile(extraOptions);
     URI modifiedFileUri = FixCompiler.getModifiedFileUri(state);
 
     // If we reached the maximum number of diagnostics of a given kind without finding one in the
@@ -1470,7 +1581,22 @@ public final class SuggestedFixes {
       this.speculativeFiles = ImmutableMap.copyOf(speculativeFiles);
     }
 
+    /** Recompiles all the files in the compilation. */
     public Result compile(ImmutableList<String> extraOptions) {
+      return compile(extraOptions, /* onlyModifiedCompilationUnit= */ false);
+    }
+
+    /**
+     * Recompiles the compilation, but only attributes and flow-analyzes the classes in the
+     * modified compilation unit. The other files are still parsed and entered, so the modified
+     * compilation unit sees the same symbols, but no diagnostics are reported for their bodies.
+     */
+    public Result compileModifiedCompilationUnit(ImmutableList<String> extraOptions) {
+      return compile(extraOptions, /* onlyModifiedCompilationUnit= */ true);
+    }
+
+    private Result compile(
+        ImmutableList<String> extraOptions, boolean onlyModifiedCompilationUnit) {
       DiagnosticCollector<JavaFileObject> diagnosticListener = new DiagnosticCollector<>();
       Context context = createContext();
       Arguments arguments = Arguments.instance(javacTask.getContext());
@@ -1492,20 +1618,34 @@ public final class SuggestedFixes {
               }
             };
       }
-      JavacTask newTask =
-          JavacTool.create()
-              .getTask(
-                  CharStreams.nullWriter(),
-                  fileManager,
-                  diagnosticListener,
-                  extraOptions,
-                  arguments.getClassNames(),
-                  fileObjects,
-                  context);
-      try {
+      JavacTaskImpl newTask =
+          (JavacTaskImpl)
+              JavacTool.create()
+                  .getTask(
+                      CharStreams.nullWriter(),
+                      fileManager,
+                      diagnosticListener,
+                      extraOptions,
+                      arguments.getClassNames(),
+                      fileObjects,
+                      context);
+      if (onlyModifiedCompilationUnit) {
+        URI modifiedFileUri = sourceURI(getModifiedFileUri(state));
+        ImmutableList<Element> modifiedClasses =
+            stream(newTask.enter())
+                .filter(
+                    e ->
+                        e instanceof ClassSymbol classSymbol
+                            && classSymbol.sourcefile != null
+                            && classSymbol.sourcefile.toUri().equals(modifiedFileUri))
+                .collect(toImmutableList());
+        if (modifiedClasses.isEmpty()) {
+          newTask.analyze();
+        } else {
+          newTask.analyze(modifiedClasses);
+        }
+      } else {
         newTask.analyze();
-      } catch (IOException e) {
-        throw new UncheckedIOException(e);
       }
       return new Result(diagnosticListener.getDiagnostics());
     }
@@ -1538,6 +1678,16 @@ public final class SuggestedFixes {
     }
 
     public static FixCompiler create(Fix fix, VisitorState state) throws IOException {
+      return create(ImmutableList.of(fix), state);
+    }
+
+    /**
+     * Creates a {@link FixCompiler} for the current compilation with all of {@code fixes} applied.
+     *
+     * @throws IllegalArgumentException if the fixes overlap
+     */
+    public static FixCompiler create(List<? extends Fix> fixes, VisitorState state)
+        throws IOException {
       BasicJavacTask javacTask = (BasicJavacTask) state.context.get(JavacTask.class);
       if (javacTask == null) {
         throw new IllegalArgumentException("No JavacTask in context.");
@@ -1545,12 +1695,12 @@ public final class SuggestedFixes {
       Arguments arguments = Arguments.instance(javacTask.getContext());
       ArrayList<JavaFileObject> fileObjects = new ArrayList<>(arguments.getFileObjects());
       Map<URI, JavaFileObject> speculativeFiles = new HashMap<>();
-      applyFix(fix, state, fileObjects, speculativeFiles);
+      applyFixes(fixes, state, fileObjects, speculativeFiles);
       return new FixCompiler(fileObjects, state, javacTask, speculativeFiles);
     }
 
-    private static void applyFix(
-        Fix fix,
+    private static void applyFixes(
+        List<? extends Fix> fixes,
         VisitorState state,
         ArrayList<JavaFileObject> fileObjects,
         Map<URI, JavaFileObject> speculativeFiles)
@@ -1570,7 +1720,7 @@ public final class SuggestedFixes {
                 DescriptionBasedDiff diff =
                     DescriptionBasedDiff.create(
                         compilationUnit, ImportOrganizer.STATIC_FIRST_ORGANIZER);
-                diff.handleFix(fix);
+                fixes.forEach(diff::handleFix);
                 SourceFile fixSource = new SourceFile(modifiedFile.getName(), modifiedFileContent);
                 diff.applyDifferences(fixSource);
                 JavaFileObject originalFile = fileObjects.get(i);
@@ -18,6 +18,7 @@ package com.google.errorprone.matchers;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.errorprone.BugPattern.SeverityLevel.SUGGESTION;
 
 import com.google.common.base.Preconditions;
@@ -34,6 +35,7 @@ import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -50,7 +52,7 @@ public final class Description {
           "<no match>",
           "<no match>",
           "<no match>",
-          ImmutableList.<Fix>of(),
+          ImmutableList.of(),
           Optional.of(SUGGESTION));
 
   /** The position of the match. */
@@ -66,10 +68,19 @@ public final class Description {
   private final @Nullable String linkUrl;
 
   /**
-   * A list of fixes to suggest in an error message or use in automated refactoring. Fixes are in
-   * order of decreasing preference, from most preferred to least preferred.
+   * The fixes to suggest in an error message or use in automated refactoring. Fixes are in order of
+   * decreasing preference, from most preferred to least preferred.
+   *
+   * @deprecated this only holds the fixes that were added with {@link Builder#addFix}, not those
+   *     added with {@link Builder#addDeferredFix}; use {@link #getFixes} instead.
    */
-  public final ImmutableList<Fix> fixes;
+  @Deprecated public final ImmutableList<Fix> fixes;
+
+  /**
+   * All the fixes, in order, including deferred fixes which haven't been computed yet. See {@link
+   * #getFixes}.
+   */
+  private final ImmutableList<Supplier<Fix>> fixSuppliers;
 
   /** Is this a warning, error, etc.? */
   private final Optional<BugPattern.SeverityLevel> severity;
@@ -78,6 +89,45 @@ public final class Description {
     return severity.get();
   }
 
+  /**
+   * Returns the fixes to suggest in an error message or use in automated refactoring. Fixes are in
+   * order of decreasing preference, from most preferred to least preferred.
+   *
+   * <p>This computes any deferred fixes, so listeners that only need some of the fixes should
+   * prefer {@link #getFirstFix}, or avoid calling this if they won't use them.
+   */
+  public ImmutableList<Fix> getFixes() {
+    return fixSuppliers.stream()
+        .map(Supplier::get)
+        .filter(f -> !f.isEmpty())
+        .collect(toImmutableList());
+  }
+
+  /**
+   * Returns the most preferred fix, if there is one, computing deferred fixes only until a
+   * non-empty one is found.
+   */
+  public Optional<Fix> getFirstFix() {
+    for (Supplier<Fix> fix : fixSuppliers) {
+      Fix computed = fix.get();
+      if (!computed.isEmpty()) {
+        return Optional.of(computed);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /** Internal-only. Returns the number of deferred fixes that haven't been computed. */
+  public int uncomputedFixCount() {
+    int count = 0;
+    for (Supplier<Fix> fix : fixSuppliers) {
+      if (fix instanceof DeferredFix deferred && !deferred.computed()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
   /**
    * Returns the message to be printed by the compiler when a match is found in interactive use.
    * Includes the name of the check and a link for more information.
@@ -108,13 +158,18 @@ public final class Description {
       String checkName,
       String rawMessage,
       @Nullable String linkUrl,
-      List<Fix> fixes,
+      ImmutableList<Supplier<Fix>> fixSuppliers,
       Optional<SeverityLevel> severity) {
     this.position = position;
     this.checkName = checkName;
     this.rawMessage = rawMessage;
     this.linkUrl = linkUrl;
-    this.fixes = ImmutableList.copyOf(fixes);
+    this.fixSuppliers = fixSuppliers;
+    this.fixes =
+        fixSuppliers.stream()
+            .filter(f -> !(f instanceof DeferredFix))
+            .map(Supplier::get)
+            .collect(toImmutableList());
     this.severity = severity;
   }
 
@@ -126,10 +181,35 @@ public final class Description {
         checkName,
         rawMessage,
         linkUrl,
-        fixes,
+        fixSuppliers,
         Optional.of(this.severity.orElse(severity)));
   }
 
+  /** A fix which is computed the first time it's needed. */
+  private static final class DeferredFix implements Supplier<Fix> {
+    private @Nullable Supplier<? extends Fix> supplier;
+    private @Nullable Fix fix;
+
+    DeferredFix(Supplier<? extends Fix> supplier) {
+      this.supplier = supplier;
+    }
+
+    @Override
+    public synchronized Fix get() {
+      if (fix == null) {
+        Fix computed = checkNotNull(supplier).get();
+        fix = checkNotNull(computed, "deferred fix must not be null");
+        // Release anything the supplier captured, such as trees and VisitorStates.
+        supplier = null;
+      }
+      return fix;
+    }
+
+    synchronized boolean computed() {
+      return fix != null;
+    }
+  }
+
   /**
    * Construct the link text to include in the compiler error message. Returns null if there is no
    * link.
@@ -144,6 +224,7 @@ public final class Description {
       link = "",
       allowedOnPath =
           ".*/third_party/java_src/error_prone/project/check_api/src/main/java/com/google/errorprone/bugpatterns/BugChecker.java"
+              + "|.*/third_party/java_src/error_prone/project/check_api/src/main/java/com/google/errorprone/scanner/ResultCache.java"
               + "|.*/third_party/java_src/error_prone/project/core/src/main/java/com/google/errorprone/refaster/RefasterScanner.java")
   public static Builder builder(
       ErrorPronePosition position, String name, @Nullable String link, String message) {
@@ -156,7 +237,7 @@ public final class Description {
     private final String name;
     private String linkUrl;
     private Optional<SeverityLevel> severity = Optional.empty();
-    private final ImmutableList.Builder<Fix> fixListBuilder = ImmutableList.builder();
+    private final ImmutableList.Builder<Supplier<Fix>> fixListBuilder = ImmutableList.builder();
     private String rawMessage;
 
     private Builder(
@@ -178,11 +259,33 @@ public final class Description {
     public Builder addFix(Fix fix) {
       checkNotNull(fix, "fix must not be null");
       if (!fix.isEmpty()) {
-        fixListBuilder.add(fix);
+        fixListBuilder.add(() -> fix);
       }
       return this;
     }
 
+    /**
+     * Adds a suggested fix for this {@code Description} that is only computed if a {@link
+     * com.google.errorprone.DescriptionListener} uses it, for fixes that are expensive to compute.
+     * Fixes should be added in order of decreasing preference. An empty fix is ignored once it has
+     * been computed.
+     *
+     * <p>The supplier may be called after the check has returned, and from a different thread, but
+     * while javac is still analyzing the compilation unit. It may use the {@link
+     * com.google.errorprone.VisitorState} that the check was given, whose path doesn't change.
+     *
+     * <p>Deferred fixes aren't included in the deprecated {@link Description#fixes} field.
+     *
+     * @param fix computes a suggested fix for this problem
+     * @throws NullPointerException if {@code fix} is {@code null}
+     */
+    @CanIgnoreReturnValue
+    public Builder addDeferredFix(Supplier<? extends Fix> fix) {
+      checkNotNull(fix, "fix must not be null");
+      fixListBuilder.add(new DeferredFix(fix));
+      return this;
+    }
+
     /**
      * Adds a suggested fix for this {@code Description} if {@code fix} is present. Fixes should be
      * added in order of decreasing preference. Adding an empty fix is a no-op.
@@ -263,6 +366,7 @@ public final class Description {
                 + ".*/java/com/google/devtools/javatools/staticanalysis/xlang/java/BugCheckerUsingXlang.java$|"
                 + ".*/java/com/google/devtools/staticanalysis/errorprone/RestrictedInheritanceChecker.java$|"
                 + ".*/third_party/java_src/error_prone/project/core/src/main/java/com/google/errorprone/bugpatterns/RestrictedApiChecker.java$|"
+                + ".*/third_party/java_src/error_prone/project/check_api/src/main/java/com/google/errorprone/scanner/ResultCache.java$|"
                 + ".*/third_party/java_src/error_prone/project/core/src/main/java/com/google/errorprone/refaster/RefasterScanner.java$")
     @CanIgnoreReturnValue
     public Builder overrideSeverity(SeverityLevel severity) {
@@ -22,6 +22,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Table;
@@ -33,12 +34,14 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Type;
 import java.util.ArrayDeque;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiPredicate;
 import org.jspecify.annotations.Nullable;
 
@@ -389,41 +392,62 @@ public final class MethodInvocationMatcher {
     Table<Node, Optional<Token>, Node> nfa = HashBasedTable.create();
     ImmutableSet.Builder<Node> rootsBuilder = ImmutableSet.builder();
     for (Rule rule : rules) {
-      ImmutableMap<TokenType, ? extends Set<Token>> required = rule.required();
-      int numTokens = required.size();
-      if (numTokens == 0) {
+      if (rule.required().isEmpty()) {
         // Forget this whole graph business if one of the alternatives is "anything". This isn't
         // just an optimization: it simplifies building the graph if we know no rules are empty.
         return (tree, state) -> true;
       }
-      Node root = new Node();
-      rootsBuilder.add(root);
-      Node src = root;
-      int tokensHandled = 0;
-      for (TokenType type : TokenType.values()) {
-        Optional<Set<Token>> labels = Optional.ofNullable(required.get(type));
-        if (labels.isPresent()) {
-          tokensHandled++;
-        }
-        boolean lastToken = tokensHandled == numTokens;
-        Node dst = lastToken ? ACCEPT : new Node();
-        if (labels.isPresent()) {
-          for (Token label : labels.get()) {
-            nfa.put(src, Optional.of(label), dst);
-          }
-        } else {
-          nfa.put(src, Optional.empty(), dst);
-        }
+      rootsBuilder.add(addPath(nfa, rule, ACCEPT));
+    }
+    ImmutableSet<Node> roots = rootsBuilder.build();
+    Map<Set<Node>, NodeWithDefault> mappings = toDfa(nfa, roots);
 
-        if (lastToken) {
-          break; // No transitions out of the accept state.
+    // At this point, mappings has all the information we need, but it's burdened with a bunch of
+    // now-unnecessary Set<Node> objects for its map keys. We want to replace those with something
+    // lightweight, and convert the indirect references through mappings to a direct pointer lookup.
+    return GraphMatcher.from(mappings, mappings.get(roots));
+  }
+
+  /**
+   * Adds a path from a new root to {@code accept} to the NFA, which follows one edge per {@link
+   * TokenType} up to the last one {@code rule} constrains, and returns the root.
+   */
+  private static Node addPath(Table<Node, Optional<Token>, Node> nfa, Rule rule, Node accept) {
+    ImmutableMap<TokenType, ? extends Set<Token>> required = rule.required();
+    int numTokens = required.size();
+    Node root = new Node();
+    Node src = root;
+    int tokensHandled = 0;
+    for (TokenType type : TokenType.values()) {
+      Optional<Set<Token>> labels = Optional.ofNullable(required.get(type));
+      if (labels.isPresent()) {
+        tokensHandled++;
+      }
+      boolean lastToken = tokensHandled == numTokens;
+      Node dst = lastToken ? accept : new Node();
+      if (labels.isPresent()) {
+        for (Token label : labels.get()) {
+          nfa.put(src, Optional.of(label), dst);
         }
+      } else {
+        nfa.put(src, Optional.empty(), dst);
+      }
 
-        src = dst;
+      if (lastToken) {
+        break; // No transitions out of the accept state.
       }
+
+      src = dst;
     }
-    ImmutableSet<Node> roots = rootsBuilder.build();
+    return root;
+  }
 
+  /**
+   * Converts an NFA into an equivalent DFA, whose states are the sets of NFA nodes reachable from
+   * {@code roots}.
+   */
+  private static Map<Set<Node>, NodeWithDefault> toDfa(
+      Table<Node, Optional<Token>, Node> nfa, Set<Node> roots) {
     // TODO(amalloy): When converting to a DFA, we could use the information that there is
     // exactly one accept state
     // (and no transitions out of that accept state) to help us prune unnecessary identical states
@@ -474,11 +498,194 @@ public final class MethodInvocationMatcher {
       Collection<Set<Node>> values = Multimaps.asMap(destinations).values();
       open.addAll(values);
     }
+    return mappings;
+  }
 
-    // At this point, mappings has all the information we need, but it's burdened with a bunch of
-    // now-unnecessary Set<Node> objects for its map keys. We want to replace those with something
-    // lightweight, and convert the indirect references through mappings to a direct pointer lookup.
-    return GraphMatcher.from(mappings, mappings.get(roots));
+  /**
+   * Returns a rule that every invocation matched by {@code matcher} satisfies, if {@code matcher}
+   * is one of the fluent matchers from {@link MethodMatchers}.
+   *
+   * <p>The rule only captures the constraints that can be checked exactly by token, namely the kind
+   * and the name of the method, so it may also be satisfied by invocations that {@code matcher}
+   * doesn't match. It's meant for pruning, as in {@link #compileDispatcher}; use {@code matcher}
+   * itself for the final answer.
+   */
+  public static Optional<Rule> necessaryRule(Matcher<ExpressionTree> matcher) {
+    return matcher instanceof MethodMatcherImpl impl ? Optional.of(impl.rule()) : Optional.empty();
+  }
+
+  /**
+   * Compiles the rules of many owners, such as the checks of a scanner, into a single graph, which
+   * finds the owners with a rule that an invocation satisfies in one pass over its tokens.
+   *
+   * <p>An owner with an empty rule is returned for every invocation. {@link
+   * TokenType#RECEIVER_SUPERTYPE} can't be looked up by key, so isn't supported here.
+   */
+  public static <T> Dispatcher<T> compileDispatcher(ListMultimap<T, Rule> rules) {
+    ImmutableList<T> owners = ImmutableList.copyOf(rules.keySet());
+    BitSet unconditional = new BitSet(owners.size());
+    Table<Node, Optional<Token>, Node> nfa = HashBasedTable.create();
+    ImmutableSet.Builder<Node> rootsBuilder = ImmutableSet.builder();
+    for (int i = 0; i < owners.size(); i++) {
+      Accept accept = new Accept(i);
+      for (Rule rule : rules.get(owners.get(i))) {
+        Preconditions.checkArgument(
+            !rule.required().containsKey(TokenType.RECEIVER_SUPERTYPE),
+            "Dispatch on the receiver's supertypes isn't supported: %s",
+            rule);
+        if (rule.required().isEmpty()) {
+          unconditional.set(i);
+        } else {
+          rootsBuilder.add(addPath(nfa, rule, accept));
+        }
+      }
+    }
+    ImmutableSet<Node> roots = rootsBuilder.build();
+    Map<Set<Node>, NodeWithDefault> mappings = toDfa(nfa, roots);
+    Map<Set<Node>, Dispatcher.State> states = new HashMap<>();
+    Dispatcher.State root = Dispatcher.State.from(mappings, roots, states);
+    return new Dispatcher<>(owners, unconditional, root, states.values());
+  }
+
+  /** The accept node of an owner's rules, in a graph compiled by {@link #compileDispatcher}. */
+  private static final class Accept extends Node {
+    private final int owner;
+
+    Accept(int owner) {
+      this.owner = owner;
+    }
+  }
+
+  /**
+   * Finds the owners of the rules that a method invocation satisfies, as compiled by {@link
+   * #compileDispatcher}.
+   */
+  public static final class Dispatcher<T> {
+    private final ImmutableList<T> owners;
+    private final BitSet unconditional;
+    private final ImmutableList<T> unconditionalOwners;
+    private final State root;
+
+    /**
+     * The candidates for each set of owners accepted by more than one state on a path, which is
+     * rare, computed on first use.
+     */
+    private final Map<BitSet, ImmutableList<T>> combined = new ConcurrentHashMap<>();
+
+    private Dispatcher(
+        ImmutableList<T> owners, BitSet unconditional, State root, Collection<State> states) {
+      this.owners = owners;
+      this.unconditional = unconditional;
+      this.unconditionalOwners = candidates(new BitSet());
+      this.root = root;
+      for (State state : states) {
+        if (!state.accepts.isEmpty()) {
+          state.candidates = candidates(state.accepts);
+        }
+      }
+    }
+
+    /**
+     * Returns the owners with a rule that {@code tree} satisfies, in the order they were compiled.
+     * If {@code tree} isn't an invocation of a method, only the owners with an empty rule are
+     * returned.
+     *
+     * <p>The result for each state is computed ahead of time, so this usually just walks the path
+     * through the graph, extracting one token per step, and returns a precomputed list.
+     */
+    @SuppressWarnings("unchecked") // the candidates of a state are owners of this dispatcher
+    public ImmutableList<T> candidates(ExpressionTree tree, VisitorState state) {
+      Optional<Context> ctx = Context.create(tree);
+      if (ctx.isEmpty()) {
+        return unconditionalOwners;
+      }
+      State accepting = null;
+      BitSet accepted = null;
+      // Each step consumes a later token type than the last, so each token is extracted at most
+      // once.
+      for (State s = root; s != null; ) {
+        if (!s.accepts.isEmpty()) {
+          if (accepting == null) {
+            accepting = s;
+          } else {
+            if (accepted == null) {
+              accepted = (BitSet) accepting.accepts.clone();
+            }
+            accepted.or(s.accepts);
+          }
+        }
+        State next = null;
+        if (s.type != null) {
+          next = s.next.get(s.type.extract(ctx.get(), state));
+        }
+        s = next != null ? next : s.def;
+      }
+      if (accepting == null) {
+        return unconditionalOwners;
+      }
+      if (accepted == null) {
+        return (ImmutableList<T>) accepting.candidates;
+      }
+      return combined.computeIfAbsent(accepted, this::candidates);
+    }
+
+    /** Returns the owners in {@code accepted} or {@link #unconditional}, in compiled order. */
+    private ImmutableList<T> candidates(BitSet accepted) {
+      BitSet matched = (BitSet) unconditional.clone();
+      matched.or(accepted);
+      ImmutableList.Builder<T> result =
+          ImmutableList.builderWithExpectedSize(matched.cardinality());
+      for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+        result.add(owners.get(i));
+      }
+      return result.build();
+    }
+
+    /** A DFA state, with its edges resolved to direct pointers. */
+    private static final class State {
+      private final BitSet accepts = new BitSet();
+      private final @Nullable TokenType type;
+      private final Map<Object, State> next = new HashMap<>();
+      private @Nullable State def;
+      // The owners with an empty rule or a rule accepted here, if any rule is accepted here.
+      private @Nullable ImmutableList<?> candidates;
+
+      private State(@Nullable TokenType type) {
+        this.type = type;
+      }
+
+      static State from(
+          Map<Set<Node>, NodeWithDefault> mappings,
+          Set<Node> states,
+          Map<Set<Node>, State> converted) {
+        State existing = converted.get(states);
+        if (existing != null) {
+          return existing;
+        }
+        NodeWithDefault node = mappings.get(states);
+        ImmutableSet<TokenType> tokenTypes =
+            node.mapping.keySet().stream().map(Token::type).collect(ImmutableSet.toImmutableSet());
+        Preconditions.checkArgument(
+            tokenTypes.size() <= 1, "Found mismatched token types in node with mappings %s", node);
+        State state = new State(tokenTypes.isEmpty() ? null : tokenTypes.iterator().next());
+        converted.put(states, state);
+        for (Node n : states) {
+          if (n instanceof Accept accept) {
+            state.accepts.set(accept.owner);
+          }
+        }
+        if (node.def != null) {
+          state.def = from(mappings, node.def, converted);
+        }
+        @SuppressWarnings("UnstableApiUsage")
+        Set<Map.Entry<Token, Set<Node>>> entries = Multimaps.asMap(node.mapping).entrySet();
+        for (Map.Entry<Token, Set<Node>> entry : entries) {
+          state.next.put(
+              entry.getKey().comparisonKey(), from(mappings, entry.getValue(), converted));
+        }
+        return state;
+      }
+    }
   }
 
   private MethodInvocationMatcher() {}
@@ -17,12 +17,20 @@
 package com.google.errorprone.matchers.method;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.MethodKind;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Rule;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Token;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.TokenType;
 import com.google.errorprone.matchers.method.MethodMatchers.AnyMethodMatcher;
 import com.google.errorprone.matchers.method.MethodMatchers.ConstructorClassMatcher;
 import com.google.errorprone.matchers.method.MethodMatchers.ConstructorMatcher;
@@ -40,8 +48,11 @@ import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Type;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
 final class MethodMatcherImpl
@@ -71,29 +82,77 @@ final class MethodMatcherImpl
               (m, s) -> {
                 // Handled by base matcher.
                 return true;
-              }));
+              }),
+          ImmutableMap.of());
   static final ConstructorMatcher CONSTRUCTOR =
-      new MethodMatcherImpl(BaseMethodMatcher.CONSTRUCTOR, ImmutableList.of((m, s) -> true));
+      new MethodMatcherImpl(
+          BaseMethodMatcher.CONSTRUCTOR,
+          ImmutableList.of((m, s) -> true),
+          kinds(MethodKind.CONSTRUCTOR));
   static final StaticMethodMatcher STATIC_METHOD =
       new MethodMatcherImpl(
-          BaseMethodMatcher.METHOD, ImmutableList.of((m, s) -> m.sym().isStatic()));
+          BaseMethodMatcher.METHOD,
+          ImmutableList.of((m, s) -> m.sym().isStatic()),
+          kinds(MethodKind.STATIC));
+  // Explicit constructor invocations, like super(), aren't static either.
   static final InstanceMethodMatcher INSTANCE_METHOD =
       new MethodMatcherImpl(
-          BaseMethodMatcher.METHOD, ImmutableList.of((m, s) -> !m.sym().isStatic()));
+          BaseMethodMatcher.METHOD,
+          ImmutableList.of((m, s) -> !m.sym().isStatic()),
+          kinds(MethodKind.INSTANCE, MethodKind.CONSTRUCTOR));
 
   private final BaseMethodMatcher baseMatcher;
 
   private final ImmutableList<Constraint> constraints;
 
+  /**
+   * The tokens that the constraints require exactly, for {@link #rule}. Constraints that can't be
+   * expressed as tokens, like type predicates, aren't included.
+   */
+  private final ImmutableMap<TokenType, ImmutableSet<Token>> tokens;
+
   // All constructors private: only static final instances are legal starting points for chains.
-  private MethodMatcherImpl(BaseMethodMatcher baseMatcher, ImmutableList<Constraint> matchers) {
+  private MethodMatcherImpl(
+      BaseMethodMatcher baseMatcher,
+      ImmutableList<Constraint> matchers,
+      ImmutableMap<TokenType, ImmutableSet<Token>> tokens) {
     this.baseMatcher = baseMatcher;
     this.constraints = matchers;
+    this.tokens = tokens;
+  }
+
+  private static ImmutableMap<TokenType, ImmutableSet<Token>> kinds(MethodKind... kinds) {
+    return ImmutableMap.of(
+        TokenType.KIND, Arrays.stream(kinds).map(Token.Kind::create).collect(toImmutableSet()));
   }
 
   private MethodMatcherImpl append(Constraint c) {
     return new MethodMatcherImpl(
-        baseMatcher, ImmutableList.<Constraint>builder().addAll(this.constraints).add(c).build());
+        baseMatcher,
+        ImmutableList.<Constraint>builder().addAll(this.constraints).add(c).build(),
+        tokens);
+  }
+
+  /** Appends a constraint which is satisfied exactly when the method's name is in {@code names}. */
+  private MethodMatcherImpl appendNamed(Constraint c, ImmutableSet<String> names) {
+    ImmutableSet<Token> allowed =
+        names.stream().map(Token.MethodName::create).collect(toImmutableSet());
+    Map<TokenType, ImmutableSet<Token>> required = new EnumMap<>(TokenType.class);
+    required.putAll(tokens);
+    required.merge(
+        TokenType.METHOD_NAME, allowed, (a, b) -> Sets.intersection(a, b).immutableCopy());
+    return new MethodMatcherImpl(
+        baseMatcher,
+        ImmutableList.<Constraint>builder().addAll(this.constraints).add(c).build(),
+        Maps.immutableEnumMap(required));
+  }
+
+  /**
+   * Returns a rule that every invocation this matches satisfies, though it may be satisfied by
+   * invocations this doesn't match.
+   */
+  Rule rule() {
+    return Rule.create(tokens);
   }
 
   @Override
@@ -190,7 +249,8 @@ final class MethodMatcherImpl
         !name.contains("(") && !name.contains(")"),
         "method name (%s) cannot contain parentheses; use \"foo\" instead of \"foo()\"",
         name);
-    return append((m, s) -> m.sym().getSimpleName().contentEquals(name));
+    return appendNamed(
+        (m, s) -> m.sym().getSimpleName().contentEquals(name), ImmutableSet.of(name));
   }
 
   @Override
@@ -201,7 +261,8 @@ final class MethodMatcherImpl
   @Override
   public MethodNameMatcher namedAnyOf(Iterable<String> names) {
     ImmutableSet<String> expected = ImmutableSet.copyOf(names);
-    return append((m, s) -> expected.contains(m.sym().getSimpleName().toString()));
+    return appendNamed(
+        (m, s) -> expected.contains(m.sym().getSimpleName().toString()), expected);
   }
 
   @Override
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.names;
+
+/**
+ * Scratch space for the edit distance algorithms in this package, which each thread reuses so that
+ * computing a distance doesn't allocate.
+ *
+ * <p>The algorithms don't call each other, so a thread only ever uses its buffers for one
+ * computation at a time.
+ */
+final class EditDistanceBuffers {
+
+  private static final ThreadLocal<EditDistanceBuffers> BUFFERS =
+      ThreadLocal.withInitial(EditDistanceBuffers::new);
+
+  static EditDistanceBuffers get() {
+    return BUFFERS.get();
+  }
+
+  /**
+   * For each ASCII character, a bitmask of its positions in the pattern of a bit-parallel
+   * computation. Every element must be zero again once the computation is done.
+   */
+  final long[] asciiPositions = new long[128];
+
+  private int[] ints = new int[64];
+
+  private EditDistanceBuffers() {}
+
+  /** Returns an array with at least {@code size} elements, whose contents are unspecified. */
+  int[] ints(int size) {
+    if (ints.length < size) {
+      ints = new int[Math.max(size, 2 * ints.length)];
+    }
+    return ints;
+  }
+}
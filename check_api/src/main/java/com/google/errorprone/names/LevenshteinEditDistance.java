@@ -16,6 +16,8 @@
 
 package com.google.errorprone.names;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.base.Ascii;
 import com.google.common.primitives.Ints;
 
@@ -48,7 +50,8 @@ public final class LevenshteinEditDistance {
 
   /**
    * Returns the edit distance between two strings. The algorithm used to calculate this distance
-   * has space requirements of len(source)*len(target).
+   * takes time proportional to len(source)*len(target), or len(longer) if the shorter string has at
+   * most 64 characters, and doesn't allocate.
    *
    * @param source The source string.
    * @param target The target string
@@ -57,53 +60,163 @@ public final class LevenshteinEditDistance {
    * @see #getEditDistance(String, String)
    */
   public static int getEditDistance(String source, String target, boolean caseSensitive) {
+    return editDistance(source, target, caseSensitive, Integer.MAX_VALUE);
+  }
 
-    // Levenshtein distance algorithm
+  /**
+   * Returns the edit distance between two strings if it is at most {@code maxDistance}, and {@code
+   * maxDistance + 1} otherwise. This can be much cheaper than {@link #getEditDistance(String,
+   * String, boolean)} when looking for close matches, since the computation stops as soon as the
+   * distance is known to exceed {@code maxDistance}.
+   *
+   * @param source The source string.
+   * @param target The target string
+   * @param caseSensitive If true, case is used in comparisons and 'a' != 'A'.
+   * @param maxDistance The largest distance of interest, which must not be negative.
+   * @return The edit distance between the source and target strings, or {@code maxDistance + 1}.
+   */
+  public static int getBoundedEditDistance(
+      String source, String target, boolean caseSensitive, int maxDistance) {
+    checkArgument(maxDistance >= 0, "maxDistance must not be negative: %s", maxDistance);
+    return editDistance(source, target, caseSensitive, maxDistance);
+  }
 
+  private static int editDistance(
+      String source, String target, boolean caseSensitive, int maxDistance) {
     int sourceLength = isEmptyOrWhitespace(source) ? 0 : source.length();
     int targetLength = isEmptyOrWhitespace(target) ? 0 : target.length();
 
     if (sourceLength == 0) {
-      return targetLength;
+      return bound(targetLength, maxDistance);
     }
 
     if (targetLength == 0) {
-      return sourceLength;
+      return bound(sourceLength, maxDistance);
     }
 
-    if (!caseSensitive) {
-      source = Ascii.toLowerCase(source);
-      target = Ascii.toLowerCase(target);
+    // Every extra character of the longer string needs an insertion.
+    if (Math.abs(sourceLength - targetLength) > maxDistance) {
+      return maxDistance + 1;
     }
 
-    int[][] levMatrix = new int[sourceLength + 1][targetLength + 1];
+    // The distance is symmetric, so match the shorter string against the longer one.
+    String pattern = sourceLength <= targetLength ? source : target;
+    String text = sourceLength <= targetLength ? target : source;
+    return pattern.length() <= Long.SIZE
+        ? bitParallelEditDistance(pattern, text, caseSensitive, maxDistance)
+        : dynamicProgrammingEditDistance(pattern, text, caseSensitive, maxDistance);
+  }
 
-    for (int i = 0; i <= sourceLength; i++) {
-      levMatrix[i][0] = i;
+  /**
+   * Computes the distance with Myers' bit-vector algorithm, as formulated by Hyyr&ouml;, which
+   * represents a column of the Levenshtein matrix as bitmasks of the vertical differences between
+   * adjacent cells, and so requires {@code pattern} to have at most 64 characters.
+   *
+   * <p>See Heikki Hyyr&ouml;, "A bit-vector algorithm for computing Levenshtein and Damerau edit
+   * distances", Nordic Journal of Computing 10 (2003).
+   */
+  private static int bitParallelEditDistance(
+      String pattern, String text, boolean caseSensitive, int maxDistance) {
+    int patternLength = pattern.length();
+    int textLength = text.length();
+    long[] asciiPositions = EditDistanceBuffers.get().asciiPositions;
+    for (int i = 0; i < patternLength; i++) {
+      char c = fold(pattern.charAt(i), caseSensitive);
+      if (c < asciiPositions.length) {
+        asciiPositions[c] |= 1L << i;
+      }
     }
-
-    for (int i = 0; i <= targetLength; i++) {
-      levMatrix[0][i] = i;
+    try {
+      long last = 1L << (patternLength - 1);
+      // The vertical differences are all +1 in the first column, whose cells are 0..patternLength.
+      long verticalPlus = -1L;
+      long verticalMinus = 0L;
+      int distance = patternLength;
+      for (int j = 0; j < textLength; j++) {
+        char c = fold(text.charAt(j), caseSensitive);
+        long matches =
+            c < asciiPositions.length ? asciiPositions[c] : positions(pattern, c, caseSensitive);
+        long xVertical = matches | verticalMinus;
+        long xHorizontal = (((matches & verticalPlus) + verticalPlus) ^ verticalPlus) | matches;
+        long horizontalPlus = verticalMinus | ~(xHorizontal | verticalPlus);
+        long horizontalMinus = verticalPlus & xHorizontal;
+        if ((horizontalPlus & last) != 0) {
+          distance++;
+        } else if ((horizontalMinus & last) != 0) {
+          distance--;
+        }
+        // The horizontal differences in the first row are all +1: its cells are 0..textLength.
+        horizontalPlus = (horizontalPlus << 1) | 1;
+        horizontalMinus <<= 1;
+        verticalPlus = horizontalMinus | ~(xVertical | horizontalPlus);
+        verticalMinus = horizontalPlus & xVertical;
+        // Each remaining character of the text can reduce the distance by at most one.
+        if (distance - (textLength - 1 - j) > maxDistance) {
+          return maxDistance + 1;
+        }
+      }
+      return distance;
+    } finally {
+      for (int i = 0; i < patternLength; i++) {
+        char c = fold(pattern.charAt(i), caseSensitive);
+        if (c < asciiPositions.length) {
+          asciiPositions[c] = 0;
+        }
+      }
     }
+  }
 
-    for (int i = 1; i <= sourceLength; i++) {
-
-      char sourceI = source.charAt(i - 1);
-      for (int j = 1; j <= targetLength; j++) {
-        char targetJ = target.charAt(j - 1);
+  /** Returns a bitmask of the positions of the non-ASCII character {@code c} in the pattern. */
+  private static long positions(String pattern, char c, boolean caseSensitive) {
+    long positions = 0;
+    for (int i = 0; i < pattern.length(); i++) {
+      if (fold(pattern.charAt(i), caseSensitive) == c) {
+        positions |= 1L << i;
+      }
+    }
+    return positions;
+  }
 
-        int cost = 0;
-        if (sourceI != targetJ) {
-          cost = 1;
-        }
+  /**
+   * Computes the distance one column of the Levenshtein matrix at a time, stopping early once every
+   * cell of a column exceeds {@code maxDistance}.
+   */
+  private static int dynamicProgrammingEditDistance(
+      String pattern, String text, boolean caseSensitive, int maxDistance) {
+    int patternLength = pattern.length();
+    int textLength = text.length();
+    int[] column = EditDistanceBuffers.get().ints(patternLength + 1);
+    for (int i = 0; i <= patternLength; i++) {
+      column[i] = i;
+    }
 
-        levMatrix[i][j] =
-            Ints.min(
-                cost + levMatrix[i - 1][j - 1], levMatrix[i - 1][j] + 1, levMatrix[i][j - 1] + 1);
+    for (int j = 1; j <= textLength; j++) {
+      char textJ = fold(text.charAt(j - 1), caseSensitive);
+      int diagonal = column[0];
+      column[0] = j;
+      int columnMin = j;
+      for (int i = 1; i <= patternLength; i++) {
+        int left = column[i];
+        int cost = fold(pattern.charAt(i - 1), caseSensitive) == textJ ? 0 : 1;
+        column[i] = Ints.min(cost + diagonal, left + 1, column[i - 1] + 1);
+        diagonal = left;
+        columnMin = Math.min(columnMin, column[i]);
+      }
+      // The distances in later columns can't be smaller than the smallest in this one.
+      if (columnMin > maxDistance) {
+        return maxDistance + 1;
       }
     }
 
-    return levMatrix[sourceLength][targetLength];
+    return bound(column[patternLength], maxDistance);
+  }
+
+  private static char fold(char c, boolean caseSensitive) {
+    return caseSensitive ? c : Ascii.toLowerCase(c);
+  }
+
+  private static int bound(int distance, int maxDistance) {
+    return distance <= maxDistance ? distance : maxDistance + 1;
   }
 
   /** Calculate the worst case distance between two strings with the given lengths */
@@ -118,6 +231,18 @@ public final class LevenshteinEditDistance {
    * @return True if the string is empty or contains only whitespace, false otherwise
    */
   private static boolean isEmptyOrWhitespace(String source) {
-    return source == null || source.matches("\\s*");
+    if (source == null) {
+      return true;
+    }
+    // Equivalent to matching \s*, without compiling a regular expression for every call.
+    for (int i = 0; i < source.length(); i++) {
+      switch (source.charAt(i)) {
+        case ' ', '\t', '\n', '\u000B', '\f', '\r' -> {}
+        default -> {
+          return false;
+        }
+      }
+    }
+    return true;
   }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.BugCheckerInfo;
+import com.google.errorprone.bugpatterns.BugChecker;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The {@link BugCheckerInfo} of, and a way to create, each {@link BugChecker} that was compiled
+ * with the {@code BugCheckerRegistryProcessor}, so that neither needs reflection.
+ *
+ * <p>The processor generates a {@link Provider} for each package of checkers, listed in {@code
+ * META-INF/services}. Checkers it couldn't handle, and checkers loaded by another class loader,
+ * such as plugins, aren't in the registry, and are read and created reflectively instead.
+ */
+public final class BugCheckerRegistry {
+
+  /** Registers the checkers of a package. Implementations are generated; don't write your own. */
+  public interface Provider {
+    void register(Registrar registrar);
+  }
+
+  /** Accepts the checkers of a {@link Provider}. */
+  public interface Registrar {
+    /**
+     * Registers {@code checker}, with its {@code info}, and a {@code factory} that calls the
+     * constructor that {@link ErrorProneInjector} would. Either may be null if it can't be computed
+     * ahead of time.
+     */
+    <T extends BugChecker> void register(
+        Class<T> checker, @Nullable BugCheckerInfo info, @Nullable Factory<T> factory);
+  }
+
+  /** Creates a checker from the instances of its constructor's parameters. */
+  public interface Factory<T> {
+    T create(Dependencies dependencies);
+  }
+
+  /** Provides the instances of a checker's constructor parameters. */
+  public interface Dependencies {
+    <T> T get(Class<T> clazz);
+  }
+
+  private record Entry(@Nullable BugCheckerInfo info, @Nullable Factory<?> factory) {}
+
+  /** Returns the info of {@code checker}, or null if it isn't in the registry. */
+  public static @Nullable BugCheckerInfo info(Class<? extends BugChecker> checker) {
+    Entry entry = Holder.ENTRIES.get(checker);
+    return entry == null ? null : entry.info();
+  }
+
+  /** Returns the factory for {@code checker}, or null if it isn't in the registry. */
+  @SuppressWarnings("unchecked") // the factory was registered for the same class
+  public static <T> @Nullable Factory<T> factory(Class<T> checker) {
+    Entry entry = Holder.ENTRIES.get(checker);
+    return entry == null ? null : (Factory<T>) entry.factory();
+  }
+
+  /** Loads the registry on first use. */
+  private static final class Holder {
+    private static final ImmutableMap<Class<?>, Entry> ENTRIES = load();
+
+    private static ImmutableMap<Class<?>, Entry> load() {
+      Map<Class<?>, Entry> entries = new HashMap<>();
+      Registrar registrar =
+          new Registrar() {
+            @Override
+            public <T extends BugChecker> void register(
+                Class<T> checker, @Nullable BugCheckerInfo info, @Nullable Factory<T> factory) {
+              entries.putIfAbsent(checker, new Entry(info, factory));
+            }
+          };
+      Iterator<Provider> providers =
+          ServiceLoader.load(Provider.class, BugCheckerRegistry.class.getClassLoader()).iterator();
+      while (hasNext(providers)) {
+        try {
+          providers.next().register(registrar);
+        } catch (ServiceConfigurationError | LinkageError e) {
+          // A stale provider, e.g. from an incremental build, leaves its checkers to reflection.
+        }
+      }
+      return ImmutableMap.copyOf(entries);
+    }
+
+    private static boolean hasNext(Iterator<Provider> providers) {
+      try {
+        return providers.hasNext();
+      } catch (ServiceConfigurationError e) {
+        return false;
+      }
+    }
+  }
+
+  private BugCheckerRegistry() {}
+}
@@ -71,6 +71,32 @@ public final class ErrorProneInjector {
       return instance;
     }
     path.add(clazz);
+    BugCheckerRegistry.Factory<T> factory = BugCheckerRegistry.factory(clazz);
+    T newInstance =
+        factory != null ? createWithFactory(clazz, factory, path) : construct(clazz, path);
+    instances.putInstance(clazz, newInstance);
+    return newInstance;
+  }
+
+  /** Creates a checker with the factory generated for it, rather than reflectively. */
+  private <T> T createWithFactory(
+      Class<T> clazz, BugCheckerRegistry.Factory<T> factory, List<Class<?>> path) {
+    try {
+      return factory.create(
+          new BugCheckerRegistry.Dependencies() {
+            @Override
+            public <D> D get(Class<D> dependency) {
+              return getInstance(dependency, path);
+            }
+          });
+    } catch (ProvisionException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      throw new ProvisionException("Failed to initialize " + clazz.getCanonicalName(), e);
+    }
+  }
+
+  private <T> T construct(Class<T> clazz, List<Class<?>> path) {
     Constructor<T> constructor =
         findConstructor(clazz)
             .orElseThrow(
@@ -85,14 +111,11 @@ public final class ErrorProneInjector {
 
     Object[] args =
         stream(constructor.getParameterTypes()).map(c -> getInstance(c, path)).toArray();
-    T newInstance;
     try {
-      newInstance = constructor.newInstance(args);
+      return constructor.newInstance(args);
     } catch (ReflectiveOperationException e) {
       throw new ProvisionException("Failed to initialize " + clazz.getCanonicalName(), e);
     }
-    instances.putInstance(clazz, newInstance);
-    return newInstance;
   }
 
   public static <T> Optional<Constructor<T>> findConstructor(Class<T> clazz) {
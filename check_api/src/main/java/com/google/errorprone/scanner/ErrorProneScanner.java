@@ -16,13 +16,19 @@
 
 package com.google.errorprone.scanner;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.ErrorProneError;
 import com.google.errorprone.ErrorProneOptions;
 import com.google.errorprone.SourcePositionException;
+import com.google.errorprone.SuppressionInfo;
 import com.google.errorprone.SuppressionInfo.SuppressedState;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker;
@@ -93,6 +99,9 @@ import com.google.errorprone.bugpatterns.BugChecker.WildcardTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.YieldTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Suppressible;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Dispatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Rule;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.AnnotatedTypeTree;
 import com.sun.source.tree.AnnotationTree;
@@ -167,10 +176,13 @@ import com.sun.tools.javac.util.Name;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Scans the parsed AST, looking for violations of any of the enabled checks.
@@ -185,6 +197,21 @@ public class ErrorProneScanner extends Scanner {
   private final Map<String, SeverityLevel> severities;
   private final ImmutableSet<BugChecker> bugCheckers;
 
+  /** The ordinal of each check, its index in {@link #bugCheckers}, for {@link #isSuppressed}. */
+  private final IdentityHashMap<Suppressible, Integer> checkOrdinals = new IdentityHashMap<>();
+
+  /**
+   * Kinds of tree that no enabled matcher is interested in, and that cannot contain any tree that
+   * an enabled matcher is interested in; we don't descend into these at all.
+   */
+  private final ImmutableSet<Tree.Kind> prunableKinds;
+
+  /**
+   * Finds the checks that a method invocation might interest, from the matchers they {@linkplain
+   * MethodInvocationTreeMatcher#methodInvocationMatchers declare}, or null if none of them do.
+   */
+  private final @Nullable Dispatcher<MethodInvocationTreeMatcher> methodInvocationDispatcher;
+
   /**
    * Create an error-prone scanner for the given checkers.
    *
@@ -215,9 +242,14 @@ public class ErrorProneScanner extends Scanner {
     ImmutableSet.Builder<Class<? extends Annotation>> annotationClassesBuilder =
         ImmutableSet.builder();
     for (BugChecker checker : this.bugCheckers) {
+      checkOrdinals.put(checker, checkOrdinals.size());
       registerNodeTypes(checker, annotationClassesBuilder);
     }
     ImmutableSet<Class<? extends Annotation>> annotationClasses = annotationClassesBuilder.build();
+    this.methodInvocationDispatcher = methodInvocationDispatcher(methodInvocationMatchers);
+    this.prunableKinds =
+        ReachableTreeKinds.prunableKinds(
+            Maps.filterValues(matchersByTreeType(), matchers -> !matchers.isEmpty()).keySet());
     this.customSuppressionAnnotations =
         VisitorState.memoize(
             state -> {
@@ -229,6 +261,27 @@ public class ErrorProneScanner extends Scanner {
             });
   }
 
+  private static @Nullable Dispatcher<MethodInvocationTreeMatcher> methodInvocationDispatcher(
+      List<MethodInvocationTreeMatcher> matchers) {
+    ImmutableListMultimap.Builder<MethodInvocationTreeMatcher, Rule> rules =
+        ImmutableListMultimap.builder();
+    boolean anyDeclared = false;
+    for (MethodInvocationTreeMatcher matcher : matchers) {
+      ImmutableList<Optional<Rule>> declared =
+          matcher.methodInvocationMatchers().stream()
+              .map(MethodInvocationMatcher::necessaryRule)
+              .collect(toImmutableList());
+      if (!declared.isEmpty() && declared.stream().allMatch(Optional::isPresent)) {
+        declared.forEach(rule -> rules.put(matcher, rule.get()));
+        anyDeclared = true;
+      } else {
+        // Without a rule for each matcher, the check has to see every invocation.
+        rules.put(matcher, Rule.create(ImmutableMap.of()));
+      }
+    }
+    return anyDeclared ? MethodInvocationMatcher.compileDispatcher(rules.build()) : null;
+  }
+
   private static ImmutableMap<String, BugPattern.SeverityLevel> defaultSeverities(
       Iterable<BugChecker> checkers) {
     ImmutableMap.Builder<String, BugPattern.SeverityLevel> builder = ImmutableMap.builder();
@@ -315,6 +368,78 @@ public class ErrorProneScanner extends Scanner {
 
   // keep-sorted end
 
+  private ImmutableMap<Class<? extends Tree>, List<?>> matchersByTreeType() {
+    return ImmutableMap.<Class<? extends Tree>, List<?>>builder()
+        // keep-sorted start
+        .put(AnnotatedTypeTree.class, annotatedTypeMatchers)
+        .put(AnnotationTree.class, annotationMatchers)
+        .put(ArrayAccessTree.class, arrayAccessMatchers)
+        .put(ArrayTypeTree.class, arrayTypeMatchers)
+        .put(AssertTree.class, assertMatchers)
+        .put(AssignmentTree.class, assignmentMatchers)
+        .put(BinaryTree.class, binaryMatchers)
+        .put(BindingPatternTree.class, bindingPatternMatchers)
+        .put(BlockTree.class, blockMatchers)
+        .put(BreakTree.class, breakMatchers)
+        .put(CaseTree.class, caseMatchers)
+        .put(CatchTree.class, catchMatchers)
+        .put(ClassTree.class, classMatchers)
+        .put(CompilationUnitTree.class, compilationUnitMatchers)
+        .put(CompoundAssignmentTree.class, compoundAssignmentMatchers)
+        .put(ConditionalExpressionTree.class, conditionalExpressionMatchers)
+        .put(ConstantCaseLabelTree.class, constantCaseLabelMatchers)
+        .put(ContinueTree.class, continueMatchers)
+        .put(DeconstructionPatternTree.class, deconstructionPatternMatchers)
+        .put(DefaultCaseLabelTree.class, defaultCaseLabelMatchers)
+        .put(DoWhileLoopTree.class, doWhileLoopMatchers)
+        .put(EmptyStatementTree.class, emptyStatementMatchers)
+        .put(EnhancedForLoopTree.class, enhancedForLoopMatchers)
+        .put(ExportsTree.class, exportsMatchers)
+        .put(ExpressionStatementTree.class, expressionStatementMatchers)
+        .put(ForLoopTree.class, forLoopMatchers)
+        .put(IdentifierTree.class, identifierMatchers)
+        .put(IfTree.class, ifMatchers)
+        .put(ImportTree.class, importMatchers)
+        .put(InstanceOfTree.class, instanceOfMatchers)
+        .put(IntersectionTypeTree.class, intersectionTypeMatchers)
+        .put(LabeledStatementTree.class, labeledStatementMatchers)
+        .put(LambdaExpressionTree.class, lambdaExpressionMatchers)
+        .put(LiteralTree.class, literalMatchers)
+        .put(MemberReferenceTree.class, memberReferenceMatchers)
+        .put(MemberSelectTree.class, memberSelectMatchers)
+        .put(MethodInvocationTree.class, methodInvocationMatchers)
+        .put(MethodTree.class, methodMatchers)
+        .put(ModifiersTree.class, modifiersMatchers)
+        .put(ModuleTree.class, moduleMatchers)
+        .put(NewArrayTree.class, newArrayMatchers)
+        .put(NewClassTree.class, newClassMatchers)
+        .put(OpensTree.class, opensMatchers)
+        .put(PackageTree.class, packageMatchers)
+        .put(ParameterizedTypeTree.class, parameterizedTypeMatchers)
+        .put(ParenthesizedTree.class, parenthesizedMatchers)
+        .put(PatternCaseLabelTree.class, patternCaseLabelMatchers)
+        .put(PrimitiveTypeTree.class, primitiveTypeMatchers)
+        .put(ProvidesTree.class, providesMatchers)
+        .put(RequiresTree.class, requiresMatchers)
+        .put(ReturnTree.class, returnMatchers)
+        .put(SwitchExpressionTree.class, switchExpressionMatchers)
+        .put(SwitchTree.class, switchMatchers)
+        .put(SynchronizedTree.class, synchronizedMatchers)
+        .put(ThrowTree.class, throwMatchers)
+        .put(TryTree.class, tryMatchers)
+        .put(TypeCastTree.class, typeCastMatchers)
+        .put(TypeParameterTree.class, typeParameterMatchers)
+        .put(UnaryTree.class, unaryMatchers)
+        .put(UnionTypeTree.class, unionTypeMatchers)
+        .put(UsesTree.class, usesMatchers)
+        .put(VariableTree.class, variableMatchers)
+        .put(WhileLoopTree.class, whileLoopMatchers)
+        .put(WildcardTree.class, wildcardMatchers)
+        .put(YieldTree.class, yieldMatchers)
+        // keep-sorted end
+        .buildOrThrow();
+  }
+
   private void registerNodeTypes(
       BugChecker checker,
       ImmutableSet.Builder<Class<? extends Annotation>> customSuppressionAnnotationClasses) {
@@ -525,12 +650,34 @@ public class ErrorProneScanner extends Scanner {
   }
 
   private <M extends Suppressible, T extends Tree> VisitorState processMatchers(
-      Iterable<M> matchers, T tree, TreeProcessor<M, T> processingFunction, VisitorState oldState) {
-    ErrorProneOptions errorProneOptions = oldState.errorProneOptions();
+      List<M> matchers, T tree, TreeProcessor<M, T> processingFunction, VisitorState oldState) {
+    if (matchers.isEmpty()) {
+      // Nothing to report, so there's no need to allocate a new VisitorState for this path; any
+      // matchers further down the tree will create their own.
+      return oldState;
+    }
     // A VisitorState with our new path, but without mentioning the suppression of any matcher.
     VisitorState newState = oldState.withPath(getCurrentPath());
+    if (onJavacThread()) {
+      runMatchers(matchers, tree, processingFunction, oldState, newState);
+    } else {
+      runOnJavacThread(() -> runMatchers(matchers, tree, processingFunction, oldState, newState));
+    }
+    return newState;
+  }
+
+  private <M extends Suppressible, T extends Tree> void runMatchers(
+      List<M> matchers,
+      T tree,
+      TreeProcessor<M, T> processingFunction,
+      VisitorState oldState,
+      VisitorState newState) {
+    ErrorProneOptions errorProneOptions = oldState.errorProneOptions();
     for (M matcher : matchers) {
-      SuppressedState suppressed = isSuppressed(matcher, errorProneOptions, newState);
+      SuppressedState suppressed =
+          isSuppressed(checkOrdinals.get(matcher))
+              ? SuppressedState.SUPPRESSED
+              : SuppressedState.UNSUPPRESSED;
       // If the ErrorProneOptions say to visit suppressed code, we still visit it
       if (suppressed == SuppressedState.UNSUPPRESSED
           || errorProneOptions.isIgnoreSuppressionAnnotations()) {
@@ -545,7 +692,14 @@ public class ErrorProneScanner extends Scanner {
         }
       }
     }
-    return newState;
+  }
+
+  @Override
+  public Void scan(Tree tree, VisitorState state) {
+    if (tree != null && prunableKinds.contains(tree.getKind())) {
+      return null;
+    }
+    return super.scan(tree, state);
   }
 
   @Override
@@ -886,9 +1040,18 @@ public class ErrorProneScanner extends Scanner {
 
   @Override
   public Void visitMethodInvocation(MethodInvocationTree tree, VisitorState visitorState) {
+    Dispatcher<MethodInvocationTreeMatcher> dispatcher = methodInvocationDispatcher;
+    List<MethodInvocationTreeMatcher> matchers;
+    if (dispatcher == null) {
+      matchers = methodInvocationMatchers;
+    } else if (onJavacThread()) {
+      matchers = dispatcher.candidates(tree, visitorState);
+    } else {
+      matchers = callOnJavacThread(() -> dispatcher.candidates(tree, visitorState));
+    }
     VisitorState state =
         processMatchers(
-            methodInvocationMatchers,
+            matchers,
             tree,
             MethodInvocationTreeMatcher::matchMethodInvocation,
             visitorState);
@@ -1143,6 +1306,25 @@ public class ErrorProneScanner extends Scanner {
     return severities;
   }
 
+  @Override
+  protected long[] suppressedChecks(SuppressionInfo suppressions, VisitorState state) {
+    boolean disableWarningsInGeneratedCode =
+        state.errorProneOptions().disableWarningsInGeneratedCode();
+    long[] suppressed = new long[(bugCheckers.size() + 63) / 64];
+    int ordinal = 0;
+    for (BugChecker checker : bugCheckers) {
+      boolean suppressedInGeneratedCode =
+          disableWarningsInGeneratedCode
+              && severities.get(checker.canonicalName()) != SeverityLevel.ERROR;
+      if (suppressions.suppressedState(checker, suppressedInGeneratedCode, state)
+          == SuppressedState.SUPPRESSED) {
+        suppressed[ordinal >>> 6] |= 1L << ordinal;
+      }
+      ordinal++;
+    }
+    return suppressed;
+  }
+
   public ImmutableSet<BugChecker> getBugCheckers() {
     return this.bugCheckers;
   }
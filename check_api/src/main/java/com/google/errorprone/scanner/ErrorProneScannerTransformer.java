@@ -16,14 +16,19 @@
 
 package com.google.errorprone.scanner;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.util.Objects.requireNonNull;
 
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.CodeTransformer;
 import com.google.errorprone.DescriptionListener;
 import com.google.errorprone.ErrorProneOptions;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.util.Context;
 import java.lang.annotation.Annotation;
@@ -40,16 +45,65 @@ public abstract class ErrorProneScannerTransformer implements CodeTransformer {
 
   @Override
   public void apply(TreePath tree, Context context, DescriptionListener listener) {
+    ResultCache resultCache = context.get(ResultCache.class);
+    if (resultCache != null && !cacheSafeChecks().isEmpty()) {
+      resultCache.apply(this, tree, context, listener);
+      return;
+    }
+    scan(tree, context, listener);
+  }
+
+  /**
+   * Runs the checks over {@code tree}, without consulting a {@link ResultCache}, on the workers of
+   * the compilation's {@link ParallelAnalysis} if it has one.
+   */
+  void scan(TreePath tree, Context context, DescriptionListener listener) {
+    ParallelAnalysis parallelAnalysis = context.get(ParallelAnalysis.class);
+    if (parallelAnalysis != null) {
+      parallelAnalysis.scan(this, tree, context, listener);
+      return;
+    }
+    scanOnThisThread(tree, context, listener);
+  }
+
+  /** Runs the checks over {@code tree} on the current thread. */
+  void scanOnThisThread(TreePath tree, Context context, DescriptionListener listener) {
     scanner().scan(tree, createVisitorState(context, listener).withPath(tree));
   }
 
+  /**
+   * The checks run by this transformer whose findings may be cached, that is, whose {@code
+   * BugPattern} is {@linkplain com.google.errorprone.BugPattern#cacheSafe cache-safe}.
+   */
+  @Memoized
+  ImmutableSet<BugChecker> cacheSafeChecks() {
+    if (!(scanner() instanceof ErrorProneScanner errorProneScanner)) {
+      return ImmutableSet.of();
+    }
+    return errorProneScanner.getBugCheckers().stream()
+        .filter(BugChecker::cacheSafe)
+        .collect(toImmutableSet());
+  }
+
+  /** Returns a transformer that runs the checks of this one that aren't cache-safe. */
+  @Memoized
+  ErrorProneScannerTransformer withoutCacheSafeChecks() {
+    ErrorProneScanner errorProneScanner = (ErrorProneScanner) scanner();
+    return create(
+        new ErrorProneScanner(
+            errorProneScanner.getBugCheckers().stream()
+                .filter(c -> !c.cacheSafe())
+                .collect(toImmutableList()),
+            errorProneScanner.severityMap()));
+  }
+
   @Override
   public ImmutableClassToInstanceMap<Annotation> annotations() {
     return ImmutableClassToInstanceMap.of();
   }
 
   /** Create a VisitorState object from a compilation unit. */
-  private VisitorState createVisitorState(Context context, DescriptionListener listener) {
+  VisitorState createVisitorState(Context context, DescriptionListener listener) {
     ErrorProneOptions options = requireNonNull(context.get(ErrorProneOptions.class));
     return VisitorState.createConfiguredForCompilation(
         context, listener, scanner().severityMap(), options);
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Comparator.comparingInt;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.util.Context;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Walks the trees of a compilation unit on a pool of worker threads, for {@code -XepParallelism}.
+ *
+ * <p>None of javac's state is thread-safe: not its trees' types and symbols, which are completed
+ * lazily, nor {@code Types}, nor the singletons in its {@link Context}. So the workers only walk
+ * the trees, and everything that reads javac's state, the matchers of the checks and the lookups
+ * of suppressions, runs on javac's thread. javac's thread waits while the workers scan a
+ * compilation unit, and runs the work that they hand to it in the meantime. A {@link Scanner}
+ * {@linkplain Scanner#forwardTo forwards} that work for the worker that runs it.
+ *
+ * <p>Only checks that declare that they may run alongside other checks are split between the
+ * workers: those annotated with {@link ThreadSafe}, or named by {@code
+ * -XepOpt:Parallelism:ThreadSafeChecks}. Each worker scans the compilation unit with a scanner of
+ * its own, so that any one check only runs for one worker. The other checks run on javac's thread
+ * once the workers are done. The findings for a compilation unit are reported in the order that a
+ * single scanner would report them, so they don't depend on scheduling.
+ */
+public final class ParallelAnalysis {
+
+  public static final String THREAD_SAFE_CHECKS_FLAG = "Parallelism:ThreadSafeChecks";
+
+  /** Tells javac's thread that a worker has finished scanning its share of the checks. */
+  private static final Runnable WORKER_DONE = () -> {};
+
+  /** Returns the parallel analysis requested by {@code options}, or {@code null}. */
+  public static @Nullable ParallelAnalysis create(ErrorProneOptions options) {
+    return options.parallelism() > 1 ? new ParallelAnalysis(options) : null;
+  }
+
+  /**
+   * The checks of a transformer: split into transformers to run on the workers, and a transformer
+   * for the remaining checks, if any, to run on javac's thread. {@code checkOrdinals} gives the
+   * index of each check in the transformer, by canonical name.
+   */
+  private record Shards(
+      ImmutableList<ErrorProneScannerTransformer> workers,
+      @Nullable ErrorProneScannerTransformer javacThread,
+      ImmutableMap<String, Integer> checkOrdinals) {}
+
+  /**
+   * A finding, with the position in a scan of the compilation unit of the tree being matched when
+   * it was reported, and the index of its check.
+   */
+  private record Finding(int tree, int check, Description description) {
+    static final Comparator<Finding> SCAN_ORDER =
+        comparingInt(Finding::tree).thenComparingInt(Finding::check);
+  }
+
+  private final int parallelism;
+  private final ImmutableSet<String> threadSafeChecks;
+  private final ThreadPoolExecutor executor;
+
+  /** The work that the workers hand to javac's thread, see {@link Scanner#forwardTo}. */
+  private final BlockingQueue<Runnable> javacTasks = new LinkedBlockingQueue<>();
+
+  /** The shards of each transformer that has been applied. Only used on javac's thread. */
+  private final Map<ErrorProneScannerTransformer, Shards> shards = new IdentityHashMap<>();
+
+  private ParallelAnalysis(ErrorProneOptions options) {
+    this.parallelism = options.parallelism();
+    this.threadSafeChecks = options.getFlags().getSetOrEmpty(THREAD_SAFE_CHECKS_FLAG);
+    this.executor =
+        new ThreadPoolExecutor(
+            parallelism,
+            parallelism,
+            10,
+            SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("error-prone-analysis-%d")
+                .build());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /** Makes the compilation of {@code context} analyze compilation units in parallel. */
+  public void install(Context context) {
+    context.put(ParallelAnalysis.class, this);
+  }
+
+  /** Stops the worker threads. */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Returns true if {@code checker} may be run alongside other checks, that is, if it is annotated
+   * with {@link ThreadSafe} or its canonical name is in {@code threadSafeChecks}.
+   */
+  static boolean isThreadSafe(BugChecker checker, Set<String> threadSafeChecks) {
+    return checker.getClass().isAnnotationPresent(ThreadSafe.class)
+        || threadSafeChecks.contains(checker.canonicalName());
+  }
+
+  /**
+   * Runs the checks of {@code transformer} over {@code path}, and reports their findings to {@code
+   * listener} once they're all done. Must be called on javac's thread.
+   */
+  void scan(
+      ErrorProneScannerTransformer transformer,
+      TreePath path,
+      Context context,
+      DescriptionListener listener) {
+    Shards shards = this.shards.computeIfAbsent(transformer, this::split);
+    if (shards.workers().isEmpty()) {
+      transformer.scanOnThisThread(path, context, listener);
+      return;
+    }
+    Map<Tree, Integer> scanOrder = scanOrder(path.getLeaf());
+    // Findings are only ever reported on javac's thread, since that's where the matchers run.
+    List<Finding> findings = new ArrayList<>();
+    List<Future<?>> workers = new ArrayList<>();
+    for (ErrorProneScannerTransformer worker : shards.workers()) {
+      VisitorState state =
+          worker
+              .createVisitorState(context, collector(worker, shards, scanOrder, findings))
+              .withPath(path);
+      workers.add(
+          executor.submit(
+              () -> {
+                try {
+                  worker.scanner().scan(path, state);
+                } finally {
+                  javacTasks.add(WORKER_DONE);
+                }
+              }));
+    }
+    for (int running = workers.size(); running > 0; ) {
+      Runnable task = Uninterruptibles.takeUninterruptibly(javacTasks);
+      if (task == WORKER_DONE) {
+        running--;
+      } else {
+        task.run();
+      }
+    }
+    for (Future<?> worker : workers) {
+      try {
+        Uninterruptibles.getUninterruptibly(worker);
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new AssertionError(e.getCause());
+      }
+    }
+    ErrorProneScannerTransformer onJavacThread = shards.javacThread();
+    if (onJavacThread != null) {
+      onJavacThread.scanOnThisThread(
+          path, context, collector(onJavacThread, shards, scanOrder, findings));
+    }
+    // Each shard reports in scan order, and List.sort is stable, so this merges them.
+    findings.sort(Finding.SCAN_ORDER);
+    findings.forEach(finding -> listener.onDescribed(finding.description()));
+  }
+
+  /**
+   * Returns a listener that adds the findings of {@code shard} to {@code findings}, with the tree
+   * that its scanner is matching when they're reported.
+   */
+  private static DescriptionListener collector(
+      ErrorProneScannerTransformer shard,
+      Shards shards,
+      Map<Tree, Integer> scanOrder,
+      List<Finding> findings) {
+    Scanner scanner = shard.scanner();
+    return description ->
+        findings.add(
+            new Finding(
+                scanOrder.getOrDefault(scanner.getCurrentPath().getLeaf(), Integer.MAX_VALUE),
+                shards.checkOrdinals().getOrDefault(description.checkName, Integer.MAX_VALUE),
+                description));
+  }
+
+  /** Numbers the trees under {@code root} in the order that a scanner visits them. */
+  private static Map<Tree, Integer> scanOrder(Tree root) {
+    Map<Tree, Integer> scanOrder = new IdentityHashMap<>();
+    new TreeScanner<Void, Void>() {
+      @Override
+      public Void scan(Tree tree, Void unused) {
+        if (tree != null) {
+          scanOrder.put(tree, scanOrder.size());
+        }
+        return super.scan(tree, null);
+      }
+    }.scan(root, null);
+    return scanOrder;
+  }
+
+  /**
+   * Splits the thread-safe checks of {@code transformer} between up to {@link #parallelism}
+   * workers, round-robin.
+   */
+  private Shards split(ErrorProneScannerTransformer transformer) {
+    if (!(transformer.scanner() instanceof ErrorProneScanner scanner)) {
+      return new Shards(ImmutableList.of(), transformer, ImmutableMap.of());
+    }
+    List<List<BugChecker>> workers = new ArrayList<>();
+    List<BugChecker> javacThread = new ArrayList<>();
+    Map<String, Integer> checkOrdinals = new HashMap<>();
+    int threadSafe = 0;
+    for (BugChecker checker : scanner.getBugCheckers()) {
+      checkOrdinals.putIfAbsent(checker.canonicalName(), checkOrdinals.size());
+      if (!isThreadSafe(checker, threadSafeChecks)) {
+        javacThread.add(checker);
+        continue;
+      }
+      int worker = threadSafe++ % parallelism;
+      if (worker == workers.size()) {
+        workers.add(new ArrayList<>());
+      }
+      workers.get(worker).add(checker);
+    }
+    ImmutableList<ErrorProneScannerTransformer> workerShards =
+        workers.stream().map(checks -> subset(checks, scanner)).collect(toImmutableList());
+    for (ErrorProneScannerTransformer worker : workerShards) {
+      worker.scanner().forwardTo(javacTasks::add);
+    }
+    return new Shards(
+        workerShards,
+        javacThread.isEmpty() ? null : subset(javacThread, scanner),
+        ImmutableMap.copyOf(checkOrdinals));
+  }
+
+  private static ErrorProneScannerTransformer subset(
+      List<BugChecker> checks, ErrorProneScanner scanner) {
+    return ErrorProneScannerTransformer.create(
+        new ErrorProneScanner(checks, scanner.severityMap()));
+  }
+}
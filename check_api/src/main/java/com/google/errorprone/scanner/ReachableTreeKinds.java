@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.sun.source.tree.AnnotatedTypeTree;
+import com.sun.source.tree.AnnotationTree;
+import com.sun.source.tree.ArrayTypeTree;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.BreakTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ConditionalExpressionTree;
+import com.sun.source.tree.ContinueTree;
+import com.sun.source.tree.EmptyStatementTree;
+import com.sun.source.tree.ExportsTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.IntersectionTypeTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.ModifiersTree;
+import com.sun.source.tree.ModuleTree;
+import com.sun.source.tree.NewArrayTree;
+import com.sun.source.tree.OpensTree;
+import com.sun.source.tree.PackageTree;
+import com.sun.source.tree.ParameterizedTypeTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.PrimitiveTypeTree;
+import com.sun.source.tree.ProvidesTree;
+import com.sun.source.tree.RequiresTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.TypeCastTree;
+import com.sun.source.tree.TypeParameterTree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.UnionTypeTree;
+import com.sun.source.tree.UsesTree;
+import com.sun.source.tree.WildcardTree;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Describes which kinds of trees can appear underneath a tree of a given kind, so that a scanner
+ * can skip subtrees that cannot contain anything its matchers are interested in.
+ *
+ * <p>Most trees are unbounded: any statement or expression can declare a local or anonymous class,
+ * so method bodies, initializers, lambdas and class bodies may contain any kind of tree except the
+ * ones that only appear at the top level of a compilation unit. The remaining kinds (names, types,
+ * annotations, modifiers, imports and module directives) can only contain a small, fixed set of
+ * kinds in a program that attributed without errors.
+ */
+final class ReachableTreeKinds {
+
+  /** Tree kinds that can only appear directly in a compilation unit or module declaration. */
+  private static final ImmutableSet<Class<? extends Tree>> TOP_LEVEL =
+      ImmutableSet.of(
+          CompilationUnitTree.class,
+          ExportsTree.class,
+          ImportTree.class,
+          ModuleTree.class,
+          OpensTree.class,
+          PackageTree.class,
+          ProvidesTree.class,
+          RequiresTree.class,
+          UsesTree.class);
+
+  private static final ImmutableSet<Class<? extends Tree>> NAME =
+      ImmutableSet.of(IdentifierTree.class, MemberSelectTree.class);
+
+  /**
+   * Everything that can appear in an annotation: its name, and element values, which are constant
+   * expressions, class literals, enum constants, nested annotations or arrays of those.
+   */
+  private static final ImmutableSet<Class<? extends Tree>> ANNOTATION =
+      ImmutableSet.<Class<? extends Tree>>builder()
+          .addAll(NAME)
+          .addAll(
+              ImmutableSet.of(
+                  AnnotationTree.class,
+                  ArrayTypeTree.class,
+                  AssignmentTree.class,
+                  BinaryTree.class,
+                  ConditionalExpressionTree.class,
+                  LiteralTree.class,
+                  NewArrayTree.class,
+                  ParenthesizedTree.class,
+                  PrimitiveTypeTree.class,
+                  TypeCastTree.class,
+                  UnaryTree.class))
+          .build();
+
+  /** Everything that can appear in a type, including type-use annotations. */
+  private static final ImmutableSet<Class<? extends Tree>> TYPE =
+      ImmutableSet.<Class<? extends Tree>>builder()
+          .addAll(ANNOTATION)
+          .addAll(
+              ImmutableSet.of(
+                  AnnotatedTypeTree.class,
+                  IntersectionTypeTree.class,
+                  ParameterizedTypeTree.class,
+                  UnionTypeTree.class,
+                  WildcardTree.class))
+          .build();
+
+  /**
+   * The kinds that may be reached from each bounded kind, including the kind itself. Kinds that are
+   * not present in this map are unbounded.
+   */
+  private static final ImmutableMap<Class<? extends Tree>, ImmutableSet<Class<? extends Tree>>>
+      BOUNDED =
+          ImmutableMap.<Class<? extends Tree>, ImmutableSet<Class<? extends Tree>>>builder()
+              // keep-sorted start
+              .put(AnnotatedTypeTree.class, TYPE)
+              .put(AnnotationTree.class, ANNOTATION)
+              .put(ArrayTypeTree.class, TYPE)
+              .put(BreakTree.class, ImmutableSet.of(BreakTree.class))
+              .put(ContinueTree.class, ImmutableSet.of(ContinueTree.class))
+              .put(EmptyStatementTree.class, ImmutableSet.of(EmptyStatementTree.class))
+              .put(ExportsTree.class, with(ExportsTree.class, NAME))
+              .put(IdentifierTree.class, ImmutableSet.of(IdentifierTree.class))
+              .put(ImportTree.class, with(ImportTree.class, NAME))
+              .put(IntersectionTypeTree.class, TYPE)
+              .put(LiteralTree.class, ImmutableSet.of(LiteralTree.class))
+              .put(ModifiersTree.class, with(ModifiersTree.class, ANNOTATION))
+              .put(
+                  ModuleTree.class,
+                  ImmutableSet.<Class<? extends Tree>>builder()
+                      .addAll(
+                          ImmutableSet.of(
+                              ExportsTree.class,
+                              ModuleTree.class,
+                              OpensTree.class,
+                              ProvidesTree.class,
+                              RequiresTree.class,
+                              UsesTree.class))
+                      .addAll(ANNOTATION)
+                      .build())
+              .put(OpensTree.class, with(OpensTree.class, NAME))
+              .put(PackageTree.class, with(PackageTree.class, ANNOTATION))
+              .put(ParameterizedTypeTree.class, TYPE)
+              .put(PrimitiveTypeTree.class, ImmutableSet.of(PrimitiveTypeTree.class))
+              .put(ProvidesTree.class, with(ProvidesTree.class, NAME))
+              .put(RequiresTree.class, with(RequiresTree.class, NAME))
+              .put(TypeParameterTree.class, with(TypeParameterTree.class, TYPE))
+              .put(UnionTypeTree.class, TYPE)
+              .put(UsesTree.class, with(UsesTree.class, NAME))
+              .put(WildcardTree.class, TYPE)
+              // keep-sorted end
+              .buildOrThrow();
+
+  private static ImmutableSet<Class<? extends Tree>> with(
+      Class<? extends Tree> kind, ImmutableSet<Class<? extends Tree>> reachable) {
+    return ImmutableSet.<Class<? extends Tree>>builder().add(kind).addAll(reachable).build();
+  }
+
+  /**
+   * Returns the kinds of tree whose subtrees cannot contain any tree of the given {@code
+   * interesting} types, and can therefore be skipped entirely.
+   */
+  static ImmutableSet<Tree.Kind> prunableKinds(Set<Class<? extends Tree>> interesting) {
+    boolean onlyTopLevel = TOP_LEVEL.containsAll(interesting);
+    EnumSet<Tree.Kind> prunable = EnumSet.noneOf(Tree.Kind.class);
+    for (Tree.Kind kind : Tree.Kind.values()) {
+      Class<? extends Tree> type = kind.asInterface();
+      if (type == null || type.equals(CompilationUnitTree.class)) {
+        continue;
+      }
+      ImmutableSet<Class<? extends Tree>> reachable = BOUNDED.get(type);
+      if (reachable == null ? onlyTopLevel : Sets.intersection(reachable, interesting).isEmpty()) {
+        prunable.add(kind);
+      }
+    }
+    return Sets.immutableEnumSet(prunable);
+  }
+
+  private ReachableTreeKinds() {}
+}
@@ -0,0 +1,768 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.errorprone.util.ASTHelpers.getSymbol;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Comparator.comparing;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.ErrorProneVersion;
+import com.google.errorprone.ScannerCache;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.fixes.ErrorProneEndPosTable;
+import com.google.errorprone.fixes.ErrorPronePosition;
+import com.google.errorprone.fixes.Fix;
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.fixes.Replacements.CoalescePolicy;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.util.Signatures;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.code.Source;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.TypeTag;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Keeps the findings of {@linkplain com.google.errorprone.BugPattern#cacheSafe cache-safe} checks
+ * on disk between compilations, for {@code -XepResultCache}.
+ *
+ * <p>The findings for a compilation unit are stored under a hash of everything they may depend on:
+ * the source and name of the file; the signatures, modifiers and annotations of the declarations
+ * it refers to and of the supertypes of the classes it declares; the cache-safe checks and the jars
+ * or directories they were loaded from; and the options of the compilation. When an entry is
+ * found, its findings are replayed and only the other checks are run. Either way, the findings for
+ * a compilation unit are reported in the order that the checks found them in, as they would be
+ * without the cache.
+ *
+ * <p>Each entry is a file of its own, named by its hash, which is written to a temporary file and
+ * then moved into place, so that concurrent compilations can share the directory. Entries are
+ * never removed or updated, and the directory may be deleted at any time.
+ */
+public final class ResultCache {
+
+  /** The first four bytes of an entry, and the version of the format of the hash and entries. */
+  private static final int MAGIC = 0x45504332; // EPC2
+
+  /** Returns the cache requested by {@code options}, or {@code null} if there isn't one. */
+  public static @Nullable ResultCache create(ErrorProneOptions options) {
+    Path directory = options.resultCache();
+    return directory == null ? null : new ResultCache(directory, options);
+  }
+
+  private final Path directory;
+  private final ErrorProneOptions options;
+
+  /** Whether {@link #configuration} has been computed, for the first compilation unit. */
+  private boolean configured = false;
+
+  /** The hash of the cache-safe checks and the options, or {@code null} if it can't be computed. */
+  private @Nullable HashCode configuration;
+
+  private ResultCache(Path directory, ErrorProneOptions options) {
+    this.directory = directory;
+    this.options = options;
+  }
+
+  /** Makes the compilation of {@code context} use this cache. */
+  public void install(Context context) {
+    context.put(ResultCache.class, this);
+  }
+
+  /**
+   * Runs the checks of {@code transformer} over {@code path}, replaying the findings of its
+   * cache-safe checks if they're cached, and caching them otherwise.
+   */
+  void apply(
+      ErrorProneScannerTransformer transformer,
+      TreePath path,
+      Context context,
+      DescriptionListener listener) {
+    JCCompilationUnit compilation = (JCCompilationUnit) path.getCompilationUnit();
+    Path entry =
+        path.getLeaf() instanceof CompilationUnitTree
+            ? entry(transformer, compilation, context)
+            : null;
+    if (entry == null) {
+      transformer.scan(path, context, listener);
+      return;
+    }
+    ImmutableList<CachedDescription> cached = read(entry);
+    if (cached != null) {
+      Replayer replayer = new Replayer(cached, replay(cached, compilation), listener);
+      transformer.withoutCacheSafeChecks().scan(path, context, replayer);
+      replayer.finish();
+    } else {
+      List<Description> descriptions = new ArrayList<>();
+      transformer.scan(
+          path,
+          context,
+          d -> {
+            descriptions.add(d);
+            listener.onDescribed(d);
+          });
+      ImmutableSet<String> cacheSafe =
+          transformer.cacheSafeChecks().stream()
+              .map(BugChecker::canonicalName)
+              .collect(toImmutableSet());
+      write(entry, descriptions, cacheSafe, compilation);
+    }
+  }
+
+  /**
+   * Reports the findings of the checks that aren't cache-safe, and the replayed findings of the
+   * cache-safe checks in between them, in the order they were originally found in.
+   */
+  private static final class Replayer implements DescriptionListener {
+    private final ImmutableList<CachedDescription> cached;
+    private final ImmutableList<Description> replayed;
+    private final DescriptionListener listener;
+    private int next = 0;
+    private int others = 0;
+
+    Replayer(
+        ImmutableList<CachedDescription> cached,
+        ImmutableList<Description> replayed,
+        DescriptionListener listener) {
+      this.cached = cached;
+      this.replayed = replayed;
+      this.listener = listener;
+    }
+
+    @Override
+    public void onDescribed(Description description) {
+      replayUpTo(others);
+      listener.onDescribed(description);
+      others++;
+    }
+
+    /** Reports the replayed findings that were found after all the others. */
+    void finish() {
+      replayUpTo(Integer.MAX_VALUE);
+    }
+
+    private void replayUpTo(int others) {
+      while (next < cached.size() && cached.get(next).precedingOthers() <= others) {
+        listener.onDescribed(replayed.get(next++));
+      }
+    }
+  }
+
+  /** Returns the entry's file for {@code compilation}, or {@code null} if it can't be cached. */
+  private @Nullable Path entry(
+      ErrorProneScannerTransformer transformer, JCCompilationUnit compilation, Context context) {
+    CharSequence source;
+    try {
+      source = compilation.getSourceFile().getCharContent(/* ignoreEncodingErrors= */ true);
+    } catch (IOException e) {
+      return null;
+    }
+    Hasher hasher = Hashing.sha256().newHasher();
+    HashCode configuration = configuration(transformer, context);
+    if (configuration == null) {
+      return null;
+    }
+    hasher.putBytes(configuration.asBytes());
+    putString(hasher, compilation.getSourceFile().getName());
+    putString(hasher, source);
+    for (String declaration :
+        referencedDeclarations(compilation, VisitorState.createForUtilityPurposes(context))) {
+      putString(hasher, declaration);
+    }
+    String name = hasher.hash().toString();
+    return directory.resolve(name.substring(0, 2)).resolve(name.substring(2));
+  }
+
+  private synchronized @Nullable HashCode configuration(
+      ErrorProneScannerTransformer transformer, Context context) {
+    if (!configured) {
+      configuration = computeConfiguration(transformer, context);
+      configured = true;
+    }
+    return configuration;
+  }
+
+  private @Nullable HashCode computeConfiguration(
+      ErrorProneScannerTransformer transformer, Context context) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(MAGIC);
+    putString(hasher, ErrorProneVersion.loadVersionFromPom().or(""));
+    putString(hasher, Runtime.version().toString());
+    putString(hasher, Source.instance(context).name);
+    putString(hasher, options.getSeverityMap().toString());
+    putString(hasher, options.getFlags().getFlagsMap().toString());
+    for (boolean option :
+        new boolean[] {
+          options.isEnableAllChecksAsWarnings(),
+          options.isDisableAllChecks(),
+          options.isDisableAllWarnings(),
+          options.isDropErrorsToWarnings(),
+          options.isSuggestionsAsWarnings(),
+          options.disableWarningsInGeneratedCode(),
+          options.isIgnoreSuppressionAnnotations(),
+          options.ignoreLargeCodeGenerators(),
+          options.isTestOnlyTarget(),
+          options.isPubliclyVisibleTarget(),
+        }) {
+      hasher.putBoolean(option);
+    }
+    Map<String, SeverityLevel> severities = transformer.scanner().severityMap();
+    // The checks may depend on any class they're loaded with, not just their own.
+    Set<Path> locations = new TreeSet<>();
+    for (BugChecker checker :
+        ImmutableList.sortedCopyOf(
+            comparing(BugChecker::canonicalName), transformer.cacheSafeChecks())) {
+      putString(hasher, checker.canonicalName());
+      putString(hasher, String.valueOf(severities.get(checker.canonicalName())));
+      putString(hasher, checker.getClass().getName());
+      Path location = location(checker.getClass());
+      if (location != null) {
+        locations.add(location);
+      } else {
+        hasher.putBytes(classFile(checker.getClass()));
+      }
+    }
+    try {
+      hasher.putBytes(ScannerCache.fingerprint(locations).asBytes());
+    } catch (IOException e) {
+      return null;
+    }
+    return hasher.hash();
+  }
+
+  /** Returns the jar or directory that {@code clazz} was loaded from, if it's a local file. */
+  private static @Nullable Path location(Class<?> clazz) {
+    CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return null;
+    }
+    try {
+      return Path.of(codeSource.getLocation().toURI());
+    } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+      return null;
+    }
+  }
+
+  private static void putString(Hasher hasher, CharSequence value) {
+    hasher.putInt(value.length()).putUnencodedChars(value);
+  }
+
+  /** Returns the bytes of the class file of {@code clazz}, or nothing if they can't be read. */
+  private static byte[] classFile(Class<?> clazz) {
+    String name = clazz.getName();
+    try (InputStream in =
+        clazz.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+      return in == null ? new byte[0] : in.readAllBytes();
+    } catch (IOException e) {
+      return new byte[0];
+    }
+  }
+
+  /**
+   * Describes the declarations outside of {@code compilation} that it refers to, and the supertypes
+   * of the classes it declares, in a canonical order.
+   */
+  private static ImmutableSortedSet<String> referencedDeclarations(
+      JCCompilationUnit compilation, VisitorState state) {
+    Set<ClassSymbol> declared = new HashSet<>();
+    for (JCTree declaration : compilation.getTypeDecls()) {
+      if (declaration instanceof JCClassDecl classDecl && classDecl.sym != null) {
+        declared.add(classDecl.sym);
+      }
+    }
+    Set<Symbol> referenced = new LinkedHashSet<>();
+    new TreeScanner<Void, Void>() {
+      @Override
+      public Void visitClass(ClassTree tree, Void unused) {
+        ClassSymbol sym = getSymbol(tree);
+        for (Type supertype : state.getTypes().closure(sym.type)) {
+          referenced.add(supertype.tsym);
+        }
+        return super.visitClass(tree, null);
+      }
+
+      @Override
+      public Void visitIdentifier(IdentifierTree tree, Void unused) {
+        add(getSymbol(tree));
+        return super.visitIdentifier(tree, null);
+      }
+
+      @Override
+      public Void visitMemberSelect(MemberSelectTree tree, Void unused) {
+        add(getSymbol(tree));
+        return super.visitMemberSelect(tree, null);
+      }
+
+      @Override
+      public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
+        add(getSymbol(tree));
+        return super.visitMemberReference(tree, null);
+      }
+
+      @Override
+      public Void visitNewClass(NewClassTree tree, Void unused) {
+        add(getSymbol(tree));
+        return super.visitNewClass(tree, null);
+      }
+
+      private void add(@Nullable Symbol sym) {
+        if (sym == null) {
+          return;
+        }
+        referenced.add(sym);
+        if (sym.owner instanceof ClassSymbol owner) {
+          referenced.add(owner);
+        }
+      }
+    }.scan(compilation, null);
+    ImmutableSortedSet.Builder<String> declarations = ImmutableSortedSet.naturalOrder();
+    for (Symbol sym : referenced) {
+      String declaration = describe(sym, declared, state);
+      if (declaration != null) {
+        declarations.add(declaration);
+      }
+    }
+    return declarations.build();
+  }
+
+  /**
+   * Describes a class, method or field that isn't declared in one of the {@code declared} classes,
+   * or returns {@code null}.
+   */
+  private static @Nullable String describe(
+      Symbol sym, Set<ClassSymbol> declared, VisitorState state) {
+    if (!(sym instanceof ClassSymbol
+        || sym instanceof MethodSymbol
+        || (sym instanceof VarSymbol && sym.owner instanceof ClassSymbol))) {
+      return null;
+    }
+    ClassSymbol outermost = sym.outermostClass();
+    if (outermost == null || declared.contains(outermost)) {
+      return null;
+    }
+    StringBuilder description = new StringBuilder();
+    description.append(sym.kind).append(' ');
+    if (sym instanceof ClassSymbol classSymbol) {
+      description.append(classSymbol.flatName());
+    } else {
+      description.append(sym.owner.flatName()).append('.').append(sym.name);
+    }
+    description.append(' ').append(Signatures.signature(sym.type, state));
+    description.append(' ').append(sym.getModifiers());
+    description.append(' ').append(sym.getAnnotationMirrors());
+    switch (sym) {
+      case ClassSymbol classSymbol -> {
+        Type superclass = classSymbol.getSuperclass();
+        if (superclass.hasTag(TypeTag.CLASS)) {
+          description.append(" extends ").append(Signatures.signature(superclass, state));
+        }
+        for (Type type : classSymbol.getInterfaces()) {
+          description.append(" implements ").append(Signatures.signature(type, state));
+        }
+      }
+      case MethodSymbol methodSymbol -> {
+        for (Type type : methodSymbol.getThrownTypes()) {
+          description.append(" throws ").append(Signatures.signature(type, state));
+        }
+      }
+      case VarSymbol varSymbol -> {
+        Object constant = varSymbol.getConstantValue();
+        if (constant != null) {
+          description.append(" = ").append(constant);
+        }
+      }
+      default -> {}
+    }
+    return description.toString();
+  }
+
+  /** A tree, identified by its kind and position in a compilation unit. */
+  private record TreeKey(String kind, int startPosition, int preferredPosition) {
+    static TreeKey of(JCTree tree) {
+      return new TreeKey(
+          tree.getKind().name(), tree.getStartPosition(), tree.getPreferredPosition());
+    }
+  }
+
+  /**
+   * A finding read from an entry, and the number of findings of the checks that aren't cache-safe
+   * that were reported before it.
+   */
+  private record CachedDescription(
+      int precedingOthers,
+      String checkName,
+      String rawMessage,
+      @Nullable String link,
+      SeverityLevel severity,
+      @Nullable TreeKey tree,
+      int startPosition,
+      int preferredPosition,
+      int endPosition,
+      ImmutableList<CachedFix> fixes) {}
+
+  /** The position of a finding read from an entry. */
+  private record CachedPosition(
+      JCTree tree, int startPosition, int preferredPosition, int endPosition)
+      implements ErrorPronePosition {
+
+    @Override
+    public JCTree getTree() {
+      return tree;
+    }
+
+    @Override
+    public int getStartPosition() {
+      return startPosition;
+    }
+
+    @Override
+    public int getPreferredPosition() {
+      return preferredPosition;
+    }
+
+    @Override
+    public int getEndPosition(ErrorProneEndPosTable endPosTable) {
+      return endPosition;
+    }
+  }
+
+  /** A fix read from an entry, with the replacements it had when it was written. */
+  private record CachedFix(
+      String shortDescription,
+      CoalescePolicy coalescePolicy,
+      ImmutableSet<Replacement> replacements,
+      ImmutableSet<String> importsToAdd,
+      ImmutableSet<String> importsToRemove)
+      implements Fix {
+
+    @Override
+    public String toString(JCCompilationUnit compilationUnit) {
+      StringBuilder result = new StringBuilder("replace ");
+      for (Replacement replacement : replacements) {
+        result.append(
+            String.format(
+                "position %d:%d with \"%s\" ",
+                replacement.startPosition(), replacement.endPosition(), replacement.replaceWith()));
+      }
+      return result.toString();
+    }
+
+    @Override
+    public String getShortDescription() {
+      return shortDescription;
+    }
+
+    @Override
+    public CoalescePolicy getCoalescePolicy() {
+      return coalescePolicy;
+    }
+
+    @Override
+    public ImmutableSet<Replacement> getReplacements(ErrorProneEndPosTable endPositions) {
+      return replacements;
+    }
+
+    @Override
+    public ImmutableSet<String> getImportsToAdd() {
+      return importsToAdd;
+    }
+
+    @Override
+    public ImmutableSet<String> getImportsToRemove() {
+      return importsToRemove;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return replacements.isEmpty() && importsToAdd.isEmpty() && importsToRemove.isEmpty();
+    }
+  }
+
+  /**
+   * Returns the findings of an entry as {@link Description}s of {@code compilation}, whose trees
+   * are found again by their kind and position.
+   */
+  private static ImmutableList<Description> replay(
+      ImmutableList<CachedDescription> cached, JCCompilationUnit compilation) {
+    if (cached.isEmpty()) {
+      return ImmutableList.of();
+    }
+    Set<TreeKey> wanted = new HashSet<>();
+    for (CachedDescription description : cached) {
+      if (description.tree() != null) {
+        wanted.add(description.tree());
+      }
+    }
+    Map<TreeKey, JCTree> trees = new HashMap<>();
+    new com.sun.tools.javac.tree.TreeScanner() {
+      @Override
+      public void scan(JCTree tree) {
+        if (tree != null) {
+          TreeKey key = TreeKey.of(tree);
+          if (wanted.contains(key)) {
+            trees.putIfAbsent(key, tree);
+          }
+        }
+        super.scan(tree);
+      }
+    }.scan(compilation);
+    ImmutableList.Builder<Description> descriptions = ImmutableList.builder();
+    for (CachedDescription description : cached) {
+      JCTree tree = description.tree() != null ? trees.get(description.tree()) : null;
+      ErrorPronePosition position =
+          new CachedPosition(
+              tree != null ? tree : compilation,
+              description.startPosition(),
+              description.preferredPosition(),
+              description.endPosition());
+      descriptions.add(
+          Description.builder(
+                  position, description.checkName(), description.link(), description.rawMessage())
+              .overrideSeverity(description.severity())
+              .addAllFixes(description.fixes())
+              .build());
+    }
+    return descriptions.build();
+  }
+
+  /** Reads an entry, or returns {@code null} if there is none or it can't be read. */
+  private static @Nullable ImmutableList<CachedDescription> read(Path entry) {
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(entry);
+    } catch (IOException e) {
+      // Usually because there is no entry.
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      if (in.readInt() != MAGIC) {
+        return null;
+      }
+      int count = readLength(in);
+      ImmutableList.Builder<CachedDescription> descriptions = ImmutableList.builder();
+      for (int i = 0; i < count; i++) {
+        int precedingOthers = in.readInt();
+        String checkName = readString(in);
+        String rawMessage = readString(in);
+        String link = in.readBoolean() ? readString(in) : null;
+        SeverityLevel severity = SeverityLevel.values()[in.readUnsignedByte()];
+        TreeKey tree =
+            in.readBoolean() ? new TreeKey(readString(in), in.readInt(), in.readInt()) : null;
+        int startPosition = in.readInt();
+        int preferredPosition = in.readInt();
+        int endPosition = in.readInt();
+        int fixCount = readLength(in);
+        ImmutableList.Builder<CachedFix> fixes = ImmutableList.builder();
+        for (int j = 0; j < fixCount; j++) {
+          String shortDescription = readString(in);
+          CoalescePolicy coalescePolicy = CoalescePolicy.values()[in.readUnsignedByte()];
+          int replacementCount = readLength(in);
+          ImmutableSet.Builder<Replacement> replacements = ImmutableSet.builder();
+          for (int k = 0; k < replacementCount; k++) {
+            replacements.add(Replacement.create(in.readInt(), in.readInt(), readString(in)));
+          }
+          fixes.add(
+              new CachedFix(
+                  shortDescription,
+                  coalescePolicy,
+                  replacements.build(),
+                  readStrings(in),
+                  readStrings(in)));
+        }
+        descriptions.add(
+            new CachedDescription(
+                precedingOthers,
+                checkName,
+                rawMessage,
+                link,
+                severity,
+                tree,
+                startPosition,
+                preferredPosition,
+                endPosition,
+                fixes.build()));
+      }
+      return descriptions.build();
+    } catch (IOException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      // A truncated or corrupt entry; compute the findings again.
+      return null;
+    }
+  }
+
+  /**
+   * Writes the findings of the {@code cacheSafe} checks among {@code descriptions}, which are the
+   * findings for {@code compilation} in the order they were reported, to an entry. The cache is
+   * only an optimization, so failing to write it isn't an error.
+   */
+  private static void write(
+      Path entry,
+      List<Description> descriptions,
+      Set<String> cacheSafe,
+      JCCompilationUnit compilation) {
+    ErrorProneEndPosTable endPositions = ErrorProneEndPosTable.create(compilation);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      List<Description> cached =
+          descriptions.stream().filter(d -> cacheSafe.contains(d.checkName)).toList();
+      out.writeInt(cached.size());
+      int others = 0;
+      for (Description description : descriptions) {
+        if (!cacheSafe.contains(description.checkName)) {
+          others++;
+          continue;
+        }
+        out.writeInt(others);
+        writeString(out, description.checkName);
+        writeString(out, description.getRawMessage());
+        String link = description.getLink();
+        out.writeBoolean(link != null);
+        if (link != null) {
+          writeString(out, link);
+        }
+        out.writeByte(description.severity().ordinal());
+        ErrorPronePosition position = description.position;
+        JCTree tree = position.getTree();
+        out.writeBoolean(tree != null);
+        if (tree != null) {
+          TreeKey key = TreeKey.of(tree);
+          writeString(out, key.kind());
+          out.writeInt(key.startPosition());
+          out.writeInt(key.preferredPosition());
+        }
+        out.writeInt(position.getStartPosition());
+        out.writeInt(position.getPreferredPosition());
+        out.writeInt(position.getEndPosition(endPositions));
+        // Recording a finding computes all of its fixes, since they're replayed on a hit.
+        ImmutableList<Fix> fixes = description.getFixes();
+        out.writeInt(fixes.size());
+        for (Fix fix : fixes) {
+          writeString(out, fix.getShortDescription());
+          out.writeByte(fix.getCoalescePolicy().ordinal());
+          ImmutableSet<Replacement> replacements = fix.getReplacements(endPositions);
+          out.writeInt(replacements.size());
+          for (Replacement replacement : replacements) {
+            out.writeInt(replacement.startPosition());
+            out.writeInt(replacement.endPosition());
+            writeString(out, replacement.replaceWith());
+          }
+          writeStrings(out, fix.getImportsToAdd());
+          writeStrings(out, fix.getImportsToRemove());
+        }
+      }
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    Path temporary = null;
+    try {
+      Files.createDirectories(entry.getParent());
+      temporary = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+      Files.write(temporary, bytes.toByteArray());
+      Files.move(temporary, entry, ATOMIC_MOVE, REPLACE_EXISTING);
+    } catch (IOException e) {
+      if (temporary != null) {
+        try {
+          Files.deleteIfExists(temporary);
+        } catch (IOException suppressed) {
+          e.addSuppressed(suppressed);
+        }
+      }
+    }
+  }
+
+  private static int readLength(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IOException("invalid length: " + length);
+    }
+    return length;
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return new String(in.readNBytes(readLength(in)), UTF_8);
+  }
+
+  private static ImmutableSet<String> readStrings(DataInputStream in) throws IOException {
+    int count = readLength(in);
+    ImmutableSet.Builder<String> strings = ImmutableSet.builder();
+    for (int i = 0; i < count; i++) {
+      strings.add(readString(in));
+    }
+    return strings.build();
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static void writeStrings(DataOutputStream out, Collection<String> values)
+      throws IOException {
+    out.writeInt(values.size());
+    for (String value : values) {
+      writeString(out, value);
+    }
+  }
+}
@@ -18,7 +18,10 @@ package com.google.errorprone.scanner;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.ErrorProneOptions;
 import com.google.errorprone.SuppressionInfo;
@@ -37,6 +40,11 @@ import com.sun.tools.javac.util.Name;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
 
 /**
  * TODO(eaftan): I'm worried about this performance of this code, specifically the part that handles
@@ -48,17 +56,66 @@ import java.util.Set;
 @CheckReturnValue
 public class Scanner extends TreePathScanner<Void, VisitorState> {
 
+  private static final long[] NO_CHECKS = {};
+
   private SuppressionInfo currentSuppressions = SuppressionInfo.EMPTY;
 
+  /** The checks suppressed by {@link #currentSuppressions}, see {@link #suppressedChecks}. */
+  private long[] currentSuppressedChecks = NO_CHECKS;
+
+  /**
+   * Runs work on javac's thread, if this scanner walks the trees on a worker thread of a {@link
+   * ParallelAnalysis}; null if this scanner runs on javac's thread itself.
+   */
+  private @Nullable Executor javacThread;
+
+  /**
+   * Makes this scanner run everything that reads javac's state, which isn't thread-safe, through
+   * {@code javacThread}, so that it can walk the trees on another thread.
+   */
+  final void forwardTo(Executor javacThread) {
+    this.javacThread = javacThread;
+  }
+
+  /** Returns true if this scanner runs on javac's thread, and can read javac's state directly. */
+  protected final boolean onJavacThread() {
+    return javacThread == null;
+  }
+
+  /**
+   * Runs {@code work} on javac's thread. Scanners that {@linkplain #onJavacThread run on it} should
+   * just do the work instead.
+   */
+  protected final void runOnJavacThread(Runnable work) {
+    var unused = await(new FutureTask<>(work, null));
+  }
+
+  /** Returns the result of {@code work}, computed on javac's thread. */
+  protected final <T> T callOnJavacThread(Supplier<T> work) {
+    return await(new FutureTask<>(work::get));
+  }
+
+  private <T> T await(FutureTask<T> task) {
+    checkNotNull(javacThread).execute(task);
+    try {
+      return Uninterruptibles.getUninterruptibly(task);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new UncheckedExecutionException(e.getCause());
+    }
+  }
+
   /** Scan a tree from a position identified by a TreePath. */
   @Override
   public Void scan(TreePath path, VisitorState state) {
+    long[] prevSuppressedChecks = currentSuppressedChecks;
     SuppressionInfo prevSuppressionInfo = updateSuppressions(path.getLeaf(), state);
     try {
       return super.scan(path, state);
     } finally {
       // Restore old suppression state.
       currentSuppressions = prevSuppressionInfo;
+      currentSuppressedChecks = prevSuppressedChecks;
     }
   }
 
@@ -69,12 +126,14 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
       return null;
     }
 
+    long[] prevSuppressedChecks = currentSuppressedChecks;
     SuppressionInfo prevSuppressionInfo = updateSuppressions(tree, state);
     try {
       return super.scan(tree, state);
     } finally {
       // Restore old suppression state.
       currentSuppressions = prevSuppressionInfo;
+      currentSuppressedChecks = prevSuppressedChecks;
     }
   }
 
@@ -83,18 +142,53 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
    * previous suppression state so that it can be restored when going up the tree.
    */
   private SuppressionInfo updateSuppressions(Tree tree, VisitorState state) {
+    SuppressionInfo prevSuppressionInfo = currentSuppressions;
+    if (tree instanceof CompilationUnitTree || ASTHelpers.getDeclaredSymbol(tree) != null) {
+      if (onJavacThread()) {
+        extendSuppressions(tree, state);
+      } else {
+        runOnJavacThread(() -> extendSuppressions(tree, state));
+      }
+    }
+    return prevSuppressionInfo;
+  }
+
+  /** Adds the suppressions of {@code tree}, a compilation unit or a declaration, to the state. */
+  private void extendSuppressions(Tree tree, VisitorState state) {
     SuppressionInfo prevSuppressionInfo = currentSuppressions;
     if (tree instanceof CompilationUnitTree compilationUnitTree) {
       currentSuppressions = currentSuppressions.forCompilationUnit(compilationUnitTree, state);
     } else {
-      Symbol sym = ASTHelpers.getDeclaredSymbol(tree);
-      if (sym != null) {
-        currentSuppressions =
-            currentSuppressions.withExtendedSuppressions(
-                sym, state, getCustomSuppressionAnnotations(state));
-      }
+      Symbol sym = checkNotNull(ASTHelpers.getDeclaredSymbol(tree));
+      currentSuppressions =
+          currentSuppressions.withExtendedSuppressions(
+              sym, state, getCustomSuppressionAnnotations(state));
     }
-    return prevSuppressionInfo;
+    if (currentSuppressions != prevSuppressionInfo) {
+      currentSuppressedChecks = suppressedChecks(currentSuppressions, state);
+    }
+  }
+
+  /**
+   * Resolves which checks {@code suppressions} suppress, as a bit set indexed by the ordinals that
+   * this scanner gives its checks. It's called once for each declaration that changes the
+   * suppression state, and {@link #isSuppressed(int)} then tests the bits of the innermost one.
+   *
+   * <p>Scanners that don't number their checks, and use {@link #isSuppressed(Suppressible,
+   * ErrorProneOptions, VisitorState)} instead, don't need to override this.
+   */
+  protected long[] suppressedChecks(SuppressionInfo suppressions, VisitorState state) {
+    return NO_CHECKS;
+  }
+
+  /**
+   * Returns if the check with the given ordinal should be suppressed on the current tree path,
+   * according to {@link #suppressedChecks}.
+   */
+  protected final boolean isSuppressed(int checkOrdinal) {
+    int word = checkOrdinal >>> 6;
+    return word < currentSuppressedChecks.length
+        && (currentSuppressedChecks[word] & (1L << checkOrdinal)) != 0;
   }
 
   /**
@@ -38,6 +38,7 @@ import com.sun.tools.javac.util.Position.LineMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Utilities for attaching comments to relevant AST nodes
@@ -140,13 +141,19 @@ public final class Comments {
                     getStartPosition(arg) - invocationStart,
                     state.getEndPosition(arg) - invocationStart)));
 
-    ErrorProneTokens errorProneTokens = new ErrorProneTokens(source.toString(), state.context);
-    ImmutableList<ErrorProneToken> tokens = errorProneTokens.getTokens();
-    LineMap lineMap = errorProneTokens.getLineMap();
+    CompilationUnitTokens compilationUnitTokens = CompilationUnitTokens.instance(state);
+    List<ErrorProneToken> tokens =
+        compilationUnitTokens.getTokens(invocationStart, endPosition.get(), /* offset= */ 0);
+    // Positions are relative to the start of the invocation, and so are line numbers: the
+    // invocation starts on line 1.
+    LineMap lineMap = compilationUnitTokens.getLineMap();
+    int firstLine = lineMap.getLineNumber(invocationStart);
+    IntUnaryOperator lineNumber =
+        pos -> pos < 0 ? 0 : lineMap.getLineNumber(invocationStart + pos) - firstLine + 1;
 
     ArgumentTracker argumentTracker =
-        new ArgumentTracker(arguments, invocationStart, state, lineMap);
-    TokenTracker tokenTracker = new TokenTracker(lineMap);
+        new ArgumentTracker(arguments, invocationStart, state, lineNumber);
+    TokenTracker tokenTracker = new TokenTracker(lineNumber);
 
     argumentTracker.advance();
     for (ErrorProneToken token : tokens) {
@@ -170,8 +177,8 @@ public final class Comments {
             // if the comment comes after the end of the invocation and it's not on the same line
             // as the final argument then we need to ignore it
             if (commentStart <= invocationEnd
-                || lineMap.getLineNumber(commentStart)
-                    <= lineMap.getLineNumber(argumentTracker.currentArgumentEndPosition)) {
+                || lineNumber.applyAsInt(commentStart)
+                    <= lineNumber.applyAsInt(argumentTracker.currentArgumentEndPosition)) {
               argumentTracker.addCommentToCurrentArgument(comment, Position.ANY);
             }
           }
@@ -342,18 +349,18 @@ public final class Comments {
   /** This class is used to keep track of state between lines of code when consuming tokens */
   private static class TokenTracker {
 
-    private final LineMap lineMap;
+    private final IntUnaryOperator lineNumber;
 
     private int tokensOnCurrentLine = 0;
     private int currentLineNumber = -1;
     private boolean previousLineEmpty = true;
 
-    TokenTracker(LineMap lineMap) {
-      this.lineMap = lineMap;
+    TokenTracker(IntUnaryOperator lineNumber) {
+      this.lineNumber = lineNumber;
     }
 
     void advance(ErrorProneToken token) {
-      int line = lineMap.getLineNumber(token.pos());
+      int line = lineNumber.applyAsInt(token.pos());
       if (line != currentLineNumber) {
         currentLineNumber = line;
         previousLineEmpty = tokensOnCurrentLine == 0;
@@ -364,7 +371,7 @@ public final class Comments {
     }
 
     boolean isCommentOnPreviousLine(ErrorProneComment c) {
-      int tokenLine = lineMap.getLineNumber(c.getSourcePos(0));
+      int tokenLine = lineNumber.applyAsInt(c.getSourcePos(0));
       return tokenLine == currentLineNumber - 1;
     }
 
@@ -390,7 +397,7 @@ public final class Comments {
     private final VisitorState state;
     private final Iterator<? extends Tree> argumentsIterator;
     private final int offset;
-    private final LineMap lineMap;
+    private final IntUnaryOperator lineNumber;
 
     private Commented.Builder currentCommentedResultBuilder = null;
     private Commented.Builder previousCommentedResultBuilder = null;
@@ -401,11 +408,14 @@ public final class Comments {
     private int previousArgumentEndPosition = -1;
 
     ArgumentTracker(
-        Iterable<? extends Tree> arguments, int offset, VisitorState state, LineMap lineMap) {
+        Iterable<? extends Tree> arguments,
+        int offset,
+        VisitorState state,
+        IntUnaryOperator lineNumber) {
       this.state = state;
       this.offset = offset;
       this.argumentsIterator = arguments.iterator();
-      this.lineMap = lineMap;
+      this.lineNumber = lineNumber;
     }
 
     void advance() {
@@ -436,8 +446,8 @@ public final class Comments {
     }
 
     boolean isPreviousArgumentOnPreviousLine() {
-      return lineMap.getLineNumber(previousArgumentEndPosition)
-          == lineMap.getLineNumber(currentArgumentStartPosition) - 1;
+      return lineNumber.applyAsInt(previousArgumentEndPosition)
+          == lineNumber.applyAsInt(currentArgumentStartPosition) - 1;
     }
 
     void addCommentToPreviousArgument(ErrorProneComment c, Position position) {
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.suppliers.Supplier;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Position.LineMap;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The tokens of a compilation unit, lexed once and shared by every request for the tokens of part
+ * of it.
+ *
+ * <p>Lexing a range of the source on its own produces the tokens in the range, followed by an
+ * {@code EOF} token at its end that holds the comments between the last token and the end of the
+ * range. As long as the range doesn't start or end inside a token or a comment, the same tokens can
+ * be found in the tokens of the whole unit, and {@link #getTokens} returns those instead of lexing
+ * the range again. The start and end positions of the tokens are kept in sorted arrays, so finding
+ * a range is a binary search, and the tokens of the range are a view of the unit's tokens, which
+ * offsets each token's positions as it's read.
+ *
+ * <p>The tokens of the compilation unit being analyzed are lexed on first use, and shared by the
+ * checks that ask for them, including checks running on other threads. They're held for the
+ * compilation, and dropped along with it.
+ */
+public final class CompilationUnitTokens {
+
+  /** The tokens of the compilation unit being analyzed, for each compilation. */
+  private static final Supplier<Current> current = VisitorState.memoize(unused -> new Current());
+
+  private static final class Current {
+    private @Nullable CompilationUnitTokens tokens;
+
+    synchronized CompilationUnitTokens get(VisitorState state) {
+      CompilationUnitTree compilationUnit = state.getPath().getCompilationUnit();
+      if (tokens == null || tokens.compilationUnit != compilationUnit) {
+        tokens =
+            new CompilationUnitTokens(
+                compilationUnit, state.getSourceCode().toString(), state.context);
+      }
+      return tokens;
+    }
+  }
+
+  /** Returns the tokens of the compilation unit that {@code state} is analyzing. */
+  public static CompilationUnitTokens instance(VisitorState state) {
+    return current.get(state).get(state);
+  }
+
+  private final CompilationUnitTree compilationUnit;
+  private final String source;
+  private final Context context;
+  private final LineMap lineMap;
+
+  /** The tokens of the unit, ending with {@code EOF}, with absolute positions. */
+  private final ImmutableList<ErrorProneToken> tokens;
+
+  private final int[] starts;
+  private final int[] ends;
+
+  private CompilationUnitTokens(
+      CompilationUnitTree compilationUnit, String source, Context context) {
+    this.compilationUnit = compilationUnit;
+    this.source = source;
+    this.context = context;
+    ErrorProneTokens errorProneTokens = new ErrorProneTokens(source, context);
+    this.tokens = errorProneTokens.getTokens();
+    this.lineMap = errorProneTokens.getLineMap();
+    this.starts = new int[tokens.size()];
+    this.ends = new int[tokens.size()];
+    for (int i = 0; i < tokens.size(); i++) {
+      starts[i] = tokens.get(i).pos();
+      ends[i] = tokens.get(i).endPos();
+    }
+  }
+
+  /** The line map of the compilation unit. */
+  public LineMap getLineMap() {
+    return lineMap;
+  }
+
+  /**
+   * Returns the tokens that lexing the source between {@code start} and {@code end} on its own
+   * would, with their positions offset by {@code offset}, as in {@link
+   * ErrorProneTokens#getTokens(String, int, Context)}.
+   *
+   * <p>If the tokens can be found in the tokens of the unit, the result is a view of them, so use
+   * {@link ImmutableList#copyOf} if it needs to be kept.
+   */
+  public List<ErrorProneToken> getTokens(int start, int end, int offset) {
+    checkArgument(
+        0 <= start && start <= end && end <= source.length(),
+        "invalid source range [%s, %s) in a source of length %s",
+        start,
+        end,
+        source.length());
+    List<ErrorProneToken> range = findTokens(start, end, offset);
+    if (range != null) {
+      return range;
+    }
+    return ErrorProneTokens.getTokens(source.substring(start, end), offset, context);
+  }
+
+  /**
+   * Returns the tokens between {@code start} and {@code end} from the tokens of the unit, or null
+   * if the range starts or ends inside a token or a comment.
+   */
+  private @Nullable List<ErrorProneToken> findTokens(int start, int end, int offset) {
+    // The first token that starts in the range, and the first token after it. The comments before
+    // each of them may be partly outside the range.
+    int first = firstStartingAtOrAfter(start);
+    int next = firstStartingAtOrAfter(end);
+    if (starts[next] < end
+        || (first > 0 && ends[first - 1] > start)
+        || (next > 0 && ends[next - 1] > end)) {
+      return null;
+    }
+    int shift = offset - start;
+    ErrorProneToken firstToken = null;
+    if (first < next) {
+      ImmutableList<ErrorProneComment> comments = commentsWithin(tokens.get(first), start, end);
+      if (comments == null) {
+        return null;
+      }
+      firstToken = tokens.get(first).withComments(shift, comments);
+    }
+    // The EOF token of the unit stands in for the one at the end of the range, with the comments
+    // between the last token in the range and its end. Those comments are positioned in the unit,
+    // like the range's other tokens, rather than relative to the unit's EOF token.
+    ImmutableList<ErrorProneComment> comments = commentsWithin(tokens.get(next), start, end);
+    if (comments == null) {
+      return null;
+    }
+    ErrorProneToken eof = tokens.getLast();
+    return new Range(
+        first,
+        next,
+        shift,
+        firstToken,
+        eof.withComments(end - eof.pos() + shift, shift, comments));
+  }
+
+  /**
+   * The tokens of a range: the first token and the EOF token, which differ from the unit's, and the
+   * unit's tokens in between, with their positions offset as they're read.
+   */
+  private final class Range extends AbstractList<ErrorProneToken> implements RandomAccess {
+    private final int first;
+    private final int next;
+    private final int shift;
+    private final @Nullable ErrorProneToken firstToken;
+    private final ErrorProneToken eof;
+
+    Range(
+        int first,
+        int next,
+        int shift,
+        @Nullable ErrorProneToken firstToken,
+        ErrorProneToken eof) {
+      this.first = first;
+      this.next = next;
+      this.shift = shift;
+      this.firstToken = firstToken;
+      this.eof = eof;
+    }
+
+    @Override
+    public ErrorProneToken get(int index) {
+      checkElementIndex(index, size());
+      if (index == next - first) {
+        return eof;
+      }
+      if (index == 0) {
+        // The range has a first token, since it isn't the EOF token.
+        return requireNonNull(firstToken);
+      }
+      ErrorProneToken token = tokens.get(first + index);
+      return shift == 0 ? token : token.withOffset(shift);
+    }
+
+    @Override
+    public int size() {
+      return next - first + 1;
+    }
+  }
+
+  /**
+   * Returns the comments of {@code token} that are between {@code start} and {@code end}, or null
+   * if one of them is partly outside that range.
+   */
+  private static @Nullable ImmutableList<ErrorProneComment> commentsWithin(
+      ErrorProneToken token, int start, int end) {
+    ImmutableList<ErrorProneComment> comments = token.comments();
+    ImmutableList.Builder<ErrorProneComment> within = null;
+    for (int i = 0; i < comments.size(); i++) {
+      ErrorProneComment comment = comments.get(i);
+      if (comment.getEndPos() <= start || comment.getPos() >= end) {
+        if (within == null) {
+          within = ImmutableList.builder();
+          within.addAll(comments.subList(0, i));
+        }
+      } else if (comment.getPos() < start || comment.getEndPos() > end) {
+        return null;
+      } else if (within != null) {
+        within.add(comment);
+      }
+    }
+    return within == null ? comments : within.build();
+  }
+
+  /** Returns the index of the first token that starts at or after {@code position}. */
+  private int firstStartingAtOrAfter(int position) {
+    int low = 0;
+    int high = starts.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (starts[mid] < position) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
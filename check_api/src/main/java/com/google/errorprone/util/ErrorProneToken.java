@@ -27,14 +27,40 @@ import com.sun.tools.javac.util.Name;
 public class ErrorProneToken {
   private final Token token;
   private final int offset;
+  private final int commentOffset;
   private final ImmutableList<ErrorProneComment> comments;
 
   ErrorProneToken(Token token, int offset, ImmutableList<ErrorProneComment> comments) {
+    this(token, offset, offset, comments);
+  }
+
+  private ErrorProneToken(
+      Token token, int offset, int commentOffset, ImmutableList<ErrorProneComment> comments) {
     this.token = token;
     this.offset = offset;
+    this.commentOffset = commentOffset;
     this.comments = comments;
   }
 
+  /** Returns this token with its positions, and those of its comments, offset by {@code offset}. */
+  ErrorProneToken withOffset(int offset) {
+    return new ErrorProneToken(token, offset, offset, comments);
+  }
+
+  /** Returns this token with its positions offset by {@code offset}, and the given comments. */
+  ErrorProneToken withComments(int offset, ImmutableList<ErrorProneComment> comments) {
+    return withComments(offset, offset, comments);
+  }
+
+  /**
+   * Returns this token with its positions offset by {@code offset}, and the given comments with
+   * their positions offset by {@code commentOffset}.
+   */
+  ErrorProneToken withComments(
+      int offset, int commentOffset, ImmutableList<ErrorProneComment> comments) {
+    return new ErrorProneToken(token, offset, commentOffset, comments);
+  }
+
   public TokenKind kind() {
     return token.kind;
   }
@@ -48,7 +74,7 @@ public class ErrorProneToken {
   }
 
   public ImmutableList<ErrorProneComment> comments() {
-    return comments.stream().map(c -> c.withOffset(offset)).collect(toImmutableList());
+    return comments.stream().map(c -> c.withOffset(commentOffset)).collect(toImmutableList());
   }
 
   public boolean hasName() {
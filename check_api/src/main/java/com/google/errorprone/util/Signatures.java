@@ -47,6 +47,17 @@ public final class Signatures {
     return sig.toString();
   }
 
+  /**
+   * Returns a JVMS 4.7.9.1 signature, which unlike a descriptor includes type parameters and type
+   * arguments.
+   */
+  public static String signature(Type type, VisitorState state) {
+    ErrorProneSignatureGenerator sig =
+        new ErrorProneSignatureGenerator(state.getTypes(), state.getNames());
+    sig.assembleSig(type);
+    return sig.toString();
+  }
+
   /**
    * Pretty-prints a method signature for use in diagnostics.
    *
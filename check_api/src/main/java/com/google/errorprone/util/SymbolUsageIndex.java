@@ -0,0 +1,396 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.errorprone.util.ASTHelpers.getSymbol;
+
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.suppliers.Supplier;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.CompoundAssignmentTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.tools.javac.code.Symbol;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The declarations in a compilation unit, and the references to symbols from it, collected in a
+ * single pass for the checks that need to look at a whole file at once.
+ *
+ * <p>Declarations are the class, method and variable trees of the unit, including local classes,
+ * parameters and local variables. References are the identifiers, member selects, member
+ * references and instance creations whose symbol is known. Both are numbered from zero in the
+ * order of a {@link TreePathScanner}, so a declaration comes before everything it encloses, and
+ * are described by parallel arrays indexed by that number.
+ *
+ * <p>Paths aren't kept for every declaration and reference. Instead the trees enclosing them are
+ * stored once in a table of nodes, each pointing at its parent's index, and a {@link TreePath} is
+ * only rebuilt from that table when it's asked for.
+ *
+ * <p>The index of the compilation unit being analyzed is built on first use and shared by the
+ * checks that ask for it through {@link VisitorState#getSymbolUsageIndex}, including checks running
+ * on other threads. It's held for the compilation, and dropped along with it.
+ */
+public final class SymbolUsageIndex {
+
+  private static final int READ = 1;
+  private static final int WRITE = 2;
+
+  private static final int[] NONE = {};
+
+  /** The index of the compilation unit being analyzed, for each compilation. */
+  private static final Supplier<Current> current = VisitorState.memoize(unused -> new Current());
+
+  private static final class Current {
+    private @Nullable SymbolUsageIndex index;
+
+    synchronized SymbolUsageIndex get(CompilationUnitTree compilationUnit) {
+      if (index == null || index.compilationUnit != compilationUnit) {
+        index = new Builder().build(compilationUnit);
+      }
+      return index;
+    }
+  }
+
+  /** Returns the index of the compilation unit that {@code state} is analyzing. */
+  public static SymbolUsageIndex instance(VisitorState state) {
+    return current.get(state).get(state.getPath().getCompilationUnit());
+  }
+
+  private final CompilationUnitTree compilationUnit;
+
+  private final Tree[] nodes;
+  private final int[] parentNodes;
+
+  private final int[] declarationNodes;
+  private final @Nullable Symbol[] declaredSymbols;
+  private final int[] parentDeclarations;
+
+  private final int[] referenceNodes;
+  private final Symbol[] referencedSymbols;
+  private final byte[] referenceFlags;
+  private final int[] enclosingDeclarations;
+
+  private final Map<Symbol, int[]> referencesBySymbol;
+
+  private SymbolUsageIndex(CompilationUnitTree compilationUnit, Builder builder) {
+    this.compilationUnit = compilationUnit;
+    this.nodes = Arrays.copyOf(builder.nodes, builder.nodeCount);
+    this.parentNodes = Arrays.copyOf(builder.parentNodes, builder.nodeCount);
+    this.declarationNodes = Arrays.copyOf(builder.declarationNodes, builder.declarations);
+    this.declaredSymbols = Arrays.copyOf(builder.declaredSymbols, builder.declarations);
+    this.parentDeclarations = Arrays.copyOf(builder.parentDeclarations, builder.declarations);
+    this.referenceNodes = Arrays.copyOf(builder.referenceNodes, builder.references);
+    this.referencedSymbols = Arrays.copyOf(builder.referencedSymbols, builder.references);
+    this.referenceFlags = Arrays.copyOf(builder.referenceFlags, builder.references);
+    this.enclosingDeclarations = Arrays.copyOf(builder.enclosingDeclarations, builder.references);
+
+    Map<Symbol, Integer> counts = new HashMap<>();
+    for (Symbol symbol : referencedSymbols) {
+      counts.merge(symbol, 1, Integer::sum);
+    }
+    this.referencesBySymbol = new HashMap<>(counts.size() * 4 / 3 + 1);
+    for (Map.Entry<Symbol, Integer> entry : counts.entrySet()) {
+      referencesBySymbol.put(entry.getKey(), new int[entry.getValue()]);
+    }
+    Map<Symbol, Integer> filled = new HashMap<>(counts.size() * 4 / 3 + 1);
+    for (int i = 0; i < referencedSymbols.length; i++) {
+      int position = filled.merge(referencedSymbols[i], 1, Integer::sum) - 1;
+      referencesBySymbol.get(referencedSymbols[i])[position] = i;
+    }
+  }
+
+  /** The number of declarations in the compilation unit. */
+  public int declarationCount() {
+    return declarationNodes.length;
+  }
+
+  /** A declaration, which is a {@link ClassTree}, {@link MethodTree} or {@link VariableTree}. */
+  public Tree declaration(int declaration) {
+    return nodes[declarationNodes[declaration]];
+  }
+
+  /** The path to a declaration. This is rebuilt on each call, so prefer {@link #declaration}. */
+  public TreePath declarationPath(int declaration) {
+    return path(declarationNodes[declaration]);
+  }
+
+  /** The symbol of a declaration, or null if it wasn't attributed. */
+  public @Nullable Symbol declaredSymbol(int declaration) {
+    return declaredSymbols[declaration];
+  }
+
+  /** The innermost declaration that encloses a declaration, or {@code -1} for top-level classes. */
+  public int parentDeclaration(int declaration) {
+    return parentDeclarations[declaration];
+  }
+
+  /** The number of references in the compilation unit. */
+  public int referenceCount() {
+    return referenceNodes.length;
+  }
+
+  /**
+   * A reference, which is an {@link IdentifierTree}, {@link MemberSelectTree}, {@link
+   * MemberReferenceTree} or {@link NewClassTree}.
+   */
+  public Tree reference(int reference) {
+    return nodes[referenceNodes[reference]];
+  }
+
+  /** The path to a reference. This is rebuilt on each call, so prefer {@link #reference}. */
+  public TreePath referencePath(int reference) {
+    return path(referenceNodes[reference]);
+  }
+
+  /** The symbol that a reference refers to; for an instance creation, that's the constructor. */
+  public Symbol referencedSymbol(int reference) {
+    return referencedSymbols[reference];
+  }
+
+  /**
+   * The innermost declaration that encloses a reference, or {@code -1} for references outside any
+   * class, like those in imports.
+   */
+  public int enclosingDeclaration(int reference) {
+    return enclosingDeclarations[reference];
+  }
+
+  /**
+   * Whether a reference reads the value of its symbol. That's everything but the variable of a
+   * plain assignment.
+   */
+  public boolean isRead(int reference) {
+    return (referenceFlags[reference] & READ) != 0;
+  }
+
+  /**
+   * Whether a reference writes its symbol: it's the variable of an assignment, a compound
+   * assignment, or an increment or decrement.
+   */
+  public boolean isWrite(int reference) {
+    return (referenceFlags[reference] & WRITE) != 0;
+  }
+
+  /** The references to {@code symbol}, in order. */
+  public IntStream references(Symbol symbol) {
+    return Arrays.stream(referencesBySymbol.getOrDefault(symbol, NONE));
+  }
+
+  /** Whether there are any references to {@code symbol}. */
+  public boolean isReferenced(Symbol symbol) {
+    return referencesBySymbol.containsKey(symbol);
+  }
+
+  private TreePath path(int node) {
+    int depth = 0;
+    for (int i = node; i >= 0; i = parentNodes[i]) {
+      depth++;
+    }
+    int[] chain = new int[depth];
+    for (int i = node; i >= 0; i = parentNodes[i]) {
+      chain[--depth] = i;
+    }
+    TreePath path = new TreePath(compilationUnit);
+    for (int i = 1; i < chain.length; i++) {
+      path = new TreePath(path, nodes[chain[i]]);
+    }
+    return path;
+  }
+
+  /** Collects the declarations and references of a compilation unit in a single scan. */
+  private static final class Builder extends TreePathScanner<Void, Void> {
+    // The trees on the current path, the first `stored` of which have been added to the node table.
+    private Tree[] pathTrees = new Tree[32];
+    private int[] pathNodes = new int[32];
+    private int depth = 0;
+    private int stored = 0;
+
+    private int nodeCount = 0;
+    private Tree[] nodes = new Tree[256];
+    private int[] parentNodes = new int[256];
+
+    private int declarations = 0;
+    private int[] declarationNodes = new int[64];
+    private @Nullable Symbol[] declaredSymbols = new Symbol[64];
+    private int[] parentDeclarations = new int[64];
+
+    private int references = 0;
+    private int[] referenceNodes = new int[256];
+    private Symbol[] referencedSymbols = new Symbol[256];
+    private byte[] referenceFlags = new byte[256];
+    private int[] enclosingDeclarations = new int[256];
+
+    private int enclosing = -1;
+
+    SymbolUsageIndex build(CompilationUnitTree compilationUnit) {
+      scan(compilationUnit, null);
+      return new SymbolUsageIndex(compilationUnit, this);
+    }
+
+    @Override
+    public Void scan(Tree tree, Void unused) {
+      if (tree == null) {
+        return null;
+      }
+      if (depth == pathTrees.length) {
+        pathTrees = Arrays.copyOf(pathTrees, depth * 2);
+        pathNodes = Arrays.copyOf(pathNodes, depth * 2);
+      }
+      pathTrees[depth++] = tree;
+      try {
+        return super.scan(tree, null);
+      } finally {
+        depth--;
+        stored = Math.min(stored, depth);
+      }
+    }
+
+    /** Adds the trees of the current path to the node table, and returns the index of its leaf. */
+    private int currentNode() {
+      for (; stored < depth; stored++) {
+        if (nodeCount == nodes.length) {
+          nodes = Arrays.copyOf(nodes, nodeCount * 2);
+          parentNodes = Arrays.copyOf(parentNodes, nodeCount * 2);
+        }
+        nodes[nodeCount] = pathTrees[stored];
+        parentNodes[nodeCount] = stored == 0 ? -1 : pathNodes[stored - 1];
+        pathNodes[stored] = nodeCount++;
+      }
+      return pathNodes[depth - 1];
+    }
+
+    @Override
+    public Void visitClass(ClassTree tree, Void unused) {
+      return declare(tree, () -> super.visitClass(tree, null));
+    }
+
+    @Override
+    public Void visitMethod(MethodTree tree, Void unused) {
+      return declare(tree, () -> super.visitMethod(tree, null));
+    }
+
+    @Override
+    public Void visitVariable(VariableTree tree, Void unused) {
+      return declare(tree, () -> super.visitVariable(tree, null));
+    }
+
+    @Override
+    public Void visitIdentifier(IdentifierTree tree, Void unused) {
+      reference(tree);
+      return super.visitIdentifier(tree, null);
+    }
+
+    @Override
+    public Void visitMemberSelect(MemberSelectTree tree, Void unused) {
+      reference(tree);
+      return super.visitMemberSelect(tree, null);
+    }
+
+    @Override
+    public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
+      reference(tree);
+      return super.visitMemberReference(tree, null);
+    }
+
+    @Override
+    public Void visitNewClass(NewClassTree tree, Void unused) {
+      reference(tree);
+      return super.visitNewClass(tree, null);
+    }
+
+    private Void declare(Tree tree, Runnable scanChildren) {
+      if (declarations == declarationNodes.length) {
+        int size = declarations * 2;
+        declarationNodes = Arrays.copyOf(declarationNodes, size);
+        declaredSymbols = Arrays.copyOf(declaredSymbols, size);
+        parentDeclarations = Arrays.copyOf(parentDeclarations, size);
+      }
+      int declaration = declarations++;
+      declarationNodes[declaration] = currentNode();
+      declaredSymbols[declaration] = getSymbol(tree);
+      parentDeclarations[declaration] = enclosing;
+      int parent = enclosing;
+      enclosing = declaration;
+      try {
+        scanChildren.run();
+      } finally {
+        enclosing = parent;
+      }
+      return null;
+    }
+
+    private void reference(Tree tree) {
+      Symbol symbol = getSymbol(tree);
+      if (symbol == null) {
+        return;
+      }
+      if (references == referenceNodes.length) {
+        int size = references * 2;
+        referenceNodes = Arrays.copyOf(referenceNodes, size);
+        referencedSymbols = Arrays.copyOf(referencedSymbols, size);
+        referenceFlags = Arrays.copyOf(referenceFlags, size);
+        enclosingDeclarations = Arrays.copyOf(enclosingDeclarations, size);
+      }
+      int reference = references++;
+      referenceNodes[reference] = currentNode();
+      referencedSymbols[reference] = symbol;
+      referenceFlags[reference] = (byte) flags(getCurrentPath());
+      enclosingDeclarations[reference] = enclosing;
+    }
+
+    private static int flags(TreePath path) {
+      Tree leaf = path.getLeaf();
+      TreePath parentPath = path.getParentPath();
+      while (parentPath.getLeaf() instanceof ParenthesizedTree) {
+        leaf = parentPath.getLeaf();
+        parentPath = parentPath.getParentPath();
+      }
+      Tree tree = leaf;
+      return switch (parentPath.getLeaf()) {
+        case AssignmentTree assignment when assignment.getVariable() == tree -> WRITE;
+        case CompoundAssignmentTree assignment when assignment.getVariable() == tree ->
+            READ | WRITE;
+        case UnaryTree unary when unary.getExpression() == tree && isIncrement(unary) ->
+            READ | WRITE;
+        default -> READ;
+      };
+    }
+
+    private static boolean isIncrement(UnaryTree tree) {
+      return switch (tree.getKind()) {
+        case PREFIX_INCREMENT, PREFIX_DECREMENT, POSTFIX_INCREMENT, POSTFIX_DECREMENT -> true;
+        default -> false;
+      };
+    }
+  }
+}
@@ -30,6 +30,7 @@ import com.google.errorprone.apply.ImportOrganizer;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -445,4 +446,59 @@ public class ErrorProneOptionsTest {
         InvalidCommandLineOptionException.class,
         () -> ErrorProneOptions.processArgs(new String[] {"@test_cfg_is_missing.cfg"}));
   }
+
+  @Test
+  public void parallelism() {
+    assertThat(ErrorProneOptions.processArgs(new String[] {}).parallelism()).isEqualTo(1);
+    ErrorProneOptions options = ErrorProneOptions.processArgs(new String[] {"-XepParallelism:8"});
+    assertThat(options.parallelism()).isEqualTo(8);
+    assertThat(ErrorProneOptions.isSupportedOption("-XepParallelism:8")).isEqualTo(0);
+  }
+
+  @Test
+  public void profile() {
+    assertThat(ErrorProneOptions.processArgs(new String[] {}).profileOutput()).isNull();
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepProfile:/tmp/profile.json"});
+    assertThat(options.profileOutput()).isEqualTo(Path.of("/tmp/profile.json"));
+    assertThat(ErrorProneOptions.isSupportedOption("-XepProfile:/tmp/profile.json")).isEqualTo(0);
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepProfile:"}));
+  }
+
+  @Test
+  public void resultCache() {
+    assertThat(ErrorProneOptions.processArgs(new String[] {}).resultCache()).isNull();
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepResultCache:/tmp/ep-cache"});
+    assertThat(options.resultCache()).isEqualTo(Path.of("/tmp/ep-cache"));
+    assertThat(ErrorProneOptions.isSupportedOption("-XepResultCache:/tmp/ep-cache")).isEqualTo(0);
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepResultCache:"}));
+  }
+
+  @Test
+  public void diagnosticsOutput() {
+    assertThat(ErrorProneOptions.processArgs(new String[] {}).diagnosticsOutput()).isNull();
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepDiagnosticsOutput:/tmp/findings.sarif"});
+    assertThat(options.diagnosticsOutput()).isEqualTo(Path.of("/tmp/findings.sarif"));
+    assertThat(ErrorProneOptions.isSupportedOption("-XepDiagnosticsOutput:/tmp/findings.sarif"))
+        .isEqualTo(0);
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepDiagnosticsOutput:"}));
+  }
+
+  @Test
+  public void invalidParallelism() {
+    for (String arg :
+        ImmutableList.of("-XepParallelism:", "-XepParallelism:0", "-XepParallelism:x")) {
+      assertThrows(
+          InvalidCommandLineOptionException.class,
+          () -> ErrorProneOptions.processArgs(new String[] {arg}));
+    }
+  }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.apply;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.fixes.Replacements;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link UnifiedDiff}. */
+@RunWith(JUnit4.class)
+public class UnifiedDiffTest {
+
+  private static final String SOURCE = "1\n2\n3\n4\n5\n6\n7\n8\n";
+
+  private static String diff(String source, Replacement... replacements) throws IOException {
+    SourceFile file = new SourceFile("A.java", source);
+    Replacements changes = new Replacements();
+    for (Replacement replacement : replacements) {
+      changes.add(replacement);
+    }
+    file.makeReplacements(changes);
+    StringWriter writer = new StringWriter();
+    file.getDiff().writeTo("A.java", writer);
+    return writer.toString();
+  }
+
+  @Test
+  public void replacement() throws IOException {
+    assertThat(diff(SOURCE, Replacement.create(6, 7, "four")))
+        .isEqualTo(
+            """
+            --- A.java
+            +++ A.java
+            @@ -2,5 +2,5 @@
+             2
+             3
+            -4
+            +four
+             5
+             6
+            """);
+  }
+
+  @Test
+  public void insertionAtStartOfLine() throws IOException {
+    assertThat(diff(SOURCE, Replacement.create(0, 0, "0\n")))
+        .isEqualTo(
+            """
+            --- A.java
+            +++ A.java
+            @@ -1,2 +1,3 @@
+            +0
+             1
+             2
+            """);
+  }
+
+  @Test
+  public void distantChanges() throws IOException {
+    assertThat(diff(SOURCE, Replacement.create(0, 1, "one"), Replacement.create(14, 15, "eight")))
+        .isEqualTo(
+            """
+            --- A.java
+            +++ A.java
+            @@ -1,3 +1,3 @@
+            -1
+            +one
+             2
+             3
+            @@ -6,3 +6,3 @@
+             6
+             7
+            -8
+            +eight
+            """);
+  }
+
+  @Test
+  public void nearbyChangesShareAHunk() throws IOException {
+    assertThat(
+            diff(
+                SOURCE,
+                Replacement.create(2, 4, "two\ntwo and a half\n"),
+                Replacement.create(8, 9, "")))
+        .isEqualTo(
+            """
+            --- A.java
+            +++ A.java
+            @@ -1,7 +1,8 @@
+             1
+            -2
+            +two
+            +two and a half
+             3
+             4
+            -5
+            +
+             6
+             7
+            """);
+  }
+
+  @Test
+  public void noNewlineAtEndOfFile() throws IOException {
+    assertThat(diff("a\nb", Replacement.create(2, 3, "c")))
+        .isEqualTo(
+            """
+            --- A.java
+            +++ A.java
+            @@ -1,2 +1,2 @@
+             a
+            -b
+            \\ No newline at end of file
+            +c
+            \\ No newline at end of file
+            """);
+  }
+
+  @Test
+  public void unchanged() throws IOException {
+    SourceFile file = new SourceFile("A.java", SOURCE);
+    file.makeReplacements(new Replacements().add(Replacement.create(0, 1, "1")));
+    assertThat(file.getDiff().isEmpty()).isTrue();
+  }
+
+  @Test
+  public void otherChanges() {
+    SourceFile file = new SourceFile("A.java", SOURCE);
+    file.replaceChars(0, 1, "one");
+    file.makeReplacements(new Replacements().add(Replacement.create(0, 1, "1")));
+    assertThat(file.getDiff()).isNull();
+  }
+}
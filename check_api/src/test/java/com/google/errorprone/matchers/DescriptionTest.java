@@ -19,11 +19,15 @@ package com.google.errorprone.matchers;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.errorprone.BugPattern.LinkType.CUSTOM;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
+import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.fixes.ErrorPronePosition;
+import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.FixedPosition;
+import com.google.errorprone.fixes.SuggestedFix;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -98,4 +102,69 @@ public class DescriptionTest {
             .build();
     assertThat(description.getMessage()).contains("https://foo");
   }
+
+  @Test
+  public void deferredFixes() {
+    AtomicInteger computed = new AtomicInteger();
+    Fix first = SuggestedFix.replace(0, 1, "a");
+    Description description =
+        new MyChecker()
+            .buildDescription(POSITION)
+            .addDeferredFix(
+                () -> {
+                  computed.incrementAndGet();
+                  return SuggestedFix.emptyFix();
+                })
+            .addFix(first)
+            .addDeferredFix(
+                () -> {
+                  computed.incrementAndGet();
+                  return SuggestedFix.replace(0, 1, "b");
+                })
+            .build();
+    assertThat(computed.get()).isEqualTo(0);
+    assertThat(description.uncomputedFixCount()).isEqualTo(2);
+
+    // Empty fixes are skipped once they've been computed.
+    assertThat(description.getFirstFix()).hasValue(first);
+    assertThat(computed.get()).isEqualTo(1);
+    assertThat(description.uncomputedFixCount()).isEqualTo(1);
+
+    assertThat(description.getFixes()).hasSize(2);
+    assertThat(description.getFixes().get(0)).isEqualTo(first);
+    assertThat(computed.get()).isEqualTo(2);
+    assertThat(description.uncomputedFixCount()).isEqualTo(0);
+  }
+
+  @Test
+  @SuppressWarnings("deprecation") // testing the deprecated field
+  public void deferredFixes_notInFixesField() {
+    Fix first = SuggestedFix.replace(0, 1, "a");
+    Description description =
+        new MyChecker()
+            .buildDescription(POSITION)
+            .addFix(first)
+            .addDeferredFix(() -> SuggestedFix.replace(0, 1, "b"))
+            .build();
+    assertThat(description.fixes).containsExactly(first);
+    assertThat(description.uncomputedFixCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void deferredFixes_severityOverride() {
+    AtomicInteger computed = new AtomicInteger();
+    Description description =
+        new MyChecker()
+            .buildDescription(POSITION)
+            .addDeferredFix(
+                () -> {
+                  computed.incrementAndGet();
+                  return SuggestedFix.replace(0, 1, "a");
+                })
+            .build()
+            .applySeverityOverride(WARNING);
+    assertThat(description.getFixes()).hasSize(1);
+    assertThat(description.getFixes()).hasSize(1);
+    assertThat(computed.get()).isEqualTo(1);
+  }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.names;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.base.Ascii;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for LevenshteinEditDistance */
+@RunWith(JUnit4.class)
+public class LevenshteinEditDistanceTest {
+
+  @Test
+  public void editDistance() {
+    assertThat(LevenshteinEditDistance.getEditDistance("kitten", "sitting")).isEqualTo(3);
+    assertThat(LevenshteinEditDistance.getEditDistance("sitting", "kitten")).isEqualTo(3);
+    assertThat(LevenshteinEditDistance.getEditDistance("foo", "foo")).isEqualTo(0);
+    assertThat(LevenshteinEditDistance.getEditDistance("", "foo")).isEqualTo(3);
+    assertThat(LevenshteinEditDistance.getEditDistance("foo", "")).isEqualTo(3);
+  }
+
+  @Test
+  public void editDistance_whitespaceIsEmpty() {
+    assertThat(LevenshteinEditDistance.getEditDistance(" \t", "foo")).isEqualTo(3);
+    assertThat(LevenshteinEditDistance.getEditDistance("foo", "\n")).isEqualTo(3);
+  }
+
+  @Test
+  public void editDistance_caseInsensitive() {
+    assertThat(LevenshteinEditDistance.getEditDistance("fooBar", "FooBAR")).isEqualTo(3);
+    assertThat(
+            LevenshteinEditDistance.getEditDistance(
+                "fooBar", "FooBAR", /* caseSensitive= */ false))
+        .isEqualTo(0);
+  }
+
+  @Test
+  public void editDistance_nonAscii() {
+    assertThat(LevenshteinEditDistance.getEditDistance("caf\u00e9", "cafe")).isEqualTo(1);
+    assertThat(LevenshteinEditDistance.getEditDistance("\u00e9t\u00e9", "\u00e9t\u00e9s"))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void editDistance_longStrings() {
+    String source = "a".repeat(70) + "b".repeat(30);
+    String target = "a".repeat(69) + "c" + "b".repeat(32);
+    assertThat(LevenshteinEditDistance.getEditDistance(source, target)).isEqualTo(3);
+    assertThat(LevenshteinEditDistance.getEditDistance(target, source)).isEqualTo(3);
+  }
+
+  @Test
+  public void editDistance_matchesDynamicProgramming() {
+    Random random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      // Sometimes longer than the 64 characters that fit in a bitmask.
+      String source = randomString(random, random.nextInt(i % 10 == 0 ? 100 : 20));
+      String target = randomString(random, random.nextInt(i % 10 == 0 ? 100 : 20));
+      boolean caseSensitive = random.nextBoolean();
+      int expected = editDistance(source, target, caseSensitive);
+      assertThat(LevenshteinEditDistance.getEditDistance(source, target, caseSensitive))
+          .isEqualTo(expected);
+      int maxDistance = random.nextInt(10);
+      assertThat(
+              LevenshteinEditDistance.getBoundedEditDistance(
+                  source, target, caseSensitive, maxDistance))
+          .isEqualTo(Math.min(expected, maxDistance + 1));
+    }
+  }
+
+  @Test
+  public void boundedEditDistance() {
+    assertThat(
+            LevenshteinEditDistance.getBoundedEditDistance(
+                "kitten", "sitting", /* caseSensitive= */ true, 3))
+        .isEqualTo(3);
+    assertThat(
+            LevenshteinEditDistance.getBoundedEditDistance(
+                "kitten", "sitting", /* caseSensitive= */ true, 2))
+        .isEqualTo(3);
+    assertThat(
+            LevenshteinEditDistance.getBoundedEditDistance(
+                "a", "abcdefgh", /* caseSensitive= */ true, 1))
+        .isEqualTo(2);
+    assertThat(
+            LevenshteinEditDistance.getBoundedEditDistance(
+                "", "abcdefgh", /* caseSensitive= */ true, 0))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void boundedEditDistance_negative() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> LevenshteinEditDistance.getBoundedEditDistance("a", "b", true, -1));
+  }
+
+  private static String randomString(Random random, int length) {
+    String alphabet = "abAB_\u00e9";
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return sb.toString();
+  }
+
+  /** The textbook algorithm, for comparison. */
+  private static int editDistance(String source, String target, boolean caseSensitive) {
+    if (!caseSensitive) {
+      source = Ascii.toLowerCase(source);
+      target = Ascii.toLowerCase(target);
+    }
+    int[][] distances = new int[source.length() + 1][target.length() + 1];
+    for (int i = 0; i <= source.length(); i++) {
+      distances[i][0] = i;
+    }
+    for (int j = 0; j <= target.length(); j++) {
+      distances[0][j] = j;
+    }
+    for (int i = 1; i <= source.length(); i++) {
+      for (int j = 1; j <= target.length(); j++) {
+        int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+        distances[i][j] =
+            Math.min(
+                distances[i - 1][j - 1] + cost,
+                Math.min(distances[i - 1][j] + 1, distances[i][j - 1] + 1));
+      }
+    }
+    return distances[source.length()][target.length()];
+  }
+}
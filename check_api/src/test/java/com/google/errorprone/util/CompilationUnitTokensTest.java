@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreeScanner;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link CompilationUnitTokens}. */
+@RunWith(JUnit4.class)
+public class CompilationUnitTokensTest {
+
+  /**
+   * Reports any tree or range of source whose tokens differ from the tokens of lexing its source on
+   * its own.
+   */
+  @BugPattern(
+      severity = SeverityLevel.ERROR,
+      summary = "Compares the shared tokens of a unit with re-lexing its source")
+  public static class CompareTokens extends BugChecker implements CompilationUnitTreeMatcher {
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      String source = state.getSourceCode().toString();
+      new TreeScanner<Void, Void>() {
+        @Override
+        public Void scan(Tree tree, Void unused) {
+          if (tree != null && state.getEndPosition(tree) > 0) {
+            String text = state.getSourceForNode(tree);
+            int start = ASTHelpers.getStartPosition(tree);
+            compare(
+                state,
+                tree,
+                state.getTokensForNode(tree),
+                ErrorProneTokens.getTokens(text, state.context));
+            compare(
+                state,
+                tree,
+                state.getOffsetTokensForNode(tree),
+                ErrorProneTokens.getTokens(text, start, state.context));
+          }
+          return super.scan(tree, null);
+        }
+      }.scan(tree, null);
+      for (int start = 0; start < source.length(); start++) {
+        for (int length : new int[] {0, 1, 4, 16}) {
+          int end = Math.min(start + length, source.length());
+          compare(
+              state,
+              tree,
+              state.getOffsetTokens(start, end),
+              ErrorProneTokens.getTokens(source.substring(start, end), start, state.context));
+        }
+      }
+      return Description.NO_MATCH;
+    }
+
+    private void compare(
+        VisitorState state,
+        Tree tree,
+        List<ErrorProneToken> actual,
+        List<ErrorProneToken> expected) {
+      if (!describe(actual).equals(describe(expected))) {
+        state.reportMatch(
+            buildDescription(tree)
+                .setMessage(String.format("expected %s, got %s", describe(expected), actual))
+                .build());
+      }
+    }
+
+    private static ImmutableList<String> describe(List<ErrorProneToken> tokens) {
+      return tokens.stream()
+          .map(
+              t ->
+                  String.format(
+                      "%s[%d, %d)%s",
+                      t.kind(),
+                      t.pos(),
+                      t.endPos(),
+                      t.comments().stream()
+                          .map(c -> String.format("[%d, %d)%s", c.getPos(), c.getEndPos(), c))
+                          .collect(toImmutableList())))
+          .collect(toImmutableList());
+    }
+  }
+
+  @Test
+  public void matchesRelexing() {
+    CompilationTestHelper.newInstance(CompareTokens.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            /** Javadoc. */
+            class Test {
+              // before
+              int f = /* one */ 1 /* two */ + 2; // after
+
+              String g(String s) {
+                return s + "a // b" + 'c' /* d */;
+              }
+
+              int h(int x) {
+                return x >>> 2 >> 1;
+              }
+            }
+            """)
+        .expectNoDiagnostics()
+        .doTest();
+  }
+}
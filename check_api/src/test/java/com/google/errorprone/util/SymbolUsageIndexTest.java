@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.code.Symbol;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link SymbolUsageIndex}. */
+@RunWith(JUnit4.class)
+public class SymbolUsageIndexTest {
+
+  /**
+   * Reports the reads and writes of each variable, and the declaration that encloses it, on its
+   * declaration.
+   */
+  @BugPattern(
+      severity = SeverityLevel.ERROR,
+      summary = "Prints the reads and writes of each variable")
+  public static class PrintUsages extends BugChecker implements CompilationUnitTreeMatcher {
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      SymbolUsageIndex index = state.getSymbolUsageIndex();
+      checkState(index == state.getSymbolUsageIndex(), "the index should be built once");
+      for (int i = 0; i < index.declarationCount(); i++) {
+        if (!(index.declaration(i) instanceof VariableTree variable)) {
+          continue;
+        }
+        Symbol symbol = index.declaredSymbol(i);
+        long reads = index.references(symbol).filter(index::isRead).count();
+        long writes = index.references(symbol).filter(index::isWrite).count();
+        Symbol parent = index.declaredSymbol(index.parentDeclaration(i));
+        state.reportMatch(
+            buildDescription(variable)
+                .setMessage(
+                    String.format("%s in %s: %d reads, %d writes", symbol, parent, reads, writes))
+                .build());
+      }
+      return Description.NO_MATCH;
+    }
+  }
+
+  @Test
+  public void readsAndWrites() {
+    CompilationTestHelper.newInstance(PrintUsages.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              // BUG: Diagnostic contains: f in Test: 3 reads, 3 writes
+              int f;
+
+              // BUG: Diagnostic contains: x in f(int): 1 reads, 0 writes
+              void f(int x) {
+                // BUG: Diagnostic contains: y in f(int): 2 reads, 2 writes
+                int y = x;
+                f = 1;
+                (f) += y;
+                this.f++;
+                y = f;
+                y--;
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void nestedDeclarations() {
+    CompilationTestHelper.newInstance(PrintUsages.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              // BUG: Diagnostic contains: r in Test: 0 reads, 0 writes
+              Runnable r =
+                  new Runnable() {
+                    // BUG: Diagnostic contains: count in <anonymous Test$1>: 1 reads, 1 writes
+                    int count;
+
+                    public void run() {
+                      count++;
+                    }
+                  };
+            }
+            """)
+        .doTest();
+  }
+
+  /** Checks that the paths rebuilt by the index are the ones a scan would have seen. */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "All paths match")
+  public static class CheckPaths extends BugChecker implements CompilationUnitTreeMatcher {
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      SymbolUsageIndex index = state.getSymbolUsageIndex();
+      for (int i = 0; i < index.declarationCount(); i++) {
+        checkPath(tree, index.declaration(i), index.declarationPath(i));
+      }
+      for (int i = 0; i < index.referenceCount(); i++) {
+        checkPath(tree, index.reference(i), index.referencePath(i));
+      }
+      return describeMatch(tree.getTypeDecls().getFirst());
+    }
+
+    private static void checkPath(CompilationUnitTree tree, Tree leaf, TreePath path) {
+      checkState(
+          ImmutableList.copyOf(path).equals(ImmutableList.copyOf(TreePath.getPath(tree, leaf))),
+          "wrong path to %s",
+          leaf);
+    }
+  }
+
+  @Test
+  public void rebuiltPaths() {
+    CompilationTestHelper.newInstance(CheckPaths.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            import java.util.function.IntUnaryOperator;
+
+            // BUG: Diagnostic contains: All paths match
+            class Test {
+              int f;
+
+              IntUnaryOperator g() {
+                class Local {
+                  int h(int x) {
+                    return x + f;
+                  }
+                }
+                return y -> new Local().h(y);
+              }
+            }
+            """)
+        .doTest();
+  }
+}
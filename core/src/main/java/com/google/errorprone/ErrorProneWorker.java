@@ -0,0 +1,405 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.base.Throwables.getStackTraceAsString;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Streams;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.api.ClientCodeWrapper.Trusted;
+import com.sun.tools.javac.main.CommandLine;
+import com.sun.tools.javac.util.Context;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A long-lived Error Prone compiler, for build systems that keep compilers running between
+ * compilations, such as Bazel's persistent workers.
+ *
+ * <p>Run with {@code --persistent_worker}, it reads length-delimited {@code WorkRequest}s of
+ * Bazel's worker protocol from standard input, compiles the arguments of each one, and writes a
+ * {@code WorkResponse} holding the diagnostics to standard output. Requests with a request id,
+ * which multiplex workers send, are compiled concurrently. Run without it, it compiles its own
+ * arguments once, like {@code javac}.
+ *
+ * <p>Between compilations it keeps the checks it has configured, in a {@link ScannerCache}, and a
+ * class loader for each annotation processor path, which is replaced once any of the path's files
+ * change, so that plugins and annotation processors aren't loaded again. Any state that a
+ * check keeps for the rest of a compilation must be dropped along with it, for example by
+ * memoizing it with {@link VisitorState#memoize}, which is reset for every {@link
+ * JavacInvocationInstance}.
+ */
+public final class ErrorProneWorker {
+
+  private static final String PERSISTENT_WORKER_FLAG = "--persistent_worker";
+
+  /** The number of annotation processor class loaders to keep. */
+  private static final int MAXIMUM_CLASS_LOADERS = 8;
+
+  public static void main(String[] args) throws IOException {
+    ErrorProneWorker worker = new ErrorProneWorker(BuiltInCheckerSuppliers.defaultChecks());
+    if (Arrays.asList(args).contains(PERSISTENT_WORKER_FLAG)) {
+      PrintStream responses = System.out;
+      // Anything else written to standard output would corrupt the responses.
+      System.setOut(System.err);
+      worker.serve(System.in, responses);
+      return;
+    }
+    PrintWriter out = new PrintWriter(System.err, true);
+    int exitCode = worker.compile(Arrays.asList(args), out);
+    out.flush();
+    System.exit(exitCode);
+  }
+
+  /** The parts of a {@code WorkRequest} that the worker reads. */
+  @VisibleForTesting
+  record WorkRequest(ImmutableList<String> arguments, int requestId, boolean cancel) {}
+
+  /** A {@code WorkResponse}. */
+  @VisibleForTesting
+  record WorkResponse(int exitCode, String output, int requestId) {}
+
+  private final BaseErrorProneJavaCompiler compiler;
+  private final ScannerCache scannerCache = ScannerCache.create();
+
+  /**
+   * The class loaders of annotation processor paths, keyed by their absolute paths. A class loader
+   * is closed once it's been replaced or evicted and no compilation is using it.
+   */
+  private final Cache<ImmutableList<Path>, ProcessorClassLoader> processorClassLoaders =
+      Caffeine.newBuilder()
+          .maximumSize(MAXIMUM_CLASS_LOADERS)
+          .removalListener(
+              (ImmutableList<Path> path, ProcessorClassLoader loader, RemovalCause cause) -> {
+                if (loader != null) {
+                  loader.remove();
+                }
+              })
+          .build();
+
+  public ErrorProneWorker(ScannerSupplier scannerSupplier) {
+    this.compiler = new BaseErrorProneJavaCompiler(scannerSupplier);
+  }
+
+  /**
+   * Handles the requests in {@code in} until it ends, writing the responses to {@code out}, and
+   * waits for the compilations that are still running to finish.
+   *
+   * @throws IOException if reading a request or writing any response failed
+   */
+  public void serve(InputStream in, OutputStream out) throws IOException {
+    ExecutorService executor =
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("error-prone-worker-%d")
+                .build());
+    AtomicReference<@Nullable IOException> writeFailure = new AtomicReference<>();
+    try {
+      for (WorkRequest request = readRequest(in);
+          request != null && writeFailure.get() == null;
+          request = readRequest(in)) {
+        if (request.cancel()) {
+          // Cancellation isn't supported; the compilation's response is sent when it finishes.
+          continue;
+        }
+        WorkRequest toCompile = request;
+        if (toCompile.requestId() == 0) {
+          writeResponse(out, handle(toCompile));
+        } else {
+          executor.execute(
+              () -> {
+                try {
+                  writeResponse(out, handle(toCompile));
+                } catch (IOException e) {
+                  writeFailure.compareAndSet(null, e);
+                }
+              });
+        }
+      }
+    } finally {
+      executor.shutdown();
+      try {
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    IOException failure = writeFailure.get();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private WorkResponse handle(WorkRequest request) {
+    StringWriter output = new StringWriter();
+    int exitCode;
+    try (PrintWriter out = new PrintWriter(output)) {
+      try {
+        exitCode = compile(request.arguments(), out);
+      } catch (RuntimeException | Error e) {
+        // Report the failure of one compilation without ending the worker.
+        out.println(getStackTraceAsString(e));
+        exitCode = 1;
+      }
+    }
+    return new WorkResponse(exitCode, output.toString(), request.requestId());
+  }
+
+  /**
+   * Compiles with the given {@code javac} command line arguments, which may include {@code @}
+   * argument files and Error Prone's flags, and writes the diagnostics to {@code out}.
+   *
+   * @return the exit code that {@code javac} would have had
+   */
+  public int compile(List<String> arguments, PrintWriter out) {
+    List<String> args;
+    try {
+      args = CommandLine.parse(arguments);
+    } catch (Exception e) {
+      out.println("error: " + e.getMessage());
+      return 2;
+    }
+    List<String> options = new ArrayList<>();
+    List<String> sources = new ArrayList<>();
+    for (int i = 0; i < args.size(); i++) {
+      String arg = args.get(i);
+      int arity = compiler.isSupportedOption(arg);
+      if (arity < 0 && arg.endsWith(".java")) {
+        sources.add(arg);
+        continue;
+      }
+      options.add(arg);
+      for (int j = 0; j < arity && i + 1 < args.size(); j++) {
+        options.add(args.get(++i));
+      }
+    }
+    StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, UTF_8);
+    try (JavaFileManager manager = new CachingProcessorPathFileManager(fileManager)) {
+      CompilationTask task =
+          compiler.getTask(
+              out,
+              manager,
+              /* diagnosticListener= */ null,
+              options,
+              /* classes= */ null,
+              fileManager.getJavaFileObjectsFromStrings(sources));
+      Context context = ((BasicJavacTask) task).getContext();
+      scannerCache.install(context);
+      boolean success = task.call();
+      scannerCache.release(context);
+      return success ? 0 : 1;
+    } catch (InvalidCommandLineOptionException | IllegalArgumentException e) {
+      out.println("error: " + e.getMessage());
+      return 2;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A file manager that returns the same class loader for an annotation processor path as long as
+   * its files don't change. The class loader isn't closed along with the compilation.
+   */
+  @Trusted
+  private final class CachingProcessorPathFileManager
+      extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    /** The cached class loaders that this compilation is using. */
+    private final List<ProcessorClassLoader> used = new ArrayList<>();
+
+    CachingProcessorPathFileManager(StandardJavaFileManager fileManager) {
+      super(fileManager);
+    }
+
+    @Override
+    public ClassLoader getClassLoader(Location location) {
+      if (location != StandardLocation.ANNOTATION_PROCESSOR_PATH || !hasLocation(location)) {
+        return super.getClassLoader(location);
+      }
+      ImmutableList<Path> paths =
+          Streams.stream(fileManager.getLocationAsPaths(location))
+              .map(Path::toAbsolutePath)
+              .collect(toImmutableList());
+      HashCode fingerprint;
+      URL[] urls = new URL[paths.size()];
+      try {
+        fingerprint = ScannerCache.fingerprint(paths);
+        for (int i = 0; i < urls.length; i++) {
+          urls[i] = paths.get(i).toUri().toURL();
+        }
+      } catch (IOException e) {
+        return super.getClassLoader(location);
+      }
+      while (true) {
+        ProcessorClassLoader cached =
+            processorClassLoaders
+                .asMap()
+                .compute(
+                    paths,
+                    (k, v) ->
+                        v != null && v.fingerprint.equals(fingerprint)
+                            ? v
+                            : new ProcessorClassLoader(fingerprint, urls));
+        // The class loader may have been evicted in the meantime.
+        if (cached.acquire()) {
+          used.add(cached);
+          // javac closes the processor class loader when the compilation ends, if it can.
+          return new ClassLoader(cached.loader) {};
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        used.forEach(ProcessorClassLoader::release);
+        used.clear();
+      }
+    }
+  }
+
+  /**
+   * The class loader of an annotation processor path, and the number of compilations using it. It's
+   * closed once it's been removed from the cache and the last of them is done.
+   */
+  private static final class ProcessorClassLoader {
+    final HashCode fingerprint;
+    final URLClassLoader loader;
+    private int users = 0;
+    private boolean removed = false;
+
+    ProcessorClassLoader(HashCode fingerprint, URL[] urls) {
+      this.fingerprint = fingerprint;
+      this.loader = new URLClassLoader(urls, ErrorProneWorker.class.getClassLoader());
+    }
+
+    /** Returns false if the class loader has been removed from the cache, and can't be used. */
+    synchronized boolean acquire() {
+      if (removed) {
+        return false;
+      }
+      users++;
+      return true;
+    }
+
+    synchronized void release() {
+      users--;
+      closeIfUnused();
+    }
+
+    synchronized void remove() {
+      removed = true;
+      closeIfUnused();
+    }
+
+    private void closeIfUnused() {
+      if (!removed || users > 0) {
+        return;
+      }
+      try {
+        loader.close();
+      } catch (IOException e) {
+        // Nothing can load classes from it any more, so the worst case is an open jar file.
+      }
+    }
+  }
+
+  /** Reads a length-delimited {@code WorkRequest}, or returns null at the end of the input. */
+  @VisibleForTesting
+  static @Nullable WorkRequest readRequest(InputStream in) throws IOException {
+    int firstByte = in.read();
+    if (firstByte == -1) {
+      return null;
+    }
+    int size = CodedInputStream.readRawVarint32(firstByte, in);
+    byte[] bytes = in.readNBytes(size);
+    if (bytes.length != size) {
+      throw new IOException("truncated WorkRequest");
+    }
+    CodedInputStream input = CodedInputStream.newInstance(bytes);
+    ImmutableList.Builder<String> arguments = ImmutableList.builder();
+    int requestId = 0;
+    boolean cancel = false;
+    while (!input.isAtEnd()) {
+      int tag = input.readTag();
+      switch (tag) {
+        case 1 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED -> arguments.add(input.readString());
+        case 3 << 3 | WireFormat.WIRETYPE_VARINT -> requestId = input.readInt32();
+        case 4 << 3 | WireFormat.WIRETYPE_VARINT -> cancel = input.readBool();
+        default -> input.skipField(tag);
+      }
+    }
+    return new WorkRequest(arguments.build(), requestId, cancel);
+  }
+
+  /** Writes a length-delimited {@code WorkResponse}. */
+  @VisibleForTesting
+  static void writeResponse(OutputStream out, WorkResponse response) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CodedOutputStream message = CodedOutputStream.newInstance(bytes);
+    message.writeInt32(1, response.exitCode());
+    message.writeString(2, response.output());
+    message.writeInt32(3, response.requestId());
+    message.flush();
+    synchronized (out) {
+      CodedOutputStream delimited = CodedOutputStream.newInstance(out);
+      delimited.writeUInt32NoTag(bytes.size());
+      delimited.writeRawBytes(bytes.toByteArray());
+      delimited.flush();
+      out.flush();
+    }
+  }
+}
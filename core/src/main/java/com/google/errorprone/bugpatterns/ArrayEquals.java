@@ -38,7 +38,10 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 /**
  * @author eaftan@google.com (Eddie Aftandilian)
  */
-@BugPattern(summary = "Reference equality used to compare arrays", severity = ERROR)
+@BugPattern(
+    summary = "Reference equality used to compare arrays",
+    severity = ERROR,
+    cacheSafe = true)
 public class ArrayEquals extends BugChecker implements MethodInvocationTreeMatcher {
   /** Matches when the equals instance method is used to compare two arrays. */
   private static final Matcher<MethodInvocationTree> instanceEqualsMatcher =
@@ -44,7 +44,10 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 /**
  * @author eaftan@google.com (Eddie Aftandilian)
  */
-@BugPattern(summary = "hashcode method on array does not hash array contents", severity = ERROR)
+@BugPattern(
+    summary = "hashcode method on array does not hash array contents",
+    severity = ERROR,
+    cacheSafe = true)
 public class ArrayHashCode extends BugChecker implements MethodInvocationTreeMatcher {
 
   /**
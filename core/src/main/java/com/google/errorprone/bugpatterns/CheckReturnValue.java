@@ -63,6 +63,7 @@ import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
 import com.google.errorprone.bugpatterns.checkreturnvalue.PackagesRule;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator.EvaluationCache;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator.MethodInfo;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope;
 import com.google.errorprone.bugpatterns.threadsafety.ConstantExpressions;
@@ -70,6 +71,7 @@ import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.util.ASTHelpers;
 import com.google.errorprone.util.SourceVersion;
 import com.sun.source.tree.ClassTree;
@@ -148,6 +150,13 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
   private final MessageTrailerStyle messageTrailerStyle;
   private final ResultUsePolicyEvaluator<VisitorState, Symbol, MethodSymbol> evaluator;
 
+  /**
+   * The policies of the methods and enclosing elements seen in the current compilation, since the
+   * same library methods are typically called many times.
+   */
+  private final Supplier<EvaluationCache<Symbol, MethodSymbol>> evaluationCache =
+      VisitorState.memoize(state -> new EvaluationCache<>());
+
   @Inject
   CheckReturnValue(ErrorProneFlags flags, ConstantExpressions constantExpressions) {
     super(constantExpressions);
@@ -192,6 +201,7 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
                 globalDefault(
                     defaultPolicy(flags, CHECK_ALL_METHODS),
                     defaultPolicy(flags, CHECK_ALL_CONSTRUCTORS)))
+            .setCache(evaluationCache::get, (state, key) -> state.incrementCounter(this, key))
             .build();
   }
 
@@ -251,17 +261,15 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
 
   @Override
   public boolean isCovered(ExpressionTree tree, VisitorState state) {
-    return methodToInspect(tree).stream()
-        .flatMap(method -> evaluator.evaluations(method, state))
-        .findFirst()
+    return methodToInspect(tree)
+        .flatMap(method -> evaluator.firstEvaluation(method, state))
         .isPresent();
   }
 
   @Override
   public ImmutableMap<String, ?> getMatchMetadata(ExpressionTree tree, VisitorState state) {
-    return methodToInspect(tree).stream()
-        .flatMap(method -> evaluator.evaluations(method, state))
-        .findFirst()
+    return methodToInspect(tree)
+        .flatMap(method -> evaluator.firstEvaluation(method, state))
         .map(
             evaluation ->
                 ImmutableMap.of(
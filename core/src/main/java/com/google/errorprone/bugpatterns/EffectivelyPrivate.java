@@ -33,13 +33,13 @@ import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.ModifiersTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
-import com.sun.source.util.TreePathScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
@@ -63,29 +63,26 @@ public final class EffectivelyPrivate extends BugChecker implements CompilationU
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
-    ImmutableSet<ClassSymbol> hasVisibleSubclass = findClassesWithVisibleSubclasses(tree, state);
-    new SuppressibleTreePathScanner<Void, Void>(state) {
-      @Override
-      public Void visitVariable(VariableTree tree, Void unused) {
-        VarSymbol sym = getSymbol(tree);
-        if (sym.getKind().isField()) {
-          match(tree, tree.getModifiers(), hasVisibleSubclass, state);
-        }
-        return super.visitVariable(tree, null);
-      }
-
-      @Override
-      public Void visitClass(ClassTree tree, Void unused) {
-        match(tree, tree.getModifiers(), hasVisibleSubclass, state);
-        return super.visitClass(tree, null);
+    SymbolUsageIndex index = state.getSymbolUsageIndex();
+    ImmutableSet<ClassSymbol> hasVisibleSubclass = findClassesWithVisibleSubclasses(index, state);
+    // Suppressing a declaration suppresses everything within it.
+    boolean[] suppressed = new boolean[index.declarationCount()];
+    for (int i = 0; i < index.declarationCount(); i++) {
+      int parent = index.parentDeclaration(i);
+      Tree declaration = index.declaration(i);
+      suppressed[i] = (parent >= 0 && suppressed[parent]) || isSuppressed(declaration, state);
+      if (suppressed[i]) {
+        continue;
       }
-
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        match(tree, tree.getModifiers(), hasVisibleSubclass, state);
-        return super.visitMethod(tree, null);
+      switch (declaration) {
+        case VariableTree variable when getSymbol(variable).getKind().isField() ->
+            match(variable, variable.getModifiers(), hasVisibleSubclass, state);
+        case ClassTree classTree ->
+            match(classTree, classTree.getModifiers(), hasVisibleSubclass, state);
+        case MethodTree method -> match(method, method.getModifiers(), hasVisibleSubclass, state);
+        default -> {}
       }
-    }.scan(tree, null);
+    }
     return NO_MATCH;
   }
 
@@ -139,22 +136,17 @@ public final class EffectivelyPrivate extends BugChecker implements CompilationU
       ImmutableSet.of(Modifier.PUBLIC, Modifier.PROTECTED);
 
   private static ImmutableSet<ClassSymbol> findClassesWithVisibleSubclasses(
-      CompilationUnitTree compilationUnit, VisitorState state) {
+      SymbolUsageIndex index, VisitorState state) {
     ImmutableSet.Builder<ClassSymbol> hasVisibleSubclass = ImmutableSet.builder();
-    new TreePathScanner<Void, Void>() {
-      @Override
-      public Void visitClass(ClassTree tree, Void unused) {
-        ClassSymbol sym = getSymbol(tree);
-        if (!isEffectivelyPrivate(sym)) {
-          for (Type superType : state.getTypes().closure(sym.type)) {
-            if (superType.tsym instanceof ClassSymbol classSymbol) {
-              hasVisibleSubclass.add(classSymbol);
-            }
+    for (int i = 0; i < index.declarationCount(); i++) {
+      if (index.declaredSymbol(i) instanceof ClassSymbol sym && !isEffectivelyPrivate(sym)) {
+        for (Type superType : state.getTypes().closure(sym.type)) {
+          if (superType.tsym instanceof ClassSymbol classSymbol) {
+            hasVisibleSubclass.add(classSymbol);
           }
         }
-        return super.visitClass(tree, null);
       }
-    }.scan(compilationUnit, null);
+    }
     return hasVisibleSubclass.build();
   }
 }
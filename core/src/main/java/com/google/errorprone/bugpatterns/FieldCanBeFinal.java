@@ -25,6 +25,7 @@ import com.google.common.collect.Sets;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.InjectMatchers;
@@ -222,6 +223,27 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
     VariableAssignmentRecords writes = new VariableAssignmentRecords();
     new FinalScanner(writes, state).scan(state.getPath(), InitializationContext.NONE);
+    Map<VariableTree, SuggestedFix> candidates = new LinkedHashMap<>();
+    addCandidateFixes(writes, state, candidates);
+    // Making one field final doesn't affect whether another can be, so check them all at once.
+    // Variables declared together (`int a, b;`) share an equal fix, which is only checked once.
+    ImmutableSet<SuggestedFix> compiling =
+        ImmutableSet.copyOf(
+            SuggestedFixes.compilingFixes(
+                ImmutableSet.copyOf(candidates.values()).asList(), state));
+    candidates.forEach(
+        (varDecl, fix) -> {
+          if (compiling.contains(fix)) {
+            state.reportMatch(describeMatch(varDecl, fix));
+          }
+        });
+    return Description.NO_MATCH;
+  }
+
+  private void addCandidateFixes(
+      VariableAssignmentRecords writes,
+      VisitorState state,
+      Map<VariableTree, SuggestedFix> candidates) {
     for (VariableAssignments var : writes.getAssignments()) {
       if (!var.isEffectivelyFinal()) {
         continue;
@@ -238,18 +260,16 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
       for (Attribute.Compound anno : var.sym.getAnnotationMirrors()) {
         TypeElement annoElement = (TypeElement) anno.getAnnotationType().asElement();
         if (IMPLICIT_VAR_ANNOTATION_SIMPLE_NAMES.contains(annoElement.getSimpleName().toString())) {
-          return Description.NO_MATCH;
+          return;
         }
         if (annoElement.getQualifiedName().toString().startsWith(OBJECTIFY_PREFIX)) {
-          return Description.NO_MATCH;
+          return;
         }
       }
       VariableTree varDecl = var.declaration();
       SuggestedFixes.addModifiers(varDecl, state, Modifier.FINAL)
-          .filter(f -> SuggestedFixes.compilesWithFix(f, state))
-          .ifPresent(f -> state.reportMatch(describeMatch(varDecl, f)));
+          .ifPresent(f -> candidates.put(varDecl, f));
     }
-    return Description.NO_MATCH;
   }
 
   /** Record assignments to possibly-final variables in a compilation unit. */
@@ -21,7 +21,6 @@ import static com.google.common.base.Ascii.toUpperCase;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.errorprone.BugPattern.LinkType.CUSTOM;
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
-import static com.google.errorprone.fixes.SuggestedFix.emptyFix;
 import static com.google.errorprone.fixes.SuggestedFixes.renameClassWithUses;
 import static com.google.errorprone.fixes.SuggestedFixes.renameMethodWithInvocations;
 import static com.google.errorprone.fixes.SuggestedFixes.renameVariable;
@@ -123,13 +122,13 @@ public final class IdentifierName extends BugChecker
     String diagnostic =
         "Classes should be named in UpperCamelCase"
             + (suggested.equals(renamed) ? "" : INITIALISM_DETAIL);
-    return buildDescription(tree)
-        .setMessage(buildMessage(diagnostic, suggested, name, fixable))
-        .addFix(
-            fixable && !suggested.equals(name)
-                ? renameClassWithUses(tree, suggested, state)
-                : emptyFix())
-        .build();
+    Description.Builder description =
+        buildDescription(tree).setMessage(buildMessage(diagnostic, suggested, name, fixable));
+    if (fixable && !suggested.equals(name)) {
+      // Renaming the uses scans the whole compilation unit, so only do it if the fix is used.
+      description.addDeferredFix(() -> renameClassWithUses(tree, suggested, state));
+    }
+    return description.build();
   }
 
   @Override
@@ -175,13 +174,12 @@ public final class IdentifierName extends BugChecker
             + ", but "
             + symbol.getSimpleName()
             + " is not";
-    return buildDescription(tree)
-        .setMessage(buildMessage(diagnostic, suggested, name, fixable))
-        .addFix(
-            fixable && !suggested.equals(name)
-                ? renameMethodWithInvocations(tree, suggested, state)
-                : emptyFix())
-        .build();
+    Description.Builder description =
+        buildDescription(tree).setMessage(buildMessage(diagnostic, suggested, name, fixable));
+    if (fixable && !suggested.equals(name)) {
+      description.addDeferredFix(() -> renameMethodWithInvocations(tree, suggested, state));
+    }
+    return description.build();
   }
 
   private static boolean hasTestAnnotation(MethodSymbol symbol) {
@@ -232,13 +230,12 @@ public final class IdentifierName extends BugChecker
             + ", but "
             + symbol.getSimpleName()
             + " is not";
-    return buildDescription(tree)
-        .setMessage(buildMessage(diagnostic, suggested, name, fixable))
-        .addFix(
-            fixable && !suggested.equals(name)
-                ? renameVariable(tree, suggested, state)
-                : emptyFix())
-        .build();
+    Description.Builder description =
+        buildDescription(tree).setMessage(buildMessage(diagnostic, suggested, name, fixable));
+    if (fixable && !suggested.equals(name)) {
+      description.addDeferredFix(() -> renameVariable(tree, suggested, state));
+    }
+    return description.build();
   }
 
   private static final ImmutableSet<String> EXEMPTED_VARIABLE_NAMES =
@@ -20,6 +20,7 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.util.ASTHelpers.getType;
 
+import com.google.common.collect.ImmutableList;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
@@ -47,6 +48,11 @@ public class IndexOfChar extends BugChecker implements MethodInvocationTreeMatch
           .namedAnyOf("indexOf", "lastIndexOf")
           .withParameters("int", "int");
 
+  @Override
+  public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+    return ImmutableList.of(MATCHER);
+  }
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
     if (!MATCHER.matches(tree, state)) {
@@ -27,6 +27,7 @@ import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.bugpatterns.threadsafety.WellKnownMutability;
+import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.suppliers.Supplier;
@@ -70,14 +71,19 @@ public class MutableGuiceModule extends BugChecker implements VariableTreeMatche
     }
     if (!tree.getModifiers().getFlags().contains(Modifier.FINAL)) {
       Description.Builder description = buildDescription(tree);
+      // Checking that the fix compiles is expensive, so only do it if the fix is used.
       SuggestedFixes.addModifiers(tree, state, Modifier.FINAL)
-          .filter(f -> SuggestedFixes.compilesWithFix(f, state))
-          .ifPresent(description::addFix);
+          .ifPresent(
+              fix ->
+                  description.addDeferredFix(
+                      () ->
+                          SuggestedFixes.compilesWithFix(fix, state)
+                              ? fix
+                              : SuggestedFix.emptyFix()));
       state.reportMatch(description.build());
     }
     Type type = getType(tree);
-    String nameStr = type.tsym.flatName().toString();
-    if (wellKnownMutability.getKnownMutableClasses().contains(nameStr)) {
+    if (wellKnownMutability.isKnownMutableClass(type.tsym, state)) {
       state.reportMatch(
           buildDescription(tree)
               .setMessage(
@@ -72,12 +72,15 @@ public final class NonCanonicalType extends BugChecker implements MemberSelectTr
       // Can't suggest changing a synthetic type tree
       return NO_MATCH;
     }
-    SuggestedFix.Builder fixBuilder = SuggestedFix.builder();
-    SuggestedFix fix =
-        fixBuilder.replace(tree, qualifyType(state, fixBuilder, canonicalName)).build();
     return buildDescription(tree)
         .setMessage(createDescription(canonicalName, nonCanonicalName))
-        .addFix(fix)
+        .addDeferredFix(
+            () -> {
+              SuggestedFix.Builder fixBuilder = SuggestedFix.builder();
+              return fixBuilder
+                  .replace(tree, qualifyType(state, fixBuilder, canonicalName))
+                  .build();
+            })
         .build();
   }
 
@@ -58,6 +58,8 @@ public final class OverrideThrowableToString extends BugChecker implements Metho
         .anyMatch(m -> m.getName().contentEquals("getMessage"))) {
       return NO_MATCH;
     }
-    return describeMatch(methodTree, SuggestedFixes.renameMethod(methodTree, "getMessage", state));
+    return buildDescription(methodTree)
+        .addDeferredFix(() -> SuggestedFixes.renameMethod(methodTree, "getMessage", state))
+        .build();
   }
 }
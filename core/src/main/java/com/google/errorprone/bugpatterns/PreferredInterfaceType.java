@@ -30,7 +30,6 @@ import static com.google.errorprone.matchers.Matchers.methodReturns;
 import static com.google.errorprone.matchers.Matchers.typePredicateMatcher;
 import static com.google.errorprone.matchers.Matchers.variableType;
 import static com.google.errorprone.predicates.TypePredicates.isDescendantOf;
-import static com.google.errorprone.suppliers.Suppliers.typeFromString;
 import static com.google.errorprone.util.ASTHelpers.canBeRemoved;
 import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getErasedTypeTree;
@@ -44,7 +43,6 @@ import static com.google.errorprone.util.ASTHelpers.methodCanBeOverridden;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
@@ -52,6 +50,8 @@ import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.suppliers.Supplier;
+import com.google.errorprone.suppliers.Suppliers;
 import com.google.errorprone.predicates.TypePredicate;
 import com.google.errorprone.predicates.TypePredicates;
 import com.sun.source.tree.AssignmentTree;
@@ -67,6 +67,7 @@ import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.code.Types;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
@@ -264,19 +265,20 @@ public final class PreferredInterfaceType extends BugChecker implements Compilat
           .filter(replacement -> !isSubtype(getType(tree), replacement, state))
           .filter(replacement -> isSubtype(replacement, getType(tree), state))
           .ifPresent(
-              type -> {
-                SuggestedFix.Builder builder = SuggestedFix.builder();
-                SuggestedFix fix =
-                    builder
-                        .replace(
-                            getErasedTypeTree(tree), qualifyType(state, builder, type.asElement()))
-                        .build();
-                state.reportMatch(
-                    buildDescription(tree)
-                        .setMessage(getMessage(symbol, type, state))
-                        .addFix(fix)
-                        .build());
-              });
+              type ->
+                  state.reportMatch(
+                      buildDescription(tree)
+                          .setMessage(getMessage(symbol, type, state))
+                          .addDeferredFix(
+                              () -> {
+                                SuggestedFix.Builder builder = SuggestedFix.builder();
+                                return builder
+                                    .replace(
+                                        getErasedTypeTree(tree),
+                                        qualifyType(state, builder, type.asElement()))
+                                    .build();
+                              })
+                          .build()));
     }
   }
 
@@ -325,16 +327,18 @@ public final class PreferredInterfaceType extends BugChecker implements Compilat
         .flatMap(
             betterTypes ->
                 betterTypes.stream()
-                    .map(typeName -> typeFromString(typeName).get(state))
+                    .map(betterType -> betterType.get(state))
                     .filter(
                         sensibleType ->
                             sensibleType != null && isSubtype(type, sensibleType, state))
                     .findFirst());
   }
 
-  private record BetterTypes(TypePredicate predicate, ImmutableSet<String> betterTypes) {
+  private record BetterTypes(TypePredicate predicate, ImmutableList<Supplier<Type>> betterTypes) {
     private static BetterTypes of(TypePredicate predicate, String... betterTypes) {
-      return new BetterTypes(predicate, ImmutableSet.copyOf(betterTypes));
+      return new BetterTypes(
+          predicate,
+          Arrays.stream(betterTypes).map(Suppliers::typeFromString).collect(toImmutableList()));
     }
   }
 }
@@ -57,10 +57,10 @@ public final class StaticMockMember extends BugChecker implements VariableTreeMa
     if (optionalFix.isEmpty()) {
       return NO_MATCH;
     }
-    if (SuggestedFixes.compilesWithFix(optionalFix.get(), state)) {
-      return describeMatch(varTree, optionalFix.get());
-    } else {
-      return describeMatch(varTree);
-    }
+    SuggestedFix fix = optionalFix.get();
+    return buildDescription(varTree)
+        .addDeferredFix(
+            () -> SuggestedFixes.compilesWithFix(fix, state) ? fix : SuggestedFix.emptyFix())
+        .build();
   }
 }
@@ -22,6 +22,7 @@ import static com.google.errorprone.util.ASTHelpers.getReceiver;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.sun.tools.javac.parser.Tokens.TokenKind.RPAREN;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Streams;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
@@ -53,6 +54,11 @@ public final class StringCaseLocaleUsage extends BugChecker implements MethodInv
           .namedAnyOf("toLowerCase", "toUpperCase")
           .withNoParameters();
 
+  @Override
+  public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+    return ImmutableList.of(DEFAULT_LOCALE_CASE_CONVERSION);
+  }
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
     if (!DEFAULT_LOCALE_CASE_CONVERSION.matches(tree, state)) {
@@ -34,7 +34,6 @@ import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
-import com.google.errorprone.suppliers.Suppliers;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
@@ -87,7 +86,7 @@ public final class TruthAssertExpected extends BugChecker implements MethodInvoc
     if (identifier == null) {
       return false;
     }
-    Type throwable = Suppliers.typeFromClass(Throwable.class).get(state);
+    Type throwable = state.getSymtab().throwableType;
     String identifierName = Ascii.toLowerCase(identifier.getName().toString());
     return identifierName.contains("expected")
         && !identifierName.contains("actual")
@@ -172,10 +171,10 @@ public final class TruthAssertExpected extends BugChecker implements MethodInvoc
       return Description.NO_MATCH;
     }
     SuggestedFix fix = SuggestedFix.swap(assertedArgument, terminatingArgument, state);
-    if (SuggestedFixes.compilesWithFix(fix, state)) {
-      return describeMatch(tree, fix);
-    }
-    return describeMatch(tree);
+    return buildDescription(tree)
+        .addDeferredFix(
+            () -> SuggestedFixes.compilesWithFix(fix, state) ? fix : SuggestedFix.emptyFix())
+        .build();
   }
 
   private static Matcher<ExpressionTree> hasReceiverMatching(Matcher<ExpressionTree> matcher) {
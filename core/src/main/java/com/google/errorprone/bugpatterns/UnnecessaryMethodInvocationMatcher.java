@@ -19,6 +19,7 @@ import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 
+import com.google.common.collect.ImmutableList;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
@@ -52,6 +53,11 @@ public class UnnecessaryMethodInvocationMatcher extends BugChecker
   private static final Matcher<ExpressionTree> COMBINATOR =
       staticMethod().onClass(MATCHERS).namedAnyOf("allOf", "anyOf", "not");
 
+  @Override
+  public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+    return ImmutableList.of(METHOD_INVOCATION);
+  }
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
     if (!METHOD_INVOCATION.matches(tree, state)) {
@@ -26,7 +26,6 @@ import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.fixes.SuggestedFix.emptyFix;
 import static com.google.errorprone.fixes.SuggestedFixes.replaceIncludingComments;
 import static com.google.errorprone.matchers.Matchers.SERIALIZATION_METHODS;
-import static com.google.errorprone.suppliers.Suppliers.typeFromString;
 import static com.google.errorprone.util.ASTHelpers.canBeRemoved;
 import static com.google.errorprone.util.ASTHelpers.getEnclosedElements;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
@@ -42,6 +41,7 @@ import static javax.lang.model.element.ElementKind.FIELD;
 import static javax.lang.model.element.Modifier.FINAL;
 
 import com.google.common.base.Ascii;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
@@ -52,21 +52,17 @@ import com.google.errorprone.matchers.Description;
 import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.suppliers.Suppliers;
 import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.AssignmentTree;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.DeconstructionPatternTree;
 import com.sun.source.tree.IdentifierTree;
-import com.sun.source.tree.MemberReferenceTree;
-import com.sun.source.tree.MemberSelectTree;
-import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
-import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.ParameterizedTypeTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
-import com.sun.source.util.TreePathScanner;
-import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
@@ -79,7 +75,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Inject;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
@@ -125,247 +120,76 @@ public final class UnusedMethod extends BugChecker implements CompilationUnitTre
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
-    // Map of symbols to method declarations. Initially this is a map of all of the methods. As we
-    // go we remove those variables which are used.
-    Map<Symbol, TreePath> unusedMethods = new HashMap<>();
+    // Map of symbols to the indices of method declarations. Initially this is a map of all of the
+    // methods. As we go we remove those variables which are used.
+    Map<Symbol, Integer> unusedMethods = new HashMap<>();
+    SymbolUsageIndex index = state.getSymbolUsageIndex();
 
     // We will skip reporting on the whole compilation if there are any native methods found.
-    // Use a TreeScanner to find all local variables and fields.
-    if (hasNativeMethods(tree)) {
+    if (hasNativeMethods(index)) {
       return Description.NO_MATCH;
     }
-    AtomicBoolean ignoreUnusedMethods = new AtomicBoolean(false);
-
-    ImmutableSet<ClassSymbol> classesMadeVisible = getVisibleClasses(tree);
-
-    class MethodFinder extends SuppressibleTreePathScanner<Void, Void> {
-      MethodFinder(VisitorState state) {
-        super(state);
-      }
-
-      @Override
-      public Void visitClass(ClassTree tree, Void unused) {
-        if (exemptedBySuperType(getType(tree), state)
-            || EXEMPTING_CLASS_ANNOTATIONS.stream().anyMatch(a -> hasAnnotation(tree, a, state))) {
-          return null;
-        }
-        return super.visitClass(tree, null);
-      }
-
-      private boolean exemptedBySuperType(Type type, VisitorState state) {
-        return EXEMPTING_SUPER_TYPES.stream()
-            .anyMatch(t -> isSubtype(type, typeFromString(t).get(state), state));
-      }
-
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        if (hasJUnitParamsParametersForMethodAnnotation(tree.getModifiers().getAnnotations())) {
-          // Since this method uses @Parameters, there will be another method that appears to
-          // be unused. Don't warn about unusedMethods at all in this case.
-          ignoreUnusedMethods.set(true);
-        }
-        if (isMethodSymbolEligibleForChecking(tree, classesMadeVisible)) {
-          unusedMethods.put(getSymbol(tree), getCurrentPath());
-        }
-        return super.visitMethod(tree, null);
-      }
-
-      private boolean hasJUnitParamsParametersForMethodAnnotation(
-          Collection<? extends AnnotationTree> annotations) {
-        for (AnnotationTree tree : annotations) {
-          JCAnnotation annotation = (JCAnnotation) tree;
-          if (annotation.getAnnotationType().type != null
-              && isSubtype(
-                  annotation.getAnnotationType().type,
-                  JUNIT_PARAMS_ANNOTATION_TYPE.get(state),
-                  state)) {
-            if (annotation.getArguments().isEmpty()) {
-              // @Parameters, which uses implicit provider methods
-              return true;
-            }
-            for (JCExpression arg : annotation.getArguments()) {
-              if (!(arg instanceof AssignmentTree)) {
-                // Implicit value annotation, e.g. @Parameters({"1"}); no exemption required.
-                return false;
-              }
-              JCExpression var = ((JCAssign) arg).getVariable();
-              if (var instanceof IdentifierTree identifierTree) {
-                // Anything that is not @Parameters(value = ...), e.g.
-                // @Parameters(source = ...) or @Parameters(method = ...)
-                if (!identifierTree.getName().contentEquals(JUNIT_PARAMS_VALUE)) {
-                  return true;
-                }
-              }
-            }
-          }
-        }
-        return false;
+    boolean ignoreUnusedMethods = false;
+
+    ImmutableSet<ClassSymbol> classesMadeVisible = getVisibleClasses(index);
+
+    // Find the methods that might be unused, skipping suppressed and exempted declarations along
+    // with everything within them.
+    boolean[] skipped = new boolean[index.declarationCount()];
+    for (int i = 0; i < index.declarationCount(); i++) {
+      int parent = index.parentDeclaration(i);
+      Tree declaration = index.declaration(i);
+      skipped[i] =
+          (parent >= 0 && skipped[parent])
+              || isSuppressed(declaration, state)
+              || (declaration instanceof ClassTree classTree && isExemptedClass(classTree, state));
+      if (skipped[i] || !(declaration instanceof MethodTree methodTree)) {
+        continue;
       }
-
-      private boolean isMethodSymbolEligibleForChecking(
-          MethodTree tree, Set<ClassSymbol> classesMadeVisible) {
-        if (exemptedByName(tree.getName())) {
-          return false;
-        }
-        if (wellKnownKeep.shouldKeep(tree)) {
-          return false;
-        }
-        MethodSymbol methodSymbol = getSymbol(tree);
-        if (!canBeRemoved(methodSymbol, state)) {
-          return false;
-        }
-        if (isExemptedConstructor(methodSymbol, state)
-            || isGeneratedConstructor(tree)
-            || SERIALIZATION_METHODS.matches(tree, state)) {
-          return false;
-        }
-
-        // Ignore this method if the last parameter is a GWT JavaScriptObject.
-        if (!tree.getParameters().isEmpty()) {
-          Type lastParamType = getType(getLast(tree.getParameters()));
-          if (lastParamType != null
-              && isSubtype(lastParamType, GWT_JAVASCRIPT_OBJECT.get(state), state)) {
-            return false;
-          }
-        }
-        if (!methodSymbol.isPrivate()
-            && classesMadeVisible.stream()
-                .anyMatch(t -> isSubtype(t.type, methodSymbol.owner.type, state))) {
-          return false;
-        }
-
-        return true;
+      if (hasJUnitParamsParametersForMethodAnnotation(
+          methodTree.getModifiers().getAnnotations(), state)) {
+        // Since this method uses @Parameters, there will be another method that appears to
+        // be unused. Don't warn about unusedMethods at all in this case.
+        ignoreUnusedMethods = true;
       }
-
-      private boolean isExemptedConstructor(MethodSymbol methodSymbol, VisitorState state) {
-        if (!methodSymbol.isConstructor()) {
-          return false;
-        }
-        // Don't delete unused zero-arg constructors, given those are often there to limit
-        // instantiating the class at all (e.g. in utility classes).
-        if (methodSymbol.params().isEmpty()) {
-          return true;
-        }
-        return false;
+      if (isMethodSymbolEligibleForChecking(methodTree, classesMadeVisible, state)) {
+        unusedMethods.put(getSymbol(methodTree), i);
       }
     }
-    new MethodFinder(state).scan(state.getPath(), null);
-
-    class FilterUsedMethods extends TreePathScanner<Void, Void> {
-      @Override
-      public Void visitMemberSelect(MemberSelectTree memberSelectTree, Void unused) {
-        Symbol symbol = getSymbol(memberSelectTree);
-        unusedMethods.remove(symbol);
-        return super.visitMemberSelect(memberSelectTree, null);
-      }
 
-      @Override
-      public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
-        super.visitMemberReference(tree, null);
-        MethodSymbol symbol = getSymbol(tree);
+    // Then remove the ones that are used.
+    for (int i = 0; i < index.referenceCount() && !unusedMethods.isEmpty(); i++) {
+      Symbol symbol = index.referencedSymbol(i);
+      if (symbol instanceof MethodSymbol) {
         unusedMethods.remove(symbol);
-        symbol.getParameters().forEach(unusedMethods::remove);
-        return null;
-      }
-
-      @Override
-      public Void visitMethodInvocation(MethodInvocationTree tree, Void unused) {
-        handle(getSymbol(tree));
-        return super.visitMethodInvocation(tree, null);
-      }
-
-      @Override
-      public Void visitNewClass(NewClassTree tree, Void unused) {
-        handle(getSymbol(tree));
-        return super.visitNewClass(tree, null);
-      }
-
-      @Override
-      public Void visitAssignment(AssignmentTree tree, Void unused) {
-        handle(getSymbol(tree.getVariable()));
-        return super.visitAssignment(tree, null);
-      }
-
-      @Override
-      public Void visitDeconstructionPattern(DeconstructionPatternTree tree, Void unused) {
-        var symbol = getSymbol(tree.getDeconstructor());
-        if (isRecord(symbol)) {
-          ImmutableSet<Name> componentNames =
-              getEnclosedElements(symbol).stream()
-                  .filter(ASTHelpers::isRecord)
-                  .map(Symbol::getSimpleName)
-                  .collect(toImmutableSet());
-          for (Symbol e : getEnclosedElements(symbol)) {
-            if (componentNames.contains(e.getSimpleName())) {
-              handle(e);
-            }
+      } else if (isRecord(symbol) && isDeconstructor(index.referencePath(i))) {
+        // Record patterns use the accessors of the record's components implicitly.
+        ImmutableSet<Name> componentNames =
+            getEnclosedElements(symbol).stream()
+                .filter(ASTHelpers::isRecord)
+                .map(Symbol::getSimpleName)
+                .collect(toImmutableSet());
+        for (Symbol e : getEnclosedElements(symbol)) {
+          if (componentNames.contains(e.getSimpleName())) {
+            unusedMethods.remove(e);
           }
         }
-
-        return super.visitDeconstructionPattern(tree, null);
-      }
-
-      private void handle(Symbol symbol) {
-        if (symbol instanceof MethodSymbol) {
-          unusedMethods.remove(symbol);
-        }
       }
-
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        handleMethodSource(tree);
-        return super.visitMethod(tree, null);
-      }
-
-      /**
-       * If a method is annotated with @MethodSource, the annotation value refers to another method
-       * that is used reflectively to supply test parameters, so that method should not be
-       * considered unused.
-       */
-      private void handleMethodSource(MethodTree tree) {
-        MethodSymbol sym = getSymbol(tree);
-        Name name = ORG_JUNIT_JUPITER_PARAMS_PROVIDER_METHODSOURCE.get(state);
-        sym.getRawAttributes().stream()
-            .filter(a -> a.type.tsym.getQualifiedName().equals(name))
-            .findAny()
-            // get the annotation value array as a set of Names,
-            // normalizing unset value to the empty value
-            .map(
-                a ->
-                    getAnnotationValue(a, "value")
-                        .map(
-                            y ->
-                                asStrings(y)
-                                    .map(state::getName)
-                                    .map(Name::toString)
-                                    .collect(toImmutableSet()))
-                        .orElse(ImmutableSet.of()))
-            // if no explicit method sources were specified, use method name instead
-            .map(names -> names.isEmpty() ? ImmutableSet.of(sym.name.toString()) : names)
-            // remove all potentially unused methods referenced by the @MethodSource
-            .ifPresent(
-                referencedNames ->
-                    unusedMethods
-                        .entrySet()
-                        .removeIf(
-                            e -> {
-                              Symbol unusedSym = e.getKey();
-                              String simpleName = unusedSym.getSimpleName().toString();
-                              return referencedNames.contains(simpleName)
-                                  || referencedNames.contains(
-                                      unusedSym.owner.getQualifiedName() + "#" + simpleName);
-                            }));
+    }
+    for (int i = 0; i < index.declarationCount() && !unusedMethods.isEmpty(); i++) {
+      if (index.declaration(i) instanceof MethodTree methodTree) {
+        handleMethodSource(methodTree, unusedMethods, state);
       }
     }
 
-    new FilterUsedMethods().scan(state.getPath(), null);
-
-    if (ignoreUnusedMethods.get()) {
+    if (ignoreUnusedMethods) {
       return Description.NO_MATCH;
     }
 
+    ImmutableList<TreePath> unusedPaths =
+        unusedMethods.values().stream().map(index::declarationPath).collect(toImmutableList());
     fixNonConstructors(
-        unusedMethods.values().stream()
+        unusedPaths.stream()
             .filter(t -> !getSymbol(t.getLeaf()).isConstructor())
             .collect(toImmutableList()),
         state);
@@ -373,7 +197,7 @@ public final class UnusedMethod extends BugChecker implements CompilationUnitTre
     // Group unused constructors by the owning class to generate fixes, so that if we remove the
     // last constructor, we add a private one.
     ImmutableListMultimap<Symbol, TreePath> unusedConstructors =
-        unusedMethods.values().stream()
+        unusedPaths.stream()
             .filter(t -> getSymbol(t.getLeaf()).isConstructor())
             .collect(toImmutableListMultimap(t -> getSymbol(t.getLeaf()).owner, t -> t));
 
@@ -382,18 +206,152 @@ public final class UnusedMethod extends BugChecker implements CompilationUnitTre
     return Description.NO_MATCH;
   }
 
-  private ImmutableSet<ClassSymbol> getVisibleClasses(CompilationUnitTree tree) {
-    ImmutableSet.Builder<ClassSymbol> classesMadeVisible = ImmutableSet.builder();
-    new TreePathScanner<Void, Void>() {
-      @Override
-      public Void visitClass(ClassTree tree, Void unused) {
-        var symbol = getSymbol(tree);
-        if (!canBeRemoved(symbol)) {
-          classesMadeVisible.add(symbol);
+  private boolean isExemptedClass(ClassTree tree, VisitorState state) {
+    return EXEMPTING_SUPER_TYPES.stream()
+            .anyMatch(t -> isSubtype(getType(tree), state.getTypeFromString(t), state))
+        || EXEMPTING_CLASS_ANNOTATIONS.stream().anyMatch(a -> hasAnnotation(tree, a, state));
+  }
+
+  private static boolean hasJUnitParamsParametersForMethodAnnotation(
+      Collection<? extends AnnotationTree> annotations, VisitorState state) {
+    for (AnnotationTree tree : annotations) {
+      JCAnnotation annotation = (JCAnnotation) tree;
+      if (annotation.getAnnotationType().type != null
+          && isSubtype(
+              annotation.getAnnotationType().type,
+              JUNIT_PARAMS_ANNOTATION_TYPE.get(state),
+              state)) {
+        if (annotation.getArguments().isEmpty()) {
+          // @Parameters, which uses implicit provider methods
+          return true;
+        }
+        for (JCExpression arg : annotation.getArguments()) {
+          if (!(arg instanceof AssignmentTree)) {
+            // Implicit value annotation, e.g. @Parameters({"1"}); no exemption required.
+            return false;
+          }
+          JCExpression var = ((JCAssign) arg).getVariable();
+          if (var instanceof IdentifierTree identifierTree) {
+            // Anything that is not @Parameters(value = ...), e.g.
+            // @Parameters(source = ...) or @Parameters(method = ...)
+            if (!identifierTree.getName().contentEquals(JUNIT_PARAMS_VALUE)) {
+              return true;
+            }
+          }
         }
-        return super.visitClass(tree, null);
       }
-    }.scan(tree, null);
+    }
+    return false;
+  }
+
+  private boolean isMethodSymbolEligibleForChecking(
+      MethodTree tree, Set<ClassSymbol> classesMadeVisible, VisitorState state) {
+    if (exemptedByName(tree.getName())) {
+      return false;
+    }
+    if (wellKnownKeep.shouldKeep(tree)) {
+      return false;
+    }
+    MethodSymbol methodSymbol = getSymbol(tree);
+    if (!canBeRemoved(methodSymbol, state)) {
+      return false;
+    }
+    if (isExemptedConstructor(methodSymbol)
+        || isGeneratedConstructor(tree)
+        || SERIALIZATION_METHODS.matches(tree, state)) {
+      return false;
+    }
+
+    // Ignore this method if the last parameter is a GWT JavaScriptObject.
+    if (!tree.getParameters().isEmpty()) {
+      Type lastParamType = getType(getLast(tree.getParameters()));
+      if (lastParamType != null
+          && isSubtype(lastParamType, GWT_JAVASCRIPT_OBJECT.get(state), state)) {
+        return false;
+      }
+    }
+    if (!methodSymbol.isPrivate()
+        && classesMadeVisible.stream()
+            .anyMatch(t -> isSubtype(t.type, methodSymbol.owner.type, state))) {
+      return false;
+    }
+
+    return true;
+  }
+
+  private static boolean isExemptedConstructor(MethodSymbol methodSymbol) {
+    if (!methodSymbol.isConstructor()) {
+      return false;
+    }
+    // Don't delete unused zero-arg constructors, given those are often there to limit
+    // instantiating the class at all (e.g. in utility classes).
+    if (methodSymbol.params().isEmpty()) {
+      return true;
+    }
+    return false;
+  }
+
+  /** Whether the given reference is the record type of a record pattern. */
+  private static boolean isDeconstructor(TreePath reference) {
+    Tree tree = reference.getLeaf();
+    TreePath parent = reference.getParentPath();
+    if (parent.getLeaf() instanceof ParameterizedTypeTree parameterizedType
+        && parameterizedType.getType() == tree) {
+      tree = parameterizedType;
+      parent = parent.getParentPath();
+    }
+    return parent.getLeaf() instanceof DeconstructionPatternTree pattern
+        && pattern.getDeconstructor() == tree;
+  }
+
+  /**
+   * If a method is annotated with @MethodSource, the annotation value refers to another method
+   * that is used reflectively to supply test parameters, so that method should not be considered
+   * unused.
+   */
+  private static void handleMethodSource(
+      MethodTree tree, Map<Symbol, Integer> unusedMethods, VisitorState state) {
+    MethodSymbol sym = getSymbol(tree);
+    Name name = ORG_JUNIT_JUPITER_PARAMS_PROVIDER_METHODSOURCE.get(state);
+    sym.getRawAttributes().stream()
+        .filter(a -> a.type.tsym.getQualifiedName().equals(name))
+        .findAny()
+        // get the annotation value array as a set of Names,
+        // normalizing unset value to the empty value
+        .map(
+            a ->
+                getAnnotationValue(a, "value")
+                    .map(
+                        y ->
+                            asStrings(y)
+                                .map(state::getName)
+                                .map(Name::toString)
+                                .collect(toImmutableSet()))
+                    .orElse(ImmutableSet.of()))
+        // if no explicit method sources were specified, use method name instead
+        .map(names -> names.isEmpty() ? ImmutableSet.of(sym.name.toString()) : names)
+        // remove all potentially unused methods referenced by the @MethodSource
+        .ifPresent(
+            referencedNames ->
+                unusedMethods
+                    .entrySet()
+                    .removeIf(
+                        e -> {
+                          Symbol unusedSym = e.getKey();
+                          String simpleName = unusedSym.getSimpleName().toString();
+                          return referencedNames.contains(simpleName)
+                              || referencedNames.contains(
+                                  unusedSym.owner.getQualifiedName() + "#" + simpleName);
+                        }));
+  }
+
+  private static ImmutableSet<ClassSymbol> getVisibleClasses(SymbolUsageIndex index) {
+    ImmutableSet.Builder<ClassSymbol> classesMadeVisible = ImmutableSet.builder();
+    for (int i = 0; i < index.declarationCount(); i++) {
+      if (index.declaredSymbol(i) instanceof ClassSymbol symbol && !canBeRemoved(symbol)) {
+        classesMadeVisible.add(symbol);
+      }
+    }
     return classesMadeVisible.build();
   }
 
@@ -444,21 +402,23 @@ public final class UnusedMethod extends BugChecker implements CompilationUnitTre
     }
   }
 
-  private static boolean hasNativeMethods(CompilationUnitTree tree) {
-    var scanner =
-        new TreeScanner<Void, Void>() {
-          boolean hasAnyNativeMethods = false;
-
-          @Override
-          public Void visitMethod(MethodTree tree, Void unused) {
-            if (tree.getModifiers().getFlags().contains(Modifier.NATIVE)) {
-              hasAnyNativeMethods = true;
-            }
-            return null;
-          }
-        };
-    scanner.scan(tree, null);
-    return scanner.hasAnyNativeMethods;
+  /** Whether there are native methods, other than in classes declared within methods. */
+  static boolean hasNativeMethods(SymbolUsageIndex index) {
+    boolean[] inMethod = new boolean[index.declarationCount()];
+    for (int i = 0; i < index.declarationCount(); i++) {
+      int parent = index.parentDeclaration(i);
+      Tree declaration = index.declaration(i);
+      if (parent >= 0) {
+        inMethod[i] =
+            inMethod[parent] || index.declaration(parent) instanceof MethodTree;
+      }
+      if (!inMethod[i]
+          && declaration instanceof MethodTree method
+          && method.getModifiers().getFlags().contains(Modifier.NATIVE)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private static boolean exemptedByName(Name name) {
@@ -28,20 +28,18 @@ import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.MemberSelectTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
-import com.sun.source.util.TreePathScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
 import javax.inject.Inject;
 
 /** Bugpattern to detect unused nested classes. */
@@ -61,81 +59,67 @@ public final class UnusedNestedClass extends BugChecker implements CompilationUn
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
-    PrivateNestedClassScanner privateNestedClassScanner = new PrivateNestedClassScanner(state);
-    privateNestedClassScanner.scan(state.getPath(), null);
-
-    Map<ClassSymbol, TreePath> privateNestedClasses = privateNestedClassScanner.classes;
-
-    ClassUsageScanner classUsageScanner = new ClassUsageScanner();
-    classUsageScanner.scan(state.getPath(), null);
-    privateNestedClasses.keySet().removeAll(classUsageScanner.usedClasses);
-    for (TreePath path : privateNestedClasses.values()) {
-      state.reportMatch(
-          describeMatch(path.getLeaf(), SuggestedFixes.replaceIncludingComments(path, "", state)));
-    }
-    return NO_MATCH;
-  }
-
-  private final class PrivateNestedClassScanner extends TreePathScanner<Void, Void> {
-    private final Map<ClassSymbol, TreePath> classes = new HashMap<>();
-
-    private final VisitorState state;
-
-    private PrivateNestedClassScanner(VisitorState state) {
-      this.state = state;
-    }
-
-    @Override
-    public Void visitClass(ClassTree classTree, Void unused) {
+    SymbolUsageIndex index = state.getSymbolUsageIndex();
+    // The declarations of the candidate classes, by symbol.
+    Map<ClassSymbol, Integer> privateNestedClasses = new LinkedHashMap<>();
+    // Classes that are ignored, and everything within them, aren't candidates.
+    boolean[] ignored = new boolean[index.declarationCount()];
+    for (int i = 0; i < index.declarationCount(); i++) {
+      int parent = index.parentDeclaration(i);
+      if (parent >= 0 && ignored[parent]) {
+        ignored[i] = true;
+        continue;
+      }
+      if (!(index.declaration(i) instanceof ClassTree classTree)) {
+        continue;
+      }
       if (ignoreUnusedClass(classTree, state)) {
-        return null;
+        ignored[i] = true;
+        continue;
       }
       ClassSymbol symbol = getSymbol(classTree);
       boolean isAnonymous = classTree.getSimpleName().length() == 0;
       if (!isAnonymous && (canBeRemoved(symbol) || symbol.owner instanceof MethodSymbol)) {
-        classes.put(symbol, getCurrentPath());
+        privateNestedClasses.put(symbol, i);
       }
-      return super.visitClass(classTree, null);
-    }
-
-    private boolean ignoreUnusedClass(ClassTree classTree, VisitorState state) {
-      return isSuppressed(classTree, state)
-          || wellKnownKeep.shouldKeep(classTree)
-          || toLowerCase(classTree.getSimpleName().toString()).startsWith("unused");
     }
-  }
 
-  private static final class ClassUsageScanner extends TreePathScanner<Void, Void> {
-    private final Set<ClassSymbol> withinClasses = new HashSet<>();
-    private final Set<ClassSymbol> usedClasses = new HashSet<>();
-
-    @Override
-    public Void visitClass(ClassTree classTree, Void unused) {
-      ClassSymbol symbol = getSymbol(classTree);
-      withinClasses.add(symbol);
-      super.visitClass(classTree, null);
-      withinClasses.remove(symbol);
-      return null;
+    for (int i = 0; i < index.referenceCount() && !privateNestedClasses.isEmpty(); i++) {
+      Tree reference = index.reference(i);
+      if (!(reference instanceof IdentifierTree || reference instanceof MemberSelectTree)) {
+        continue;
+      }
+      for (Symbol symbol = index.referencedSymbol(i);
+          symbol != null;
+          symbol = enclosingClass(symbol)) {
+        if (symbol instanceof ClassSymbol classSymbol
+            && !isWithin(index, index.enclosingDeclaration(i), classSymbol)) {
+          privateNestedClasses.remove(classSymbol);
+        }
+      }
     }
-
-    @Override
-    public Void visitMemberSelect(MemberSelectTree memberSelectTree, Void unused) {
-      handle(memberSelectTree);
-      return super.visitMemberSelect(memberSelectTree, null);
+    for (int declaration : privateNestedClasses.values()) {
+      TreePath path = index.declarationPath(declaration);
+      state.reportMatch(
+          describeMatch(path.getLeaf(), SuggestedFixes.replaceIncludingComments(path, "", state)));
     }
+    return NO_MATCH;
+  }
 
-    @Override
-    public Void visitIdentifier(IdentifierTree identifierTree, Void unused) {
-      handle(identifierTree);
-      return super.visitIdentifier(identifierTree, null);
-    }
+  private boolean ignoreUnusedClass(ClassTree classTree, VisitorState state) {
+    return isSuppressed(classTree, state)
+        || wellKnownKeep.shouldKeep(classTree)
+        || toLowerCase(classTree.getSimpleName().toString()).startsWith("unused");
+  }
 
-    private void handle(Tree node) {
-      for (Symbol symbol = getSymbol(node); symbol != null; symbol = enclosingClass(symbol)) {
-        if (symbol instanceof ClassSymbol classSymbol && !withinClasses.contains(symbol)) {
-          usedClasses.add(classSymbol);
-        }
+  /** Whether the given declaration is, or is within, the declaration of {@code classSymbol}. */
+  private static boolean isWithin(
+      SymbolUsageIndex index, int declaration, ClassSymbol classSymbol) {
+    for (int i = declaration; i >= 0; i = index.parentDeclaration(i)) {
+      if (classSymbol.equals(index.declaredSymbol(i))) {
+        return true;
       }
     }
+    return false;
   }
 }
@@ -66,9 +66,9 @@ import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.InjectMatchers;
 import com.google.errorprone.suppliers.Supplier;
-import com.google.errorprone.suppliers.Suppliers;
 import com.google.errorprone.util.ASTHelpers;
 import com.google.errorprone.util.SourceVersion;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.tree.ArrayAccessTree;
 import com.sun.source.tree.AssignmentTree;
 import com.sun.source.tree.BindingPatternTree;
@@ -99,7 +99,6 @@ import com.sun.source.tree.WhileLoopTree;
 import com.sun.source.util.SimpleTreeVisitor;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.TreePathScanner;
-import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
@@ -114,10 +113,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Inject;
 import javax.lang.model.element.ElementKind;
-import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.type.NullType;
 import javax.tools.JavaFileObject;
@@ -198,17 +195,18 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+    SymbolUsageIndex index = state.getSymbolUsageIndex();
     // We will skip reporting on the whole compilation if there are any native methods found.
-    // Use a TreeScanner to find all local variables and fields.
-    if (hasNativeMethods(tree)) {
+    if (UnusedMethod.hasNativeMethods(index)) {
       return Description.NO_MATCH;
     }
 
     ImmutableMultimap<MethodSymbol, MethodSymbol> superMethodsToOverrides =
-        getSuperMethodsToOverrides(tree, state);
+        getSuperMethodsToOverrides(index, tree, state);
 
+    // Find all local variables and fields.
     VariableFinder variableFinder = new VariableFinder(state, superMethodsToOverrides);
-    variableFinder.scan(state.getPath(), null);
+    variableFinder.find(index);
 
     // Map of symbols to variable declarations. Initially this is a map of all of the local variable
     // and fields. As we go we remove those variables which are used.
@@ -226,7 +224,11 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
     ListMultimap<Symbol, TreePath> usageSites = variableFinder.usageSites;
 
     FilterUsedVariables filterUsedVariables = new FilterUsedVariables(unusedElements, usageSites);
-    filterUsedVariables.scan(state.getPath(), null);
+    // Only references can use or reassign a variable, so there's nothing more to find if none of
+    // them are referenced.
+    if (unusedElements.keySet().stream().anyMatch(s -> isReferenced(index, s))) {
+      filterUsedVariables.scan(state.getPath(), null);
+    }
 
     // Keeps track of whether a symbol was _ever_ used (between reassignments).
     Set<Symbol> isEverUsed = filterUsedVariables.isEverUsed;
@@ -374,34 +376,33 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
     };
   }
 
-  private static boolean hasNativeMethods(CompilationUnitTree tree) {
-    AtomicBoolean hasAnyNativeMethods = new AtomicBoolean(false);
-    new TreeScanner<Void, Void>() {
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        if (tree.getModifiers().getFlags().contains(Modifier.NATIVE)) {
-          hasAnyNativeMethods.set(true);
-        }
-        return null;
-      }
-    }.scan(tree, null);
-    return hasAnyNativeMethods.get();
+  /**
+   * Whether a variable is referenced. A parameter is also used by method references to its method,
+   * so the method being referenced counts too.
+   */
+  private static boolean isReferenced(SymbolUsageIndex index, Symbol symbol) {
+    return index.isReferenced(symbol)
+        || (symbol.getKind() == ElementKind.PARAMETER && index.isReferenced(symbol.owner));
   }
 
+  /** Maps methods to the methods that override them, other than in classes within methods. */
   private static ImmutableMultimap<MethodSymbol, MethodSymbol> getSuperMethodsToOverrides(
-      CompilationUnitTree tree, VisitorState state) {
+      SymbolUsageIndex index, CompilationUnitTree tree, VisitorState state) {
     ImmutableMultimap.Builder<MethodSymbol, MethodSymbol> overrides = ImmutableMultimap.builder();
     JavaFileObject sourceFile = tree.getSourceFile();
-    new TreeScanner<Void, Void>() {
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        MethodSymbol sym = getSymbol(tree);
-        findSuperMethods(getSymbol(tree), state.getTypes()).stream()
+    boolean[] inMethod = new boolean[index.declarationCount()];
+    for (int i = 0; i < index.declarationCount(); i++) {
+      int parent = index.parentDeclaration(i);
+      if (parent >= 0) {
+        inMethod[i] = inMethod[parent] || index.declaration(parent) instanceof MethodTree;
+      }
+      if (!inMethod[i] && index.declaration(i) instanceof MethodTree method) {
+        MethodSymbol sym = getSymbol(method);
+        findSuperMethods(sym, state.getTypes()).stream()
             .filter(m -> sourceFile.equals(m.enclClass().sourcefile))
             .forEach(m -> overrides.put(m, sym));
-        return null;
       }
-    }.scan(tree, null);
+    }
     return overrides.build();
   }
 
@@ -652,7 +653,8 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
         || exemptNames.contains(nameString);
   }
 
-  private final class VariableFinder extends TreePathScanner<Void, Void> {
+  /** Finds the variables that might be unused among the declarations of a compilation unit. */
+  private final class VariableFinder {
     private final Map<Symbol, TreePath> unusedElements = new HashMap<>();
 
     private final Set<Symbol> onlyCheckForReassignments = new HashSet<>();
@@ -668,13 +670,75 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
       this.superMethodsToOverrides = superMethodsToOverrides;
     }
 
-    @Override
-    public Void visitVariable(VariableTree variableTree, Void unused) {
-      handleVariable(variableTree);
-      return super.visitVariable(variableTree, null);
+    private void find(SymbolUsageIndex index) {
+      // Declarations that are skipped, along with everything within them.
+      boolean[] skipped = new boolean[index.declarationCount()];
+      // Serialization methods, whose parameters are skipped but whose bodies aren't.
+      boolean[] onlyBody = new boolean[index.declarationCount()];
+      for (int i = 0; i < index.declarationCount(); i++) {
+        int parent = index.parentDeclaration(i);
+        if (parent >= 0 && skipped[parent]) {
+          skipped[i] = true;
+          continue;
+        }
+        switch (index.declaration(i)) {
+          case ClassTree classTree -> {
+            skipped[i] =
+                isSuppressed(classTree, state)
+                    || EXEMPTING_SUPER_TYPES.stream()
+                        .anyMatch(
+                            t -> isSubtype(getType(classTree), state.getTypeFromString(t), state))
+                    || isInTryResources(index, i);
+          }
+          case MethodTree methodTree -> {
+            if (SERIALIZATION_METHODS.matches(methodTree, state)) {
+              onlyBody[i] = true;
+            } else {
+              skipped[i] = isSuppressed(methodTree, state);
+            }
+          }
+          case VariableTree variableTree -> {
+            if (parent >= 0
+                && onlyBody[parent]
+                && index.declaration(parent) instanceof MethodTree method
+                && method.getParameters().contains(variableTree)) {
+              skipped[i] = true;
+              continue;
+            }
+            TreePath path = index.declarationPath(i);
+            // Skip resources, as while these may not be referenced, they are used.
+            if (isInTryResources(path, parent >= 0 ? index.declaration(parent) : null)) {
+              skipped[i] = true;
+              continue;
+            }
+            handleVariable(variableTree, path);
+          }
+          default -> {}
+        }
+      }
+    }
+
+    private boolean isInTryResources(SymbolUsageIndex index, int declaration) {
+      int parent = index.parentDeclaration(declaration);
+      return isInTryResources(
+          index.declarationPath(declaration), parent >= 0 ? index.declaration(parent) : null);
+    }
+
+    /** Whether the path passes through the resources of a try statement below {@code stop}. */
+    private static boolean isInTryResources(TreePath path, @Nullable Tree stop) {
+      Tree child = path.getLeaf();
+      for (TreePath parent = path.getParentPath();
+          parent != null && parent.getLeaf() != stop;
+          parent = parent.getParentPath()) {
+        if (parent.getLeaf() instanceof TryTree tryTree && tryTree.getResources().contains(child)) {
+          return true;
+        }
+        child = parent.getLeaf();
+      }
+      return false;
     }
 
-    private void handleVariable(VariableTree variableTree) {
+    private void handleVariable(VariableTree variableTree, TreePath path) {
       if (exemptedByName(variableTree.getName())) {
         return;
       }
@@ -682,12 +746,12 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
         return;
       }
       VarSymbol symbol = getSymbol(variableTree);
-      var parent = getCurrentPath().getParentPath().getLeaf();
+      var parent = path.getParentPath().getLeaf();
       if (parent instanceof LambdaExpressionTree) {
         if (FUNCTIONAL_INTERFACE_TYPES_TO_CHECK.stream()
             .anyMatch(t -> isSubtype(getType(parent), state.getTypeFromString(t), state))) {
-          unusedElements.put(symbol, getCurrentPath());
-          usageSites.put(symbol, getCurrentPath());
+          unusedElements.put(symbol, path);
+          usageSites.put(symbol, path);
         }
         return;
       }
@@ -708,26 +772,26 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
         case FIELD -> {
           // We are only interested in private fields and those which are not special.
           if (isFieldEligibleForChecking(variableTree, symbol)) {
-            unusedElements.put(symbol, getCurrentPath());
-            usageSites.put(symbol, getCurrentPath());
+            unusedElements.put(symbol, path);
+            usageSites.put(symbol, path);
           }
         }
         case LOCAL_VARIABLE -> {
-          if (isInsideRefasterTemplate(getCurrentPath())) {
+          if (isInsideRefasterTemplate(path)) {
             return;
           }
-          unusedElements.put(symbol, getCurrentPath());
-          usageSites.put(symbol, getCurrentPath());
+          unusedElements.put(symbol, path);
+          usageSites.put(symbol, path);
         }
         case BINDING_VARIABLE -> {
-          if (isInsideRefasterTemplate(getCurrentPath())) {
+          if (isInsideRefasterTemplate(path)) {
             return;
           }
           if (parent instanceof BindingPatternTree
-              && getCurrentPath().getParentPath().getParentPath().getLeaf()
+              && path.getParentPath().getParentPath().getLeaf()
                   instanceof InstanceOfTree) {
-            unusedElements.put(symbol, getCurrentPath());
-            usageSites.put(symbol, getCurrentPath());
+            unusedElements.put(symbol, path);
+            usageSites.put(symbol, path);
           }
         }
         case PARAMETER -> {
@@ -742,7 +806,7 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
           if (hasRecordFlag(symbol.owner)) {
             return;
           }
-          unusedElements.put(symbol, getCurrentPath());
+          unusedElements.put(symbol, path);
           if (!isParameterSubjectToAnalysis(symbol)) {
             onlyCheckForReassignments.add(symbol);
           }
@@ -830,34 +894,6 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
               functionalInterfaceMethod, method.owner.type.tsym, state.getTypes(), true);
     }
 
-    @Override
-    public Void visitTry(TryTree node, Void unused) {
-      // Skip resources, as while these may not be referenced, they are used.
-      scan(node.getBlock(), null);
-      scan(node.getCatches(), null);
-      scan(node.getFinallyBlock(), null);
-      return null;
-    }
-
-    @Override
-    public Void visitClass(ClassTree tree, Void unused) {
-      if (isSuppressed(tree, state)) {
-        return null;
-      }
-      if (EXEMPTING_SUPER_TYPES.stream()
-          .anyMatch(t -> isSubtype(getType(tree), Suppliers.typeFromString(t).get(state), state))) {
-        return null;
-      }
-      return super.visitClass(tree, null);
-    }
-
-    @Override
-    public Void visitMethod(MethodTree tree, Void unused) {
-      if (SERIALIZATION_METHODS.matches(tree, state)) {
-        return scan(tree.getBody(), null);
-      }
-      return isSuppressed(tree, state) ? null : super.visitMethod(tree, null);
-    }
   }
 
   private static final class FilterUsedVariables extends TreePathScanner<Void, Void> {
@@ -35,6 +35,7 @@ import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.BugChecker.TypeCastTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.suppliers.Supplier;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.TypeCastTree;
 import com.sun.tools.javac.code.Type;
@@ -53,6 +54,8 @@ public class BundleDeserializationCast extends BugChecker implements TypeCastTre
       typeCast(
           anything(), instanceMethod().onExactClass("android.os.Bundle").named("getSerializable"));
 
+  private static final Supplier<Type> CHAR_SEQUENCE_TYPE = typeFromString("java.lang.CharSequence");
+
   @Override
   public Description matchTypeCast(TypeCastTree tree, VisitorState state) {
     if (!state.isAndroidCompatible()) {
@@ -115,8 +118,8 @@ public class BundleDeserializationCast extends BugChecker implements TypeCastTre
     if (isArrayType().matches(targetType, state)) {
       Type componentType = ((ArrayType) getType(targetType)).getComponentType();
       Types types = state.getTypes();
-      Type charSequenceType = typeFromString("java.lang.CharSequence").get(state);
-      Type stringType = typeFromString("java.lang.String").get(state);
+      Type charSequenceType = CHAR_SEQUENCE_TYPE.get(state);
+      Type stringType = state.getSymtab().stringType;
       // Okay to cast to String[] because String[] is written before CharSequence[]
       // in the serialization code.
       if (types.isSubtype(componentType, charSequenceType)
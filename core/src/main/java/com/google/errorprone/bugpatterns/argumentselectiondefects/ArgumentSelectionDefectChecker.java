@@ -28,11 +28,14 @@ import com.google.errorprone.bugpatterns.BugChecker.NewClassTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.names.NamingConventions;
 import com.google.errorprone.names.NeedlemanWunschEditDistance;
+import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.DeconstructionPatternTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.NewClassTree;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Checks the lexical distance between method parameter names and the argument names at call sites.
@@ -58,23 +61,33 @@ import com.sun.tools.javac.code.Symbol.MethodSymbol;
 public class ArgumentSelectionDefectChecker extends BugChecker
     implements DeconstructionPatternTreeMatcher, MethodInvocationTreeMatcher, NewClassTreeMatcher {
 
-  private final ArgumentChangeFinder argumentChangeFinder;
+  /**
+   * The default {@link ArgumentChangeFinder}, which is created for each compilation so that its
+   * memo of the distances between names doesn't outlive the compilation.
+   */
+  private static final Supplier<ArgumentChangeFinder> DEFAULT_ARGUMENT_CHANGE_FINDER =
+      VisitorState.memoize(
+          state -> {
+            Map<ParameterNames, Double> distances = new ConcurrentHashMap<>();
+            return ArgumentChangeFinder.builder()
+                .setDistanceFunction(pair -> defaultDistanceFunction(pair, distances))
+                .addHeuristic(new LowInformationNameHeuristic())
+                .addHeuristic(new PenaltyThresholdHeuristic())
+                .addHeuristic(new EnclosedByReverseHeuristic())
+                .addHeuristic(new CreatesDuplicateCallHeuristic())
+                .addHeuristic(new NameInCommentHeuristic())
+                .build();
+          });
+
+  private final Supplier<ArgumentChangeFinder> argumentChangeFinder;
 
   public ArgumentSelectionDefectChecker() {
-    this(
-        ArgumentChangeFinder.builder()
-            .setDistanceFunction(ArgumentSelectionDefectChecker::defaultDistanceFunction)
-            .addHeuristic(new LowInformationNameHeuristic())
-            .addHeuristic(new PenaltyThresholdHeuristic())
-            .addHeuristic(new EnclosedByReverseHeuristic())
-            .addHeuristic(new CreatesDuplicateCallHeuristic())
-            .addHeuristic(new NameInCommentHeuristic())
-            .build());
+    this.argumentChangeFinder = DEFAULT_ARGUMENT_CHANGE_FINDER;
   }
 
   @VisibleForTesting
   ArgumentSelectionDefectChecker(ArgumentChangeFinder argumentChangeFinder) {
-    this.argumentChangeFinder = argumentChangeFinder;
+    this.argumentChangeFinder = state -> argumentChangeFinder;
   }
 
   @Override
@@ -109,7 +122,8 @@ public class ArgumentSelectionDefectChecker extends BugChecker
   }
 
   private Description visit(InvocationInfo invocationInfo) {
-    Changes changes = argumentChangeFinder.findChanges(invocationInfo);
+    Changes changes =
+        argumentChangeFinder.get(invocationInfo.state()).findChanges(invocationInfo);
 
     if (changes.isEmpty()) {
       return Description.NO_MATCH;
@@ -130,24 +144,37 @@ public class ArgumentSelectionDefectChecker extends BugChecker
    * the distance is zero (null matches everything). If both have a name then we compute the
    * normalised NeedlemanWunschEditDistance. Otherwise, one of the names is unknown and so we return
    * 0 distance between it and its original parameter and infinite distance between all others.
+   *
+   * <p>Call sites tend to pass the same names to the same parameters, so the distances between
+   * names are memoized in {@code distances}.
    */
-  private static double defaultDistanceFunction(ParameterPair pair) {
+  private static double defaultDistanceFunction(
+      ParameterPair pair, Map<ParameterNames, Double> distances) {
     if (pair.formal().isNullLiteral() || pair.actual().isNullLiteral()) {
       return 0.0;
     }
 
     if (!pair.formal().isUnknownName() && !pair.actual().isUnknownName()) {
-      String normalizedSource = NamingConventions.convertToLowerUnderscore(pair.formal().name());
-      String normalizedTarget = NamingConventions.convertToLowerUnderscore(pair.actual().name());
-      return NeedlemanWunschEditDistance.getNormalizedEditDistance(
-          /* source= */ normalizedSource,
-          /* target= */ normalizedTarget,
-          /* caseSensitive= */ false,
-          /* changeCost= */ 8,
-          /* openGapCost= */ 8,
-          /* continueGapCost= */ 1);
+      return distances.computeIfAbsent(
+          new ParameterNames(pair.formal().name(), pair.actual().name()),
+          ArgumentSelectionDefectChecker::nameDistance);
     }
 
     return pair.formal().index() == pair.actual().index() ? 0.0 : Double.POSITIVE_INFINITY;
   }
+
+  private static double nameDistance(ParameterNames names) {
+    String normalizedSource = NamingConventions.convertToLowerUnderscore(names.formal());
+    String normalizedTarget = NamingConventions.convertToLowerUnderscore(names.actual());
+    return NeedlemanWunschEditDistance.getNormalizedEditDistance(
+        /* source= */ normalizedSource,
+        /* target= */ normalizedTarget,
+        /* caseSensitive= */ false,
+        /* changeCost= */ 8,
+        /* openGapCost= */ 8,
+        /* continueGapCost= */ 1);
+  }
+
+  /** The names of a formal parameter and of the actual parameter passed to it. */
+  private record ParameterNames(String formal, String actual) {}
 }
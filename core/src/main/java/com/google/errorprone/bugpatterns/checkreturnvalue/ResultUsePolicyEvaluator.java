@@ -29,10 +29,16 @@ import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.Evaluati
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Evaluates methods and their enclosing classes and packages to determine a {@link ResultUsePolicy}
@@ -98,17 +104,36 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
     }
   }
 
+  /**
+   * Memoized evaluations, for a single compilation: the first evaluation of each method, and the
+   * first evaluation of each element that encloses a method, which is shared by all the methods it
+   * encloses.
+   *
+   * @param <S> the type of symbols
+   * @param <M> the type of method symbols
+   */
+  public static final class EvaluationCache<S, M extends S> {
+    private final Map<M, Optional<Evaluation<S>>> methods = new ConcurrentHashMap<>();
+    private final Map<S, Optional<Evaluation<S>>> enclosingElements = new ConcurrentHashMap<>();
+  }
+
   /** All the rules for this evaluator, indexed by the scopes they apply to. */
   private final ImmutableListMultimap<RuleScope, ResultUseRule<C, S>> rules;
 
   private final MethodInfo<C, S, M> methodInfo;
 
+  private final @Nullable Function<? super C, EvaluationCache<S, M>> cache;
+
+  private final BiConsumer<? super C, String> counter;
+
   private ResultUsePolicyEvaluator(Builder<C, S, M> builder) {
     this.rules =
         builder.rules.stream()
             .flatMap(rule -> rule.scopes().stream().map(scope -> entry(scope, rule)))
             .collect(toImmutableListMultimap(Entry::getKey, Entry::getValue));
     this.methodInfo = builder.methodInfo;
+    this.cache = builder.cache;
+    this.counter = builder.counter;
   }
 
   /**
@@ -116,10 +141,79 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
    * apply to it.
    */
   public ResultUsePolicy evaluate(M method, C state) {
-    return evaluateAcrossScopes(
-            method, state, (rule, scope, symbol, context) -> rule.evaluate(symbol, context))
-        .findFirst()
-        .orElse(UNSPECIFIED);
+    Optional<Evaluation<S>> evaluation = firstEvaluation(method, state);
+    return evaluation.isPresent() ? evaluation.get().policy() : UNSPECIFIED;
+  }
+
+  /**
+   * Returns the first {@link Evaluation} made by rules starting from the given {@code method},
+   * which determines the policy that {@link #evaluate} returns. This is memoized if the evaluator
+   * has a {@linkplain Builder#setCache cache}.
+   */
+  public Optional<Evaluation<S>> firstEvaluation(M method, C state) {
+    if (cache == null) {
+      return computeFirstEvaluation(method, state, null);
+    }
+    EvaluationCache<S, M> evaluationCache = cache.apply(state);
+    Optional<Evaluation<S>> evaluation = evaluationCache.methods.get(method);
+    if (evaluation != null) {
+      counter.accept(state, "method-cache-hit");
+      return evaluation;
+    }
+    counter.accept(state, "method-cache-miss");
+    evaluation = computeFirstEvaluation(method, state, evaluationCache);
+    evaluationCache.methods.put(method, evaluation);
+    return evaluation;
+  }
+
+  private Optional<Evaluation<S>> computeFirstEvaluation(
+      M method, C state, @Nullable EvaluationCache<S, M> evaluationCache) {
+    for (RuleScope scope : methodInfo.scopes(method)) {
+      ImmutableList<ResultUseRule<C, S>> scopeRules = rules.get(scope);
+      if (scopeRules.isEmpty()) {
+        continue;
+      }
+      Iterator<S> members = methodInfo.scopeMembers(scope, method, state).iterator();
+      while (members.hasNext()) {
+        S member = members.next();
+        Optional<Evaluation<S>> evaluation =
+            scope == ENCLOSING_ELEMENTS && evaluationCache != null
+                ? evaluateEnclosingElement(member, state, scopeRules, evaluationCache)
+                : evaluateRules(member, state, scope, scopeRules);
+        if (evaluation.isPresent()) {
+          return evaluation;
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Optional<Evaluation<S>> evaluateEnclosingElement(
+      S element,
+      C state,
+      ImmutableList<ResultUseRule<C, S>> scopeRules,
+      EvaluationCache<S, M> evaluationCache) {
+    Optional<Evaluation<S>> evaluation = evaluationCache.enclosingElements.get(element);
+    if (evaluation != null) {
+      counter.accept(state, "enclosing-element-cache-hit");
+      return evaluation;
+    }
+    counter.accept(state, "enclosing-element-cache-miss");
+    evaluation = evaluateRules(element, state, ENCLOSING_ELEMENTS, scopeRules);
+    evaluationCache.enclosingElements.put(element, evaluation);
+    return evaluation;
+  }
+
+  /** Returns the evaluation by the first of {@code scopeRules} that applies to {@code member}. */
+  private static <C, S> Optional<Evaluation<S>> evaluateRules(
+      S member, C state, RuleScope scope, ImmutableList<ResultUseRule<C, S>> scopeRules) {
+    for (ResultUseRule<C, S> rule : scopeRules) {
+      Optional<ResultUsePolicy> policy = rule.evaluate(member, state);
+      if (policy.isPresent()) {
+        return Optional.of(Evaluation.create(rule, scope, member, policy.get()));
+      }
+    }
+    return Optional.empty();
   }
 
   /**
@@ -172,6 +266,8 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
   public static final class Builder<C, S, M extends S> {
     private final List<ResultUseRule<C, S>> rules = new ArrayList<>();
     private final MethodInfo<C, S, M> methodInfo;
+    private @Nullable Function<? super C, EvaluationCache<S, M>> cache;
+    private BiConsumer<? super C, String> counter = (context, key) -> {};
 
     private Builder(MethodInfo<C, S, M> methodInfo) {
       this.methodInfo = methodInfo;
@@ -197,6 +293,23 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
       return this;
     }
 
+    /**
+     * Memoizes the evaluations of methods and of their enclosing elements in the {@link
+     * EvaluationCache} that {@code cache} returns for each context. Rules may depend on the
+     * context, so contexts from different compilations should use different caches.
+     *
+     * @param counter is called with the context and a key such as {@code method-cache-hit} for
+     *     each lookup in the cache, e.g. to count hits and misses with a {@link
+     *     com.google.errorprone.StatisticsCollector}
+     */
+    @CanIgnoreReturnValue
+    public Builder<C, S, M> setCache(
+        Function<? super C, EvaluationCache<S, M>> cache, BiConsumer<? super C, String> counter) {
+      this.cache = cache;
+      this.counter = counter;
+      return this;
+    }
+
     /** Builds a new {@link ResultUsePolicyEvaluator}. */
     public ResultUsePolicyEvaluator<C, S, M> build() {
       return new ResultUsePolicyEvaluator<>(this);
@@ -25,7 +25,7 @@ import static com.google.errorprone.bugpatterns.javadoc.Utils.getDocComment;
 import static com.google.errorprone.bugpatterns.javadoc.Utils.getDocTreePath;
 import static com.google.errorprone.bugpatterns.javadoc.Utils.replace;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
-import static com.google.errorprone.names.LevenshteinEditDistance.getEditDistance;
+import static com.google.errorprone.names.LevenshteinEditDistance.getBoundedEditDistance;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.isRecord;
 
@@ -201,7 +201,11 @@ public final class InvalidParam extends BugChecker implements ClassTreeMatcher,
       String bestMatch = null;
       int minDistance = Integer.MAX_VALUE;
       for (String parameter : parameters) {
-        int distance = getEditDistance(body, parameter);
+        if (minDistance == 0) {
+          break;
+        }
+        int distance =
+            getBoundedEditDistance(body, parameter, /* caseSensitive= */ true, minDistance - 1);
         if (distance < minDistance) {
           bestMatch = parameter;
           minDistance = distance;
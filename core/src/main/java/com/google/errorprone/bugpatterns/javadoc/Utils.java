@@ -16,7 +16,7 @@
 
 package com.google.errorprone.bugpatterns.javadoc;
 
-import static com.google.errorprone.names.LevenshteinEditDistance.getEditDistance;
+import static com.google.errorprone.names.LevenshteinEditDistance.getBoundedEditDistance;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.isGeneratedConstructor;
 import static com.google.errorprone.util.ASTHelpers.isRecord;
@@ -61,8 +61,13 @@ final class Utils {
     String bestMatch = null;
     int minDistance = Integer.MAX_VALUE;
     for (String choice : choices) {
-      int distance = getEditDistance(to, choice);
-      if (distance < minDistance && distance < maxEditDistance) {
+      // Only distances that would improve on the best match so far are of interest.
+      int maxDistance = Math.min(minDistance, maxEditDistance) - 1;
+      if (maxDistance < 0) {
+        break;
+      }
+      int distance = getBoundedEditDistance(to, choice, /* caseSensitive= */ true, maxDistance);
+      if (distance <= maxDistance) {
         bestMatch = choice;
         minDistance = distance;
       }
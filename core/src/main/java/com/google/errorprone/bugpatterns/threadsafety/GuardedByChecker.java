@@ -17,15 +17,13 @@
 package com.google.errorprone.bugpatterns.threadsafety;
 
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
-import static com.google.errorprone.bugpatterns.threadsafety.HeldLockAnalyzer.INVOKES_LAMBDAS_IMMEDIATELY;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
 
 import com.google.common.base.Joiner;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker;
-import com.google.errorprone.bugpatterns.BugChecker.LambdaExpressionTreeMatcher;
-import com.google.errorprone.bugpatterns.BugChecker.MemberReferenceTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.bugpatterns.threadsafety.GuardedByExpression.Kind;
@@ -34,13 +32,11 @@ import com.google.errorprone.bugpatterns.threadsafety.GuardedByUtils.GuardedByVa
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.util.ASTHelpers;
-import com.sun.source.tree.LambdaExpressionTree;
-import com.sun.source.tree.MemberReferenceTree;
-import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
-import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Type;
 import javax.inject.Inject;
@@ -53,10 +49,7 @@ import org.jspecify.annotations.Nullable;
     summary = "Checks for unguarded accesses to fields and methods with @GuardedBy annotations",
     severity = ERROR)
 public class GuardedByChecker extends BugChecker
-    implements VariableTreeMatcher,
-        MethodTreeMatcher,
-        LambdaExpressionTreeMatcher,
-        MemberReferenceTreeMatcher {
+    implements ClassTreeMatcher, VariableTreeMatcher, MethodTreeMatcher {
 
   private static final String JUC_READ_WRITE_LOCK = "java.util.concurrent.locks.ReadWriteLock";
 
@@ -64,44 +57,28 @@ public class GuardedByChecker extends BugChecker
   GuardedByChecker() {}
 
   @Override
-  public Description matchMethod(MethodTree tree, VisitorState state) {
-    // Constructors (and field initializers, instance initializers, and class initializers) are free
-    // to mutate guarded state without holding the necessary locks. It is assumed that all objects
-    // (and classes) are thread-local during initialization.
-    if (ASTHelpers.getSymbol(tree).isConstructor()) {
-      return NO_MATCH;
-    }
-    analyze(state);
-    return validate(tree, state);
-  }
-
-  @Override
-  public Description matchLambdaExpression(LambdaExpressionTree tree, VisitorState state) {
-    var parent = state.getPath().getParentPath().getLeaf();
-    if (parent instanceof MethodInvocationTree methodInvocationTree
-        && INVOKES_LAMBDAS_IMMEDIATELY.matches(methodInvocationTree, state)) {
+  public Description matchClass(ClassTree tree, VisitorState state) {
+    // The methods, lambdas and method references of top-level classes are analyzed together with
+    // those of the classes nested in them, so that each one is only visited once.
+    if (!(state.getPath().getParentPath().getLeaf() instanceof CompilationUnitTree)) {
       return NO_MATCH;
     }
-    analyze(state.withPath(new TreePath(state.getPath(), tree.getBody())));
+    HeldLockAnalyzer.analyzeClass(
+        state,
+        (access, guard, live) -> report(checkGuardedAccess(access, guard, live, state), state),
+        t -> isSuppressed(t, state));
     return NO_MATCH;
   }
 
   @Override
-  public Description matchMemberReference(MemberReferenceTree tree, VisitorState state) {
-    var parent = state.getPath().getParentPath().getLeaf();
-    if (parent instanceof MethodInvocationTree methodInvocationTree
-        && INVOKES_LAMBDAS_IMMEDIATELY.matches(methodInvocationTree, state)) {
+  public Description matchMethod(MethodTree tree, VisitorState state) {
+    // Constructors (and field initializers, instance initializers, and class initializers) are free
+    // to mutate guarded state without holding the necessary locks. It is assumed that all objects
+    // (and classes) are thread-local during initialization.
+    if (ASTHelpers.getSymbol(tree).isConstructor()) {
       return NO_MATCH;
     }
-    analyze(state);
-    return NO_MATCH;
-  }
-
-  private void analyze(VisitorState state) {
-    HeldLockAnalyzer.analyze(
-        state,
-        (tree, guard, live) -> report(checkGuardedAccess(tree, guard, live, state), state),
-        tree -> isSuppressed(tree, state));
+    return validate(tree, state);
   }
 
   @Override
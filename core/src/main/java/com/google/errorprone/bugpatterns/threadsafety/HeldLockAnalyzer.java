@@ -45,17 +45,20 @@ import com.sun.source.util.TreePathScanner;
 import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.JCExpression;
 import com.sun.tools.javac.tree.JCTree.JCNewClass;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 import javax.lang.model.element.Modifier;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A method body analyzer. Responsible for tracking the set of held locks, and checking accesses to
@@ -109,7 +112,67 @@ public final class HeldLockAnalyzer {
       VisitorState state, LockEventListener listener, Predicate<Tree> isSuppressed) {
     HeldLockSet locks = HeldLockSet.empty();
     locks = handleMonitorGuards(state, locks);
-    new LockScanner(state, listener, isSuppressed).scan(state.getPath(), locks);
+    new LockScanner(state, listener, isSuppressed, /* wholeClass= */ false)
+        .scan(state.getPath(), locks);
+  }
+
+  /**
+   * Analyzes every method, lambda and method reference in a class, including those in nested,
+   * local and anonymous classes, in a single traversal.
+   *
+   * <p>This is equivalent to calling {@link #analyze} on each of them: each method and lambda
+   * starts with a fresh set of held locks, and accesses in constructors and initializers aren't
+   * checked. Classes that don't access any guarded members are skipped.
+   */
+  public static void analyzeClass(
+      VisitorState state, LockEventListener listener, Predicate<Tree> isSuppressed) {
+    if (!GuardedAccessFinder.find(state.getPath().getLeaf())) {
+      return;
+    }
+    new LockScanner(state, listener, isSuppressed, /* wholeClass= */ true)
+        .scan(state.getPath(), null);
+  }
+
+  /** Finds accesses to guarded members, which are the only thing the analysis reports. */
+  private static final class GuardedAccessFinder extends TreeScanner<Void, Void> {
+
+    static boolean find(Tree tree) {
+      GuardedAccessFinder finder = new GuardedAccessFinder();
+      finder.scan(tree, null);
+      return finder.found;
+    }
+
+    private boolean found = false;
+
+    @Override
+    public Void scan(Tree tree, Void unused) {
+      return found ? null : super.scan(tree, null);
+    }
+
+    @Override
+    public Void visitIdentifier(IdentifierTree tree, Void unused) {
+      check(tree);
+      return null;
+    }
+
+    @Override
+    public Void visitMemberSelect(MemberSelectTree tree, Void unused) {
+      check(tree);
+      return super.visitMemberSelect(tree, null);
+    }
+
+    @Override
+    public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
+      check(tree);
+      return super.visitMemberReference(tree, null);
+    }
+
+    private void check(Tree tree) {
+      Symbol sym = ASTHelpers.getSymbol(tree);
+      if (sym != null && !GuardedByUtils.getGuardValues(sym).isEmpty()) {
+        found = true;
+      }
+    }
   }
 
   // Don't use Class#getName() for inner classes, we don't want `Monitor$Guard`
@@ -133,26 +196,57 @@ public final class HeldLockAnalyzer {
         .orElse(locks);
   }
 
+  /**
+   * The guard of a member, and its binding; the binding is null if the guard couldn't be resolved.
+   */
+  private record BoundGuard(String guardString, @Nullable GuardedByExpression guard) {}
+
+  /**
+   * Tracks the set of held locks. When analyzing a whole class, the set is null in code that isn't
+   * checked, like constructors and field initializers.
+   */
   private static final class LockScanner extends TreePathScanner<Void, HeldLockSet> {
 
     private final VisitorState visitorState;
     private final LockEventListener listener;
     private final Predicate<Tree> isSuppressed;
+    private final boolean wholeClass;
+
+    /** The bound guards of each field that has been accessed. */
+    private final Map<Symbol, ImmutableList<BoundGuard>> fieldGuards = new HashMap<>();
 
     private static final GuardedByExpression.Factory F = new GuardedByExpression.Factory();
 
     private LockScanner(
-        VisitorState visitorState, LockEventListener listener, Predicate<Tree> isSuppressed) {
+        VisitorState visitorState,
+        LockEventListener listener,
+        Predicate<Tree> isSuppressed,
+        boolean wholeClass) {
       this.visitorState = visitorState;
       this.listener = listener;
       this.isSuppressed = isSuppressed;
+      this.wholeClass = wholeClass;
+    }
+
+    /** Returns the locks held at the start of the current method or lambda. */
+    private HeldLockSet initialLocks() {
+      return handleMonitorGuards(visitorState.withPath(getCurrentPath()), HeldLockSet.empty());
     }
 
     @Override
-    public Void visitMethod(MethodTree tree, HeldLockSet locks) {
+    public Void visitMethod(MethodTree tree, @Nullable HeldLockSet locks) {
       if (isSuppressed.test(tree)) {
         return null;
       }
+      if (wholeClass) {
+        // Constructors (and initializers) are free to mutate guarded state without holding the
+        // necessary locks, since objects (and classes) are assumed to be thread-local during
+        // initialization. Lambdas and method references in them are still checked.
+        if (ASTHelpers.getSymbol(tree).isConstructor()) {
+          return super.visitMethod(tree, null);
+        }
+        locks = initialLocks();
+      }
       // Synchronized instance methods hold the 'this' lock; synchronized static methods
       // hold the Class lock for the enclosing class.
       Set<Modifier> mods = tree.getModifiers().getFlags();
@@ -177,12 +271,12 @@ public final class HeldLockAnalyzer {
     }
 
     @Override
-    public Void visitTry(TryTree tree, HeldLockSet locks) {
+    public Void visitTry(TryTree tree, @Nullable HeldLockSet locks) {
+      if (locks == null) {
+        return super.visitTry(tree, null);
+      }
       scan(tree.getResources(), locks);
 
-      List<? extends Tree> resources = tree.getResources();
-      scan(resources, locks);
-
       // Cheesy try/finally heuristic: assume that all locks released in the finally
       // are held for the entirety of the try and catch statements.
       Collection<GuardedByExpression> releasedLocks =
@@ -196,7 +290,10 @@ public final class HeldLockAnalyzer {
     }
 
     @Override
-    public Void visitSynchronized(SynchronizedTree tree, HeldLockSet locks) {
+    public Void visitSynchronized(SynchronizedTree tree, @Nullable HeldLockSet locks) {
+      if (locks == null) {
+        return super.visitSynchronized(tree, null);
+      }
       // The synchronized expression is held in the body of the synchronized statement:
       Optional<GuardedByExpression> lockExpression =
           GuardedByBinder.bindExpression((JCExpression) tree.getExpression(), visitorState);
@@ -205,78 +302,124 @@ public final class HeldLockAnalyzer {
     }
 
     @Override
-    public Void visitMemberSelect(MemberSelectTree tree, HeldLockSet locks) {
+    public Void visitMemberSelect(MemberSelectTree tree, @Nullable HeldLockSet locks) {
       checkMatch(tree, locks);
       return super.visitMemberSelect(tree, locks);
     }
 
     @Override
-    public Void visitIdentifier(IdentifierTree tree, HeldLockSet locks) {
+    public Void visitIdentifier(IdentifierTree tree, @Nullable HeldLockSet locks) {
       checkMatch(tree, locks);
       return super.visitIdentifier(tree, locks);
     }
 
     @Override
-    public Void visitNewClass(NewClassTree tree, HeldLockSet locks) {
+    public Void visitNewClass(NewClassTree tree, @Nullable HeldLockSet locks) {
       scan(tree.getEnclosingExpression(), locks);
       scan(tree.getIdentifier(), locks);
       scan(tree.getTypeArguments(), locks);
       scan(tree.getArguments(), locks);
-      // Don't descend into bodies of anonymous class declarations;
-      // their method declarations will be analyzed separately.
+      // Unless we're analyzing the whole class, don't descend into bodies of anonymous class
+      // declarations; their method declarations will be analyzed separately.
+      if (wholeClass) {
+        scan(tree.getClassBody(), null);
+      }
       return null;
     }
 
     @Override
-    public Void visitLambdaExpression(LambdaExpressionTree node, HeldLockSet heldLockSet) {
-      var parent = getCurrentPath().getParentPath().getLeaf();
-      if (parent instanceof MethodInvocationTree methodInvocationTree
-          && INVOKES_LAMBDAS_IMMEDIATELY.matches(methodInvocationTree, visitorState)) {
-        return super.visitLambdaExpression(node, heldLockSet);
+    public Void visitLambdaExpression(LambdaExpressionTree node, @Nullable HeldLockSet locks) {
+      if (invokedImmediately()) {
+        return super.visitLambdaExpression(node, locks);
       }
-      // Don't descend into lambdas; they will be analyzed separately.
-      return null;
+      // Unless we're analyzing the whole class, don't descend into lambdas; they will be analyzed
+      // separately.
+      return wholeClass ? super.visitLambdaExpression(node, initialLocks()) : null;
     }
 
     @Override
-    public Void visitMemberReference(MemberReferenceTree tree, HeldLockSet locks) {
+    public Void visitMemberReference(MemberReferenceTree tree, @Nullable HeldLockSet locks) {
+      if (wholeClass && !invokedImmediately()) {
+        locks = initialLocks();
+      }
       checkMatch(tree, locks);
       scan(tree.getQualifierExpression(), locks);
       return null;
     }
 
+    private boolean invokedImmediately() {
+      return getCurrentPath().getParentPath().getLeaf()
+              instanceof MethodInvocationTree methodInvocationTree
+          && INVOKES_LAMBDAS_IMMEDIATELY.matches(methodInvocationTree, visitorState);
+    }
+
     @Override
-    public Void visitVariable(VariableTree node, HeldLockSet locks) {
+    public Void visitVariable(VariableTree node, @Nullable HeldLockSet locks) {
       return isSuppressed.test(node) ? null : super.visitVariable(node, locks);
     }
 
     @Override
-    public Void visitClass(ClassTree node, HeldLockSet locks) {
-      return isSuppressed.test(node) ? null : super.visitClass(node, locks);
+    public Void visitClass(ClassTree node, @Nullable HeldLockSet locks) {
+      if (isSuppressed.test(node)) {
+        return null;
+      }
+      return super.visitClass(node, wholeClass ? null : locks);
     }
 
-    private void checkMatch(ExpressionTree tree, HeldLockSet locks) {
-      for (String guardString : GuardedByUtils.getGuardValues(tree)) {
-        Optional<GuardedByExpression> guard =
-            GuardedByBinder.bindString(
-                guardString,
-                GuardedBySymbolResolver.from(tree, visitorState.withPath(getCurrentPath())));
-        if (guard.isEmpty()) {
-          invalidLock(tree, locks, guardString);
+    private void checkMatch(ExpressionTree tree, @Nullable HeldLockSet locks) {
+      if (locks == null) {
+        return;
+      }
+      Symbol sym = ASTHelpers.getSymbol(tree);
+      if (sym == null || sym.getRawAttributes().isEmpty()) {
+        return;
+      }
+      for (BoundGuard guard : boundGuards(tree, sym)) {
+        if (guard.guard() == null) {
+          invalidLock(tree, locks, guard.guardString());
           continue;
         }
         Optional<GuardedByExpression> boundGuard =
-            ExpectedLockCalculator.from((JCTree.JCExpression) tree, guard.get(), visitorState);
+            ExpectedLockCalculator.from((JCTree.JCExpression) tree, guard.guard(), visitorState);
         if (boundGuard.isEmpty()) {
           // We couldn't resolve a guarded by expression in the current scope, so we can't
           // guarantee the access is protected and must report an error to be safe.
-          invalidLock(tree, locks, guardString);
+          invalidLock(tree, locks, guard.guardString());
           continue;
         }
         listener.handleGuardedAccess(tree, boundGuard.get(), locks);
       }
     }
 
+    /**
+     * Binds the guards of the member accessed by {@code tree}. The guards of a field are bound the
+     * same way wherever it's accessed, but those of a method can refer to its parameters, which
+     * are bound to the arguments of each invocation.
+     */
+    private ImmutableList<BoundGuard> boundGuards(ExpressionTree tree, Symbol sym) {
+      if (sym instanceof MethodSymbol) {
+        return bindGuards(tree);
+      }
+      ImmutableList<BoundGuard> guards = fieldGuards.get(sym);
+      if (guards == null) {
+        guards = bindGuards(tree);
+        fieldGuards.put(sym, guards);
+      }
+      return guards;
+    }
+
+    private ImmutableList<BoundGuard> bindGuards(ExpressionTree tree) {
+      ImmutableList.Builder<BoundGuard> guards = ImmutableList.builder();
+      for (String guardString : GuardedByUtils.getGuardValues(tree)) {
+        GuardedBySymbolResolver resolver =
+            GuardedBySymbolResolver.from(tree, visitorState.withPath(getCurrentPath()));
+        guards.add(
+            new BoundGuard(
+                guardString, GuardedByBinder.bindString(guardString, resolver).orElse(null)));
+      }
+      return guards.build();
+    }
+
     private void invalidLock(ExpressionTree tree, HeldLockSet locks, String guardString) {
       listener.handleGuardedAccess(
           tree, new GuardedByExpression.Factory().error(guardString), locks);
@@ -319,8 +319,7 @@ public final class ImmutableAnalysis {
    * symbol or from the list of well-known immutable types.
    */
   AnnotationInfo getImmutableAnnotation(Symbol sym, VisitorState state) {
-    String nameStr = sym.flatName().toString();
-    AnnotationInfo known = wellKnownMutability.getKnownImmutableClasses().get(nameStr);
+    AnnotationInfo known = wellKnownMutability.getKnownImmutableClass(sym, state);
     if (known != null) {
       return known;
     }
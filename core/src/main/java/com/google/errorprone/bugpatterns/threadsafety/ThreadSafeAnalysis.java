@@ -297,8 +297,7 @@ public final class ThreadSafeAnalysis {
   }
 
   AnnotationInfo getThreadSafeAnnotation(Symbol sym, VisitorState state) {
-    String nameStr = sym.flatName().toString();
-    AnnotationInfo known = wellKnownThreadSafety.getKnownThreadSafeClasses().get(nameStr);
+    AnnotationInfo known = wellKnownThreadSafety.getKnownThreadSafeClass(sym, state);
     if (known != null) {
       return known;
     }
@@ -46,7 +46,9 @@ import com.sun.tools.javac.code.Symbol.TypeSymbol;
 import com.sun.tools.javac.code.Symbol.TypeVariableSymbol;
 import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.code.Type.ArrayType;
+import com.sun.tools.javac.code.Type.CapturedType;
 import com.sun.tools.javac.code.Type.ClassType;
+import com.sun.tools.javac.code.Type.IntersectionClassType;
 import com.sun.tools.javac.code.Type.TypeVar;
 import com.sun.tools.javac.code.Type.WildcardType;
 import com.sun.tools.javac.code.TypeTag;
@@ -55,8 +57,10 @@ import com.sun.tools.javac.util.Name;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.type.TypeKind;
@@ -78,6 +82,8 @@ public final class ThreadSafety {
   private final ImmutableSet<String> suppressAnnotation;
   private final ImmutableSet<String> typeParameterAnnotation;
   private final ImmutableSet<String> acceptedTypeParameterAnnotation;
+  private final ImmutableSet<String> markerOrAcceptedAnnotations;
+  private final Map<VerdictKey, Violation> verdicts;
 
   public static Builder builder() {
     return new AutoBuilder_ThreadSafety_Builder()
@@ -224,6 +230,163 @@ public final class ThreadSafety {
     this.suppressAnnotation = suppressAnnotation;
     this.typeParameterAnnotation = typeParameterAnnotation;
     this.acceptedTypeParameterAnnotation = acceptedTypeParameterAnnotation;
+    this.markerOrAcceptedAnnotations =
+        ImmutableSet.copyOf(Sets.union(markerAnnotations, acceptedAnnotations));
+    this.verdicts =
+        VERDICTS
+            .get(visitorState)
+            .computeIfAbsent(
+                new Configuration(
+                    purpose,
+                    markerAnnotationInherited,
+                    knownTypes,
+                    markerAnnotations,
+                    acceptedAnnotations,
+                    containerOfAnnotation,
+                    suppressAnnotation,
+                    typeParameterAnnotation,
+                    acceptedTypeParameterAnnotation),
+                c -> new ConcurrentHashMap<>());
+  }
+
+  /**
+   * The verdicts of each configuration of the analysis, for the whole compilation. Instances of
+   * {@link ThreadSafety} are typically created for each tree that's checked, but the types they
+   * check recur, and checking one can mean walking its type arguments, bounds and annotations.
+   */
+  private static final Supplier<Map<Configuration, Map<VerdictKey, Violation>>> VERDICTS =
+      VisitorState.memoize(state -> new ConcurrentHashMap<>());
+
+  /**
+   * Everything the verdicts depend on, besides the type. The known types are compared by identity,
+   * which is enough since they're created along with the checks.
+   */
+  private record Configuration(
+      Purpose purpose,
+      boolean markerAnnotationInherited,
+      ThreadSafetyKnownTypes knownTypes,
+      ImmutableSet<String> markerAnnotations,
+      ImmutableSet<String> acceptedAnnotations,
+      ImmutableSet<String> containerOfAnnotation,
+      ImmutableSet<String> suppressAnnotation,
+      ImmutableSet<String> typeParameterAnnotation,
+      ImmutableSet<String> acceptedTypeParameterAnnotation) {}
+
+  /**
+   * Identifies a check of a type: either whether it's thread-safe, or, if {@code annotation} is
+   * present, whether it's a thread-safe instantiation of the annotated type.
+   */
+  private record VerdictKey(
+      boolean allowContainerTypeParameters,
+      ImmutableSet<String> containerTypeParameters,
+      @Nullable AnnotationInfo annotation,
+      TypeKey type) {}
+
+  /**
+   * Identifies a type structurally. Types with the same key get the same verdict, with the same
+   * explanation, since they also print the same way.
+   *
+   * @param head the type's symbol, or what kind of type it is if it doesn't have a useful one
+   * @param enclosing the enclosing type of a member class, which appears in its name
+   */
+  private record TypeKey(
+      Object head, @Nullable TypeKey enclosing, ImmutableList<TypeKey> arguments) {
+    static @Nullable TypeKey of(Type type) {
+      if (!type.getAnnotationMirrors().isEmpty()) {
+        // Type annotations can suppress the checking of type arguments.
+        return null;
+      }
+      if (type.isPrimitive()) {
+        return new TypeKey(type.getTag(), null, ImmutableList.of());
+      }
+      switch (type.getTag()) {
+        case CLASS -> {
+          if (type instanceof IntersectionClassType) {
+            return null;
+          }
+          TypeKey enclosing = null;
+          if (type.getEnclosingType().hasTag(TypeTag.CLASS)) {
+            enclosing = of(type.getEnclosingType());
+            if (enclosing == null) {
+              return null;
+            }
+          }
+          ImmutableList<TypeKey> arguments = of(type.getTypeArguments());
+          return arguments == null ? null : new TypeKey(type.tsym, enclosing, arguments);
+        }
+        case TYPEVAR -> {
+          // Captured type variables are fresh for each capture, so they never recur.
+          return type instanceof CapturedType
+              ? null
+              : new TypeKey(type.tsym, null, ImmutableList.of());
+        }
+        case WILDCARD -> {
+          // The upper bound of a wildcard without one is that of the type parameter it's for.
+          WildcardType wildcard = (WildcardType) type;
+          if (wildcard.type == null) {
+            return null;
+          }
+          List<Type> bounds =
+              wildcard.bound == null
+                  ? ImmutableList.of(wildcard.type)
+                  : ImmutableList.of(wildcard.type, wildcard.bound);
+          ImmutableList<TypeKey> arguments = of(bounds);
+          return arguments == null ? null : new TypeKey(wildcard.kind, null, arguments);
+        }
+        case ARRAY -> {
+          TypeKey component = of(((ArrayType) type).getComponentType());
+          return component == null
+              ? null
+              : new TypeKey(TypeTag.ARRAY, null, ImmutableList.of(component));
+        }
+        default -> {
+          return null;
+        }
+      }
+    }
+
+    private static @Nullable ImmutableList<TypeKey> of(List<Type> types) {
+      ImmutableList.Builder<TypeKey> keys = ImmutableList.builderWithExpectedSize(types.size());
+      for (Type type : types) {
+        TypeKey key = of(type);
+        if (key == null) {
+          return null;
+        }
+        keys.add(key);
+      }
+      return keys.build();
+    }
+  }
+
+  /** Returns the key of a check, or {@code null} if it isn't remembered. */
+  private static @Nullable VerdictKey verdictKey(
+      boolean allowContainerTypeParameters,
+      Set<String> containerTypeParameters,
+      @Nullable AnnotationInfo annotation,
+      Type type) {
+    TypeKey typeKey = TypeKey.of(type);
+    if (typeKey == null) {
+      return null;
+    }
+    return new VerdictKey(
+        allowContainerTypeParameters,
+        allowContainerTypeParameters
+            ? ImmutableSet.copyOf(containerTypeParameters)
+            : ImmutableSet.of(),
+        annotation,
+        typeKey);
+  }
+
+  private @Nullable Violation rememberedVerdict(@Nullable VerdictKey key) {
+    return key == null ? null : verdicts.get(key);
+  }
+
+  private Violation remember(@Nullable VerdictKey key, Violation verdict) {
+    // Not computeIfAbsent, since checking a type can check others, which updates the map.
+    if (key != null) {
+      verdicts.putIfAbsent(key, verdict);
+    }
+    return verdict;
   }
 
   /**
@@ -285,6 +448,29 @@ public final class ThreadSafety {
       AnnotationInfo annotation,
       Type type,
       Set<TypeVariableSymbol> recursiveThreadSafeTypeParameter) {
+    // Verdicts that assume recursively bounded type parameters are thread-safe aren't remembered.
+    if (!recursiveThreadSafeTypeParameter.isEmpty()) {
+      return computeThreadSafeInstantiation(
+          containerTypeParameters, annotation, type, recursiveThreadSafeTypeParameter);
+    }
+    VerdictKey key =
+        verdictKey(
+            /* allowContainerTypeParameters= */ true, containerTypeParameters, annotation, type);
+    Violation verdict = rememberedVerdict(key);
+    if (verdict != null) {
+      return verdict;
+    }
+    return remember(
+        key,
+        computeThreadSafeInstantiation(
+            containerTypeParameters, annotation, type, recursiveThreadSafeTypeParameter));
+  }
+
+  private Violation computeThreadSafeInstantiation(
+      Set<String> containerTypeParameters,
+      AnnotationInfo annotation,
+      Type type,
+      Set<TypeVariableSymbol> recursiveThreadSafeTypeParameter) {
     for (int i = 0; i < type.tsym.getTypeParameters().size(); i++) {
       TypeVariableSymbol typaram = type.tsym.getTypeParameters().get(i);
       boolean immutableTypeParameter = hasAcceptedThreadSafeTypeParameterAnnotation(typaram);
@@ -413,6 +599,33 @@ public final class ThreadSafety {
       Set<String> containerTypeParameters,
       Type type,
       Set<TypeVariableSymbol> recursiveThreadSafeTypeParameter) {
+    if (!recursiveThreadSafeTypeParameter.isEmpty()) {
+      return computeThreadSafeType(
+          allowContainerTypeParameters,
+          containerTypeParameters,
+          type,
+          recursiveThreadSafeTypeParameter);
+    }
+    VerdictKey key =
+        verdictKey(allowContainerTypeParameters, containerTypeParameters, null, type);
+    Violation verdict = rememberedVerdict(key);
+    if (verdict != null) {
+      return verdict;
+    }
+    return remember(
+        key,
+        computeThreadSafeType(
+            allowContainerTypeParameters,
+            containerTypeParameters,
+            type,
+            recursiveThreadSafeTypeParameter));
+  }
+
+  private Violation computeThreadSafeType(
+      boolean allowContainerTypeParameters,
+      Set<String> containerTypeParameters,
+      Type type,
+      Set<TypeVariableSymbol> recursiveThreadSafeTypeParameter) {
     return type.accept(
         new ThreadSafeTypeVisitor(
             allowContainerTypeParameters,
@@ -505,8 +718,7 @@ public final class ThreadSafety {
         return threadSafeInstantiation(
             containerTypeParameters, annotation, type, recursiveThreadSafeTypeParameter);
       }
-      String nameStr = type.tsym.flatName().toString();
-      if (knownTypes.getKnownUnsafeClasses().contains(nameStr)) {
+      if (knownTypes.isKnownUnsafeClass(type.tsym, state)) {
         return Violation.of(
             String.format(
                 "'%s' is %s", type.tsym.getSimpleName(), purpose.mutableOrNotThreadSafe()));
@@ -611,13 +823,11 @@ public final class ThreadSafety {
    * an accepted annotation on the symbol, or from the list of well-known types.
    */
   public AnnotationInfo getMarkerOrAcceptedAnnotation(Symbol sym, VisitorState state) {
-    String nameStr = sym.flatName().toString();
-    AnnotationInfo known = knownTypes.getKnownSafeClasses().get(nameStr);
+    AnnotationInfo known = knownTypes.getKnownSafeClass(sym, state);
     if (known != null) {
       return known;
     }
-    return getAnnotation(
-        sym, ImmutableSet.copyOf(Sets.union(markerAnnotations, acceptedAnnotations)), state);
+    return getAnnotation(sym, markerOrAcceptedAnnotations, state);
   }
 
   /** Returns an enclosing instance for the specified type if it is thread-safe. */
@@ -16,16 +16,24 @@
 
 package com.google.errorprone.bugpatterns.threadsafety;
 
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Sets.SetView;
+import com.google.errorprone.VisitorState;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.errorprone.suppliers.Supplier;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.util.Name;
 import java.lang.reflect.TypeVariable;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import org.jspecify.annotations.Nullable;
 
 /** Information about known types and whether they're known to be safe or unsafe. */
 public interface ThreadSafetyKnownTypes {
@@ -35,6 +43,53 @@ public interface ThreadSafetyKnownTypes {
   /** Types that are known to be unsafe and don't need testing. */
   ImmutableSet<String> getKnownUnsafeClasses();
 
+  /**
+   * Returns the entry of {@link #getKnownSafeClasses} for the class with the flat name of {@code
+   * sym}, if there is one.
+   */
+  default @Nullable AnnotationInfo getKnownSafeClass(Symbol sym, VisitorState state) {
+    return getKnownSafeClasses().get(sym.flatName().toString());
+  }
+
+  /** Returns whether the flat name of {@code sym} is in {@link #getKnownUnsafeClasses}. */
+  default boolean isKnownUnsafeClass(Symbol sym, VisitorState state) {
+    return getKnownUnsafeClasses().contains(sym.flatName().toString());
+  }
+
+  /**
+   * Known types keyed by the names javac interns for each compilation, which symbols can be looked
+   * up by without converting their names to strings.
+   */
+  final class NameTable {
+    private final Supplier<ImmutableMap<Name, AnnotationInfo>> safe;
+    private final Supplier<ImmutableSet<Name>> unsafe;
+
+    public NameTable(
+        ImmutableMap<String, AnnotationInfo> safeClasses, ImmutableSet<String> unsafeClasses) {
+      this.safe =
+          VisitorState.memoize(
+              state -> {
+                ImmutableMap.Builder<Name, AnnotationInfo> names =
+                    ImmutableMap.builderWithExpectedSize(safeClasses.size());
+                for (Map.Entry<String, AnnotationInfo> entry : safeClasses.entrySet()) {
+                  names.put(state.getName(entry.getKey()), entry.getValue());
+                }
+                return names.buildOrThrow();
+              });
+      this.unsafe =
+          VisitorState.memoize(
+              state -> unsafeClasses.stream().map(state::getName).collect(toImmutableSet()));
+    }
+
+    public @Nullable AnnotationInfo getSafe(Symbol sym, VisitorState state) {
+      return safe.get(state).get(sym.flatName());
+    }
+
+    public boolean isUnsafe(Symbol sym, VisitorState state) {
+      return unsafe.get(state).contains(sym.flatName());
+    }
+  }
+
   /** Helper for building maps of classes to {@link AnnotationInfo}. */
   final class MapBuilder {
     final ImmutableMap.Builder<String, AnnotationInfo> mapBuilder = ImmutableMap.builder();
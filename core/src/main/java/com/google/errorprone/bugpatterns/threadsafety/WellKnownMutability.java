@@ -29,10 +29,12 @@ import com.google.errorprone.annotations.Immutable;
 import com.google.errorprone.bugpatterns.ImmutableCollections;
 import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.suppliers.Suppliers;
+import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Type;
 import java.util.List;
 import java.util.stream.Stream;
 import javax.inject.Inject;
+import org.jspecify.annotations.Nullable;
 
 /** A collection of types with known mutability. */
 @Immutable
@@ -44,6 +46,11 @@ public final class WellKnownMutability implements ThreadSafetyKnownTypes {
   /** Types that are known to be mutable. */
   private final ImmutableSet<String> knownMutableClasses;
 
+  // NameTable holds Suppliers, and Supplier isn't a type that Immutable knows to be immutable. They
+  // only memoize the interned names of the immutable tables above, once per compilation.
+  @SuppressWarnings("Immutable")
+  private final NameTable names;
+
   @Inject
   WellKnownMutability(ErrorProneFlags flags) {
     ImmutableList<String> immutable = flags.getListOrEmpty("Immutable:KnownImmutable");
@@ -55,6 +62,7 @@ public final class WellKnownMutability implements ThreadSafetyKnownTypes {
             .collect(toImmutableList());
     this.knownImmutableClasses = buildImmutableClasses(immutable);
     this.knownMutableClasses = buildMutableClasses(mutable);
+    this.names = new NameTable(knownImmutableClasses, knownMutableClasses);
   }
 
   public static WellKnownMutability fromFlags(ErrorProneFlags flags) {
@@ -79,6 +87,26 @@ public final class WellKnownMutability implements ThreadSafetyKnownTypes {
     return knownMutableClasses;
   }
 
+  /** Returns the entry of {@link #getKnownImmutableClasses} for {@code sym}, if there is one. */
+  public @Nullable AnnotationInfo getKnownImmutableClass(Symbol sym, VisitorState state) {
+    return names.getSafe(sym, state);
+  }
+
+  /** Returns whether {@code sym} is in {@link #getKnownMutableClasses}. */
+  public boolean isKnownMutableClass(Symbol sym, VisitorState state) {
+    return names.isUnsafe(sym, state);
+  }
+
+  @Override
+  public @Nullable AnnotationInfo getKnownSafeClass(Symbol sym, VisitorState state) {
+    return getKnownImmutableClass(sym, state);
+  }
+
+  @Override
+  public boolean isKnownUnsafeClass(Symbol sym, VisitorState state) {
+    return isKnownMutableClass(sym, state);
+  }
+
   /**
    * @deprecated {@link #getKnownMutableClasses()} is clearer if you're dealing with this specific
    *     class.
@@ -20,8 +20,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.ErrorProneFlags;
+import com.google.errorprone.VisitorState;
+import com.sun.tools.javac.code.Symbol;
 import java.util.List;
 import javax.inject.Inject;
+import org.jspecify.annotations.Nullable;
 
 /** A collection of types with known thread safety. */
 public final class WellKnownThreadSafety implements ThreadSafetyKnownTypes {
@@ -30,6 +33,7 @@ public final class WellKnownThreadSafety implements ThreadSafetyKnownTypes {
     ImmutableList<String> knownThreadSafe = flags.getListOrEmpty("ThreadSafe:KnownThreadSafe");
     this.knownThreadSafeClasses = buildThreadSafeClasses(knownThreadSafe, wellKnownMutability);
     this.knownUnsafeClasses = wellKnownMutability.getKnownMutableClasses();
+    this.names = new NameTable(knownThreadSafeClasses, knownUnsafeClasses);
   }
 
   public static WellKnownThreadSafety fromFlags(ErrorProneFlags flags) {
@@ -50,6 +54,21 @@ public final class WellKnownThreadSafety implements ThreadSafetyKnownTypes {
     return knownUnsafeClasses;
   }
 
+  /** Returns the entry of {@link #getKnownThreadSafeClasses} for {@code sym}, if there is one. */
+  public @Nullable AnnotationInfo getKnownThreadSafeClass(Symbol sym, VisitorState state) {
+    return names.getSafe(sym, state);
+  }
+
+  @Override
+  public @Nullable AnnotationInfo getKnownSafeClass(Symbol sym, VisitorState state) {
+    return getKnownThreadSafeClass(sym, state);
+  }
+
+  @Override
+  public boolean isKnownUnsafeClass(Symbol sym, VisitorState state) {
+    return names.isUnsafe(sym, state);
+  }
+
   /** Types that are known to be threadsafe. */
   private final ImmutableMap<String, AnnotationInfo> knownThreadSafeClasses;
 
@@ -162,4 +181,6 @@ public final class WellKnownThreadSafety implements ThreadSafetyKnownTypes {
 
   /** Types that are known to be mutable. */
   private final ImmutableSet<String> knownUnsafeClasses;
+
+  private final NameTable names;
 }
@@ -27,17 +27,12 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import com.google.errorprone.CodeTransformer;
 import com.google.errorprone.DescriptionListener;
-import com.google.errorprone.SubContext;
 import com.sun.source.util.TreePath;
-import com.sun.tools.javac.code.Symbol.PackageSymbol;
-import com.sun.tools.javac.file.JavacFileManager;
-import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.Set;
-import javax.tools.JavaFileManager;
 
 /**
  * A representation of an entire Refaster rule, corresponding to a class with @BeforeTemplates
@@ -134,9 +129,7 @@ public abstract class RefasterRule<M extends TemplateMatch, T extends Template<M
 
   @Override
   public void apply(TreePath path, Context context, DescriptionListener listener) {
-    RefasterScanner.create(this, listener)
-        .scan(
-            path.getLeaf(), prepareContext(context, (JCCompilationUnit) path.getCompilationUnit()));
+    RefasterScanner.scan(TemplateIndex.create(ImmutableList.of(this)), path, context, listener);
   }
 
   boolean rejectMatchesWithComments() {
@@ -145,17 +138,6 @@ public abstract class RefasterRule<M extends TemplateMatch, T extends Template<M
 
   static final Context.Key<ImmutableList<UTypeVar>> RULE_TYPE_VARS = new Context.Key<>();
 
-  private Context prepareContext(Context baseContext, JCCompilationUnit compilationUnit) {
-    Context context = new SubContext(baseContext);
-    if (context.get(JavaFileManager.class) == null) {
-      JavacFileManager.preRegister(context);
-    }
-    context.put(JCCompilationUnit.class, compilationUnit);
-    context.put(PackageSymbol.class, compilationUnit.packge);
-    context.put(RULE_TYPE_VARS, typeVariables());
-    return context;
-  }
-
   @VisibleForTesting
   static String fromSecondLevel(String qualifiedTemplateClass) {
     int start = 0;
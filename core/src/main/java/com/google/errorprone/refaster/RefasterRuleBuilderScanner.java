@@ -28,7 +28,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
-import com.google.errorprone.CodeTransformer;
 import com.google.errorprone.SubContext;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.refaster.annotation.AllowCodeBetweenLines;
@@ -80,7 +79,7 @@ public final class RefasterRuleBuilderScanner extends SimpleTreeVisitor<Void, Vo
     this.afterTemplates = new ArrayList<>();
   }
 
-  public static Collection<? extends CodeTransformer> extractRules(
+  public static Collection<? extends RefasterRule<?, ?>> extractRules(
       ClassTree tree, Context context) {
     ClassSymbol sym = ASTHelpers.getSymbol(tree);
     RefasterRuleBuilderScanner scanner = new RefasterRuleBuilderScanner(context);
@@ -149,7 +148,7 @@ public final class RefasterRuleBuilderScanner extends SimpleTreeVisitor<Void, Vo
     }
   }
 
-  private ImmutableList<? extends CodeTransformer> createMatchers(
+  private ImmutableList<RefasterRule<?, ?>> createMatchers(
       Iterable<UTypeVar> typeVars,
       String qualifiedTemplateClass,
       ImmutableClassToInstanceMap<Annotation> annotationMap) {
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.refaster;
+
+import static com.google.common.base.Strings.emptyToNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.refaster.TemplateIndex.Anchor;
+import com.google.errorprone.refaster.TemplateIndex.Entry;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.util.Context;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A compiled bundle of Refaster rules, which is loaded lazily.
+ *
+ * <p>A bundle starts with a header that lists, for each rule, its template class and the {@link
+ * Anchor} of each of its before templates, followed by the serialized form of each rule. Loading a
+ * bundle maps the file into memory and only reads the header; each rule is deserialized the first
+ * time one of its templates might match a tree.
+ *
+ * <p>The format is:
+ *
+ * <pre>{@code
+ * bundle := MAGIC VERSION ruleCount:int rule* payload*
+ * rule := templateClass:string templateCount:int (kind:string methodName:string)* length:int
+ * string := length:int utf8:byte*
+ * }</pre>
+ *
+ * <p>where an empty {@code kind} or {@code methodName} means that the template isn't anchored to a
+ * kind of tree or method name, and each payload is the Java serialization of one {@link
+ * RefasterRule}, of the given length.
+ */
+public final class RefasterRuleBundle implements CodeTransformer {
+
+  /** The first four bytes of a bundle: {@code EPRB}. */
+  static final int MAGIC = 0x45505242;
+
+  private static final int VERSION = 1;
+
+  /** Writes {@code rules} to {@code out} in the bundle format. */
+  public static void write(List<? extends RefasterRule<?, ?>> rules, OutputStream out)
+      throws IOException {
+    List<byte[]> payloads = new ArrayList<>();
+    for (RefasterRule<?, ?> rule : rules) {
+      ByteArrayOutputStream payload = new ByteArrayOutputStream();
+      try (ObjectOutputStream output = new ObjectOutputStream(payload)) {
+        output.writeObject(rule);
+      }
+      payloads.add(payload.toByteArray());
+    }
+    DataOutputStream output = new DataOutputStream(out);
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(rules.size());
+    for (int i = 0; i < rules.size(); i++) {
+      Entry entry = Entry.of(rules.get(i));
+      writeString(output, entry.qualifiedTemplateClass());
+      output.writeInt(entry.anchors().size());
+      for (Anchor anchor : entry.anchors()) {
+        writeString(output, anchor.kind() == null ? "" : anchor.kind().name());
+        writeString(output, anchor.methodName() == null ? "" : anchor.methodName());
+      }
+      output.writeInt(payloads.get(i).length);
+    }
+    for (byte[] payload : payloads) {
+      output.write(payload);
+    }
+    output.flush();
+  }
+
+  /**
+   * Loads the Refaster rules at {@code path}, which are either a bundle, or, in the legacy format,
+   * a serialized {@link CodeTransformer}.
+   */
+  public static CodeTransformer loadRules(Path path) throws IOException {
+    if (isBundle(path)) {
+      return load(path);
+    }
+    try (InputStream in = Files.newInputStream(path);
+        ObjectInputStream input = new ObjectInputStream(in)) {
+      return (CodeTransformer) input.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Can't load Refaster rule from " + path, e);
+    }
+  }
+
+  /** Returns true if the file at {@code path} starts with the bundle {@link #MAGIC}. */
+  private static boolean isBundle(Path path) throws IOException {
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+      return in.readInt() == MAGIC;
+    } catch (EOFException e) {
+      return false;
+    }
+  }
+
+  /** Maps the bundle at {@code path} into memory, and reads its header. */
+  public static RefasterRuleBundle load(Path path) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+      throw new IOException(path + " is not a Refaster rule bundle");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException(
+          String.format(
+              "%s has bundle format version %d, but only %d is supported", path, version, VERSION));
+    }
+    int ruleCount = buffer.getInt();
+    List<String> templateClasses = new ArrayList<>(ruleCount);
+    List<ImmutableList<Anchor>> anchors = new ArrayList<>(ruleCount);
+    int[] lengths = new int[ruleCount];
+    for (int i = 0; i < ruleCount; i++) {
+      templateClasses.add(readString(buffer));
+      int templateCount = buffer.getInt();
+      ImmutableList.Builder<Anchor> ruleAnchors = ImmutableList.builder();
+      for (int j = 0; j < templateCount; j++) {
+        ruleAnchors.add(new Anchor(kind(readString(buffer)), emptyToNull(readString(buffer))));
+      }
+      anchors.add(ruleAnchors.build());
+      lengths[i] = buffer.getInt();
+    }
+    ImmutableList.Builder<Entry> entries = ImmutableList.builder();
+    int offset = buffer.position();
+    for (int i = 0; i < ruleCount; i++) {
+      ByteBuffer payload = buffer.slice(offset, lengths[i]);
+      String templateClass = templateClasses.get(i);
+      entries.add(
+          new Entry(
+              templateClass,
+              anchors.get(i),
+              Suppliers.memoize(() -> readRule(templateClass, payload))));
+      offset += lengths[i];
+    }
+    return new RefasterRuleBundle(TemplateIndex.create(entries.build()));
+  }
+
+  private final TemplateIndex index;
+
+  private RefasterRuleBundle(TemplateIndex index) {
+    this.index = index;
+  }
+
+  @Override
+  public void apply(TreePath path, Context context, DescriptionListener listener) {
+    RefasterScanner.scan(index, path, context, listener);
+  }
+
+  @Override
+  public ImmutableClassToInstanceMap<Annotation> annotations() {
+    return ImmutableClassToInstanceMap.of();
+  }
+
+  private static RefasterRule<?, ?> readRule(String templateClass, ByteBuffer payload) {
+    byte[] bytes = new byte[payload.remaining()];
+    payload.duplicate().get(bytes);
+    try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (RefasterRule<?, ?>) input.readObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can't load Refaster rule " + templateClass, e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Can't load Refaster rule " + templateClass, e);
+    }
+  }
+
+  private static Tree.@Nullable Kind kind(String name) {
+    if (name.isEmpty()) {
+      return null;
+    }
+    try {
+      return Tree.Kind.valueOf(name);
+    } catch (IllegalArgumentException e) {
+      // A kind that this version of javac doesn't know about can't match anything, but it's
+      // simplest to treat the template as unanchored.
+      return null;
+    }
+  }
+
+  private static void writeString(DataOutputStream output, String s) throws IOException {
+    byte[] bytes = s.getBytes(UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.refaster;
+
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.DescriptionListener;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.util.Context;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Applies a set of {@link RefasterRule}s to a compilation unit in a single pass.
+ *
+ * <p>This reports the same findings, in the same order, as applying each of the rules in turn, but
+ * only scans the compilation unit once, and at each tree only tries the before templates that could
+ * possibly match it.
+ */
+public final class RefasterRules implements CodeTransformer, Serializable {
+
+  private static final long serialVersionUID = 0;
+
+  public static RefasterRules create(Iterable<? extends RefasterRule<?, ?>> rules) {
+    return new RefasterRules(ImmutableList.copyOf(rules));
+  }
+
+  private final ImmutableList<RefasterRule<?, ?>> rules;
+
+  /** The index of {@link #rules}, built on first use since it isn't serialized. */
+  private transient volatile @Nullable TemplateIndex index;
+
+  private RefasterRules(ImmutableList<RefasterRule<?, ?>> rules) {
+    this.rules = rules;
+  }
+
+  public ImmutableList<RefasterRule<?, ?>> rules() {
+    return rules;
+  }
+
+  @Override
+  public void apply(TreePath path, Context context, DescriptionListener listener) {
+    RefasterScanner.scan(index(), path, context, listener);
+  }
+
+  private TemplateIndex index() {
+    TemplateIndex result = index;
+    if (result == null) {
+      result = TemplateIndex.create(rules);
+      index = result;
+    }
+    return result;
+  }
+
+  @Override
+  public ImmutableClassToInstanceMap<Annotation> annotations() {
+    return ImmutableClassToInstanceMap.of();
+  }
+
+  @Override
+  public String toString() {
+    return rules.toString();
+  }
+}
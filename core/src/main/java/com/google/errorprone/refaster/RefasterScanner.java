@@ -18,9 +18,14 @@ package com.google.errorprone.refaster;
 
 import static com.google.errorprone.util.ASTHelpers.stringContainsComments;
 
-import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.SubContext;
+import com.google.errorprone.SuppressionInfo;
+import com.google.errorprone.VisitorState;
 import com.google.errorprone.fixes.ErrorPronePosition;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
@@ -35,39 +40,85 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.tree.WhileLoopTree;
 import com.sun.source.util.SimpleTreeVisitor;
+import com.sun.source.util.TreePath;
 import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.PackageSymbol;
+import com.sun.tools.javac.file.JavacFileManager;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.tree.JCTree.JCStatement;
 import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.ListBuffer;
+import java.util.BitSet;
+import javax.tools.JavaFileManager;
 
 /**
- * Scanner that outputs suggested fixes generated by a {@code RefasterMatcher}.
+ * Scanner that outputs suggested fixes generated by a set of {@code RefasterRule}s.
+ *
+ * <p>The compilation unit is scanned once for all the rules, and each tree is only matched against
+ * the before templates that the {@link TemplateIndex} says could match it. Findings are reported in
+ * the same order as if each rule had scanned the compilation unit in turn.
  *
  * @author lowasser@google.com (Louis Wasserman)
  */
-@AutoValue
-abstract class RefasterScanner<M extends TemplateMatch, T extends Template<M>>
-    extends TreeScanner<Void, Context> {
-  static <M extends TemplateMatch, T extends Template<M>> RefasterScanner<M, T> create(
-      RefasterRule<M, T> rule, DescriptionListener listener) {
-    return new AutoValue_RefasterScanner<>(rule, listener);
+final class RefasterScanner extends TreeScanner<Void, Context> {
+
+  /** Reports the matches of all the rules in {@code index} in the given compilation unit. */
+  static void scan(
+      TemplateIndex index, TreePath path, Context context, DescriptionListener listener) {
+    RefasterScanner scanner =
+        new RefasterScanner(
+            index, prepareContext(context, (JCCompilationUnit) path.getCompilationUnit()));
+    scanner.scan(path.getLeaf(), scanner.context);
+    scanner.descriptions.values().forEach(listener::onDescribed);
+  }
+
+  private static Context prepareContext(Context baseContext, JCCompilationUnit compilationUnit) {
+    Context context = new SubContext(baseContext);
+    if (context.get(JavaFileManager.class) == null) {
+      JavacFileManager.preRegister(context);
+    }
+    context.put(JCCompilationUnit.class, compilationUnit);
+    context.put(PackageSymbol.class, compilationUnit.packge);
+    return context;
   }
 
-  abstract RefasterRule<M, T> rule();
+  private final TemplateIndex index;
+  private final ImmutableList<TemplateIndex.Entry> entries;
+  private final Context context;
+  private final VisitorState state;
 
-  abstract DescriptionListener listener();
+  /** The context for each rule, created the first time one of its templates is tried. */
+  private final Context[] ruleContexts;
+
+  /** The findings of each rule, keyed by the index of the rule. */
+  private final ListMultimap<Integer, Description> descriptions =
+      MultimapBuilder.treeKeys().arrayListValues().build();
+
+  /** The rules that are suppressed, or that are not applied in their own template class. */
+  private BitSet disabled = new BitSet();
+
+  private RefasterScanner(TemplateIndex index, Context context) {
+    this.index = index;
+    this.entries = index.entries();
+    this.context = context;
+    this.state = VisitorState.createForUtilityPurposes(context);
+    this.ruleContexts = new Context[entries.size()];
+  }
 
   @Override
   public Void visitClass(ClassTree node, Context context) {
-    if (isSuppressed(node, context)) {
-      return null;
-    }
+    BitSet outside = disabled;
+    disabled = disabledWithin(node);
     Symbol sym = ASTHelpers.getSymbol(node);
-    if (!sym.getQualifiedName().contentEquals(rule().qualifiedTemplateClass())) {
+    ImmutableList<Integer> definedHere = index.rulesDefinedBy(sym.getQualifiedName().toString());
+    if (!definedHere.isEmpty()) {
+      disabled = (BitSet) disabled.clone();
+      definedHere.forEach(disabled::set);
+    }
+    if (!allDisabled()) {
       ListBuffer<JCStatement> statements = new ListBuffer<>();
       for (Tree tree : node.getMembers()) {
         if (tree instanceof JCStatement jCStatement) {
@@ -78,23 +129,30 @@ abstract class RefasterScanner<M extends TemplateMatch, T extends Template<M>>
       }
       scan(TreeMaker.instance(context).Block(0, statements.toList()), context);
     }
+    disabled = outside;
     return null;
   }
 
   @Override
   public Void visitMethod(MethodTree node, Context context) {
-    if (isSuppressed(node, context)) {
-      return null;
+    BitSet outside = disabled;
+    disabled = disabledWithin(node);
+    if (!allDisabled()) {
+      super.visitMethod(node, context);
     }
-    return super.visitMethod(node, context);
+    disabled = outside;
+    return null;
   }
 
   @Override
   public Void visitVariable(VariableTree node, Context context) {
-    if (isSuppressed(node, context)) {
-      return null;
+    BitSet outside = disabled;
+    disabled = disabledWithin(node);
+    if (!allDisabled()) {
+      super.visitVariable(node, context);
     }
-    return super.visitVariable(node, context);
+    disabled = outside;
+    return null;
   }
 
   @Override
@@ -102,35 +160,62 @@ abstract class RefasterScanner<M extends TemplateMatch, T extends Template<M>>
     if (tree == null) {
       return null;
     }
+    for (int template : index.candidates(tree)) {
+      int rule = index.rule(template);
+      if (!disabled.get(rule)) {
+        reportMatches(
+            entries.get(rule).rule().get(),
+            index.templateInRule(template),
+            (JCTree) tree,
+            ruleContext(rule),
+            d -> descriptions.put(rule, d));
+      }
+    }
+    return super.scan(tree, context);
+  }
+
+  private Context ruleContext(int rule) {
+    Context ruleContext = ruleContexts[rule];
+    if (ruleContext == null) {
+      ruleContext = new SubContext(context);
+      ruleContext.put(RefasterRule.RULE_TYPE_VARS, entries.get(rule).rule().get().typeVariables());
+      ruleContexts[rule] = ruleContext;
+    }
+    return ruleContext;
+  }
+
+  private static <M extends TemplateMatch, T extends Template<M>> void reportMatches(
+      RefasterRule<M, T> rule,
+      int beforeTemplate,
+      JCTree tree,
+      Context context,
+      DescriptionListener listener) {
     JCCompilationUnit compilationUnit = context.get(JCCompilationUnit.class);
-    for (T beforeTemplate : rule().beforeTemplates()) {
-      matchLoop:
-      for (M match : beforeTemplate.match((JCTree) tree, context)) {
-        if (rule().rejectMatchesWithComments()) {
-          String matchContents = match.getRange(compilationUnit);
-          if (stringContainsComments(matchContents, context)) {
-            continue matchLoop;
-          }
+    matchLoop:
+    for (M match : rule.beforeTemplates().get(beforeTemplate).match(tree, context)) {
+      if (rule.rejectMatchesWithComments()) {
+        String matchContents = match.getRange(compilationUnit);
+        if (stringContainsComments(matchContents, context)) {
+          continue matchLoop;
         }
-        Description.Builder builder =
-            Description.builder(
-                    ErrorPronePosition.from(match.getLocation()),
-                    rule().qualifiedTemplateClass(),
-                    "",
-                    "")
-                .overrideSeverity(SeverityLevel.WARNING);
-
-        if (rule().afterTemplates().isEmpty()) {
-          builder.addFix(SuggestedFix.prefixWith(match.getLocation(), "/* match found */ "));
-        } else {
-          for (T afterTemplate : rule().afterTemplates()) {
-            builder.addFix(afterTemplate.replace(match));
-          }
+      }
+      Description.Builder builder =
+          Description.builder(
+                  ErrorPronePosition.from(match.getLocation()),
+                  rule.qualifiedTemplateClass(),
+                  "",
+                  "")
+              .overrideSeverity(SeverityLevel.WARNING);
+
+      if (rule.afterTemplates().isEmpty()) {
+        builder.addFix(SuggestedFix.prefixWith(match.getLocation(), "/* match found */ "));
+      } else {
+        for (T afterTemplate : rule.afterTemplates()) {
+          builder.addFix(afterTemplate.replace(match));
         }
-        listener().onDescribed(builder.build());
       }
+      listener.onDescribed(builder.build());
     }
-    return super.scan(tree, context);
   }
 
   private static final SimpleTreeVisitor<Tree, Void> SKIP_PARENS =
@@ -180,7 +265,28 @@ abstract class RefasterScanner<M extends TemplateMatch, T extends Template<M>>
     return null;
   }
 
-  private boolean isSuppressed(Tree node, Context context) {
-    return RefasterSuppressionHelper.suppressed(rule(), node, context);
+  /**
+   * Returns the set of rules that are disabled within {@code node}: those disabled outside of it,
+   * and those suppressed on it.
+   */
+  private BitSet disabledWithin(Tree node) {
+    SuppressionInfo suppressions = RefasterSuppressionHelper.suppressions(node, state);
+    if (suppressions == SuppressionInfo.EMPTY) {
+      return disabled;
+    }
+    BitSet result = (BitSet) disabled.clone();
+    for (int rule = result.nextClearBit(0);
+        rule < entries.size();
+        rule = result.nextClearBit(rule + 1)) {
+      String templateClass = entries.get(rule).qualifiedTemplateClass();
+      if (RefasterSuppressionHelper.suppressed(templateClass, suppressions, state)) {
+        result.set(rule);
+      }
+    }
+    return result;
+  }
+
+  private boolean allDisabled() {
+    return disabled.cardinality() == entries.size();
   }
 }
@@ -23,7 +23,6 @@ import com.google.errorprone.matchers.Suppressible;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.Tree;
 import com.sun.tools.javac.code.Symbol;
-import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Name;
 import java.lang.annotation.Annotation;
 import java.util.Set;
@@ -32,28 +31,38 @@ import java.util.Set;
 final class RefasterSuppressionHelper {
 
   /**
-   * Returns true if the given rule is suppressed on the given tree.
+   * Returns the suppressions declared on the given tree, or {@link SuppressionInfo#EMPTY} if it
+   * doesn't declare any.
    *
-   * <p>Unlike Error Prone, which scans the compilation unit once for all checks, refaster scans the
-   * compilation unit separately for each check. This simplifies suppression handling, since we can
-   * just stop recursively scanning as soon as a suppression is found for the current refaster rule.
+   * <p>Unlike Error Prone, which tracks suppressions across all enclosing trees, refaster stops
+   * scanning a tree as soon as a suppression is found for a rule, so only the suppressions declared
+   * directly on the tree need to be considered.
    */
-  static boolean suppressed(RefasterRule<?, ?> rule, Tree tree, Context context) {
-    VisitorState state = VisitorState.createForUtilityPurposes(context);
+  static SuppressionInfo suppressions(Tree tree, VisitorState state) {
     Symbol sym = ASTHelpers.getDeclaredSymbol(tree);
     if (sym == null) {
-      return false;
+      return SuppressionInfo.EMPTY;
     }
-    return SuppressionInfo.EMPTY
-        .withExtendedSuppressions(
-            sym, state, /* customSuppressionAnnosToLookFor= */ ImmutableSet.of())
+    return SuppressionInfo.EMPTY.withExtendedSuppressions(
+        sym, state, /* customSuppressionAnnosToLookFor= */ ImmutableSet.of());
+  }
+
+  /**
+   * Returns true if the rule defined by the given template class is suppressed by the given
+   * suppressions.
+   */
+  static boolean suppressed(
+      String qualifiedTemplateClass, SuppressionInfo suppressions, VisitorState state) {
+    return suppressions
         .suppressedState(
-            new RefasterSuppressible(rule), /* suppressedInGeneratedCode= */ false, state)
+            new RefasterSuppressible(RefasterRule.fromSecondLevel(qualifiedTemplateClass)),
+            /* suppressedInGeneratedCode= */ false,
+            state)
         .equals(SuppressionInfo.SuppressedState.SUPPRESSED);
   }
 
-  /** Adapts a {@link RefasterRule<?, ?>} into a {@link Suppressible}. */
-  private record RefasterSuppressible(RefasterRule<?, ?> rule) implements Suppressible {
+  /** Adapts a {@link RefasterRule}'s name into a {@link Suppressible}. */
+  private record RefasterSuppressible(String simpleTemplateName) implements Suppressible {
     @Override
     public Set<String> allNames() {
       return ImmutableSet.of(canonicalName());
@@ -61,7 +70,7 @@ final class RefasterSuppressionHelper {
 
     @Override
     public String canonicalName() {
-      return rule.simpleTemplateName();
+      return simpleTemplateName;
     }
 
     @Override
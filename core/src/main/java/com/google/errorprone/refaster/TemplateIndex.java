@@ -0,0 +1,271 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.refaster;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.Tree;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An index from the shape of a tree to the {@code @BeforeTemplate}s of a set of {@link
+ * RefasterRule}s that could possibly match it.
+ *
+ * <p>Templates are keyed by the kind of tree their root can unify with and, for method
+ * invocations, by the name of the invoked method. Templates whose root can unify with more than one
+ * kind of tree, such as placeholders, free identifiers and {@code Refaster.anyOf}, are tried
+ * everywhere.
+ *
+ * <p>Each template is identified by its position in the index: templates are numbered in order of
+ * their rules, and then in order within each rule, and {@link #candidates} returns them in that
+ * order.
+ *
+ * <p>The index only needs the {@link Anchor}s of each rule's templates, so the rules themselves may
+ * be loaded lazily, the first time one of their templates is a candidate.
+ */
+final class TemplateIndex {
+
+  /**
+   * What a before template's root must look like to match a tree.
+   *
+   * @param kind the kind of tree the template can match, or {@code null} if it might match trees of
+   *     more than one type
+   * @param methodName the name of the method that the template invokes, or {@code null} if it isn't
+   *     a method invocation of a fixed name
+   */
+  record Anchor(Tree.@Nullable Kind kind, @Nullable String methodName) {
+    static final Anchor ANYWHERE = new Anchor(null, null);
+
+    static Anchor of(Template<?> template) {
+      return switch (template) {
+        case BlockTemplate unused -> new Anchor(Tree.Kind.BLOCK, null);
+        case ExpressionTemplate expressionTemplate -> of(expressionTemplate.expression());
+        default -> ANYWHERE;
+      };
+    }
+
+    private static Anchor of(UExpression root) {
+      // These only unify with trees of their own kind; others, like UParens and UStaticIdent, also
+      // look through or resolve other kinds of trees.
+      if (root instanceof UMethodInvocation invocation) {
+        String methodName =
+            switch (invocation.getMethodSelect()) {
+              case UMemberSelect memberSelect -> memberSelect.getIdentifier().toString();
+              case UStaticIdent staticIdent -> staticIdent.getName().toString();
+              case UMethodIdent methodIdent -> methodIdent.getName().toString();
+              default -> null;
+            };
+        return new Anchor(root.getKind(), methodName);
+      }
+      if (root instanceof UArrayAccess
+          || root instanceof UAssign
+          || root instanceof UAssignOp
+          || root instanceof UBinary
+          || root instanceof UConditional
+          || root instanceof UInstanceOf
+          || root instanceof ULambda
+          || root instanceof ULiteral
+          || root instanceof UMemberReference
+          || root instanceof UNewArray
+          || root instanceof UNewClass
+          || root instanceof UTypeCast
+          || root instanceof UUnary) {
+        return new Anchor(root.getKind(), null);
+      }
+      return ANYWHERE;
+    }
+  }
+
+  /**
+   * A rule in the index.
+   *
+   * @param qualifiedTemplateClass the class that defines the rule
+   * @param anchors the anchors of each of the rule's before templates, in order
+   * @param rule the rule, which is only requested if one of its templates might match
+   */
+  record Entry(
+      String qualifiedTemplateClass,
+      ImmutableList<Anchor> anchors,
+      Supplier<RefasterRule<?, ?>> rule) {
+    static Entry of(RefasterRule<?, ?> rule) {
+      return new Entry(
+          rule.qualifiedTemplateClass(),
+          rule.beforeTemplates().stream().map(Anchor::of).collect(toImmutableList()),
+          Suppliers.ofInstance(rule));
+    }
+  }
+
+  private static final int[] NONE = {};
+
+  static TemplateIndex create(List<? extends RefasterRule<?, ?>> rules) {
+    return create(rules.stream().map(Entry::of).collect(toImmutableList()));
+  }
+
+  static TemplateIndex create(ImmutableList<Entry> entries) {
+    List<Integer> ruleOf = new ArrayList<>();
+    List<Integer> templateOf = new ArrayList<>();
+    List<Integer> anywhere = new ArrayList<>();
+    Map<Class<? extends Tree>, List<Integer>> byType = new HashMap<>();
+    Map<Class<? extends Tree>, Map<String, List<Integer>>> byMethodName = new HashMap<>();
+    ImmutableListMultimap.Builder<String, Integer> rulesByTemplateClass =
+        ImmutableListMultimap.builder();
+    for (int rule = 0; rule < entries.size(); rule++) {
+      rulesByTemplateClass.put(entries.get(rule).qualifiedTemplateClass(), rule);
+      ImmutableList<Anchor> anchors = entries.get(rule).anchors();
+      for (int template = 0; template < anchors.size(); template++) {
+        int id = ruleOf.size();
+        ruleOf.add(rule);
+        templateOf.add(template);
+        Anchor anchor = anchors.get(template);
+        Class<? extends Tree> type = anchor.kind() == null ? null : anchor.kind().asInterface();
+        if (type == null) {
+          anywhere.add(id);
+        } else if (anchor.methodName() == null) {
+          byType.computeIfAbsent(type, k -> new ArrayList<>()).add(id);
+        } else {
+          byMethodName
+              .computeIfAbsent(type, k -> new HashMap<>())
+              .computeIfAbsent(anchor.methodName(), k -> new ArrayList<>())
+              .add(id);
+        }
+      }
+    }
+
+    // Precompute the complete, ordered list of candidates for every key, so that looking up the
+    // candidates for a tree doesn't need to merge anything.
+    Map<Class<? extends Tree>, int[]> candidatesByType = new HashMap<>();
+    for (Class<? extends Tree> type : Sets.union(byType.keySet(), byMethodName.keySet())) {
+      candidatesByType.put(type, sorted(anywhere, byType.getOrDefault(type, ImmutableList.of())));
+    }
+    ImmutableMap.Builder<Class<? extends Tree>, ImmutableMap<String, int[]>> candidatesByName =
+        ImmutableMap.builder();
+    byMethodName.forEach(
+        (type, byName) -> {
+          ImmutableMap.Builder<String, int[]> forType = ImmutableMap.builder();
+          byName.forEach(
+              (name, ids) ->
+                  forType.put(
+                      name,
+                      sorted(anywhere, byType.getOrDefault(type, ImmutableList.of()), ids)));
+          candidatesByName.put(type, forType.buildOrThrow());
+        });
+    return new TemplateIndex(
+        entries,
+        Ints.toArray(ruleOf),
+        Ints.toArray(templateOf),
+        sorted(anywhere),
+        ImmutableMap.copyOf(candidatesByType),
+        candidatesByName.buildOrThrow(),
+        rulesByTemplateClass.build());
+  }
+
+  private final ImmutableList<Entry> entries;
+  private final int[] ruleOf;
+  private final int[] templateOf;
+  private final int[] anywhere;
+  private final ImmutableMap<Class<? extends Tree>, int[]> candidatesByType;
+  private final ImmutableMap<Class<? extends Tree>, ImmutableMap<String, int[]>> candidatesByName;
+  private final ImmutableListMultimap<String, Integer> rulesByTemplateClass;
+
+  private TemplateIndex(
+      ImmutableList<Entry> entries,
+      int[] ruleOf,
+      int[] templateOf,
+      int[] anywhere,
+      ImmutableMap<Class<? extends Tree>, int[]> candidatesByType,
+      ImmutableMap<Class<? extends Tree>, ImmutableMap<String, int[]>> candidatesByName,
+      ImmutableListMultimap<String, Integer> rulesByTemplateClass) {
+    this.entries = entries;
+    this.ruleOf = ruleOf;
+    this.templateOf = templateOf;
+    this.anywhere = anywhere;
+    this.candidatesByType = candidatesByType;
+    this.candidatesByName = candidatesByName;
+    this.rulesByTemplateClass = rulesByTemplateClass;
+  }
+
+  ImmutableList<Entry> entries() {
+    return entries;
+  }
+
+  /** Returns the index of the rule that the given template belongs to. */
+  int rule(int template) {
+    return ruleOf[template];
+  }
+
+  /** Returns the position of the given template among its rule's before templates. */
+  int templateInRule(int template) {
+    return templateOf[template];
+  }
+
+  /** Returns the indices of the rules defined by the given template class. */
+  ImmutableList<Integer> rulesDefinedBy(String qualifiedTemplateClass) {
+    return rulesByTemplateClass.get(qualifiedTemplateClass);
+  }
+
+  /**
+   * Returns the templates that could match {@code tree}, in order. The returned array must not be
+   * modified.
+   */
+  int[] candidates(Tree tree) {
+    Class<? extends Tree> type = tree.getKind().asInterface();
+    if (type == null) {
+      return anywhere;
+    }
+    ImmutableMap<String, int[]> byName = candidatesByName.get(type);
+    if (byName != null && tree instanceof MethodInvocationTree invocation) {
+      String name = methodName(invocation.getMethodSelect());
+      int[] candidates = name == null ? null : byName.get(name);
+      if (candidates != null) {
+        return candidates;
+      }
+    }
+    return candidatesByType.getOrDefault(type, anywhere);
+  }
+
+  private static @Nullable String methodName(Tree methodSelect) {
+    return switch (methodSelect) {
+      case IdentifierTree identifier -> identifier.getName().toString();
+      case MemberSelectTree memberSelect -> memberSelect.getIdentifier().toString();
+      default -> null;
+    };
+  }
+
+  @SafeVarargs
+  private static int[] sorted(List<Integer>... ids) {
+    TreeSet<Integer> result = new TreeSet<>();
+    for (List<Integer> list : ids) {
+      result.addAll(list);
+    }
+    return result.isEmpty() ? NONE : Ints.toArray(result);
+  }
+}
@@ -16,9 +16,11 @@
 
 package com.google.errorprone;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
+import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.DiagnosticTestHelper.DIAGNOSTIC_CONTAINING;
 import static com.google.errorprone.FileObjects.forResources;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -35,9 +37,11 @@ import com.google.errorprone.bugpatterns.ArrayEquals;
 import com.google.errorprone.bugpatterns.BadShiftAmount;
 import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.bugpatterns.ChainingConstructorIgnoresParameter;
 import com.google.errorprone.bugpatterns.Finally;
+import com.google.errorprone.bugpatterns.SelfAssignment;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.scanner.ScannerSupplier;
@@ -143,6 +147,162 @@ public class ErrorProneJavaCompilerTest {
         .contains("[SelfAssignment]");
   }
 
+  @Test
+  public void profile() throws IOException {
+    Path json = tempDir.getRoot().toPath().resolve("profile/report.json");
+    Path csv = tempDir.getRoot().toPath().resolve("profile/report.csv");
+    for (Path path : ImmutableList.of(json, csv)) {
+      CompilationResult result =
+          doCompile(
+              Arrays.asList("bugpatterns/testdata/SelfAssignmentPositiveCases1.java"),
+              Arrays.asList("-XepProfile:" + path),
+              Collections.<Class<? extends BugChecker>>emptyList());
+      assertThat(result.succeeded).isFalse();
+    }
+
+    String report = Files.readString(json);
+    assertThat(report).contains("\"initializationNanos\": ");
+    assertThat(report).containsMatch("\\{\"name\": \"SelfAssignment\", \"invocations\": [1-9]");
+    List<String> rows = Files.readAllLines(csv);
+    assertThat(rows.get(0)).startsWith("name,invocations,wallNanos,cpuNanos,allocatedBytes,lt1us,");
+    assertThat(rows.stream().anyMatch(row -> row.startsWith("SelfAssignment,"))).isTrue();
+  }
+
+  @Test
+  public void diagnosticsOutput() throws IOException {
+    Path jsonl = tempDir.getRoot().toPath().resolve("diagnostics/findings.jsonl");
+    CompilationResult result =
+        doCompile(
+            Arrays.asList("bugpatterns/testdata/WaitNotInLoopPositiveCases.java"),
+            Arrays.asList("-XepDiagnosticsOutput:" + jsonl),
+            Collections.<Class<? extends BugChecker>>emptyList());
+    assertSucceeded(result);
+    // Warnings are only written to the file.
+    assertThat(result.diagnosticHelper.getDiagnostics())
+        .comparingElementsUsing(DIAGNOSTIC_CONTAINING)
+        .doesNotContain("[WaitNotInLoop]");
+    List<String> lines = Files.readAllLines(jsonl);
+    assertThat(lines).isNotEmpty();
+    assertThat(lines.get(0)).startsWith("{\"check\": \"WaitNotInLoop\", \"severity\": \"WARNING\"");
+
+    result =
+        doCompile(
+            Arrays.asList("bugpatterns/testdata/SelfAssignmentPositiveCases1.java"),
+            Arrays.asList("-XepDiagnosticsOutput:" + jsonl),
+            Collections.<Class<? extends BugChecker>>emptyList());
+    // Errors are still reported through javac, and fail the compilation.
+    assertThat(result.succeeded).isFalse();
+    assertThat(result.diagnosticHelper.getDiagnostics())
+        .comparingElementsUsing(DIAGNOSTIC_CONTAINING)
+        .contains("[SelfAssignment]");
+    String findings = Files.readString(jsonl);
+    assertThat(findings).contains("\"check\": \"SelfAssignment\", \"severity\": \"ERROR\"");
+    assertThat(findings).containsMatch("\"replacements\": \\[\\{\"startOffset\": [0-9]+");
+  }
+
+  @Test
+  public void diagnosticsOutputSarif() throws IOException {
+    Path sarif = tempDir.getRoot().toPath().resolve("findings.sarif");
+    CompilationResult result =
+        doCompile(
+            Arrays.asList("bugpatterns/testdata/SelfAssignmentPositiveCases1.java"),
+            Arrays.asList("-XepDiagnosticsOutput:" + sarif),
+            Collections.<Class<? extends BugChecker>>emptyList());
+    assertThat(result.succeeded).isFalse();
+
+    String report = Files.readString(sarif);
+    assertThat(report).startsWith("{\"version\": \"2.1.0\"");
+    assertThat(report).contains("{\"ruleId\": \"SelfAssignment\", \"level\": \"error\"");
+    assertThat(report).contains("\"deletedRegion\": {\"charOffset\": ");
+    assertThat(report).contains("{\"id\": \"SelfAssignment\", \"helpUri\": ");
+    assertThat(report.trim()).endsWith("}]}");
+  }
+
+  @Test
+  public void diagnosticsOutputWhilePatching() throws IOException {
+    Path sarif = tempDir.getRoot().toPath().resolve("patched.sarif");
+    JavaFileObject fileObject =
+        createOnDiskFileObject(
+            "StringConstantWrapper.java",
+            """
+            class StringConstantWrapper {
+              String s = "old-value";
+            }
+            """);
+
+    CompilationResult result =
+        doCompile(
+            Collections.singleton(fileObject),
+            Arrays.asList(
+                "-XepPatchChecks:",
+                "-XepPatchLocation:IN_PLACE",
+                "-XepDiagnosticsOutput:" + sarif),
+            ImmutableList.of(AssignmentUpdater.class));
+    assertSucceeded(result);
+    assertThat(Files.readString(Path.of(fileObject.toUri()))).contains("\"flag-not-set\"");
+    String report = Files.readString(sarif);
+    assertThat(report).contains("{\"ruleId\": \"AssignmentUpdater\"");
+    // The region is given as lines and columns and as offsets, from the same start and end.
+    assertThat(report)
+        .contains("\"region\": {\"startLine\": 2, \"startColumn\": 3, \"endLine\": 2");
+  }
+
+  @BugPattern(summary = "Reports the thread that analyzes each method", severity = WARNING)
+  public static final class AnalysisThreads extends BugChecker implements MethodTreeMatcher {
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      return buildDescription(tree)
+          .setMessage("analyzed on " + Thread.currentThread().getName())
+          .build();
+    }
+  }
+
+  @Test
+  public void parallelism() {
+    List<String> files =
+        Arrays.asList(
+            "bugpatterns/testdata/SelfAssignmentPositiveCases1.java",
+            "bugpatterns/testdata/ArrayEqualsPositiveCases.java");
+    ImmutableList<Class<? extends BugChecker>> checks =
+        ImmutableList.of(AnalysisThreads.class, SelfAssignment.class, ArrayEquals.class);
+    CompilationResult sequential =
+        doCompile(files, Arrays.asList("-Xep:AnalysisThreads:OFF"), checks);
+    CompilationResult parallel =
+        doCompile(
+            files,
+            Arrays.asList(
+                "-XepParallelism:4",
+                "-XepOpt:Parallelism:ThreadSafeChecks=AnalysisThreads,SelfAssignment"),
+            checks);
+    assertThat(parallel.succeeded).isFalse();
+
+    // The workers walked the trees, but handed the matchers to javac's thread.
+    String javacThread = Thread.currentThread().getName();
+    ImmutableList<String> threads =
+        findings(parallel).stream()
+            .filter(finding -> finding.startsWith("[AnalysisThreads]"))
+            .collect(toImmutableList());
+    assertThat(threads).isNotEmpty();
+    for (String finding : threads) {
+      assertThat(finding).isEqualTo("[AnalysisThreads] analyzed on " + javacThread);
+    }
+    // Otherwise the findings are the same as when the checks run on javac's thread, in the same
+    // order.
+    assertThat(findings(sequential)).isNotEmpty();
+    assertThat(
+            findings(parallel).stream()
+                .filter(finding -> !finding.startsWith("[AnalysisThreads]"))
+                .collect(toImmutableList()))
+        .containsExactlyElementsIn(findings(sequential))
+        .inOrder();
+  }
+
+  private static ImmutableList<String> findings(CompilationResult result) {
+    return result.diagnosticHelper.getDiagnostics().stream()
+        .map(d -> d.getMessage(ENGLISH).lines().findFirst().orElse(""))
+        .collect(toImmutableList());
+  }
+
   @Test
   public void withDisabledCheck() {
     CompilationResult result =
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.errorprone.ErrorProneWorker.WorkRequest;
+import com.google.errorprone.ErrorProneWorker.WorkResponse;
+import com.google.errorprone.bugpatterns.ArrayEquals;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link ErrorProneWorker}Test */
+@RunWith(JUnit4.class)
+public class ErrorProneWorkerTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final ErrorProneWorker worker =
+      new ErrorProneWorker(ScannerSupplier.fromBugCheckerClasses(ArrayEquals.class));
+
+  private ImmutableList<String> arguments(String source) throws IOException {
+    Path file = temporaryFolder.newFolder().toPath().resolve("Test.java");
+    Files.writeString(file, source);
+    return ImmutableList.of(
+        "-d", temporaryFolder.newFolder().getPath(), "-proc:none", file.toString());
+  }
+
+  private static final String BAD =
+      """
+      class Test {
+        boolean f(String[] a, String[] b) {
+          return a.equals(b);
+        }
+      }
+      """;
+
+  private static final String GOOD =
+      """
+      class Test {
+        boolean f(String a, String b) {
+          return a.equals(b);
+        }
+      }
+      """;
+
+  @Test
+  public void compile() throws IOException {
+    StringWriter output = new StringWriter();
+    int exitCode = worker.compile(arguments(BAD), new PrintWriter(output, true));
+    assertThat(exitCode).isEqualTo(1);
+    assertThat(output.toString()).contains("[ArrayEquals]");
+  }
+
+  @Test
+  public void compileTwice() throws IOException {
+    for (int i = 0; i < 2; i++) {
+      StringWriter output = new StringWriter();
+      int exitCode = worker.compile(arguments(BAD), new PrintWriter(output, true));
+      assertThat(exitCode).isEqualTo(1);
+      assertThat(output.toString()).contains("[ArrayEquals]");
+    }
+    StringWriter output = new StringWriter();
+    int exitCode =
+        worker.compile(
+            ImmutableList.<String>builder()
+                .add("-Xep:ArrayEquals:OFF")
+                .addAll(arguments(BAD))
+                .build(),
+            new PrintWriter(output, true));
+    assertThat(exitCode).isEqualTo(0);
+    assertThat(output.toString()).doesNotContain("[ArrayEquals]");
+  }
+
+  @Test
+  public void invalidFlag() throws IOException {
+    StringWriter output = new StringWriter();
+    int exitCode =
+        worker.compile(
+            ImmutableList.<String>builder().add("-XepNoSuchFlag").addAll(arguments(GOOD)).build(),
+            new PrintWriter(output, true));
+    assertThat(exitCode).isEqualTo(2);
+    assertThat(output.toString()).contains("-XepNoSuchFlag");
+  }
+
+  @Test
+  public void serve() throws IOException {
+    ByteArrayOutputStream requests = new ByteArrayOutputStream();
+    writeRequest(requests, arguments(BAD), 0);
+    writeRequest(requests, arguments(GOOD), 0);
+    writeRequest(requests, arguments(BAD), 7);
+    ByteArrayOutputStream responses = new ByteArrayOutputStream();
+    worker.serve(new ByteArrayInputStream(requests.toByteArray()), responses);
+
+    List<WorkResponse> results = readResponses(responses.toByteArray());
+    assertThat(results).hasSize(3);
+    assertThat(results.get(0).exitCode()).isEqualTo(1);
+    assertThat(results.get(0).output()).contains("[ArrayEquals]");
+    assertThat(results.get(1).exitCode()).isEqualTo(0);
+    assertThat(results.get(2).requestId()).isEqualTo(7);
+    assertThat(results.get(2).exitCode()).isEqualTo(1);
+  }
+
+  @Test
+  public void serve_responseWriteFails() throws IOException {
+    ByteArrayOutputStream requests = new ByteArrayOutputStream();
+    writeRequest(requests, arguments(GOOD), 7);
+    OutputStream broken =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("broken pipe");
+          }
+        };
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () -> worker.serve(new ByteArrayInputStream(requests.toByteArray()), broken));
+    assertThat(e).hasMessageThat().isEqualTo("broken pipe");
+  }
+
+  @Test
+  public void fingerprint_changesWithFilesInDirectories() throws IOException {
+    Path directory = temporaryFolder.newFolder().toPath();
+    Path file = directory.resolve("a/B.class");
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, "one");
+    HashCode before = ScannerCache.fingerprint(ImmutableList.of(directory));
+    assertThat(ScannerCache.fingerprint(ImmutableList.of(directory))).isEqualTo(before);
+
+    Files.writeString(file, "three");
+    assertThat(ScannerCache.fingerprint(ImmutableList.of(directory))).isNotEqualTo(before);
+  }
+
+  @Test
+  public void readRequest() throws IOException {
+    ByteArrayOutputStream requests = new ByteArrayOutputStream();
+    writeRequest(requests, ImmutableList.of("-d", "out", "A.java"), 42);
+    ByteArrayInputStream in = new ByteArrayInputStream(requests.toByteArray());
+    assertThat(ErrorProneWorker.readRequest(in))
+        .isEqualTo(new WorkRequest(ImmutableList.of("-d", "out", "A.java"), 42, false));
+    assertThat(ErrorProneWorker.readRequest(in)).isNull();
+  }
+
+  private static void writeRequest(ByteArrayOutputStream out, List<String> arguments, int id)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CodedOutputStream message = CodedOutputStream.newInstance(bytes);
+    for (String argument : arguments) {
+      message.writeString(1, argument);
+    }
+    // An input, which the worker ignores.
+    message.writeByteArray(2, "path".getBytes(UTF_8));
+    message.writeInt32(3, id);
+    message.flush();
+    CodedOutputStream delimited = CodedOutputStream.newInstance(out);
+    delimited.writeUInt32NoTag(bytes.size());
+    delimited.writeRawBytes(bytes.toByteArray());
+    delimited.flush();
+  }
+
+  private static List<WorkResponse> readResponses(byte[] bytes) throws IOException {
+    CodedInputStream in = CodedInputStream.newInstance(bytes);
+    List<WorkResponse> responses = new ArrayList<>();
+    while (!in.isAtEnd()) {
+      CodedInputStream message = CodedInputStream.newInstance(in.readByteArray());
+      int exitCode = 0;
+      String output = "";
+      int requestId = 0;
+      while (!message.isAtEnd()) {
+        int tag = message.readTag();
+        switch (tag >>> 3) {
+          case 1 -> exitCode = message.readInt32();
+          case 2 -> output = message.readString();
+          case 3 -> requestId = message.readInt32();
+          default -> message.skipField(tag);
+        }
+      }
+      responses.add(new WorkResponse(exitCode, output, requestId));
+    }
+    return responses;
+  }
+}
@@ -30,6 +30,7 @@ import com.google.common.base.StandardSystemProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
+import com.google.common.testing.GcFinalization;
 import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
 import com.google.errorprone.matchers.Description;
@@ -46,7 +47,10 @@ import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.stream.Stream;
@@ -108,6 +112,73 @@ public class VisitorStateTest {
     assertThat(visitorState.getConstantExpression('\'')).isEqualTo("'\\''");
   }
 
+  @Test
+  public void memoize_computedOncePerInvocation() {
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<Integer> supplier = VisitorState.memoize(unused -> calls.incrementAndGet());
+    VisitorState first = VisitorState.createForUtilityPurposes(newContext());
+    VisitorState second = VisitorState.createForUtilityPurposes(newContext());
+
+    assertThat(supplier.get(first)).isEqualTo(1);
+    assertThat(supplier.get(first)).isEqualTo(1);
+    assertThat(supplier.get(second)).isEqualTo(2);
+    assertThat(supplier.get(first)).isEqualTo(1);
+    assertThat(supplier.get(second)).isEqualTo(2);
+  }
+
+  @Test
+  public void memoize_nullIsNotCached() {
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<Integer> supplier =
+        VisitorState.memoize(unused -> calls.incrementAndGet() < 3 ? null : calls.get());
+    VisitorState state = VisitorState.createForUtilityPurposes(newContext());
+
+    assertThat(supplier.get(state)).isNull();
+    assertThat(supplier.get(state)).isNull();
+    assertThat(supplier.get(state)).isEqualTo(3);
+    assertThat(supplier.get(state)).isEqualTo(3);
+  }
+
+  @Test
+  public void memoize_suppliersDontShareValues() {
+    VisitorState state = VisitorState.createForUtilityPurposes(newContext());
+    List<Supplier<String>> suppliers = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String value = "value" + i;
+      suppliers.add(VisitorState.memoize(unused -> value));
+    }
+    for (int i = 0; i < suppliers.size(); i++) {
+      assertThat(suppliers.get(i).get(state)).isEqualTo("value" + i);
+    }
+    // Suppliers created after the table has grown see their own values too.
+    Supplier<String> late = VisitorState.memoize(unused -> "late");
+    assertThat(late.get(state)).isEqualTo("late");
+    assertThat(suppliers.get(0).get(state)).isEqualTo("value0");
+  }
+
+  @Test
+  public void memoize_slotsOfCollectedSuppliersAreReused() {
+    int slot = allocateAndDropSlot();
+    GcFinalization.awaitDone(() -> JavacInvocationInstance.allocateSlot(new Object()) == slot);
+  }
+
+  private static int allocateAndDropSlot() {
+    return JavacInvocationInstance.allocateSlot(new Object());
+  }
+
+  private static Context newContext() {
+    JavacTask task =
+        JavacTool.create()
+            .getTask(
+                /* out= */ null,
+                FileManagers.testFileManager(),
+                /* diagnosticListener= */ null,
+                /* options= */ ImmutableList.of(),
+                /* classes= */ ImmutableList.of(),
+                /* compilationUnits= */ ImmutableList.of());
+    return ((BasicJavacTask) task).getContext();
+  }
+
   // The following is taken from ErrorProneJavacPluginTest. There may be an easier way.
   // It's possible that it's overkill for what we need here.
 
@@ -62,6 +62,27 @@ public class FieldCanBeFinalTest {
         .doTest();
   }
 
+  @Test
+  public void multipleVariablesInOneDeclaration() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              // BUG: Diagnostic contains: private final int a
+              private int a,
+                  // BUG: Diagnostic contains: private final int a
+                  b;
+
+              Test() {
+                a = 42;
+                b = 43;
+              }
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void keepAnnotatedFields_ignored() {
     compilationHelper
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns.checkreturnvalue;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.EXPECTED;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.OPTIONAL;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.UNSPECIFIED;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator.EvaluationCache;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator.MethodInfo;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.Evaluation;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.SymbolRule;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link ResultUsePolicyEvaluator}Test */
+@RunWith(JUnit4.class)
+public class ResultUsePolicyEvaluatorTest {
+
+  /**
+   * Symbols are dotted names, like {@code pkg.Class.method}, which are enclosed by their prefixes.
+   */
+  private static final MethodInfo<Object, String, String> METHOD_INFO =
+      new MethodInfo<>() {
+        @Override
+        public Stream<String> scopeMembers(RuleScope scope, String method, Object context) {
+          if (scope != RuleScope.ENCLOSING_ELEMENTS) {
+            return Stream.of(method);
+          }
+          Stream.Builder<String> enclosing = Stream.builder();
+          for (int i = method.lastIndexOf('.'); i > 0; i = method.lastIndexOf('.', i - 1)) {
+            enclosing.add(method.substring(0, i));
+          }
+          return enclosing.build();
+        }
+
+        @Override
+        public MethodKind getMethodKind(String method) {
+          return MethodKind.METHOD;
+        }
+      };
+
+  /** Maps symbols to policies, and counts the symbols it evaluates. */
+  private static final class PoliciesRule extends SymbolRule<Object, String> {
+    private final ImmutableMap<String, ResultUsePolicy> policies;
+    final Multiset<String> evaluated = HashMultiset.create();
+
+    PoliciesRule(ImmutableMap<String, ResultUsePolicy> policies) {
+      this.policies = policies;
+    }
+
+    @Override
+    public String id() {
+      return "Policies";
+    }
+
+    @Override
+    public Optional<ResultUsePolicy> evaluate(String symbol, Object context) {
+      evaluated.add(symbol);
+      return Optional.ofNullable(policies.get(symbol));
+    }
+  }
+
+  private final PoliciesRule rule =
+      new PoliciesRule(
+          ImmutableMap.of(
+              "a.B", EXPECTED,
+              "a.B.ignorable", OPTIONAL));
+
+  @Test
+  public void evaluate() {
+    ResultUsePolicyEvaluator<Object, String, String> evaluator =
+        ResultUsePolicyEvaluator.builder(METHOD_INFO).addRule(rule).build();
+
+    assertThat(evaluator.evaluate("a.B.ignorable", new Object())).isEqualTo(OPTIONAL);
+    assertThat(evaluator.evaluate("a.B.f", new Object())).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.C.f", new Object())).isEqualTo(UNSPECIFIED);
+
+    Evaluation<String> evaluation = evaluator.firstEvaluation("a.B.f", new Object()).get();
+    assertThat(evaluation.scope()).isEqualTo(RuleScope.ENCLOSING_ELEMENTS);
+    assertThat(evaluation.element()).isEqualTo("a.B");
+    assertThat(evaluator.firstEvaluation("a.C.f", new Object())).isEmpty();
+  }
+
+  @Test
+  public void cache() {
+    EvaluationCache<String, String> cache = new EvaluationCache<>();
+    Multiset<String> counters = HashMultiset.create();
+    ResultUsePolicyEvaluator<Object, String, String> evaluator =
+        ResultUsePolicyEvaluator.builder(METHOD_INFO)
+            .addRule(rule)
+            .setCache(context -> cache, (context, key) -> counters.add(key))
+            .build();
+
+    assertThat(evaluator.evaluate("a.B.f", new Object())).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.B.f", new Object())).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.B.g", new Object())).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.C.f", new Object())).isEqualTo(UNSPECIFIED);
+    assertThat(evaluator.evaluate("a.C.g", new Object())).isEqualTo(UNSPECIFIED);
+
+    // Each method and enclosing element was only evaluated once.
+    assertThat(rule.evaluated.elementSet())
+        .containsExactly("a.B.f", "a.B.g", "a.C.f", "a.C.g", "a.B", "a.C", "a");
+    assertThat(rule.evaluated.size()).isEqualTo(rule.evaluated.elementSet().size());
+
+    assertThat(counters.count("method-cache-hit")).isEqualTo(1);
+    assertThat(counters.count("method-cache-miss")).isEqualTo(4);
+    // a.B for a.B.g, then a.C and a for a.C.g.
+    assertThat(counters.count("enclosing-element-cache-hit")).isEqualTo(3);
+    assertThat(counters.count("enclosing-element-cache-miss")).isEqualTo(3);
+  }
+}
@@ -2539,4 +2539,119 @@ abstract class Test {
             """)
         .doTest();
   }
+
+  @Test
+  public void lambdasInConstructorsAndInitializers() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+            class Test {
+              final Object mu = new Object();
+
+              @GuardedBy("mu")
+              int x;
+
+              final Runnable r =
+                  () -> {
+                    // BUG: Diagnostic contains:
+                    x++;
+                  };
+
+              Test() {
+                x++;
+                Runnable r =
+                    () -> {
+                      // BUG: Diagnostic contains:
+                      x++;
+                    };
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void nestedLambdas() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+            class Test {
+              final Object mu = new Object();
+
+              @GuardedBy("mu")
+              int x;
+
+              void f() {
+                synchronized (mu) {
+                  x++;
+                  Runnable r =
+                      () -> {
+                        // BUG: Diagnostic contains:
+                        x++;
+                        synchronized (mu) {
+                          x++;
+                          Runnable s =
+                              () -> {
+                                // BUG: Diagnostic contains:
+                                x++;
+                              };
+                        }
+                      };
+                }
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void localAndAnonymousClasses() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+            class Test {
+              final Object mu = new Object();
+
+              @GuardedBy("mu")
+              int x;
+
+              final Object o =
+                  new Object() {
+                    void g() {
+                      // BUG: Diagnostic contains:
+                      x++;
+                    }
+                  };
+
+              void f() {
+                synchronized (mu) {
+                  class Local {
+                    void g() {
+                      // BUG: Diagnostic contains:
+                      x++;
+                    }
+                  }
+                  Object o =
+                      new Object() {
+                        void g() {
+                          synchronized (mu) {
+                            x++;
+                          }
+                        }
+                      };
+                }
+              }
+            }
+            """)
+        .doTest();
+  }
 }
@@ -1998,6 +1998,42 @@ class Test extends Super {
         .doTest();
   }
 
+  @Test
+  public void knownImmutableAndMutableFlags_nestedClasses() {
+    CompilationTestHelper.newInstance(ImmutableChecker.class, getClass())
+        .setArgs(
+            ImmutableList.of(
+                "-XepOpt:Immutable:KnownImmutable=threadsafety.Outer$SomeImmutable",
+                "-XepOpt:Immutable:KnownMutable=threadsafety.Outer$SomeUnsafe"))
+        .addSourceLines(
+            "threadsafety/Outer.java",
+            """
+            package threadsafety;
+
+            class Outer {
+              static class SomeImmutable {}
+
+              static class SomeUnsafe {}
+            }
+            """)
+        .addSourceLines(
+            "threadsafety/Test.java",
+            """
+            package threadsafety;
+
+            import com.google.errorprone.annotations.Immutable;
+
+            @Immutable
+            class Test {
+              public final Outer.SomeImmutable i = new Outer.SomeImmutable();
+
+              // BUG: Diagnostic contains: 'SomeUnsafe' is mutable
+              public final Outer.SomeUnsafe u = new Outer.SomeUnsafe();
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void lazyInit() {
     compilationHelper
@@ -4199,4 +4235,41 @@ abstract class Test {
             """)
         .doTest();
   }
+
+  @Test
+  public void sameTypeWithDifferentArguments() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+
+            class A {}
+
+            class B {}
+
+            class Foo<T> {
+              class Inner {}
+            }
+
+            @Immutable
+            class Test {
+              // BUG: Diagnostic contains: the declaration of type 'Foo<A>' is not annotated
+              final Foo<A> a = null;
+              // BUG: Diagnostic contains: the declaration of type 'Foo<B>' is not annotated
+              final Foo<B> b = null;
+              // BUG: Diagnostic contains: the declaration of type 'Foo<A>.Inner' is not
+              final Foo<A>.Inner c = null;
+              // BUG: Diagnostic contains: the declaration of type 'Foo<B>.Inner' is not
+              final Foo<B>.Inner d = null;
+            }
+
+            @Immutable
+            class Test2 {
+              // BUG: Diagnostic contains: the declaration of type 'Foo<A>' is not annotated
+              final Foo<A> a = null;
+            }
+            """)
+        .doTest();
+  }
 }
@@ -1324,6 +1324,42 @@ class Test {
         .doTest();
   }
 
+  @Test
+  public void knownThreadSafeAndMutableFlags_nestedClasses() {
+    CompilationTestHelper.newInstance(ThreadSafeChecker.class, getClass())
+        .setArgs(
+            ImmutableList.of(
+                "-XepOpt:ThreadSafe:KnownThreadSafe=threadsafety.Outer$SomeThreadSafe",
+                "-XepOpt:Immutable:KnownMutable=threadsafety.Outer$SomeUnsafe"))
+        .addSourceLines(
+            "threadsafety/Outer.java",
+            """
+            package threadsafety;
+
+            class Outer {
+              static class SomeThreadSafe {}
+
+              static class SomeUnsafe {}
+            }
+            """)
+        .addSourceLines(
+            "threadsafety/Test.java",
+            """
+            package threadsafety;
+
+            import com.google.errorprone.annotations.ThreadSafe;
+
+            @ThreadSafe
+            class Test {
+              public final Outer.SomeThreadSafe t = new Outer.SomeThreadSafe();
+
+              // BUG: Diagnostic contains: 'SomeUnsafe' is not thread-safe
+              public final Outer.SomeUnsafe u = new Outer.SomeUnsafe();
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void threadSafeTypeParameter() {
     compilationHelper
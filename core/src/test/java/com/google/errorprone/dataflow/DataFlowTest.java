@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.dataflow;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
+import static org.junit.Assert.assertThrows;
+
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.ErrorProneTimings;
+import com.google.errorprone.InvalidCommandLineOptionException;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ReturnTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for the control flow graph cache in {@link DataFlow}. */
+@RunWith(JUnit4.class)
+public class DataFlowTest {
+
+  @Test
+  public void interleavedRequests_buildEachCfgOnce() {
+    CompilationTestHelper.newInstance(InterleavedDataflow.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              int f() {
+                // BUG: Diagnostic contains: hits=4, misses=2, rebuilds=0
+                return 1;
+              }
+
+              int g() {
+                return 2;
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void evictedCfgsAreCountedAsRebuilds() {
+    CompilationTestHelper.newInstance(InterleavedDataflow.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              int f() {
+                // BUG: Diagnostic contains: hits=0, misses=6, rebuilds=4
+                return 1;
+              }
+
+              int g() {
+                return 2;
+              }
+            }
+            """)
+        .setArgs("-XepOpt:DataFlow:CfgCacheSize=1")
+        .doTest();
+  }
+
+  @Test
+  public void cacheSizeBelowOne_isRejected() {
+    CompilationTestHelper helper =
+        CompilationTestHelper.newInstance(InterleavedDataflow.class, getClass())
+            .addSourceLines(
+                "Test.java",
+                """
+                class Test {}
+                """)
+            .setArgs("-XepOpt:DataFlow:CfgCacheSize=0");
+    InvalidCommandLineOptionException e =
+        assertThrows(InvalidCommandLineOptionException.class, helper::doTest);
+    assertThat(e).hasMessageThat().contains("DataFlow:CfgCacheSize must be at least 1");
+  }
+
+  /**
+   * Asks for the value of every returned expression three times, alternating between methods, and
+   * reports the cache statistics on the first one.
+   */
+  @BugPattern(summary = "Reports control flow graph cache statistics.", severity = ERROR)
+  public static class InterleavedDataflow extends BugChecker
+      implements CompilationUnitTreeMatcher {
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      List<TreePath> returned = new ArrayList<>();
+      new TreePathScanner<Void, Void>() {
+        @Override
+        public Void visitReturn(ReturnTree node, Void unused) {
+          returned.add(new TreePath(getCurrentPath(), node.getExpression()));
+          return null;
+        }
+      }.scan(state.getPath(), null);
+      for (int i = 0; i < 3; i++) {
+        for (TreePath path : returned) {
+          var unused = ConstantPropagationAnalysis.numberValue(path, state.context);
+        }
+      }
+      return buildDescription(returned.get(0).getLeaf())
+          .setMessage(ErrorProneTimings.instance(state.context).cfgCacheStats().toString())
+          .build();
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.google.errorprone.fixes;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Streams.stream;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
@@ -1861,6 +1862,56 @@ public class Test {
         .doTest();
   }
 
+  /** A test bugchecker that deletes every local variable whose removal doesn't break the build. */
+  @BugPattern(summary = "", severity = ERROR)
+  public static class CompilingFixesChecker extends BugChecker implements MethodTreeMatcher {
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      if (tree.getBody() == null) {
+        return NO_MATCH;
+      }
+      ImmutableList<SuggestedFix> fixes =
+          tree.getBody().getStatements().stream()
+              .filter(VariableTree.class::isInstance)
+              .map(SuggestedFix::delete)
+              .collect(toImmutableList());
+      ImmutableList<SuggestedFix> compiling = SuggestedFixes.compilingFixes(fixes, state);
+      return compiling.isEmpty()
+          ? NO_MATCH
+          : describeMatch(tree, compiling.stream().collect(SuggestedFix.mergeFixes()));
+    }
+  }
+
+  @Test
+  public void compilingFixes() {
+    BugCheckerRefactoringTestHelper.newInstance(CompilingFixesChecker.class, getClass())
+        .addInputLines(
+            "Test.java",
+            """
+            class Test {
+              void f() {
+                int x = 0;
+                int y = 1;
+                int z = 2;
+                System.err.println(y);
+              }
+            }
+            """)
+        .addOutputLines(
+            "Test.java",
+            """
+            class Test {
+              void f() {
+
+                int y = 1;
+
+                System.err.println(y);
+              }
+            }
+            """)
+        .doTest();
+  }
+
   /** A test bugchecker that deletes an exception from throws. */
   @BugPattern(summary = "", severity = ERROR)
   public static class RemovesExceptionsChecker extends BugChecker implements MethodTreeMatcher {
@@ -62,6 +62,45 @@ public class MethodInvocationMatcherTest {
         .doTest();
   }
 
+  @Test
+  public void declaredMatchers_onlyDispatchesCandidates() {
+    CompilationTestHelper.newInstance(DeclaredMatchersChecker.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              public String toString() {
+                System.out.println("Stringifying");
+                // BUG: Diagnostic contains:
+                String s = "5".toString();
+                // BUG: Diagnostic contains:
+                int result = Integer.valueOf(5).compareTo(6);
+                s.length();
+                // BUG: Diagnostic contains:
+                return String.valueOf(5);
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void declaredMatchers_instanceMethodIncludesConstructorInvocations() {
+    CompilationTestHelper.newInstance(DeclaredInstanceMethodChecker.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              Test() {
+                // BUG: Diagnostic contains:
+                super();
+                Math.abs(1);
+              }
+            }
+            """)
+        .doTest();
+  }
+
   /** A {@link BugChecker} for test. */
   @BugPattern(
       summary = "Checker that flags the given method invocation if the matcher matches",
@@ -85,4 +124,36 @@ public class MethodInvocationMatcherTest {
       return matcher.matches(tree, state) ? describeMatch(tree) : Description.NO_MATCH;
     }
   }
+
+  /** Flags every invocation it sees, to show which ones its declared matchers let through. */
+  @BugPattern(summary = "Flags every method invocation it is called for", severity = ERROR)
+  public static class DeclaredMatchersChecker extends BugChecker
+      implements MethodInvocationTreeMatcher {
+    @Override
+    public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+      return ImmutableList.of(
+          instanceMethod().anyClass().named("toString"),
+          staticMethod().anyClass().named("valueOf"));
+    }
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      return describeMatch(tree);
+    }
+  }
+
+  /** Flags every invocation it sees, to show which ones its declared matchers let through. */
+  @BugPattern(summary = "Flags every method invocation it is called for", severity = ERROR)
+  public static class DeclaredInstanceMethodChecker extends BugChecker
+      implements MethodInvocationTreeMatcher {
+    @Override
+    public ImmutableList<Matcher<ExpressionTree>> methodInvocationMatchers() {
+      return ImmutableList.of(instanceMethod());
+    }
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      return describeMatch(tree);
+    }
+  }
 }
@@ -25,11 +25,16 @@ import static org.junit.Assert.assertThrows;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.errorprone.CodeTransformer;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import javax.tools.JavaFileObject;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -42,7 +47,7 @@ import org.junit.runners.JUnit4;
  */
 @RunWith(JUnit4.class)
 public class TemplateIntegrationTest extends CompilerBasedTest {
-  private CodeTransformer extractRefasterRule(JavaFileObject object) {
+  private RefasterRule<?, ?> extractRefasterRule(JavaFileObject object) {
     compile(object);
     ClassTree classTree =
         Iterables.getOnlyElement(
@@ -440,4 +445,100 @@ public class TemplateIntegrationTest extends CompilerBasedTest {
 
     expectTransforms(transformer, input, expectedOutput);
   }
+
+  private ImmutableList<RefasterRule<?, ?>> severalRules() {
+    RefasterRule<?, ?> multiplyByOne =
+        extractRefasterRule(
+            forSourceString(
+                "MultiplyByOneTemplate",
+                """
+                import com.google.errorprone.refaster.annotation.AfterTemplate;
+                import com.google.errorprone.refaster.annotation.BeforeTemplate;
+
+                class MultiplyByOneTemplate {
+                  @BeforeTemplate
+                  int before(int i) {
+                    return i * 1;
+                  }
+
+                  @AfterTemplate
+                  int after(int i) {
+                    return i;
+                  }
+                }
+                """));
+    RefasterRule<?, ?> stringToString =
+        extractRefasterRule(
+            forSourceString(
+                "StringToStringTemplate",
+                """
+                import com.google.errorprone.refaster.annotation.AfterTemplate;
+                import com.google.errorprone.refaster.annotation.BeforeTemplate;
+
+                class StringToStringTemplate {
+                  @BeforeTemplate
+                  String before(String s) {
+                    return s.toString();
+                  }
+
+                  @AfterTemplate
+                  String after(String s) {
+                    return s;
+                  }
+                }
+                """));
+    return ImmutableList.of(multiplyByOne, stringToString);
+  }
+
+  private static final JavaFileObject SEVERAL_RULES_INPUT =
+      forSourceString(
+          "Example",
+          """
+          class Example {
+            void test(String s, int i) {
+              String t = s.toString();
+              int j = i * 1;
+              String u = s.trim();
+            }
+          }
+          """);
+
+  private static final JavaFileObject SEVERAL_RULES_OUTPUT =
+      forSourceString(
+          "Example",
+          """
+          class Example {
+            void test(String s, int i) {
+              String t = s;
+              int j = i;
+              String u = s.trim();
+            }
+          }
+          """);
+
+  @Test
+  public void severalRulesInOnePass() throws IOException {
+    expectTransforms(
+        RefasterRules.create(severalRules()), SEVERAL_RULES_INPUT, SEVERAL_RULES_OUTPUT);
+  }
+
+  @Test
+  public void severalRulesFromBundle() throws IOException {
+    Path bundle = Files.createTempFile("rules", ".refaster");
+    try (OutputStream out = Files.newOutputStream(bundle)) {
+      RefasterRuleBundle.write(severalRules(), out);
+    }
+    expectTransforms(
+        RefasterRuleBundle.loadRules(bundle), SEVERAL_RULES_INPUT, SEVERAL_RULES_OUTPUT);
+  }
+
+  @Test
+  public void severalRulesFromSerializedTransformer() throws IOException {
+    Path rules = Files.createTempFile("rules", ".refaster");
+    try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(rules))) {
+      out.writeObject(RefasterRules.create(severalRules()));
+    }
+    expectTransforms(
+        RefasterRuleBundle.loadRules(rules), SEVERAL_RULES_INPUT, SEVERAL_RULES_OUTPUT);
+  }
 }
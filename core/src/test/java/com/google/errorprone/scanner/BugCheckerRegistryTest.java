@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.BugCheckerInfo;
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.ErrorProneFlags;
+import com.google.errorprone.bugpatterns.ArrayEquals;
+import com.google.errorprone.bugpatterns.BugChecker;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link BugCheckerRegistry}. */
+@RunWith(JUnit4.class)
+public class BugCheckerRegistryTest {
+
+  @Test
+  public void builtInChecksAreRegistered() {
+    assertThat(BugCheckerRegistry.info(ArrayEquals.class)).isNotNull();
+    assertThat(BugCheckerRegistry.factory(ArrayEquals.class)).isNotNull();
+  }
+
+  @Test
+  public void registeredInfoMatchesAnnotation() {
+    for (BugCheckerInfo check : BuiltInCheckerSuppliers.allChecks().getAllChecks().values()) {
+      Class<? extends BugChecker> checker = check.checkerClass();
+      BugCheckerInfo info = BugCheckerRegistry.info(checker);
+      if (info == null) {
+        continue;
+      }
+      BugPattern pattern = checker.getAnnotation(BugPattern.class);
+      assertWithMessage(info.canonicalName())
+          .that(info.canonicalName())
+          .isEqualTo(BugCheckerInfo.canonicalName(checker.getSimpleName(), pattern));
+      assertWithMessage(info.canonicalName())
+          .that(info.allNames())
+          .containsExactlyElementsIn(
+              ImmutableSet.builder()
+                  .add(info.canonicalName())
+                  .addAll(Arrays.asList(pattern.altNames()))
+                  .build());
+      assertWithMessage(info.canonicalName()).that(info.message()).isEqualTo(pattern.summary());
+      assertWithMessage(info.canonicalName())
+          .that(info.defaultSeverity())
+          .isEqualTo(pattern.severity());
+      assertWithMessage(info.canonicalName())
+          .that(info.supportsSuppressWarnings())
+          .isEqualTo(
+              Arrays.asList(pattern.suppressionAnnotations()).contains(SuppressWarnings.class));
+      assertWithMessage(info.canonicalName())
+          .that(info.customSuppressionAnnotations())
+          .containsExactlyElementsIn(
+              Arrays.stream(pattern.suppressionAnnotations())
+                  .filter(a -> !a.equals(SuppressWarnings.class))
+                  .toList());
+      assertWithMessage(info.canonicalName())
+          .that(info.getTags())
+          .containsExactlyElementsIn(pattern.tags());
+      assertWithMessage(info.canonicalName())
+          .that(info.disableable())
+          .isEqualTo(pattern.disableable());
+      assertWithMessage(info.canonicalName())
+          .that(info.cacheSafe())
+          .isEqualTo(pattern.cacheSafe());
+    }
+  }
+
+  @Test
+  public void injectorUsesFactory() {
+    ErrorProneInjector injector =
+        ErrorProneInjector.create().addBinding(ErrorProneFlags.class, ErrorProneFlags.empty());
+    for (BugCheckerInfo check : BuiltInCheckerSuppliers.allChecks().getAllChecks().values()) {
+      if (BugCheckerRegistry.factory(check.checkerClass()) != null) {
+        assertThat(injector.getInstance(check.checkerClass())).isInstanceOf(check.checkerClass());
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
+import static com.google.errorprone.matchers.Description.NO_MATCH;
+
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.AnnotationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.ImportTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.AnnotationTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.MethodTree;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for the subtree pruning in {@link ErrorProneScanner}. */
+@RunWith(JUnit4.class)
+public class ErrorProneScannerTest {
+
+  @Test
+  public void methodMatcher_visitsMethodsNestedInBodies() {
+    CompilationTestHelper.newInstance(MethodNamedBad.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            import java.util.function.Supplier;
+
+            class Test {
+              // BUG: Diagnostic contains: MethodNamedBad
+              void bad() {}
+
+              void f() {
+                Runnable r =
+                    new Runnable() {
+                      @Override
+                      public void run() {}
+
+                      // BUG: Diagnostic contains: MethodNamedBad
+                      void bad() {}
+                    };
+                Supplier<Object> s =
+                    () -> {
+                      class Local {
+                        // BUG: Diagnostic contains: MethodNamedBad
+                        void bad() {}
+                      }
+                      return new Local();
+                    };
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void annotationMatcher_visitsAnnotationsInTypesAndModifiers() {
+    CompilationTestHelper.newInstance(AnyAnnotation.class, getClass())
+        .addSourceLines(
+            "A.java",
+            """
+            import java.lang.annotation.ElementType;
+            import java.lang.annotation.Target;
+
+            // BUG: Diagnostic contains: AnyAnnotation
+            @Target({ElementType.TYPE_USE, ElementType.LOCAL_VARIABLE})
+            @interface A {}
+            """)
+        .addSourceLines(
+            "Test.java",
+            """
+            import java.util.List;
+
+            class Test {
+              // BUG: Diagnostic contains: AnyAnnotation
+              List<@A String> xs;
+
+              void f() {
+                // BUG: Diagnostic contains: AnyAnnotation
+                @A int x = 1;
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void topLevelMatcher_stillSeesImports() {
+    CompilationTestHelper.newInstance(AnyImport.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            // BUG: Diagnostic contains: AnyImport
+            import java.util.List;
+
+            class Test {
+              List<String> xs;
+            }
+            """)
+        .doTest();
+  }
+
+  @BugPattern(summary = "Methods should not be named bad.", severity = ERROR)
+  public static class MethodNamedBad extends BugChecker implements MethodTreeMatcher {
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      return tree.getName().contentEquals("bad") ? describeMatch(tree) : NO_MATCH;
+    }
+  }
+
+  @BugPattern(summary = "Flags every annotation.", severity = ERROR)
+  public static class AnyAnnotation extends BugChecker implements AnnotationTreeMatcher {
+    @Override
+    public Description matchAnnotation(AnnotationTree tree, VisitorState state) {
+      return describeMatch(tree);
+    }
+  }
+
+  @BugPattern(summary = "Flags every import.", severity = ERROR)
+  public static class AnyImport extends BugChecker implements ImportTreeMatcher {
+    @Override
+    public Description matchImport(ImportTree tree, VisitorState state) {
+      return describeMatch(tree);
+    }
+  }
+}
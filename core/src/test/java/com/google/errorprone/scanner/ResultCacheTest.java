@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.scanner;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
+import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
+import static com.google.errorprone.matchers.Description.NO_MATCH;
+import static com.google.errorprone.util.ASTHelpers.getSymbol;
+import static java.util.Locale.ENGLISH;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.errorprone.BaseErrorProneJavaCompiler;
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.fixes.SuggestedFix;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodInvocationTree;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link ResultCache}Test */
+@RunWith(JUnit4.class)
+public class ResultCacheTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /** Flags calls to methods named {@code bad}, and records the files it has looked at. */
+  @BugPattern(summary = "Calls bad", severity = ERROR, cacheSafe = true)
+  public static class CallsBad extends BugChecker
+      implements CompilationUnitTreeMatcher, MethodInvocationTreeMatcher {
+    static final Set<String> scanned = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      scanned.add(Path.of(tree.getSourceFile().getName()).getFileName().toString());
+      return NO_MATCH;
+    }
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      if (!getSymbol(tree).getSimpleName().contentEquals("bad")) {
+        return NO_MATCH;
+      }
+      return describeMatch(tree, SuggestedFix.replace(tree, "Lib.good()"));
+    }
+  }
+
+  /** Flags every class, and counts the classes it has looked at. */
+  @BugPattern(summary = "A class", severity = WARNING)
+  public static class AClass extends BugChecker implements ClassTreeMatcher {
+    static final AtomicInteger matched = new AtomicInteger();
+
+    @Override
+    public Description matchClass(ClassTree tree, VisitorState state) {
+      matched.incrementAndGet();
+      return describeMatch(tree);
+    }
+  }
+
+  /**
+   * Flags the last member of the last class of each file, before the checks that match the trees
+   * that come first.
+   */
+  @BugPattern(summary = "The last member", severity = WARNING, cacheSafe = true)
+  public static class LastMember extends BugChecker implements CompilationUnitTreeMatcher {
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      ClassTree last = (ClassTree) Iterables.getLast(tree.getTypeDecls());
+      return describeMatch(Iterables.getLast(last.getMembers()));
+    }
+  }
+
+  private Path cache;
+  private Path lib;
+  private Path test;
+
+  @Before
+  public void setUp() throws IOException {
+    cache = temporaryFolder.newFolder("cache").toPath();
+    Path sources = temporaryFolder.newFolder("src").toPath();
+    lib = sources.resolve("Lib.java");
+    Files.writeString(
+        lib,
+        """
+        class Lib {
+          static void bad() {}
+
+          static void good() {}
+        }
+        """);
+    test = sources.resolve("Test.java");
+    Files.writeString(
+        test,
+        """
+        class Test {
+          void f() {
+            Lib.bad();
+          }
+        }
+        """);
+  }
+
+  @Test
+  public void replaysCachedFindings() throws IOException {
+    ImmutableList<String> first = compile();
+    assertThat(first).hasSize(3);
+    assertThat(first.get(0)).contains("[AClass]");
+    assertThat(first.get(1)).contains("[AClass]");
+    assertThat(first.get(2)).contains("[CallsBad]");
+    assertThat(first.get(2)).contains("Did you mean 'Lib.good();'?");
+    assertThat(CallsBad.scanned).containsExactly("Lib.java", "Test.java");
+    try (Stream<Path> entries = Files.walk(cache)) {
+      assertThat(entries.filter(Files::isRegularFile).count()).isEqualTo(2);
+    }
+
+    assertThat(compile()).containsExactlyElementsIn(first).inOrder();
+    assertThat(CallsBad.scanned).isEmpty();
+    assertThat(AClass.matched.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void replaysInOriginalOrder() throws IOException {
+    ScannerSupplier checks =
+        ScannerSupplier.fromBugCheckerClasses(LastMember.class, CallsBad.class, AClass.class);
+    ImmutableList<String> uncached = compile(checks, /* useCache= */ false);
+    assertThat(uncached).hasSize(5);
+    assertThat(uncached.get(2)).contains("[LastMember]");
+    assertThat(uncached.get(3)).contains("[AClass]");
+
+    assertThat(compile(checks, /* useCache= */ true)).containsExactlyElementsIn(uncached).inOrder();
+    assertThat(compile(checks, /* useCache= */ true)).containsExactlyElementsIn(uncached).inOrder();
+    assertThat(CallsBad.scanned).isEmpty();
+  }
+
+  @Test
+  public void changedSource() throws IOException {
+    var unused = compile();
+    Files.writeString(
+        test,
+        """
+        class Test {
+          void f() {
+            Lib.good();
+          }
+        }
+        """);
+    ImmutableList<String> diagnostics = compile();
+    assertThat(diagnostics).hasSize(2);
+    assertThat(diagnostics.stream().noneMatch(d -> d.contains("[CallsBad]"))).isTrue();
+    assertThat(CallsBad.scanned).containsExactly("Test.java");
+  }
+
+  @Test
+  public void changedDeclaration() throws IOException {
+    var unused = compile();
+    Files.writeString(
+        lib,
+        """
+        class Lib {
+          static int bad() {
+            return 0;
+          }
+
+          static void good() {}
+        }
+        """);
+    ImmutableList<String> diagnostics = compile();
+    assertThat(diagnostics.stream().filter(d -> d.contains("[CallsBad]")).count()).isEqualTo(1);
+    // Test.java refers to Lib.bad, so its findings are computed again.
+    assertThat(CallsBad.scanned).containsExactly("Lib.java", "Test.java");
+  }
+
+  @Test
+  public void changedSeverity() throws IOException {
+    var unused = compile();
+    ImmutableList<String> diagnostics = compile("-Xep:CallsBad:WARNING");
+    assertThat(diagnostics.stream().filter(d -> d.contains("[CallsBad]")).count()).isEqualTo(1);
+    assertThat(CallsBad.scanned).containsExactly("Lib.java", "Test.java");
+  }
+
+  /** Compiles {@link #lib} and {@link #test}, and returns the messages of the diagnostics. */
+  private ImmutableList<String> compile(String... options) throws IOException {
+    return compile(
+        ScannerSupplier.fromBugCheckerClasses(CallsBad.class, AClass.class),
+        /* useCache= */ true,
+        options);
+  }
+
+  private ImmutableList<String> compile(
+      ScannerSupplier checks, boolean useCache, String... options) throws IOException {
+    CallsBad.scanned.clear();
+    AClass.matched.set(0);
+    BaseErrorProneJavaCompiler compiler = new BaseErrorProneJavaCompiler(checks);
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, ENGLISH, null)) {
+      CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              diagnostics,
+              ImmutableList.<String>builder()
+                  .addAll(
+                      useCache ? ImmutableList.of("-XepResultCache:" + cache) : ImmutableList.of())
+                  .add("-d", temporaryFolder.newFolder().getPath())
+                  .add(options)
+                  .build(),
+              null,
+              fileManager.getJavaFileObjects(lib, test));
+      var unused = task.call();
+    }
+    return diagnostics.getDiagnostics().stream()
+        .map(d -> d.getSource().getName() + ": " + d.getMessage(ENGLISH))
+        .collect(toImmutableList());
+  }
+}
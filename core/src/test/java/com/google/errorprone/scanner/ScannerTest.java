@@ -87,6 +87,35 @@ public class ScannerTest {
         .doTest();
   }
 
+  @Test
+  public void suppressionEndsWithDeclaration() {
+    compilationHelper
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.scanner.ScannerTest.Foo;
+            import com.google.errorprone.scanner.ScannerTest.OkToUseFoo;
+
+            class Test {
+              @OkToUseFoo
+              void f() {
+                Foo foo;
+              }
+
+              @SuppressWarnings("ShouldNotUseFoo")
+              void g() {
+                Foo foo;
+              }
+
+              void h() {
+                // BUG: Diagnostic contains: ShouldNotUseFoo
+                Foo foo;
+              }
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void suppressionAnnotationIgnoredWithOptions() {
     compilationHelper
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.stream.Collectors.joining;
+
+import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor which generates a {@code BugCheckerRegistry.Provider} for the checkers in
+ * each package, holding the metadata from their {@code BugPattern} annotations and a factory for
+ * each, so that Error Prone can create its scanner without reflection.
+ *
+ * <p>The constructor a factory calls is the one {@code ErrorProneInjector} would choose. A checker
+ * whose metadata or constructor can't be referred to from its own package is registered without
+ * it, and Error Prone falls back to reflection for that part.
+ */
+@AutoService(Processor.class)
+@SupportedAnnotationTypes("com.google.errorprone.BugPattern")
+public class BugCheckerRegistryProcessor extends AbstractProcessor {
+
+  private static final String BUG_CHECKER = "com.google.errorprone.bugpatterns.BugChecker";
+  private static final String ERROR_PRONE_FLAGS = "com.google.errorprone.ErrorProneFlags";
+  private static final String REGISTRY = "com.google.errorprone.scanner.BugCheckerRegistry";
+  private static final String PROVIDER = REGISTRY + "$Provider";
+
+  /** The number of checkers registered by each method of a provider, to keep them small. */
+  private static final int CHECKERS_PER_METHOD = 50;
+
+  /** The providers generated so far, to list in {@code META-INF/services}. */
+  private final Set<String> providers = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latest();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement bugChecker = processingEnv.getElementUtils().getTypeElement(BUG_CHECKER);
+    if (bugChecker != null) {
+      Map<PackageElement, List<TypeElement>> checkers = new LinkedHashMap<>();
+      for (TypeElement element :
+          ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(BugPattern.class))) {
+        if (isRegistrable(element, bugChecker)) {
+          checkers
+              .computeIfAbsent(
+                  processingEnv.getElementUtils().getPackageOf(element), p -> new ArrayList<>())
+              .add(element);
+        }
+      }
+      checkers.forEach(this::writeProvider);
+    }
+    if (roundEnv.processingOver() && !providers.isEmpty()) {
+      try {
+        FileObject services =
+            processingEnv
+                .getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + PROVIDER);
+        try (PrintWriter pw = new PrintWriter(services.openWriter())) {
+          providers.forEach(pw::println);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return false;
+  }
+
+  /** Whether {@code element} is a concrete checker that its package can refer to. */
+  private boolean isRegistrable(TypeElement element, TypeElement bugChecker) {
+    return element.getKind() == ElementKind.CLASS
+        && !element.getModifiers().contains(Modifier.ABSTRACT)
+        && element.getTypeParameters().isEmpty()
+        && isAccessibleFromOwnPackage(element)
+        && processingEnv
+            .getTypeUtils()
+            .isSubtype(
+                processingEnv.getTypeUtils().erasure(element.asType()),
+                processingEnv.getTypeUtils().erasure(bugChecker.asType()));
+  }
+
+  private void writeProvider(PackageElement pkg, List<TypeElement> checkers) {
+    ImmutableList<TypeElement> sorted =
+        checkers.stream()
+            .sorted(Comparator.comparing(c -> c.getQualifiedName().toString()))
+            .collect(toImmutableList());
+    // Checkers in the same package may be compiled separately, e.g. as main and test sources, so
+    // the name of the provider depends on which checkers it registers.
+    String simpleName =
+        "BugCheckers_"
+            + Integer.toHexString(
+                sorted.stream()
+                    .map(c -> c.getQualifiedName().toString())
+                    .collect(joining(","))
+                    .hashCode());
+    String name = pkg.isUnnamed() ? simpleName : pkg.getQualifiedName() + "." + simpleName;
+    try (Writer writer =
+        processingEnv
+            .getFiler()
+            .createSourceFile(name, sorted.toArray(new Element[0]))
+            .openWriter()) {
+      if (!pkg.isUnnamed()) {
+        writer.write("package " + pkg.getQualifiedName() + ";\n\n");
+      }
+      writer.write(
+          "@javax.annotation.processing.Generated(\""
+              + BugCheckerRegistryProcessor.class.getName()
+              + "\")\n");
+      writer.write(
+          "public final class " + simpleName + " implements " + REGISTRY + ".Provider {\n");
+      List<List<TypeElement>> chunks = Lists.partition(sorted, CHECKERS_PER_METHOD);
+      writer.write("  @Override\n");
+      writer.write("  public void register(" + REGISTRY + ".Registrar registrar) {\n");
+      for (int i = 0; i < chunks.size(); i++) {
+        writer.write("    register" + i + "(registrar);\n");
+      }
+      writer.write("  }\n");
+      for (int i = 0; i < chunks.size(); i++) {
+        writer.write(
+            "\n  private static void register" + i + "(" + REGISTRY + ".Registrar registrar) {\n");
+        for (TypeElement checker : chunks.get(i)) {
+          writer.write("    registrar.register(\n");
+          writer.write("        " + checker.getQualifiedName() + ".class,\n");
+          writer.write("        " + info(checker, pkg) + ",\n");
+          writer.write("        " + factory(checker, pkg) + ");\n");
+        }
+        writer.write("  }\n");
+      }
+      writer.write("}\n");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    providers.add(name);
+  }
+
+  /** Returns an expression for the {@code BugCheckerInfo} of {@code checker}, or {@code null}. */
+  private String info(TypeElement checker, PackageElement pkg) {
+    BugPattern pattern = checker.getAnnotation(BugPattern.class);
+    try {
+      BugPatternValidator.validate(pattern);
+    } catch (ValidationException e) {
+      // Leave reporting the problem to the runtime, as for checkers that aren't registered.
+      return "null";
+    }
+    List<TypeElement> suppressionAnnotations = suppressionAnnotations(checker);
+    if (!suppressionAnnotations.stream().allMatch(a -> isAccessible(a, pkg))) {
+      return "null";
+    }
+    Elements elements = processingEnv.getElementUtils();
+    return Stream.of(
+            checker.getQualifiedName() + ".class",
+            elements.getConstantExpression(pattern.name()),
+            stringArray(pattern.altNames()),
+            elements.getConstantExpression(pattern.summary()),
+            "com.google.errorprone.BugPattern.SeverityLevel." + pattern.severity().name(),
+            "com.google.errorprone.BugPattern.LinkType." + pattern.linkType().name(),
+            elements.getConstantExpression(pattern.link()),
+            suppressionAnnotations.stream()
+                .map(a -> a.getQualifiedName() + ".class")
+                .collect(joining(", ", "java.util.List.of(", ")")),
+            stringArray(pattern.tags()),
+            Boolean.toString(pattern.disableable()),
+            Boolean.toString(pattern.cacheSafe()))
+        .collect(joining(", ", "com.google.errorprone.BugCheckerInfo.fromAttributes(", ")"));
+  }
+
+  private String stringArray(String[] values) {
+    Elements elements = processingEnv.getElementUtils();
+    return Arrays.stream(values)
+        .map(elements::getConstantExpression)
+        .collect(joining(", ", "new String[] {", "}"));
+  }
+
+  /** Returns the types in the {@code suppressionAnnotations} of the checker's annotation. */
+  private List<TypeElement> suppressionAnnotations(TypeElement checker) {
+    for (AnnotationMirror mirror :
+        processingEnv.getElementUtils().getAllAnnotationMirrors(checker)) {
+      TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+      if (!annotation.getQualifiedName().contentEquals(BugPattern.class.getName())) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+          processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals("suppressionAnnotations")) {
+          @SuppressWarnings("unchecked") // the value of a Class[] element
+          List<? extends AnnotationValue> values =
+              (List<? extends AnnotationValue>) entry.getValue().getValue();
+          return values.stream()
+              .map(v -> (TypeElement) ((DeclaredType) v.getValue()).asElement())
+              .collect(toImmutableList());
+        }
+      }
+    }
+    throw new IllegalArgumentException(checker + " has no @BugPattern");
+  }
+
+  /**
+   * Returns a lambda that creates {@code checker}, or {@code null}. The constructor is chosen as in
+   * {@code ErrorProneInjector.findConstructor}.
+   */
+  private String factory(TypeElement checker, PackageElement pkg) {
+    List<ExecutableElement> constructors =
+        ElementFilter.constructorsIn(checker.getEnclosedElements());
+    Optional<ExecutableElement> constructor =
+        findConstructor(
+                constructors,
+                c ->
+                    c.getAnnotationMirrors().stream()
+                        .anyMatch(
+                            a ->
+                                a.getAnnotationType()
+                                    .asElement()
+                                    .getSimpleName()
+                                    .contentEquals("Inject")))
+            .or(
+                () ->
+                    findConstructor(
+                        constructors,
+                        c ->
+                            !c.getParameters().isEmpty()
+                                && c.getParameters().stream()
+                                    .allMatch(p -> isType(p.asType(), ERROR_PRONE_FLAGS))))
+            .or(() -> findConstructor(constructors, c -> c.getParameters().isEmpty()));
+    if (constructor.isEmpty()
+        || constructor.get().getModifiers().contains(Modifier.PRIVATE)
+        || !constructor.get().getThrownTypes().isEmpty()) {
+      return "null";
+    }
+    List<String> arguments = new ArrayList<>();
+    for (VariableElement parameter : constructor.get().getParameters()) {
+      TypeMirror type = parameter.asType();
+      if (type.getKind() != TypeKind.DECLARED
+          || !((DeclaredType) type).getTypeArguments().isEmpty()
+          || !isAccessible((TypeElement) ((DeclaredType) type).asElement(), pkg)) {
+        return "null";
+      }
+      arguments.add(
+          "dependencies.get("
+              + ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName()
+              + ".class)");
+    }
+    return "dependencies -> new "
+        + checker.getQualifiedName()
+        + arguments.stream().collect(joining(", ", "(", ")"));
+  }
+
+  private static Optional<ExecutableElement> findConstructor(
+      List<ExecutableElement> constructors, Predicate<ExecutableElement> predicate) {
+    return constructors.stream().filter(predicate).findFirst();
+  }
+
+  private static boolean isType(TypeMirror type, String name) {
+    return type.getKind() == TypeKind.DECLARED
+        && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(name);
+  }
+
+  /** Whether code in the package of {@code type} can refer to it, and create it if it's a class. */
+  private static boolean isAccessibleFromOwnPackage(TypeElement type) {
+    for (Element e = type; e instanceof TypeElement t; e = e.getEnclosingElement()) {
+      if (t.getModifiers().contains(Modifier.PRIVATE)
+          || (t.getNestingKind() != NestingKind.TOP_LEVEL
+              && (t.getNestingKind() != NestingKind.MEMBER
+                  || !t.getModifiers().contains(Modifier.STATIC)))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Whether code in {@code pkg} can refer to {@code type}. */
+  private boolean isAccessible(TypeElement type, PackageElement pkg) {
+    if (processingEnv.getElementUtils().getPackageOf(type).equals(pkg)) {
+      return isAccessibleFromOwnPackage(type);
+    }
+    for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -425,8 +425,9 @@ public final class BugCheckerRefactoringTestHelper {
               new TreePath(tree),
               context,
               description -> {
-                if (!description.fixes.isEmpty()) {
-                  diff.handleFix(description, fixChooser.choose(description.fixes));
+                ImmutableList<Fix> fixes = description.getFixes();
+                if (!fixes.isEmpty()) {
+                  diff.handleFix(description, fixChooser.choose(fixes));
                 }
               });
     } catch (ErrorProneError e) {